@@ -0,0 +1,11 @@
+package com.wallet.accrual;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling   // daily accrual run
+@EnableConfigurationProperties(AccrualProperties.class)
+public class AccrualConfig {
+}
@@ -0,0 +1,362 @@
+package com.wallet.accrual;
+
+import com.wallet.event.WalletEvent;
+import com.wallet.id.IdStrategy;
+import com.wallet.id.UuidV7;
+import com.wallet.model.AccrualPartition;
+import com.wallet.model.Transaction;
+import com.wallet.model.Wallet;
+import com.wallet.payload.TransactionDTO;
+import com.wallet.payload.WalletDTO;
+import com.wallet.sharding.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Applies daily interest and maintenance fees to all ACTIVE wallets.
+ * <p>
+ * The wallet ID space of each shard is cut into {@code partitions} ranges holding
+ * about the same number of wallets, processed in parallel. Each partition is walked
+ * in keyset-paginated chunks; one chunk is one transaction that locks its ACTIVE
+ * wallets, inserts the INTEREST / FEE ledger rows and updates their balances in two
+ * batches and advances the partition checkpoint. FROZEN and CLOSED wallets are never
+ * selected.
+ * <p>
+ * Each ledger row advances the wallet version by one and publishes its own
+ * {@link WalletEvent} after commit, so caches, history, rollups and the audit log see
+ * accruals the same way as any other posting.
+ * <p>
+ * Restartable and idempotent per business date: a rerun resumes from the checkpoints
+ * and does nothing for finished partitions, and the reference IDs of the ledger rows
+ * ({@code ACCRUAL_INT_<date>_<wallet>}) are unique, so a wallet can never be
+ * accrued twice for the same date. Workers pause between chunks to keep their
+ * share of database time under {@code max-duty-cycle}.
+ */
+@Slf4j
+@Component
+public class AccrualEngine {
+
+    private static final UUID MIN_UUID = new UUID(0L, 0L);
+
+    private static final String SELECT_PARTITIONS =
+            "SELECT partition_no, upper_bound, last_wallet_id, lower_bound, status FROM accrual_partitions " +
+            "WHERE business_date = ? ORDER BY partition_no";
+
+    private static final String INSERT_PARTITION =
+            "INSERT INTO accrual_partitions (id, business_date, partition_no, lower_bound, upper_bound, " +
+            "last_wallet_id, wallets_processed, status, updated_at) VALUES (?, ?, ?, ?, ?, NULL, 0, 'PENDING', ?)";
+
+    private static final String BOUNDARY =
+            "SELECT id FROM wallets ORDER BY id OFFSET ? ROWS FETCH NEXT 1 ROWS ONLY";
+
+    private static final String WALLET_COLUMNS =
+            "id, user_id, balance, currency, status, created_at, updated_at, version";
+
+    private static final String LOCK_CHUNK =
+            "SELECT " + WALLET_COLUMNS + " FROM wallets WHERE id > ? AND status = 'ACTIVE' ORDER BY id " +
+            "FETCH FIRST ? ROWS ONLY FOR UPDATE";
+
+    private static final String LOCK_CHUNK_BOUNDED =
+            "SELECT " + WALLET_COLUMNS + " FROM wallets WHERE id > ? AND id <= ? AND status = 'ACTIVE' ORDER BY id " +
+            "FETCH FIRST ? ROWS ONLY FOR UPDATE";
+
+    /** One version step per ledger row, as if each had been posted on its own. */
+    private static final String APPLY =
+            "UPDATE wallets SET balance = ?, version = version + ?, updated_at = ? WHERE id = ?";
+
+    private static final RowMapper<Wallet> WALLET_ROW = (rs, rowNum) -> Wallet.builder()
+            .id(rs.getObject("id", UUID.class))
+            .userId(rs.getObject("user_id", UUID.class))
+            .balance(rs.getBigDecimal("balance"))
+            .currency(rs.getString("currency"))
+            .status(Wallet.WalletStatus.valueOf(rs.getString("status")))
+            .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+            .updatedAt(rs.getTimestamp("updated_at").toLocalDateTime())
+            .version(rs.getLong("version"))
+            .build();
+
+    private static final String INSERT_TRANSACTION =
+            "INSERT INTO transactions (id, wallet_id, type, amount, balance_after, reference_id, remarks, timestamp) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String CHECKPOINT =
+            "UPDATE accrual_partitions SET last_wallet_id = ?, wallets_processed = wallets_processed + ?, " +
+            "status = ?, updated_at = ? WHERE business_date = ? AND partition_no = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AccrualProperties properties;
+    private final IdStrategy idStrategy;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public AccrualEngine(JdbcTemplate jdbcTemplate,
+                         TransactionTemplate transactionTemplate,
+                         ShardRouter shardRouter,
+                         ApplicationEventPublisher eventPublisher,
+                         AccrualProperties properties,
+                         @Value("${spring.jpa.properties." + IdStrategy.PROPERTY + ":}") String idStrategy) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+        this.idStrategy = IdStrategy.fromProperty(idStrategy);
+    }
+
+    @Scheduled(cron = "${wallet.accrual.cron:0 5 0 * * *}")
+    public void runScheduled() {
+        if (properties.isEnabled()) {
+            run(LocalDate.now());
+        }
+    }
+
+    /**
+     * Accrues the given business date on every shard, resuming an interrupted run.
+     *
+     * @return number of wallets accrued by this call
+     * @throws IllegalStateException if a run is already in progress in this instance
+     */
+    public long run(LocalDate businessDate) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("An accrual run is already in progress");
+        }
+        ExecutorService workers = Executors.newFixedThreadPool(
+                Math.max(1, properties.getPartitions() * shardRouter.getShardCount()), workerThreads());
+        try {
+            long started = System.nanoTime();
+            List<Future<Long>> results = new ArrayList<>();
+            for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+                int s = shard;
+                for (AccrualPartition partition : shardRouter.onShard(s, () -> partitions(businessDate))) {
+                    if (partition.getStatus() != AccrualPartition.Status.DONE) {
+                        results.add(workers.submit(() -> shardRouter.onShard(s, () -> process(partition))));
+                    }
+                }
+            }
+
+            long accrued = 0;
+            for (Future<Long> result : results) {
+                accrued += result.get();
+            }
+            log.info("Accrual for {} applied to {} wallets in {} ms", businessDate, accrued,
+                    (System.nanoTime() - started) / 1_000_000);
+            return accrued;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Accrual for " + businessDate + " interrupted; rerun to resume", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Accrual for " + businessDate + " failed; rerun to resume", e.getCause());
+        } finally {
+            workers.shutdownNow();
+            running.set(false);
+        }
+    }
+
+    // -------------------------------------------------------------
+    // PARTITIONING
+    // -------------------------------------------------------------
+
+    /** Partitions of the date on the current shard, planned on first use. */
+    private List<AccrualPartition> partitions(LocalDate businessDate) {
+        List<AccrualPartition> existing = loadPartitions(businessDate);
+        if (!existing.isEmpty()) {
+            return existing;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> plan(businessDate));
+        } catch (DuplicateKeyException e) {
+            // planned concurrently by another instance
+        }
+        return loadPartitions(businessDate);
+    }
+
+    /** Cuts the ID space at every (count / partitions)-th wallet, so ranges hold similar numbers of wallets. */
+    private void plan(LocalDate businessDate) {
+        long wallets = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM wallets", Long.class);
+        int count = (int) Math.max(1, Math.min(properties.getPartitions(), wallets));
+
+        UUID lower = null;
+        for (int i = 0; i < count; i++) {
+            UUID upper = null;
+            if (i < count - 1) {
+                upper = jdbcTemplate.queryForObject(BOUNDARY, UUID.class, (wallets * (i + 1)) / count - 1);
+            }
+            jdbcTemplate.update(INSERT_PARTITION, UuidV7.next(), Date.valueOf(businessDate), i, lower, upper,
+                    Timestamp.valueOf(LocalDateTime.now()));
+            lower = upper;
+        }
+        log.info("Planned {} accrual partitions for {} over {} wallets", count, businessDate, wallets);
+    }
+
+    private List<AccrualPartition> loadPartitions(LocalDate businessDate) {
+        return jdbcTemplate.query(SELECT_PARTITIONS, (rs, rowNum) -> AccrualPartition.builder()
+                .businessDate(businessDate)
+                .partitionNo(rs.getInt(1))
+                .upperBound(rs.getObject(2, UUID.class))
+                .lastWalletId(rs.getObject(3, UUID.class))
+                .lowerBound(rs.getObject(4, UUID.class))
+                .status(AccrualPartition.Status.valueOf(rs.getString(5)))
+                .build(), Date.valueOf(businessDate));
+    }
+
+    // -------------------------------------------------------------
+    // CHUNK PROCESSING
+    // -------------------------------------------------------------
+
+    /** Walks one partition from its checkpoint to its end; returns the number of wallets accrued. */
+    private long process(AccrualPartition partition) {
+        UUID last = partition.getLastWalletId() != null ? partition.getLastWalletId()
+                : partition.getLowerBound() != null ? partition.getLowerBound() : MIN_UUID;
+        long accrued = 0;
+        boolean done = false;
+        try {
+            while (!done) {
+                long started = System.nanoTime();
+                UUID from = last;
+                List<UUID> chunk = transactionTemplate.execute(status -> applyChunk(partition, from));
+
+                done = chunk.size() < properties.getChunkSize();
+                if (!chunk.isEmpty()) {
+                    last = chunk.get(chunk.size() - 1);
+                    accrued += chunk.size();
+                }
+                throttle(System.nanoTime() - started);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Accrual partition {} of {} interrupted after {} wallets",
+                    partition.getPartitionNo(), partition.getBusinessDate(), accrued);
+        }
+        return accrued;
+    }
+
+    /** Accrues the next chunk after {@code from}; returns the IDs of the wallets accrued. */
+    private List<UUID> applyChunk(AccrualPartition partition, UUID from) {
+        int chunkSize = properties.getChunkSize();
+        List<Wallet> wallets = partition.getUpperBound() == null
+                ? jdbcTemplate.query(LOCK_CHUNK, WALLET_ROW, from, chunkSize)
+                : jdbcTemplate.query(LOCK_CHUNK_BOUNDED, WALLET_ROW, from, partition.getUpperBound(), chunkSize);
+
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp timestamp = Timestamp.valueOf(now);
+        List<UUID> ids = new ArrayList<>(wallets.size());
+        List<Object[]> ledger = new ArrayList<>(wallets.size() * 2);
+        List<Object[]> updates = new ArrayList<>(wallets.size());
+        List<WalletEvent> events = new ArrayList<>(wallets.size() * 2);
+        for (Wallet wallet : wallets) {
+            ids.add(wallet.getId());
+            BigDecimal interest = interest(wallet.getBalance());
+            BigDecimal fee = fee(wallet.getBalance().add(interest));
+            int steps = 0;
+            if (interest.signum() > 0) {
+                Transaction posting = post(wallet, Transaction.TransactionType.INTEREST, interest, partition, now);
+                ledger.add(ledgerRow(posting, timestamp));
+                events.add(WalletEvent.transaction(WalletDTO.fromEntity(wallet), TransactionDTO.fromEntity(posting)));
+                steps++;
+            }
+            if (fee.signum() > 0) {
+                Transaction posting = post(wallet, Transaction.TransactionType.FEE, fee, partition, now);
+                ledger.add(ledgerRow(posting, timestamp));
+                events.add(WalletEvent.transaction(WalletDTO.fromEntity(wallet), TransactionDTO.fromEntity(posting)));
+                steps++;
+            }
+            if (steps > 0) {
+                updates.add(new Object[]{wallet.getBalance(), steps, timestamp, wallet.getId()});
+            }
+        }
+
+        if (!ledger.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_TRANSACTION, ledger);
+            jdbcTemplate.batchUpdate(APPLY, updates);
+        }
+
+        boolean finished = wallets.size() < chunkSize;
+        jdbcTemplate.update(CHECKPOINT, ids.isEmpty() ? from : ids.get(ids.size() - 1), ids.size(),
+                (finished ? AccrualPartition.Status.DONE : AccrualPartition.Status.PENDING).name(), timestamp,
+                Date.valueOf(partition.getBusinessDate()), partition.getPartitionNo());
+        events.forEach(eventPublisher::publishEvent);   // delivered after commit
+        return ids;
+    }
+
+    /** Applies one INTEREST or FEE posting to the locked wallet and returns its ledger row. */
+    private Transaction post(Wallet wallet, Transaction.TransactionType type, BigDecimal amount,
+                             AccrualPartition partition, LocalDateTime now) {
+        boolean interest = type == Transaction.TransactionType.INTEREST;
+        wallet.setBalance(interest ? wallet.getBalance().add(amount) : wallet.getBalance().subtract(amount));
+        wallet.setVersion(wallet.getVersion() + 1);
+        wallet.setUpdatedAt(now);
+        return Transaction.builder()
+                .id(idStrategy.next())
+                .wallet(wallet)
+                .type(type)
+                .amount(amount)
+                .balanceAfter(wallet.getBalance())
+                .referenceId((interest ? "ACCRUAL_INT_" : "ACCRUAL_FEE_") + partition.getBusinessDate()
+                        + "_" + wallet.getId())
+                .remarks("Daily " + (interest ? "interest" : "maintenance fee") + " for "
+                        + partition.getBusinessDate())
+                .timestamp(now)
+                .build();
+    }
+
+    private static Object[] ledgerRow(Transaction posting, Timestamp timestamp) {
+        return new Object[]{
+                posting.getId(), posting.getWallet().getId(), posting.getType().name(), posting.getAmount(),
+                posting.getBalanceAfter(), posting.getReferenceId(), posting.getRemarks(), timestamp
+        };
+    }
+
+    private BigDecimal interest(BigDecimal balance) {
+        return balance.max(BigDecimal.ZERO).multiply(properties.getDailyInterestRate()).setScale(4, RoundingMode.HALF_UP);
+    }
+
+    private BigDecimal fee(BigDecimal balanceWithInterest) {
+        return properties.getMaintenanceFee().min(balanceWithInterest.max(BigDecimal.ZERO));
+    }
+
+    /** Sleeps at least pause-ms, and long enough to keep the worker's duty cycle under the limit. */
+    private void throttle(long chunkNanos) throws InterruptedException {
+        double duty = Math.min(1.0, Math.max(0.01, properties.getMaxDutyCycle()));
+        long dutyPauseMs = (long) (chunkNanos / 1_000_000.0 * (1 - duty) / duty);
+        long pause = Math.max(properties.getPauseMs(), dutyPauseMs);
+        if (pause > 0) {
+            Thread.sleep(pause);
+        }
+    }
+
+    private static ThreadFactory workerThreads() {
+        AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "wallet-accrual-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
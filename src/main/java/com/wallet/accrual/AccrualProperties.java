@@ -0,0 +1,40 @@
+package com.wallet.accrual;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+
+/**
+ * Daily interest and maintenance fee batch ({@code wallet.accrual.*}).
+ */
+@Data
+@ConfigurationProperties(prefix = "wallet.accrual")
+public class AccrualProperties {
+
+    /** Runs the batch on the cron schedule; it can always be run manually. */
+    private boolean enabled = false;
+
+    private String cron = "0 5 0 * * *";
+
+    /** Interest credited per day, as a fraction of a positive balance. */
+    private BigDecimal dailyInterestRate = BigDecimal.ZERO;
+
+    /** Flat fee charged per day, capped at the balance so it never turns it negative. */
+    private BigDecimal maintenanceFee = BigDecimal.ZERO;
+
+    /** Number of ID-range partitions per shard, processed in parallel. */
+    private int partitions = 4;
+
+    /** Wallets updated per transaction. */
+    private int chunkSize = 1000;
+
+    /** Minimum pause between chunks of one partition. */
+    private long pauseMs = 20;
+
+    /**
+     * Fraction of time a partition worker may spend inside chunk transactions;
+     * after each chunk it sleeps long enough to stay under it.
+     */
+    private double maxDutyCycle = 0.5;
+}
@@ -0,0 +1,85 @@
+package com.wallet.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limit on concurrent requests that follows observed latency (AIMD).
+ * <p>
+ * By Little's law, requests in progress = throughput x latency. Once the
+ * database is saturated, admitting more requests no longer raises throughput;
+ * it only lengthens latency as requests queue for connections and row locks.
+ * So for every window of completed requests the average latency is compared
+ * with the no-load latency (the lowest window average, slowly forgotten so it
+ * can follow the system):
+ * <ul>
+ *   <li>above {@code latency-tolerance} times it, the limit is multiplied by
+ *       {@code backoff-ratio};</li>
+ *   <li>otherwise, if the window used at least half the limit, it grows by one.</li>
+ * </ul>
+ */
+final class AdaptiveConcurrencyLimit {
+
+    /** Per-window upward drift of the no-load latency. */
+    private static final double NO_LOAD_DRIFT = 0.02;
+
+    private final AdmissionProperties properties;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile int limit;
+
+    // window state, guarded by this
+    private int samples;
+    private long latencySum;
+    private int peakInFlight;
+    private double noLoadLatency = Double.NaN;
+
+    AdaptiveConcurrencyLimit(AdmissionProperties properties) {
+        this.properties = properties;
+        this.limit = Math.max(properties.getMinLimit(), Math.min(properties.getMaxLimit(), properties.getInitialLimit()));
+    }
+
+    boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void release(long latencyNanos) {
+        int before = inFlight.getAndDecrement();
+        record(latencyNanos, before);
+    }
+
+    int getLimit() {
+        return limit;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void record(long latencyNanos, int concurrency) {
+        samples++;
+        latencySum += latencyNanos;
+        peakInFlight = Math.max(peakInFlight, concurrency);
+        if (samples < properties.getWindowSamples()) {
+            return;
+        }
+
+        double average = (double) latencySum / samples;
+        noLoadLatency = Double.isNaN(noLoadLatency) ? average : Math.min(noLoadLatency * (1 + NO_LOAD_DRIFT), average);
+        if (average > noLoadLatency * properties.getLatencyTolerance()) {
+            limit = Math.max(properties.getMinLimit(), (int) (limit * properties.getBackoffRatio()));
+        } else if (peakInFlight * 2 >= limit) {
+            limit = Math.min(properties.getMaxLimit(), limit + 1);
+        }
+        samples = 0;
+        latencySum = 0;
+        peakInFlight = 0;
+    }
+}
@@ -0,0 +1,29 @@
+package com.wallet.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Admission control of wallet mutations ({@code wallet.admission.enabled}, on by
+ * default): {@link WalletAdmissionFilter} sheds load per wallet and globally.
+ */
+@Configuration
+@EnableConfigurationProperties(AdmissionProperties.class)
+@ConditionalOnProperty(prefix = "wallet.admission", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionConfig {
+
+    @Bean
+    public AdmissionGate admissionGate(AdmissionProperties properties, MeterRegistry meterRegistry) {
+        return new AdmissionGate(properties, meterRegistry);
+    }
+
+    @Bean
+    public WalletAdmissionFilter walletAdmissionFilter(AdmissionGate admissionGate, ObjectMapper objectMapper,
+                                                       AdmissionProperties properties) {
+        return new WalletAdmissionFilter(admissionGate, objectMapper, properties.getRetryAfterSeconds());
+    }
+}
@@ -0,0 +1,93 @@
+package com.wallet.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides whether a wallet mutation may start: every wallet it touches must be
+ * under {@code per-wallet-limit} mutations in progress, and all mutations under
+ * the adaptive global limit. Nothing waits; a request over a limit is rejected.
+ */
+public class AdmissionGate {
+
+    public enum Rejection {
+        /** A wallet of the request already has the maximum of mutations in progress. */
+        WALLET,
+        /** The service as a whole is at its concurrency limit. */
+        OVERLOADED
+    }
+
+    private final AdmissionProperties properties;
+    private final AdaptiveConcurrencyLimit globalLimit;
+    private final ConcurrentHashMap<UUID, Integer> inFlightByWallet = new ConcurrentHashMap<>();
+
+    private final Counter walletRejections;
+    private final Counter overloadRejections;
+
+    public AdmissionGate(AdmissionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.globalLimit = new AdaptiveConcurrencyLimit(properties);
+
+        Gauge.builder("wallet.admission.limit", globalLimit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Current adaptive limit on wallet mutations in progress")
+                .register(meterRegistry);
+        Gauge.builder("wallet.admission.in-flight", globalLimit, AdaptiveConcurrencyLimit::getInFlight)
+                .description("Wallet mutations in progress")
+                .register(meterRegistry);
+        this.walletRejections = Counter.builder("wallet.admission.rejected")
+                .tag("reason", "wallet")
+                .description("Mutations rejected because their wallet was busy")
+                .register(meterRegistry);
+        this.overloadRejections = Counter.builder("wallet.admission.rejected")
+                .tag("reason", "overloaded")
+                .description("Mutations rejected at the global concurrency limit")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Admits a mutation of the given wallets (possibly none).
+     *
+     * @return null if admitted, in which case {@link #release} must follow; otherwise the reason
+     */
+    public Rejection tryAcquire(List<UUID> walletIds) {
+        for (int i = 0; i < walletIds.size(); i++) {
+            if (inFlightByWallet.merge(walletIds.get(i), 1, Integer::sum) > properties.getPerWalletLimit()) {
+                releaseWallets(walletIds, i + 1);
+                walletRejections.increment();
+                return Rejection.WALLET;
+            }
+        }
+        if (!globalLimit.tryAcquire()) {
+            releaseWallets(walletIds, walletIds.size());
+            overloadRejections.increment();
+            return Rejection.OVERLOADED;
+        }
+        return null;
+    }
+
+    public void release(List<UUID> walletIds, long latencyNanos) {
+        globalLimit.release(latencyNanos);
+        releaseWallets(walletIds, walletIds.size());
+    }
+
+    public int getLimit() {
+        return globalLimit.getLimit();
+    }
+
+    /** Number of wallets with mutations in progress. */
+    int busyWallets() {
+        return inFlightByWallet.size();
+    }
+
+    private void releaseWallets(List<UUID> walletIds, int count) {
+        for (int i = 0; i < count; i++) {
+            // idle wallets are removed, so the map only holds wallets with requests in progress
+            inFlightByWallet.computeIfPresent(walletIds.get(i), (id, n) -> n == 1 ? null : n - 1);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.wallet.admission;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Admission control of wallet mutations on the API ({@code wallet.admission.*}).
+ */
+@Data
+@ConfigurationProperties(prefix = "wallet.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+
+    /** Mutations of one wallet in progress at a time; keep it well below the connection pool size. */
+    private int perWalletLimit = 4;
+
+    /** Starting value of the adaptive limit on all mutations in progress. */
+    private int initialLimit = 20;
+
+    private int minLimit = 4;
+
+    private int maxLimit = 200;
+
+    /** Completed requests per adjustment of the limit. */
+    private int windowSamples = 100;
+
+    /** Latency above this multiple of the no-load latency counts as queueing and shrinks the limit. */
+    private double latencyTolerance = 2.0;
+
+    /** Factor applied to the limit when queueing is detected. */
+    private double backoffRatio = 0.9;
+
+    /** Sent as Retry-After on rejected requests. */
+    private int retryAfterSeconds = 1;
+}
@@ -0,0 +1,101 @@
+package com.wallet.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.web.CachedBodyRequest;
+import com.wallet.web.WalletRequests;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Admission control in front of the wallet mutation endpoints: creation, deposit,
+ * withdrawal, freeze/unfreeze, transfer and reversal pass through {@link AdmissionGate}
+ * and are answered 429 with Retry-After when over a limit, before any database
+ * connection or wallet lock is taken. Reads, batch lookups and bulk imports are
+ * not limited.
+ * <p>
+ * Runs ahead of the cluster ownership filter, so requests waiting for a
+ * forwarded response or an in-memory wallet lock are counted too.
+ */
+public class WalletAdmissionFilter extends OncePerRequestFilter implements Ordered {
+
+    private static final String ROOT = "/api/wallets";
+    private static final String PREFIX = ROOT + "/";
+    private static final Set<String> WALLET_MUTATIONS = Set.of("deposit", "withdraw", "freeze", "unfreeze");
+
+    private final AdmissionGate gate;
+    private final ObjectMapper objectMapper;
+    private final int retryAfterSeconds;
+
+    public WalletAdmissionFilter(AdmissionGate gate, ObjectMapper objectMapper, int retryAfterSeconds) {
+        this.gate = gate;
+        this.objectMapper = objectMapper;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 100;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || !WalletRequests.path(request).startsWith(ROOT);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        String path = WalletRequests.path(request);
+        List<UUID> walletIds;
+        if (path.equals(ROOT)) {
+            walletIds = List.of();   // creation
+        } else if (path.equals(PREFIX + "transfer")) {
+            byte[] body = request.getInputStream().readAllBytes();
+            request = new CachedBodyRequest(request, body);
+            walletIds = WalletRequests.transferWallets(objectMapper, body);
+        } else {
+            String[] segments = path.substring(PREFIX.length()).split("/");
+            UUID walletId = segments.length == 2 && WALLET_MUTATIONS.contains(segments[1])
+                    ? WalletRequests.parseUuid(segments[0]) : null;
+            if (walletId != null) {
+                walletIds = List.of(walletId);
+            } else if (segments.length == 3 && segments[0].equals("transactions") && segments[2].equals("reverse")) {
+                walletIds = List.of();
+            } else {
+                chain.doFilter(request, response);
+                return;
+            }
+        }
+
+        AdmissionGate.Rejection rejection = gate.tryAcquire(walletIds);
+        if (rejection != null) {
+            reject(response, rejection);
+            return;
+        }
+        long started = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            gate.release(walletIds, System.nanoTime() - started);
+        }
+    }
+
+    private void reject(HttpServletResponse response, AdmissionGate.Rejection rejection) throws IOException {
+        WalletRequests.reject(response, objectMapper, HttpStatus.TOO_MANY_REQUESTS,
+                rejection == AdmissionGate.Rejection.WALLET
+                        ? "Too many concurrent operations on this wallet, retry later"
+                        : "Service is at capacity, retry later",
+                retryAfterSeconds);
+    }
+}
@@ -0,0 +1,130 @@
+package com.wallet.archive;
+
+import com.wallet.payload.TransactionDTO;
+import com.wallet.sharding.ShardContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Segments in place per shard, newest period first. The segments of the shard
+ * selected by {@link ShardContext} are the cold tier of every ledger read on
+ * that shard.
+ * <p>
+ * A segment is visible from the moment it is published: reads then take the
+ * hot rows only from its period end onwards (see {@link #floor()}), so hot rows
+ * still awaiting deletion are never returned twice.
+ */
+@Slf4j
+@Component
+public class ArchiveCatalog {
+
+    static final String SUFFIX = ".seg";
+
+    private final ArchiveProperties properties;
+    private final Map<Integer, List<Segment>> segments = new ConcurrentHashMap<>();
+
+    public ArchiveCatalog(ArchiveProperties properties) {
+        this.properties = properties;
+        refresh();
+    }
+
+    /** Picks up segments written by other instances. */
+    @Scheduled(fixedDelayString = "${wallet.archive.refresh-ms:60000}")
+    public void refresh() {
+        if (!properties.isEnabled() || !Files.isDirectory(root())) {
+            return;
+        }
+        try (DirectoryStream<Path> shards = Files.newDirectoryStream(root(), "shard-*")) {
+            for (Path shardDirectory : shards) {
+                int shard = Integer.parseInt(shardDirectory.getFileName().toString().substring("shard-".length()));
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(shardDirectory, "*" + SUFFIX)) {
+                    for (Path file : files) {
+                        if (!contains(shard, file)) {
+                            publish(shard, Segment.open(file));
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read archive directory " + root(), e);
+        }
+    }
+
+    /** Hot rows before this time are archived, or null if the current shard has no segments. */
+    public LocalDateTime floor() {
+        List<Segment> current = segments();
+        return current.isEmpty() ? null : current.get(0).getPeriodEnd();
+    }
+
+    public boolean isEmpty() {
+        return segments().isEmpty();
+    }
+
+    public Optional<TransactionDTO> findById(UUID transactionId) {
+        for (Segment segment : segments()) {
+            Optional<TransactionDTO> found = segment.findById(transactionId);
+            if (found.isPresent()) {
+                return found;
+            }
+        }
+        return Optional.empty();
+    }
+
+    public Optional<TransactionDTO> findByReferenceId(String referenceId) {
+        for (Segment segment : segments()) {
+            Optional<TransactionDTO> found = segment.findByReferenceId(referenceId);
+            if (found.isPresent()) {
+                return found;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /** Segments of the current shard, newest first. */
+    List<Segment> segments() {
+        Integer shard = ShardContext.current();
+        return segments.getOrDefault(shard != null ? shard : 0, List.of());
+    }
+
+    Path directory(int shard) {
+        return root().resolve("shard-" + shard);
+    }
+
+    Path file(int shard, LocalDateTime periodStart) {
+        return directory(shard).resolve(String.format("%04d-%02d%s",
+                periodStart.getYear(), periodStart.getMonthValue(), SUFFIX));
+    }
+
+    synchronized void publish(int shard, Segment segment) {
+        List<Segment> updated = new ArrayList<>(segments.getOrDefault(shard, List.of()));
+        updated.add(segment);
+        updated.sort(Comparator.comparing(Segment::getPeriodStart).reversed());
+        segments.put(shard, List.copyOf(updated));
+        log.info("Published ledger segment {} ({} transactions)", segment.getPath(), segment.getRecordCount());
+    }
+
+    private boolean contains(int shard, Path file) {
+        return segments.getOrDefault(shard, List.of()).stream()
+                .anyMatch(s -> s.getPath().getFileName().equals(file.getFileName()));
+    }
+
+    private Path root() {
+        return Paths.get(properties.getDirectory());
+    }
+}
@@ -0,0 +1,11 @@
+package com.wallet.archive;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling   // archive runs and segment catalog refresh
+@EnableConfigurationProperties(ArchiveProperties.class)
+public class ArchiveConfig {
+}
@@ -0,0 +1,32 @@
+package com.wallet.archive;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Cold storage of old transactions ({@code wallet.archive.*}).
+ */
+@Data
+@ConfigurationProperties(prefix = "wallet.archive")
+public class ArchiveProperties {
+
+    /** Archives on the cron schedule and reads existing segments; off leaves the ledger fully hot. */
+    private boolean enabled = false;
+
+    private String cron = "0 30 1 * * *";
+
+    /** Segment files, one sub-directory per shard. Must be shared by all instances of a cluster. */
+    private String directory = "data/archive";
+
+    /** A calendar month is archived once all of it is older than this. */
+    private int minAgeDays = 400;
+
+    /** Records per compressed block; the unit of decompression on reads. */
+    private int blockRecords = 4096;
+
+    /** Hot rows deleted per statement once their segment is in place. */
+    private int deleteChunkSize = 5000;
+
+    /** How often segments written by other instances are picked up. */
+    private long refreshMs = 60_000;
+}
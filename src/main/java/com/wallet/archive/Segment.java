@@ -0,0 +1,344 @@
+package com.wallet.archive;
+
+import com.wallet.model.Transaction;
+import com.wallet.payload.TransactionDTO;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Read-only, memory-mapped view of one archived period of the ledger.
+ * <pre>
+ * header      magic, version, period start/end, record count, block count,
+ *             offsets of the block, ID and reference indexes, reference count
+ * blocks      run count; runs of (wallet ID, record count); raw and deflated
+ *             length; deflated records
+ * block index (first wallet ID, offset) per block: sparse wallet index
+ * ID index    (hash of ID, block &lt;&lt; 32 | ordinal) sorted by hash
+ * ref index   (hash of reference ID, block &lt;&lt; 32 | ordinal) sorted by hash
+ * </pre>
+ * Records are sorted by wallet (unsigned byte order, like the database sorts
+ * UUIDs) then timestamp. Within a block, timestamps (in microseconds) and
+ * amounts (in 1/10000) are stored as zig-zag varint deltas from the previous
+ * record. Key index hits are confirmed against the decoded record, so hash
+ * collisions only cost an extra block decode.
+ * <p>
+ * A segment file must stay under 2 GB. Thread-safe: the mapping is only read
+ * at absolute positions.
+ */
+final class Segment {
+
+    static final int MAGIC = 0x57534547;   // "WSEG"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int RUN_SIZE = 20;
+    static final int BLOCK_ENTRY_SIZE = 24;
+    static final int KEY_ENTRY_SIZE = 16;
+
+    static final int HAS_BALANCE = 1;
+    static final int HAS_REFERENCE = 1 << 1;
+    static final int HAS_REMARKS = 1 << 2;
+    static final int HAS_COUNTERPARTY = 1 << 3;
+    static final int HAS_RELATED = 1 << 4;
+
+    private static final Transaction.TransactionType[] TYPES = Transaction.TransactionType.values();
+
+    private final Path path;
+    private final ByteBuffer buffer;
+    private final LocalDateTime periodStart;
+    private final LocalDateTime periodEnd;
+    private final long recordCount;
+    private final int blockCount;
+    private final int blockIndexOffset;
+    private final int idIndexOffset;
+    private final int referenceIndexOffset;
+    private final int referenceCount;
+
+    private Segment(Path path, ByteBuffer buffer) {
+        this.path = path;
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalStateException("Not a version " + VERSION + " ledger segment: " + path);
+        }
+        this.periodStart = fromMicros(buffer.getLong(8));
+        this.periodEnd = fromMicros(buffer.getLong(16));
+        this.recordCount = buffer.getLong(24);
+        this.blockCount = buffer.getInt(32);
+        this.blockIndexOffset = (int) buffer.getLong(36);
+        this.idIndexOffset = (int) buffer.getLong(44);
+        this.referenceIndexOffset = (int) buffer.getLong(52);
+        this.referenceCount = buffer.getInt(60);
+    }
+
+    static Segment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new Segment(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    LocalDateTime getPeriodStart() {
+        return periodStart;
+    }
+
+    /** Exclusive. */
+    LocalDateTime getPeriodEnd() {
+        return periodEnd;
+    }
+
+    long getRecordCount() {
+        return recordCount;
+    }
+
+    /** Number of transactions of the wallet, read from the block run headers. */
+    int count(UUID walletId) {
+        int count = 0;
+        for (int block = firstBlockOf(walletId); block < blockCount && compare(firstWallet(block), walletId) <= 0;
+             block++) {
+            int offset = blockOffset(block);
+            int runs = buffer.getInt(offset);
+            for (int run = 0; run < runs; run++) {
+                if (runWallet(offset, run).equals(walletId)) {
+                    count += buffer.getInt(offset + 4 + run * RUN_SIZE + 16);
+                }
+            }
+        }
+        return count;
+    }
+
+    /** Transactions of the wallet matching the filter, oldest first. */
+    List<TransactionDTO> read(UUID walletId, Predicate<TransactionDTO> filter) {
+        List<TransactionDTO> result = new ArrayList<>();
+        for (int block = firstBlockOf(walletId); block < blockCount && compare(firstWallet(block), walletId) <= 0;
+             block++) {
+            int offset = blockOffset(block);
+            int runs = buffer.getInt(offset);
+            int skip = 0;
+            int take = 0;
+            for (int run = 0; run < runs; run++) {
+                int runCount = buffer.getInt(offset + 4 + run * RUN_SIZE + 16);
+                if (runWallet(offset, run).equals(walletId)) {
+                    take = runCount;
+                    break;
+                }
+                skip += runCount;
+            }
+            if (take == 0) {
+                continue;
+            }
+            List<TransactionDTO> records = decode(block, skip + take);
+            for (TransactionDTO record : records.subList(skip, skip + take)) {
+                if (filter.test(record)) {
+                    result.add(record);
+                }
+            }
+        }
+        return result;
+    }
+
+    Optional<TransactionDTO> findById(UUID transactionId) {
+        return lookup(idIndexOffset, (int) recordCount, idKey(transactionId),
+                record -> record.getId().equals(transactionId));
+    }
+
+    Optional<TransactionDTO> findByReferenceId(String referenceId) {
+        return lookup(referenceIndexOffset, referenceCount, referenceKey(referenceId),
+                record -> referenceId.equals(record.getReferenceId()));
+    }
+
+    // -------------------------------------------------------------
+    // ENCODING
+    // -------------------------------------------------------------
+
+    /** Unsigned byte order of the UUID, as databases sort UUID columns. */
+    static int compare(UUID a, UUID b) {
+        int high = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return high != 0 ? high : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+
+    static long idKey(UUID id) {
+        return mix(id.getMostSignificantBits() ^ Long.rotateLeft(id.getLeastSignificantBits(), 32));
+    }
+
+    /** 64-bit FNV-1a of the UTF-8 bytes. */
+    static long referenceKey(String referenceId) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : referenceId.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    static long micros(LocalDateTime at) {
+        return at.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + at.getNano() / 1_000;
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+
+    static long units(BigDecimal amount) {
+        return amount.setScale(4, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    // -------------------------------------------------------------
+    // PRIVATE HELPERS
+    // -------------------------------------------------------------
+
+    /** Last block starting strictly before the wallet: a wallet's records may start at the end of it. */
+    private int firstBlockOf(UUID walletId) {
+        int low = 0;
+        int high = blockCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(firstWallet(mid), walletId) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return Math.max(0, low - 1);
+    }
+
+    private UUID firstWallet(int block) {
+        int entry = blockIndexOffset + block * BLOCK_ENTRY_SIZE;
+        return new UUID(buffer.getLong(entry), buffer.getLong(entry + 8));
+    }
+
+    private int blockOffset(int block) {
+        return (int) buffer.getLong(blockIndexOffset + block * BLOCK_ENTRY_SIZE + 16);
+    }
+
+    private UUID runWallet(int blockOffset, int run) {
+        int entry = blockOffset + 4 + run * RUN_SIZE;
+        return new UUID(buffer.getLong(entry), buffer.getLong(entry + 8));
+    }
+
+    private Optional<TransactionDTO> lookup(int indexOffset, int size, long key, Predicate<TransactionDTO> matches) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (buffer.getLong(indexOffset + mid * KEY_ENTRY_SIZE) < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        for (int i = low; i < size && buffer.getLong(indexOffset + i * KEY_ENTRY_SIZE) == key; i++) {
+            long location = buffer.getLong(indexOffset + i * KEY_ENTRY_SIZE + 8);
+            int ordinal = (int) location;
+            TransactionDTO record = decode((int) (location >>> 32), ordinal + 1).get(ordinal);
+            if (matches.test(record)) {
+                return Optional.of(record);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /** Decodes the first {@code limit} records of a block. */
+    private List<TransactionDTO> decode(int block, int limit) {
+        int offset = blockOffset(block);
+        int runs = buffer.getInt(offset);
+        int dataOffset = offset + 4 + runs * RUN_SIZE;
+        byte[] raw = new byte[buffer.getInt(dataOffset)];
+        byte[] compressed = new byte[buffer.getInt(dataOffset + 4)];
+        buffer.get(dataOffset + 8, compressed);
+
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            int length = 0;
+            while (length < raw.length && !inflater.finished()) {
+                length += inflater.inflate(raw, length, raw.length - length);
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt block " + block + " in " + path, e);
+        } finally {
+            inflater.end();
+        }
+
+        ByteBuffer in = ByteBuffer.wrap(raw);
+        List<TransactionDTO> records = new ArrayList<>(limit);
+        long timestamp = 0;
+        long amount = 0;
+        long balance = 0;
+        for (int run = 0; run < runs && records.size() < limit; run++) {
+            UUID walletId = runWallet(offset, run);
+            int runCount = buffer.getInt(offset + 4 + run * RUN_SIZE + 16);
+            for (int i = 0; i < runCount && records.size() < limit; i++) {
+                TransactionDTO record = new TransactionDTO();
+                record.setWalletId(walletId);
+                record.setId(new UUID(in.getLong(), in.getLong()));
+                record.setType(TYPES[in.get()]);
+                int flags = in.get();
+                timestamp += readVarLong(in);
+                record.setTimestamp(fromMicros(timestamp));
+                amount += readVarLong(in);
+                record.setAmount(BigDecimal.valueOf(amount, 4));
+                if ((flags & HAS_BALANCE) != 0) {
+                    balance += readVarLong(in);
+                    record.setBalanceAfter(BigDecimal.valueOf(balance, 4));
+                }
+                if ((flags & HAS_REFERENCE) != 0) {
+                    record.setReferenceId(readString(in));
+                }
+                if ((flags & HAS_REMARKS) != 0) {
+                    record.setRemarks(readString(in));
+                }
+                if ((flags & HAS_COUNTERPARTY) != 0) {
+                    record.setCounterpartyWalletId(new UUID(in.getLong(), in.getLong()));
+                }
+                if ((flags & HAS_RELATED) != 0) {
+                    in.position(in.position() + 16);   // kept for completeness, not exposed
+                }
+                records.add(record);
+            }
+        }
+        return records;
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long zigzag = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            zigzag |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[(int) readVarLong(in)];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
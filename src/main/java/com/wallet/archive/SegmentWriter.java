@@ -0,0 +1,310 @@
+package com.wallet.archive;
+
+import com.wallet.payload.TransactionDTO;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.Deflater;
+
+/**
+ * Writes one immutable segment file from transactions appended in
+ * (wallet ID, timestamp) order. See {@link Segment} for the layout.
+ * <p>
+ * Blocks are written as they fill, so memory stays bounded by one block plus
+ * 32 bytes of key index per record. The file is built under a temporary name
+ * and moved into place by {@link #commit()}, so a segment is either complete
+ * or absent.
+ */
+final class SegmentWriter implements Closeable {
+
+    private final Path target;
+    private final Path temp;
+    private final FileChannel channel;
+    private final int blockRecords;
+    private final LocalDateTime periodStart;
+    private final LocalDateTime periodEnd;
+
+    private final List<UUID> runWallets = new ArrayList<>();
+    private final List<Integer> runCounts = new ArrayList<>();
+    private final ByteArrayOutputStream payload = new ByteArrayOutputStream(1 << 16);
+    private final DataOutputStream out = new DataOutputStream(payload);
+    private int blockSize;
+    private long previousTimestamp;
+    private long previousAmount;
+    private long previousBalance;
+
+    private final List<long[]> blockIndex = new ArrayList<>();
+    private final KeyIndex idIndex = new KeyIndex();
+    private final KeyIndex referenceIndex = new KeyIndex();
+    private UUID lastWallet;
+    private long recordCount;
+    private boolean committed;
+
+    SegmentWriter(Path target, LocalDateTime periodStart, LocalDateTime periodEnd, int blockRecords)
+            throws IOException {
+        this.target = target;
+        this.temp = target.resolveSibling(target.getFileName() + ".tmp");
+        this.periodStart = periodStart;
+        this.periodEnd = periodEnd;
+        this.blockRecords = blockRecords;
+        Files.createDirectories(target.getParent());
+        this.channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        channel.position(Segment.HEADER_SIZE);
+    }
+
+    long getRecordCount() {
+        return recordCount;
+    }
+
+    /** Appends a transaction; wallets must come in {@link Segment#compare} order. */
+    void append(TransactionDTO transaction, UUID relatedTransactionId) throws IOException {
+        UUID walletId = transaction.getWalletId();
+        if (lastWallet != null && Segment.compare(walletId, lastWallet) < 0) {
+            throw new IllegalArgumentException("Transactions must be appended in wallet order");
+        }
+        if (blockSize == blockRecords) {
+            flushBlock();
+        }
+        if (blockSize == 0 || !walletId.equals(lastWallet)) {
+            runWallets.add(walletId);
+            runCounts.add(0);
+        }
+        runCounts.set(runCounts.size() - 1, runCounts.get(runCounts.size() - 1) + 1);
+        lastWallet = walletId;
+
+        long location = ((long) blockIndex.size() << 32) | blockSize;
+        idIndex.add(Segment.idKey(transaction.getId()), location);
+        if (transaction.getReferenceId() != null) {
+            referenceIndex.add(Segment.referenceKey(transaction.getReferenceId()), location);
+        }
+
+        int flags = (transaction.getBalanceAfter() != null ? Segment.HAS_BALANCE : 0)
+                | (transaction.getReferenceId() != null ? Segment.HAS_REFERENCE : 0)
+                | (transaction.getRemarks() != null ? Segment.HAS_REMARKS : 0)
+                | (transaction.getCounterpartyWalletId() != null ? Segment.HAS_COUNTERPARTY : 0)
+                | (relatedTransactionId != null ? Segment.HAS_RELATED : 0);
+        out.writeLong(transaction.getId().getMostSignificantBits());
+        out.writeLong(transaction.getId().getLeastSignificantBits());
+        out.writeByte(transaction.getType().ordinal());
+        out.writeByte(flags);
+
+        long timestamp = Segment.micros(transaction.getTimestamp());
+        writeVarLong(timestamp - previousTimestamp);
+        previousTimestamp = timestamp;
+        long amount = Segment.units(transaction.getAmount());
+        writeVarLong(amount - previousAmount);
+        previousAmount = amount;
+        if (transaction.getBalanceAfter() != null) {
+            long balance = Segment.units(transaction.getBalanceAfter());
+            writeVarLong(balance - previousBalance);
+            previousBalance = balance;
+        }
+        if (transaction.getReferenceId() != null) {
+            writeString(transaction.getReferenceId());
+        }
+        if (transaction.getRemarks() != null) {
+            writeString(transaction.getRemarks());
+        }
+        if (transaction.getCounterpartyWalletId() != null) {
+            out.writeLong(transaction.getCounterpartyWalletId().getMostSignificantBits());
+            out.writeLong(transaction.getCounterpartyWalletId().getLeastSignificantBits());
+        }
+        if (relatedTransactionId != null) {
+            out.writeLong(relatedTransactionId.getMostSignificantBits());
+            out.writeLong(relatedTransactionId.getLeastSignificantBits());
+        }
+        blockSize++;
+        recordCount++;
+    }
+
+    /** Writes the indexes and header and moves the file into place. */
+    void commit() throws IOException {
+        if (blockSize > 0) {
+            flushBlock();
+        }
+
+        long blockIndexOffset = channel.position();
+        ByteBuffer blocks = ByteBuffer.allocate(blockIndex.size() * Segment.BLOCK_ENTRY_SIZE);
+        for (long[] entry : blockIndex) {
+            blocks.putLong(entry[0]).putLong(entry[1]).putLong(entry[2]);
+        }
+        writeFully(blocks.flip());
+
+        long idIndexOffset = channel.position();
+        idIndex.write();
+        long referenceIndexOffset = channel.position();
+        referenceIndex.write();
+
+        ByteBuffer header = ByteBuffer.allocate(Segment.HEADER_SIZE)
+                .putInt(Segment.MAGIC)
+                .putInt(Segment.VERSION)
+                .putLong(Segment.micros(periodStart))
+                .putLong(Segment.micros(periodEnd))
+                .putLong(recordCount)
+                .putInt(blockIndex.size())
+                .putLong(blockIndexOffset)
+                .putLong(idIndexOffset)
+                .putLong(referenceIndexOffset)
+                .putInt(referenceIndex.size);
+        channel.position(0);
+        writeFully(header.flip());
+        channel.force(true);
+        channel.close();
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        committed = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!committed) {
+            channel.close();
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Block layout: run count, runs of (wallet ID, record count) in the clear so
+     * wallets can be counted without inflating, then the deflated records.
+     */
+    private void flushBlock() throws IOException {
+        out.flush();
+        byte[] raw = payload.toByteArray();
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        deflater.setInput(raw);
+        deflater.finish();
+        byte[] compressed = new byte[Math.max(64, raw.length + raw.length / 100 + 64)];
+        int compressedLength = 0;
+        while (!deflater.finished()) {
+            if (compressedLength == compressed.length) {
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            }
+            compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+        }
+        deflater.end();
+
+        UUID first = runWallets.get(0);
+        blockIndex.add(new long[]{first.getMostSignificantBits(), first.getLeastSignificantBits(),
+                channel.position()});
+
+        ByteBuffer block = ByteBuffer.allocate(4 + runWallets.size() * Segment.RUN_SIZE + 8 + compressedLength);
+        block.putInt(runWallets.size());
+        for (int i = 0; i < runWallets.size(); i++) {
+            block.putLong(runWallets.get(i).getMostSignificantBits())
+                    .putLong(runWallets.get(i).getLeastSignificantBits())
+                    .putInt(runCounts.get(i));
+        }
+        block.putInt(raw.length).putInt(compressedLength).put(compressed, 0, compressedLength);
+        writeFully(block.flip());
+
+        runWallets.clear();
+        runCounts.clear();
+        payload.reset();
+        blockSize = 0;
+        previousTimestamp = 0;
+        previousAmount = 0;
+        previousBalance = 0;
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            out.writeByte((int) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        out.writeByte((int) zigzag);
+    }
+
+    private void writeString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length);
+        out.write(bytes);
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /** (key, location) pairs in parallel primitive arrays, sorted by key when written. */
+    private final class KeyIndex {
+
+        private long[] keys = new long[1024];
+        private long[] locations = new long[1024];
+        private int size;
+
+        void add(long key, long location) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                locations = Arrays.copyOf(locations, size * 2);
+            }
+            keys[size] = key;
+            locations[size] = location;
+            size++;
+        }
+
+        void write() throws IOException {
+            sort(0, size - 1);
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            for (int i = 0; i < size; i++) {
+                if (buffer.remaining() < Segment.KEY_ENTRY_SIZE) {
+                    writeFully(buffer.flip());
+                    buffer.clear();
+                }
+                buffer.putLong(keys[i]).putLong(locations[i]);
+            }
+            writeFully(buffer.flip());
+        }
+
+        private void sort(int low, int high) {
+            while (low < high) {
+                long pivot = keys[(low + high) >>> 1];
+                int i = low;
+                int j = high;
+                while (i <= j) {
+                    while (keys[i] < pivot) {
+                        i++;
+                    }
+                    while (keys[j] > pivot) {
+                        j--;
+                    }
+                    if (i <= j) {
+                        swap(i++, j--);
+                    }
+                }
+                // recurse into the smaller half to bound the stack depth
+                if (j - low < high - i) {
+                    sort(low, j);
+                    low = i;
+                } else {
+                    sort(i, high);
+                    high = j;
+                }
+            }
+        }
+
+        private void swap(int a, int b) {
+            long key = keys[a];
+            keys[a] = keys[b];
+            keys[b] = key;
+            long location = locations[a];
+            locations[a] = locations[b];
+            locations[b] = location;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.wallet.archive;
+
+import com.wallet.model.Transaction;
+import com.wallet.payload.TransactionDTO;
+import com.wallet.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Ledger reads spanning the hot {@code transactions} table and the archived
+ * segments of the current shard. Without segments every call is the plain
+ * repository query.
+ * <p>
+ * Hot rows are always newer than archived ones, so a page newest-first is the
+ * hot rows followed by the segments newest period first. Unfiltered wallet
+ * totals come from the segment run headers; a type filter has to decode the
+ * wallet's archived blocks.
+ */
+@Service
+@RequiredArgsConstructor
+public class TieredTransactionReader {
+
+    private final TransactionRepository transactionRepository;
+    private final ArchiveCatalog catalog;
+
+    /** Transactions of a wallet, optionally of one type, in the pageable's timestamp-descending order. */
+    public Page<TransactionDTO> findByWallet(UUID walletId, Transaction.TransactionType type, Pageable pageable) {
+        LocalDateTime floor = catalog.floor();
+        if (floor == null) {
+            Page<Transaction> hot = type == null
+                    ? transactionRepository.findByWalletId(walletId, pageable)
+                    : transactionRepository.findByWalletIdAndType(walletId, type, pageable);
+            return hot.map(TransactionDTO::fromEntity);
+        }
+
+        Page<Transaction> hot = type == null
+                ? transactionRepository.findByWalletIdAndTimestampGreaterThanEqual(walletId, floor, pageable)
+                : transactionRepository.findByWalletIdAndTypeAndTimestampGreaterThanEqual(
+                        walletId, type, floor, pageable);
+        List<TransactionDTO> content = new ArrayList<>(hot.getContent().stream()
+                .map(TransactionDTO::fromEntity)
+                .toList());
+        Predicate<TransactionDTO> filter = type == null ? t -> true : t -> t.getType() == type;
+
+        long skip = Math.max(0, pageable.getOffset() - hot.getTotalElements());
+        long coldTotal = 0;
+        for (Segment segment : catalog.segments()) {
+            // past a full page, segments are only visited for the total
+            boolean full = content.size() == pageable.getPageSize();
+            List<TransactionDTO> records = null;
+            int count;
+            if (type == null) {
+                count = segment.count(walletId);
+            } else {
+                records = segment.read(walletId, filter);
+                count = records.size();
+            }
+            coldTotal += count;
+            if (full || skip >= count) {
+                skip -= full ? 0 : count;
+                continue;
+            }
+
+            if (records == null) {
+                records = segment.read(walletId, filter);
+            }
+            Collections.reverse(records);
+            int from = (int) skip;
+            int to = Math.min(records.size(), from + pageable.getPageSize() - content.size());
+            content.addAll(records.subList(from, to));
+            skip = 0;
+        }
+        return new PageImpl<>(content, pageable, hot.getTotalElements() + coldTotal);
+    }
+
+    public Optional<TransactionDTO> findById(UUID transactionId) {
+        Optional<TransactionDTO> hot = transactionRepository.findById(transactionId).map(TransactionDTO::fromEntity);
+        return hot.isPresent() || catalog.isEmpty() ? hot : catalog.findById(transactionId);
+    }
+
+    public boolean existsByReferenceId(String referenceId) {
+        return transactionRepository.existsByReferenceId(referenceId)
+                || catalog.findByReferenceId(referenceId).isPresent();
+    }
+
+    public long countByWallet(UUID walletId) {
+        LocalDateTime floor = catalog.floor();
+        if (floor == null) {
+            return transactionRepository.countByWalletId(walletId);
+        }
+        long count = transactionRepository.countByWalletIdAndTimestampGreaterThanEqual(walletId, floor);
+        for (Segment segment : catalog.segments()) {
+            count += segment.count(walletId);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,179 @@
+package com.wallet.archive;
+
+import com.wallet.model.Transaction;
+import com.wallet.payload.TransactionDTO;
+import com.wallet.sharding.ShardContext;
+import com.wallet.sharding.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Moves transactions of old calendar months from the {@code transactions} table
+ * into segment files, one per shard and month.
+ * <p>
+ * Each run first deletes the hot rows of segments published by an earlier run
+ * (every instance has picked those up by then), then writes a segment for each
+ * month entirely older than {@code min-age-days} and publishes it. Ledger rows
+ * are never written with a past timestamp, so an archived month cannot change.
+ * Restartable at any point: a month with a segment is never rewritten, and the
+ * hot-row deletion simply continues on the next run.
+ * <p>
+ * Links from remaining rows to archived ones ({@code related_transaction_id})
+ * are cleared before deletion; segments keep both sides of every link.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TransactionArchiver {
+
+    private static final String OLDEST = "SELECT MIN(timestamp) FROM transactions";
+
+    private static final String SELECT_PERIOD =
+            "SELECT id, wallet_id, type, amount, balance_after, reference_id, remarks, counterparty_wallet_id, " +
+            "related_transaction_id, timestamp FROM transactions WHERE timestamp >= ? AND timestamp < ? " +
+            "ORDER BY wallet_id, timestamp, id";
+
+    private static final String COUNT_PERIOD =
+            "SELECT COUNT(*) FROM transactions WHERE timestamp >= ? AND timestamp < ?";
+
+    private static final String UNLINK =
+            "UPDATE transactions SET related_transaction_id = NULL WHERE related_transaction_id IN " +
+            "(SELECT id FROM transactions WHERE timestamp >= ? AND timestamp < ?)";
+
+    private static final String DELETE_CHUNK =
+            "DELETE FROM transactions WHERE id IN (SELECT id FROM transactions " +
+            "WHERE timestamp >= ? AND timestamp < ? FETCH FIRST ? ROWS ONLY)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+    private final ArchiveCatalog catalog;
+    private final ArchiveProperties properties;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Scheduled(cron = "${wallet.archive.cron:0 30 1 * * *}")
+    public void runScheduled() {
+        if (properties.isEnabled()) {
+            run(LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Archives every month that ended at least {@code min-age-days} before {@code now}.
+     *
+     * @return number of transactions written to new segments
+     */
+    public long run(LocalDateTime now) {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Archive run already in progress");
+            return 0;
+        }
+        try {
+            return shardRouter.onEachShard(() -> runShard(now)).stream().mapToLong(Long::longValue).sum();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private long runShard(LocalDateTime now) {
+        Integer current = ShardContext.current();
+        int shard = current != null ? current : 0;
+
+        for (Segment segment : catalog.segments()) {
+            purge(segment.getPeriodStart(), segment.getPeriodEnd());
+        }
+
+        Timestamp oldest = jdbcTemplate.queryForObject(OLDEST, Timestamp.class);
+        if (oldest == null) {
+            return 0;
+        }
+        LocalDateTime cutoff = now.minusDays(properties.getMinAgeDays());
+        LocalDateTime month = oldest.toLocalDateTime().toLocalDate().withDayOfMonth(1).atStartOfDay();
+        LocalDateTime floor = catalog.floor();
+        if (floor != null && month.isBefore(floor)) {
+            month = floor;
+        }
+
+        long archived = 0;
+        for (; !month.plusMonths(1).isAfter(cutoff); month = month.plusMonths(1)) {
+            Path file = catalog.file(shard, month);
+            if (Files.exists(file)) {
+                continue;
+            }
+            archived += archive(shard, month, month.plusMonths(1), file);
+        }
+        return archived;
+    }
+
+    private long archive(int shard, LocalDateTime start, LocalDateTime end, Path file) {
+        Long expected = jdbcTemplate.queryForObject(COUNT_PERIOD, Long.class,
+                Timestamp.valueOf(start), Timestamp.valueOf(end));
+        if (expected == null || expected == 0) {
+            return 0;
+        }
+
+        try (SegmentWriter writer = new SegmentWriter(file, start, end, properties.getBlockRecords())) {
+            jdbcTemplate.query(SELECT_PERIOD, rs -> {
+                TransactionDTO transaction = new TransactionDTO();
+                transaction.setId(rs.getObject("id", UUID.class));
+                transaction.setWalletId(rs.getObject("wallet_id", UUID.class));
+                transaction.setType(Transaction.TransactionType.valueOf(rs.getString("type")));
+                transaction.setAmount(rs.getBigDecimal("amount"));
+                transaction.setBalanceAfter(rs.getBigDecimal("balance_after"));
+                transaction.setReferenceId(rs.getString("reference_id"));
+                transaction.setRemarks(rs.getString("remarks"));
+                transaction.setCounterpartyWalletId(rs.getObject("counterparty_wallet_id", UUID.class));
+                transaction.setTimestamp(rs.getTimestamp("timestamp").toLocalDateTime());
+                try {
+                    writer.append(transaction, rs.getObject("related_transaction_id", UUID.class));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, Timestamp.valueOf(start), Timestamp.valueOf(end));
+
+            if (writer.getRecordCount() != expected) {
+                throw new IllegalStateException("Period " + start + " changed while archiving: expected "
+                        + expected + " transactions, read " + writer.getRecordCount());
+            }
+            writer.commit();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write segment " + file, e);
+        }
+
+        try {
+            Segment segment = Segment.open(file);
+            catalog.publish(shard, segment);
+            return segment.getRecordCount();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open segment " + file, e);
+        }
+    }
+
+    /** Deletes the hot rows of an archived period, one chunk per statement. */
+    private void purge(LocalDateTime start, LocalDateTime end) {
+        Timestamp from = Timestamp.valueOf(start);
+        Timestamp to = Timestamp.valueOf(end);
+        jdbcTemplate.update(UNLINK, from, to);
+        long deleted = 0;
+        int chunk;
+        do {
+            chunk = jdbcTemplate.update(DELETE_CHUNK, from, to, properties.getDeleteChunkSize());
+            deleted += chunk;
+        } while (chunk > 0);
+        if (deleted > 0) {
+            log.info("Deleted {} archived transactions of {} from the hot ledger", deleted, start.toLocalDate());
+        }
+    }
+}
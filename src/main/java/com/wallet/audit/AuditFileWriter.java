@@ -0,0 +1,104 @@
+package com.wallet.audit;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends lines to the audit file through one reusable buffer, rotating the file
+ * by size: {@code audit.log} becomes {@code audit.log.1}, {@code .1} becomes
+ * {@code .2} and so on, the oldest beyond {@code maxFiles} being deleted.
+ * Not thread-safe; used by the audit writer thread only.
+ */
+final class AuditFileWriter implements Closeable {
+
+    private final Path file;
+    private final long maxFileSize;
+    private final int maxFiles;
+    private final ByteBuffer buffer;
+
+    private FileChannel channel;
+    private long size;
+
+    AuditFileWriter(Path file, int bufferBytes, long maxFileSize, int maxFiles) throws IOException {
+        this.file = file;
+        this.maxFileSize = maxFileSize;
+        this.maxFiles = maxFiles;
+        this.buffer = ByteBuffer.allocateDirect(bufferBytes);
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        open();
+    }
+
+    /** Appends one line of ASCII-only content; must end with a line feed. */
+    void append(CharSequence line) throws IOException {
+        int length = line.length();
+        if (length > buffer.remaining()) {
+            flush();
+        }
+        if (size + buffer.position() + length > maxFileSize && size + buffer.position() > 0) {
+            flush();
+            rotate();
+        }
+        for (int i = 0; i < length; i++) {
+            if (!buffer.hasRemaining()) {
+                flush();   // a line longer than the buffer
+            }
+            buffer.put((byte) line.charAt(i));
+        }
+    }
+
+    /** Writes the buffered lines to the file. */
+    void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            size += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    boolean hasBufferedLines() {
+        return buffer.position() > 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void rotate() throws IOException {
+        channel.close();
+        Files.deleteIfExists(rotated(maxFiles));
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            if (Files.exists(rotated(i))) {
+                Files.move(rotated(i), rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (maxFiles > 0) {
+            Files.move(file, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            Files.delete(file);
+        }
+        open();
+    }
+
+    private void open() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        size = channel.size();
+    }
+
+    private Path rotated(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+}
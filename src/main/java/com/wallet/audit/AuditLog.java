@@ -0,0 +1,248 @@
+package com.wallet.audit;
+
+import com.wallet.event.WalletEvent;
+import com.wallet.payload.TransactionDTO;
+import com.wallet.payload.WalletDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Audit trail of committed wallet operations, one JSON object per line.
+ * <p>
+ * Request threads copy each committed {@link WalletEvent} into a preallocated
+ * slot of a lock-free {@link AuditQueue} and return; a single writer thread
+ * formats the records and writes them in buffered batches, rotating the file by
+ * size. When the queue is full the record is dropped and counted
+ * ({@code wallet.audit.dropped}), or the request thread waits for a free slot,
+ * depending on {@code wallet.audit.overflow}.
+ * <p>
+ * Records written before a crash are on disk; records still queued are lost.
+ */
+@Slf4j
+@Component
+public class AuditLog {
+
+    /** Records formatted per batch before the writer checks for shutdown. */
+    private static final int DRAIN_BATCH = 1024;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final AuditProperties properties;
+    private final AuditQueue queue;
+    private final AuditFileWriter writer;
+    private final Thread writerThread;
+    private final StringBuilder line = new StringBuilder(512);
+
+    private final Counter writtenCounter;
+    private final Counter droppedCounter;
+
+    private volatile boolean running = true;
+
+    public AuditLog(AuditProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        if (!properties.isEnabled()) {
+            this.queue = null;
+            this.writer = null;
+            this.writerThread = null;
+            this.writtenCounter = null;
+            this.droppedCounter = null;
+            return;
+        }
+        this.queue = new AuditQueue(properties.getQueueCapacity());
+        try {
+            this.writer = new AuditFileWriter(Paths.get(properties.getFile()), properties.getBufferBytes(),
+                    properties.getMaxFileSize().toBytes(), properties.getMaxFiles());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open audit log " + properties.getFile(), e);
+        }
+
+        Gauge.builder("wallet.audit.queued", queue, AuditQueue::size)
+                .description("Audit records waiting for the writer")
+                .register(meterRegistry);
+        this.writtenCounter = Counter.builder("wallet.audit.written")
+                .description("Audit records written")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("wallet.audit.dropped")
+                .description("Audit records dropped because the queue was full")
+                .register(meterRegistry);
+
+        this.writerThread = new Thread(this::drainLoop, "audit-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    @TransactionalEventListener
+    public void onWalletEvent(WalletEvent event) {
+        if (queue == null) {
+            return;
+        }
+        long position = queue.tryClaim();
+        while (position < 0) {
+            if (properties.getOverflow() == AuditProperties.Overflow.DROP || !running) {
+                droppedCounter.increment();
+                return;
+            }
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+            position = queue.tryClaim();
+        }
+
+        AuditRecord record = queue.record(position);
+        record.epochMillis = System.currentTimeMillis();
+        record.type = event.getType();
+        WalletDTO wallet = event.getWallet();
+        record.walletId = wallet.getId();
+        record.status = wallet.getStatus();
+        record.currency = wallet.getCurrency();
+        record.balance = wallet.getBalance();
+        record.version = wallet.getVersion() != null ? wallet.getVersion() : -1;
+        TransactionDTO transaction = event.getTransaction();
+        if (transaction != null) {
+            record.transactionId = transaction.getId();
+            record.transactionType = transaction.getType();
+            record.amount = transaction.getAmount();
+            record.counterpartyWalletId = transaction.getCounterpartyWalletId();
+            record.referenceId = transaction.getReferenceId();
+        }
+        queue.publish(position);
+    }
+
+    /** Writes out everything queued so far; returns once the records are in the file. */
+    public void flush() {
+        if (queue == null) {
+            return;
+        }
+        while (queue.size() > 0 && writerThread.isAlive()) {
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+        synchronized (writer) {
+            try {
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        if (queue == null) {
+            return;
+        }
+        running = false;
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    // -------------------------------------------------------------
+    // WRITER THREAD
+    // -------------------------------------------------------------
+
+    private void drainLoop() {
+        while (true) {
+            boolean stopping = !running;
+            int drained;
+            synchronized (writer) {
+                try {
+                    drained = drain();
+                    if (drained == 0 && writer.hasBufferedLines()) {
+                        writer.flush();   // queue idle: write the partial batch
+                    }
+                    if (drained == 0 && stopping) {
+                        writer.close();
+                        return;
+                    }
+                } catch (IOException e) {
+                    log.error("Audit log write failed; records of this batch are lost", e);
+                    drained = 0;
+                }
+            }
+            if (drained == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private int drain() throws IOException {
+        int drained = 0;
+        AuditRecord record;
+        while (drained < DRAIN_BATCH && (record = queue.peek()) != null) {
+            format(record);
+            queue.release();
+            writer.append(line);
+            drained++;
+        }
+        if (drained > 0) {
+            writtenCounter.increment(drained);
+        }
+        return drained;
+    }
+
+    private void format(AuditRecord record) {
+        line.setLength(0);
+        line.append("{\"ts\":\"");
+        DateTimeFormatter.ISO_INSTANT.formatTo(Instant.ofEpochMilli(record.epochMillis), line);
+        line.append("\",\"event\":\"").append(record.type).append('"');
+        field("walletId", record.walletId);
+        if (record.transactionId != null) {
+            field("transactionId", record.transactionId);
+            line.append(",\"transactionType\":\"").append(record.transactionType).append('"');
+            field("amount", record.amount);
+            field("counterpartyWalletId", record.counterpartyWalletId);
+            if (record.referenceId != null) {
+                line.append(",\"referenceId\":");
+                quote(record.referenceId);
+            }
+        }
+        field("balance", record.balance);
+        if (record.currency != null) {
+            line.append(",\"currency\":");
+            quote(record.currency);
+        }
+        line.append(",\"status\":\"").append(record.status).append('"');
+        line.append(",\"version\":").append(record.version).append("}\n");
+    }
+
+    private void field(String name, UUID value) {
+        if (value != null) {
+            line.append(",\"").append(name).append("\":\"").append(value).append('"');
+        }
+    }
+
+    private void field(String name, BigDecimal value) {
+        if (value != null) {
+            line.append(",\"").append(name).append("\":\"").append(value.toPlainString()).append('"');
+        }
+    }
+
+    /** Appends a JSON string, escaping everything outside printable ASCII. */
+    private void quote(String value) {
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                line.append('\\').append(c);
+            } else if (c < 0x20 || c > 0x7E) {
+                line.append("\\u");
+                String hex = Integer.toHexString(c);
+                line.append("0000", hex.length(), 4).append(hex);
+            } else {
+                line.append(c);
+            }
+        }
+        line.append('"');
+    }
+}
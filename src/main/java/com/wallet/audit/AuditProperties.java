@@ -0,0 +1,37 @@
+package com.wallet.audit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Audit log of committed wallet operations ({@code wallet.audit.*}).
+ */
+@Data
+@ConfigurationProperties(prefix = "wallet.audit")
+public class AuditProperties {
+
+    public enum Overflow {
+        /** Discard the record and count it ({@code wallet.audit.dropped}). */
+        DROP,
+        /** Wait for the writer to free a slot. */
+        BLOCK
+    }
+
+    private boolean enabled = true;
+
+    /** Current file; rotated files get the suffixes .1 (newest) to .{max-files}. */
+    private String file = "logs/audit.log";
+
+    /** Records buffered between request threads and the writer, rounded up to a power of two. */
+    private int queueCapacity = 65536;
+
+    private Overflow overflow = Overflow.DROP;
+
+    /** Bytes collected before a write; a partial buffer is written once the queue is empty. */
+    private int bufferBytes = 65536;
+
+    private DataSize maxFileSize = DataSize.ofMegabytes(100);
+
+    private int maxFiles = 10;
+}
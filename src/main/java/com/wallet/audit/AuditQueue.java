@@ -0,0 +1,88 @@
+package com.wallet.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free queue of preallocated {@link AuditRecord}s with many
+ * producers and one consumer.
+ * <p>
+ * Each slot carries a sequence number: {@code position} when free for the
+ * producer of that position, {@code position + 1} once published, and
+ * {@code position + capacity} after the consumer has released it for the next
+ * lap. Producers claim positions with a CAS on the tail and never wait on each
+ * other; a full queue is reported rather than waited for.
+ */
+final class AuditQueue {
+
+    private final AuditRecord[] records;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+
+    // written by the consumer thread only
+    private volatile long head;
+
+    AuditQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.records = new AuditRecord[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            records[i] = new AuditRecord();
+            sequences.set(i, i);
+        }
+    }
+
+    /** Claims the next position, or returns -1 if the queue is full. */
+    long tryClaim() {
+        long position = tail.get();
+        while (true) {
+            long difference = sequences.get((int) position & mask) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    return position;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return -1;
+            } else {
+                position = tail.get();   // claimed by another producer meanwhile
+            }
+        }
+    }
+
+    AuditRecord record(long position) {
+        return records[(int) position & mask];
+    }
+
+    void publish(long position) {
+        sequences.lazySet((int) position & mask, position + 1);
+    }
+
+    /** The oldest published record, or null if there is none. Consumer only. */
+    AuditRecord peek() {
+        int index = (int) head & mask;
+        return sequences.get(index) == head + 1 ? records[index] : null;
+    }
+
+    /** Frees the record returned by {@link #peek()}. Consumer only. */
+    void release() {
+        int index = (int) head & mask;
+        records[index].clear();
+        sequences.lazySet(index, head + records.length);
+        head++;
+    }
+
+    /**
+     * Approximate number of claimed records not yet released, including records
+     * claimed but not yet published, so a flush waits for in-flight producers too.
+     */
+    int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    int capacity() {
+        return records.length;
+    }
+}
@@ -0,0 +1,40 @@
+package com.wallet.audit;
+
+import com.wallet.event.WalletEvent;
+import com.wallet.model.Transaction;
+import com.wallet.model.Wallet;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Reusable slot of the audit queue. A producer copies the fields of one event
+ * into it; all referenced values are immutable, so filling a slot allocates nothing.
+ */
+final class AuditRecord {
+
+    long epochMillis;
+    WalletEvent.Type type;
+    UUID walletId;
+    Wallet.WalletStatus status;
+    String currency;
+    BigDecimal balance;
+    long version;
+    UUID transactionId;
+    Transaction.TransactionType transactionType;
+    BigDecimal amount;
+    UUID counterpartyWalletId;
+    String referenceId;
+
+    void clear() {
+        walletId = null;
+        status = null;
+        currency = null;
+        balance = null;
+        transactionId = null;
+        transactionType = null;
+        amount = null;
+        counterpartyWalletId = null;
+        referenceId = null;
+    }
+}
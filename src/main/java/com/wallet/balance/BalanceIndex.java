@@ -0,0 +1,336 @@
+package com.wallet.balance;
+
+import com.wallet.event.WalletEvent;
+import com.wallet.model.Wallet;
+import com.wallet.payload.WalletDTO;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/**
+ * Wallet state kept off-heap in a memory-mapped file of fixed-width records, so
+ * tens of millions of wallets cost no garbage-collected memory.
+ * <p>
+ * The file is an open-addressing hash table keyed by wallet ID with linear
+ * probing; a record, once claimed by a wallet, stays with it. Each record holds
+ * <pre>
+ *   0 seq          8 id (msb)      16 id (lsb)        24 balance (1/10000 units)
+ *  32 version     40 user (msb)    48 user (lsb)      56 created (epoch nanos, UTC)
+ *  64 updated     72 status (low byte, 0 = not valid) and currency (next 3 bytes)
+ * </pre>
+ * Writes are serialized and published with a per-record sequence number
+ * (seqlock): odd while the record is being written. Readers take no lock; they
+ * retry a record whose sequence was odd or changed while they read it.
+ * <p>
+ * Entries follow the after-commit wallet events and wallets loaded by reads,
+ * keeping the higher version of a wallet. Wallets updated in bulk are invalidated.
+ */
+@Slf4j
+@Component
+public class BalanceIndex {
+
+    static final int RECORD_BYTES = 80;
+
+    /** Slots per mapped region, 1.3 GB; a single mapping cannot exceed 2 GB. */
+    private static final int SEGMENT_SHIFT = 24;
+    private static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private static final int SEQ = 0;
+    private static final int ID_MSB = 8;
+    private static final int ID_LSB = 16;
+    private static final int BALANCE = 24;
+    private static final int VERSION = 32;
+    private static final int USER_MSB = 40;
+    private static final int USER_LSB = 48;
+    private static final int CREATED = 56;
+    private static final int UPDATED = 64;
+    private static final int STATUS = 72;
+
+    private static final long NO_TIME = Long.MIN_VALUE;
+    private static final Wallet.WalletStatus[] STATUSES = Wallet.WalletStatus.values();
+
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final MappedByteBuffer[] segments;
+    private final int mask;
+    private final int maxSize;
+    private final FileChannel channel;
+
+    // guarded by this
+    private int size;
+    private boolean fullReported;
+
+    public BalanceIndex(BalanceIndexProperties properties) {
+        if (!properties.isEnabled()) {
+            segments = null;
+            mask = 0;
+            maxSize = 0;
+            channel = null;
+            return;
+        }
+        int capacity = Integer.highestOneBit(Math.min(MAX_CAPACITY - 1, Math.max(2, properties.getCapacity() - 1))) << 1;
+        this.mask = capacity - 1;
+        this.maxSize = (int) (capacity * 0.75);
+        try {
+            this.channel = open(Paths.get(properties.getFile()), (long) capacity * RECORD_BYTES);
+            int slotsPerSegment = Math.min(capacity, 1 << SEGMENT_SHIFT);
+            this.segments = new MappedByteBuffer[capacity / slotsPerSegment];
+            for (int i = 0; i < segments.length; i++) {
+                segments[i] = channel.map(FileChannel.MapMode.READ_WRITE,
+                        (long) i * slotsPerSegment * RECORD_BYTES, (long) slotsPerSegment * RECORD_BYTES);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot map balance index " + properties.getFile(), e);
+        }
+        log.info("Balance index mapped: {} slots, {} MB", capacity, (long) capacity * RECORD_BYTES >> 20);
+    }
+
+    public boolean isEnabled() {
+        return segments != null;
+    }
+
+    /** The indexed state of a wallet, or null if it is not indexed. Lock-free. */
+    public WalletDTO get(UUID walletId) {
+        if (segments == null) {
+            return null;
+        }
+        long msb = walletId.getMostSignificantBits();
+        long lsb = walletId.getLeastSignificantBits();
+        long[] record = new long[10];
+        for (int probe = 0, slot = home(msb, lsb); probe <= mask; probe++, slot = (slot + 1) & mask) {
+            read(slot, record);
+            if (record[1] == 0 && record[2] == 0) {
+                return null;   // end of the probe chain
+            }
+            if (record[1] == msb && record[2] == lsb) {
+                return (record[9] & 0xFF) == 0 ? null : toWallet(walletId, record);
+            }
+        }
+        return null;
+    }
+
+    /** Indexes a wallet state unless a newer version of it is already indexed. */
+    public synchronized void put(WalletDTO wallet) {
+        if (segments == null || wallet.getVersion() == null || wallet.getStatus() == null) {
+            return;
+        }
+        long balance;
+        long statusAndCurrency;
+        try {
+            balance = wallet.getBalance().setScale(4, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+            statusAndCurrency = encodeStatus(wallet.getStatus(), wallet.getCurrency());
+        } catch (ArithmeticException | IllegalArgumentException e) {
+            invalidate(wallet.getId());
+            return;
+        }
+
+        long msb = wallet.getId().getMostSignificantBits();
+        long lsb = wallet.getId().getLeastSignificantBits();
+        int slot = locate(msb, lsb);
+        if (slot < 0) {
+            return;
+        }
+        MappedByteBuffer segment = segments[slot >>> SEGMENT_SHIFT];
+        int base = (slot & SEGMENT_MASK) * RECORD_BYTES;
+        boolean claimed = get(segment, base + ID_MSB) == msb && get(segment, base + ID_LSB) == lsb;
+        if (claimed && (get(segment, base + STATUS) & 0xFF) != 0 && get(segment, base + VERSION) >= wallet.getVersion()) {
+            return;
+        }
+        if (!claimed) {
+            if (size >= maxSize) {
+                if (!fullReported) {
+                    log.warn("Balance index full at {} wallets; further wallets are read from the database", size);
+                    fullReported = true;
+                }
+                return;
+            }
+            size++;
+        }
+
+        long seq = beginWrite(segment, base);
+        set(segment, base + ID_MSB, msb);
+        set(segment, base + ID_LSB, lsb);
+        set(segment, base + BALANCE, balance);
+        set(segment, base + VERSION, wallet.getVersion());
+        set(segment, base + USER_MSB, wallet.getUserId() != null ? wallet.getUserId().getMostSignificantBits() : 0);
+        set(segment, base + USER_LSB, wallet.getUserId() != null ? wallet.getUserId().getLeastSignificantBits() : 0);
+        set(segment, base + CREATED, epochNanos(wallet.getCreatedAt()));
+        set(segment, base + UPDATED, epochNanos(wallet.getUpdatedAt()));
+        set(segment, base + STATUS, statusAndCurrency);
+        endWrite(segment, base, seq);
+    }
+
+    /** Marks a wallet as not indexed until its next event or read. */
+    public synchronized void invalidate(UUID walletId) {
+        if (segments == null) {
+            return;
+        }
+        long msb = walletId.getMostSignificantBits();
+        long lsb = walletId.getLeastSignificantBits();
+        int slot = locate(msb, lsb);
+        if (slot < 0) {
+            return;
+        }
+        MappedByteBuffer segment = segments[slot >>> SEGMENT_SHIFT];
+        int base = (slot & SEGMENT_MASK) * RECORD_BYTES;
+        if (get(segment, base + ID_MSB) == msb && get(segment, base + ID_LSB) == lsb) {
+            long seq = beginWrite(segment, base);
+            set(segment, base + STATUS, 0);
+            endWrite(segment, base, seq);
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    @TransactionalEventListener
+    public void onWalletEvent(WalletEvent event) {
+        put(event.getWallet());
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    // -------------------------------------------------------------
+    // RECORD ACCESS
+    // -------------------------------------------------------------
+
+    /** Reads a consistent copy of a record's ten words. */
+    private void read(int slot, long[] record) {
+        MappedByteBuffer segment = segments[slot >>> SEGMENT_SHIFT];
+        int base = (slot & SEGMENT_MASK) * RECORD_BYTES;
+        while (true) {
+            long seq = (long) LONG.getAcquire(segment, base + SEQ);
+            if ((seq & 1) == 0) {
+                for (int i = 1; i < record.length; i++) {
+                    record[i] = (long) LONG.getOpaque(segment, base + i * 8);
+                }
+                VarHandle.loadLoadFence();
+                if ((long) LONG.getOpaque(segment, base + SEQ) == seq) {
+                    return;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /** Slot holding the wallet, else the free slot ending its probe chain; -1 if the table is full. */
+    private int locate(long msb, long lsb) {
+        for (int probe = 0, slot = home(msb, lsb); probe <= mask; probe++, slot = (slot + 1) & mask) {
+            MappedByteBuffer segment = segments[slot >>> SEGMENT_SHIFT];
+            int base = (slot & SEGMENT_MASK) * RECORD_BYTES;
+            long keyMsb = get(segment, base + ID_MSB);
+            long keyLsb = get(segment, base + ID_LSB);
+            if ((keyMsb == msb && keyLsb == lsb) || (keyMsb == 0 && keyLsb == 0)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private int home(long msb, long lsb) {
+        long h = (msb ^ Long.rotateLeft(lsb, 32)) * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & mask;
+    }
+
+    private static long beginWrite(MappedByteBuffer segment, int base) {
+        long seq = get(segment, base + SEQ);
+        LONG.setOpaque(segment, base + SEQ, seq + 1);
+        VarHandle.storeStoreFence();
+        return seq;
+    }
+
+    private static void endWrite(MappedByteBuffer segment, int base, long seq) {
+        LONG.setRelease(segment, base + SEQ, seq + 2);
+    }
+
+    private static long get(MappedByteBuffer segment, int offset) {
+        return (long) LONG.getOpaque(segment, offset);
+    }
+
+    private static void set(MappedByteBuffer segment, int offset, long value) {
+        LONG.setOpaque(segment, offset, value);
+    }
+
+    // -------------------------------------------------------------
+    // ENCODING
+    // -------------------------------------------------------------
+
+    private static WalletDTO toWallet(UUID walletId, long[] record) {
+        WalletDTO wallet = new WalletDTO();
+        wallet.setId(walletId);
+        wallet.setBalance(BigDecimal.valueOf(record[BALANCE / 8], 4));
+        wallet.setVersion(record[VERSION / 8]);
+        wallet.setUserId(new UUID(record[USER_MSB / 8], record[USER_LSB / 8]));
+        wallet.setCreatedAt(fromEpochNanos(record[CREATED / 8]));
+        wallet.setUpdatedAt(fromEpochNanos(record[UPDATED / 8]));
+        long statusAndCurrency = record[STATUS / 8];
+        wallet.setStatus(STATUSES[(int) (statusAndCurrency & 0xFF) - 1]);
+        wallet.setCurrency(new String(new char[]{
+                (char) (statusAndCurrency >>> 8 & 0xFF),
+                (char) (statusAndCurrency >>> 16 & 0xFF),
+                (char) (statusAndCurrency >>> 24 & 0xFF)}));
+        return wallet;
+    }
+
+    private static long encodeStatus(Wallet.WalletStatus status, String currency) {
+        if (currency == null || currency.length() != 3) {
+            throw new IllegalArgumentException("Currency not indexable: " + currency);
+        }
+        long encoded = status.ordinal() + 1;
+        for (int i = 0; i < 3; i++) {
+            char c = currency.charAt(i);
+            if (c > 0x7F) {
+                throw new IllegalArgumentException("Currency not indexable: " + currency);
+            }
+            encoded |= (long) c << (8 + 8 * i);
+        }
+        return encoded;
+    }
+
+    private static long epochNanos(LocalDateTime time) {
+        return time == null ? NO_TIME : time.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + time.getNano();
+    }
+
+    private static LocalDateTime fromEpochNanos(long nanos) {
+        return nanos == NO_TIME ? null : LocalDateTime.ofEpochSecond(
+                Math.floorDiv(nanos, 1_000_000_000L), (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+
+    private static FileChannel open(Path file, long length) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        // entries of an earlier run may be stale; start empty
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.SPARSE);
+        channel.write(ByteBuffer.allocate(1), length - 1);
+        return channel;
+    }
+}
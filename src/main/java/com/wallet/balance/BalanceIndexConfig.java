@@ -0,0 +1,9 @@
+package com.wallet.balance;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(BalanceIndexProperties.class)
+public class BalanceIndexConfig {
+}
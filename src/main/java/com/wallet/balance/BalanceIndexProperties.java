@@ -0,0 +1,23 @@
+package com.wallet.balance;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Off-heap wallet state index ({@code wallet.balance-index.*}).
+ * <p>
+ * Only enable it where every wallet mutation goes through this instance: the
+ * index follows this instance's commits, not rows changed by other writers.
+ */
+@Data
+@ConfigurationProperties(prefix = "wallet.balance-index")
+public class BalanceIndexProperties {
+
+    private boolean enabled = false;
+
+    /** Memory-mapped record file; recreated empty at every start. */
+    private String file = "data/balance-index.dat";
+
+    /** Record slots, rounded up to a power of two; at most three quarters are filled. */
+    private int capacity = 1 << 20;
+}
@@ -0,0 +1,9 @@
+package com.wallet.bulkimport;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(WalletImportProperties.class)
+public class WalletImportConfig {
+}
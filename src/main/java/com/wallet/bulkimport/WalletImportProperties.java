@@ -0,0 +1,18 @@
+package com.wallet.bulkimport;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Bulk wallet import from CSV ({@code wallet.import.*}).
+ */
+@Data
+@ConfigurationProperties(prefix = "wallet.import")
+public class WalletImportProperties {
+
+    /** Rows staged and inserted per transaction (per shard). */
+    private int batchSize = 5000;
+
+    /** Rejected lines listed in the result; further rejections are only counted. */
+    private int maxReportedRejections = 10000;
+}
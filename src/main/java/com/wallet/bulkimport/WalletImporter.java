@@ -0,0 +1,266 @@
+package com.wallet.bulkimport;
+
+import com.wallet.cache.WalletCache;
+import com.wallet.exception.WalletException;
+import com.wallet.id.IdStrategy;
+import com.wallet.payload.CreateWalletRequest;
+import com.wallet.payload.WalletImportResult;
+import com.wallet.service.Impl.WalletServiceImpl;
+import com.wallet.sharding.ShardRouter;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Creates wallets from CSV lines of {@code userId,currency[,openingBalance]},
+ * with an optional header line.
+ * <p>
+ * The input is streamed: lines are validated like {@code POST /api/wallets} and
+ * collected per shard into batches of {@code batch-size}, so memory does not
+ * grow with the file. Each batch is written in one transaction on its shard:
+ * <ol>
+ *   <li>the rows are staged in {@code wallet_import_rows} with one JDBC batch;</li>
+ *   <li>rows whose user already has a wallet are reported as rejected;</li>
+ *   <li>the remaining rows are inserted into {@code wallets} by an anti-join,
+ *       and their positive opening balances into {@code transactions} as deposits;</li>
+ *   <li>the staged rows are deleted.</li>
+ * </ol>
+ * Batches commit independently. An interrupted import can be run again with the
+ * same file: the wallets it already created are rejected as existing.
+ * <p>
+ * No wallet events are published, so in-memory views fed by them (rollups, event
+ * streams) do not see imported wallets and opening deposits. The IDs written are
+ * evicted from the wallet cache after each batch commits.
+ */
+@Slf4j
+@Component
+public class WalletImporter {
+
+    private static final String STAGE =
+            "INSERT INTO wallet_import_rows (id, batch_id, line_number, user_id, currency, opening_balance, " +
+            "transaction_id) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SELECT_EXISTING =
+            "SELECT r.line_number, r.user_id FROM wallet_import_rows r WHERE r.batch_id = ? " +
+            "AND EXISTS (SELECT 1 FROM wallets w WHERE w.user_id = r.user_id) ORDER BY r.line_number";
+
+    private static final String INSERT_WALLETS =
+            "INSERT INTO wallets (id, user_id, balance, currency, status, created_at, updated_at, version) " +
+            "SELECT r.id, r.user_id, r.opening_balance, r.currency, 'ACTIVE', ?, ?, 0 " +
+            "FROM wallet_import_rows r WHERE r.batch_id = ? " +
+            "AND NOT EXISTS (SELECT 1 FROM wallets w WHERE w.user_id = r.user_id)";
+
+    private static final String INSERT_OPENING_DEPOSITS =
+            "INSERT INTO transactions (id, wallet_id, type, amount, balance_after, remarks, timestamp) " +
+            "SELECT r.transaction_id, r.id, 'DEPOSIT', r.opening_balance, r.opening_balance, 'Opening balance', ? " +
+            "FROM wallet_import_rows r JOIN wallets w ON w.id = r.id " +
+            "WHERE r.batch_id = ? AND r.transaction_id IS NOT NULL";
+
+    private static final String UNSTAGE = "DELETE FROM wallet_import_rows WHERE batch_id = ?";
+
+    private static final String EXISTING_WALLET = "Wallet already exists for user";
+    private static final int MAX_INTEGER_DIGITS = 15;   // NUMERIC(19,4)
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final Validator validator;
+    private final WalletImportProperties properties;
+    private final IdStrategy idStrategy;
+    private final WalletCache walletCache;
+
+    public WalletImporter(JdbcTemplate jdbcTemplate,
+                          TransactionTemplate transactionTemplate,
+                          ShardRouter shardRouter,
+                          Validator validator,
+                          WalletImportProperties properties,
+                          WalletCache walletCache,
+                          @Value("${spring.jpa.properties." + IdStrategy.PROPERTY + ":}") String idStrategy) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.validator = validator;
+        this.properties = properties;
+        this.idStrategy = IdStrategy.fromProperty(idStrategy);
+        this.walletCache = walletCache;
+    }
+
+    /** Imports every line of the source; the caller closes it. */
+    public WalletImportResult importCsv(Reader source) throws IOException {
+        WalletImportResult result = new WalletImportResult();
+        Map<Integer, Batch> batches = new HashMap<>();
+        BufferedReader reader = source instanceof BufferedReader buffered ? buffered : new BufferedReader(source);
+
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || (lineNumber == 1 && isHeader(line))) {
+                continue;
+            }
+            result.setLinesRead(result.getLinesRead() + 1);
+
+            Row row;
+            try {
+                row = parse(lineNumber, line);
+            } catch (WalletException e) {
+                reject(result, lineNumber, unquote(line.split(",", 2)[0]), e.getMessage());
+                continue;
+            }
+
+            int shard = shardRouter.shardFor(row.userId);
+            Batch batch = batches.computeIfAbsent(shard, s -> new Batch());
+            if (!batch.users.add(row.userId)) {
+                // repeats in earlier batches are rejected by the anti-join as existing wallets
+                reject(result, lineNumber, row.userId.toString(), "Duplicate user ID in file");
+                continue;
+            }
+            batch.rows.add(row);
+            if (batch.rows.size() >= properties.getBatchSize()) {
+                write(shard, batch, result);
+            }
+        }
+        for (Map.Entry<Integer, Batch> entry : batches.entrySet()) {
+            write(entry.getKey(), entry.getValue(), result);
+        }
+
+        log.info("Wallet import: {} lines, {} wallets created, {} rejected",
+                result.getLinesRead(), result.getWalletsCreated(), result.getRejected());
+        return result;
+    }
+
+    // -------------------------------------------------------------
+    // BATCH WRITE
+    // -------------------------------------------------------------
+
+    private void write(int shard, Batch batch, WalletImportResult result) {
+        if (batch.rows.isEmpty()) {
+            return;
+        }
+        UUID batchId = idStrategy.next();
+        List<Object[]> staged = new ArrayList<>(batch.rows.size());
+        for (Row row : batch.rows) {
+            staged.add(new Object[]{
+                    walletId(shard), batchId, row.lineNumber, row.userId, row.currency, row.openingBalance,
+                    row.openingBalance.signum() > 0 ? idStrategy.next() : null
+            });
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        shardRouter.onShard(shard, () -> transactionTemplate.execute(status -> {
+            jdbcTemplate.batchUpdate(STAGE, staged);
+            jdbcTemplate.query(SELECT_EXISTING, rs -> {
+                reject(result, rs.getLong(1), rs.getObject(2, UUID.class).toString(), EXISTING_WALLET);
+            }, batchId);
+            int created = jdbcTemplate.update(INSERT_WALLETS, now, now, batchId);
+            jdbcTemplate.update(INSERT_OPENING_DEPOSITS, now, batchId);
+            jdbcTemplate.update(UNSTAGE, batchId);
+            result.setWalletsCreated(result.getWalletsCreated() + created);
+            return null;
+        }));
+        walletCache.evictAll(staged.stream().map(row -> (UUID) row[0]).toList());
+        batch.rows.clear();
+        batch.users.clear();
+    }
+
+    /** A new wallet ID that hashes to the shard, as {@code ShardedWalletService} assigns them. */
+    private UUID walletId(int shard) {
+        UUID walletId;
+        do {
+            walletId = idStrategy.next();
+        } while (shardRouter.shardFor(walletId) != shard);
+        return walletId;
+    }
+
+    // -------------------------------------------------------------
+    // PARSING AND VALIDATION
+    // -------------------------------------------------------------
+
+    private Row parse(long lineNumber, String line) {
+        String[] fields = line.split(",", -1);
+        if (fields.length < 2 || fields.length > 3) {
+            throw new WalletException("Expected userId,currency[,openingBalance]");
+        }
+
+        CreateWalletRequest request = new CreateWalletRequest();
+        String userId = unquote(fields[0]);
+        try {
+            request.setUserId(userId.isEmpty() ? null : UUID.fromString(userId));
+        } catch (IllegalArgumentException e) {
+            throw new WalletException("Invalid user ID");
+        }
+        String currency = unquote(fields[1]);
+        request.setCurrency(currency.isEmpty() ? null : currency);
+
+        WalletServiceImpl.validateCreateWalletRequest(request);
+        for (ConstraintViolation<CreateWalletRequest> violation : validator.validate(request)) {
+            throw new WalletException(violation.getMessage());
+        }
+
+        BigDecimal openingBalance = BigDecimal.ZERO;
+        String amount = fields.length == 3 ? unquote(fields[2]) : "";
+        if (!amount.isEmpty()) {
+            try {
+                openingBalance = new BigDecimal(amount);
+            } catch (NumberFormatException e) {
+                throw new WalletException("Invalid opening balance");
+            }
+            if (openingBalance.signum() < 0) {
+                throw new WalletException("Opening balance must not be negative");
+            }
+            if (openingBalance.stripTrailingZeros().scale() > 4
+                    || openingBalance.precision() - openingBalance.scale() > MAX_INTEGER_DIGITS) {
+                throw new WalletException("Opening balance must have at most 15 digits and 4 decimals");
+            }
+        }
+        return new Row(lineNumber, request.getUserId(), request.getCurrency(), openingBalance);
+    }
+
+    private static boolean isHeader(String line) {
+        String first = unquote(line.split(",", 2)[0]);
+        return first.equalsIgnoreCase("userId") || first.equalsIgnoreCase("user_id");
+    }
+
+    private static String unquote(String field) {
+        String value = field.trim();
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1).trim();
+        }
+        return value;
+    }
+
+    private void reject(WalletImportResult result, long lineNumber, String userId, String reason) {
+        result.setRejected(result.getRejected() + 1);
+        if (result.getRejections().size() < properties.getMaxReportedRejections()) {
+            result.getRejections().add(new WalletImportResult.Rejection(lineNumber, userId, reason));
+        } else {
+            result.setRejectionsTruncated(true);
+        }
+    }
+
+    private record Row(long lineNumber, UUID userId, String currency, BigDecimal openingBalance) {
+    }
+
+    private static final class Batch {
+        final List<Row> rows = new ArrayList<>();
+        final Set<UUID> users = new HashSet<>();
+    }
+}
@@ -0,0 +1,112 @@
+package com.wallet.cache;
+
+import com.wallet.event.WalletEvent;
+import com.wallet.payload.WalletDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Version-aware view over the "wallets" cache.
+ * <p>
+ * Entries are written both by readers (after a database load) and by the
+ * after-commit wallet event listener. Every write keeps whichever of the two
+ * states has the higher wallet version, so a reader that loaded a wallet just
+ * before a concurrent commit can never overwrite the newer committed state.
+ * <p>
+ * Entries never expire and are not checked against the database: the cache only
+ * learns of writes made through this instance. It is therefore opt-in via
+ * {@code wallet.wallet-cache.enabled}, for single-writer deployments only; when
+ * disabled, every lookup misses. Beyond {@code max-wallets}, an arbitrary tenth
+ * of the entries is dropped and reloaded on the next read. Writes that bypass
+ * wallet events must evict the wallets they touch.
+ */
+@Slf4j
+@Component
+public class WalletCache {
+
+    public static final String NAME = "wallets";
+
+    private final ConcurrentMap<Object, Object> store;
+    private final boolean enabled;
+    private final int maxWallets;
+
+    @SuppressWarnings("unchecked")
+    public WalletCache(CacheManager cacheManager,
+                       @Value("${wallet.wallet-cache.enabled:false}") boolean enabled,
+                       @Value("${wallet.wallet-cache.max-wallets:100000}") int maxWallets) {
+        Cache cache = cacheManager.getCache(NAME);
+        if (cache == null || !(cache.getNativeCache() instanceof ConcurrentMap)) {
+            throw new IllegalStateException("Cache '" + NAME + "' must be backed by a ConcurrentMap");
+        }
+        this.store = (ConcurrentMap<Object, Object>) cache.getNativeCache();
+        this.enabled = enabled;
+        this.maxWallets = maxWallets;
+    }
+
+    /** The cached wallet, or null on a miss or when the cache is disabled. */
+    public WalletDTO get(UUID walletId) {
+        return enabled ? (WalletDTO) store.get(walletId) : null;
+    }
+
+    /** Stores the wallet unless a newer version is already cached. */
+    public void put(WalletDTO wallet) {
+        if (!enabled) {
+            return;
+        }
+        store.merge(wallet.getId(), wallet, WalletCache::newer);
+        if (store.size() > maxWallets) {
+            trim();
+        }
+    }
+
+    public void evict(UUID walletId) {
+        store.remove(walletId);
+    }
+
+    /** Drops wallets whose rows were written bypassing wallet events. */
+    public void evictAll(Collection<UUID> walletIds) {
+        walletIds.forEach(store::remove);
+    }
+
+    int size() {
+        return store.size();
+    }
+
+    @TransactionalEventListener
+    public void onWalletEvent(WalletEvent event) {
+        put(event.getWallet());
+    }
+
+    /** Drops the excess plus a tenth of the bound, so trimming is not repeated on every put. */
+    private synchronized void trim() {
+        int count = store.size() - maxWallets;
+        if (count <= 0) {
+            return;
+        }
+        count += maxWallets / 10;
+        Iterator<Object> keys = store.keySet().iterator();
+        for (int i = 0; i < count && keys.hasNext(); i++) {
+            keys.next();
+            keys.remove();
+        }
+        log.debug("Evicted {} cached wallets", count);
+    }
+
+    private static Object newer(Object current, Object candidate) {
+        Long currentVersion = ((WalletDTO) current).getVersion();
+        Long candidateVersion = ((WalletDTO) candidate).getVersion();
+        if (currentVersion == null || candidateVersion == null) {
+            return candidate;
+        }
+        return candidateVersion >= currentVersion ? candidate : current;
+    }
+}
@@ -0,0 +1,34 @@
+package com.wallet.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.time.Duration;
+
+/**
+ * Cluster mode ({@code wallet.cluster.enabled=true}): wallet ownership is partitioned
+ * across the members by {@link ClusterMembership} and enforced on the API by
+ * {@link WalletOwnershipFilter}.
+ */
+@Configuration
+@EnableScheduling   // members file polling
+@EnableConfigurationProperties(ClusterProperties.class)
+@ConditionalOnProperty(prefix = "wallet.cluster", name = "enabled", havingValue = "true")
+public class ClusterConfig {
+
+    @Bean
+    public ClusterMembership clusterMembership(ClusterProperties properties) {
+        return new ClusterMembership(properties);
+    }
+
+    @Bean
+    public WalletOwnershipFilter walletOwnershipFilter(ClusterMembership membership, ObjectMapper objectMapper,
+                                                       ClusterProperties properties) {
+        return new WalletOwnershipFilter(membership, objectMapper,
+                Duration.ofMillis(properties.getForwardTimeoutMs()));
+    }
+}
@@ -0,0 +1,114 @@
+package com.wallet.cluster;
+
+import com.wallet.routing.ConsistentHashRing;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Current cluster members and the hash ring assigning wallets to them.
+ * <p>
+ * With a members file, the file is polled and the ring rebuilt when it changes, so
+ * adding or removing a node moves ownership of roughly {@code 1/n} of the wallets.
+ * Requests already running keep the owner they were routed to; this is safe since
+ * the database row locks, not ownership, are what guarantee correctness.
+ */
+@Slf4j
+public class ClusterMembership {
+
+    private final ClusterProperties properties;
+    private final Path membersFile;
+
+    private volatile ConsistentHashRing<ClusterProperties.Member> ring;
+    private volatile FileTime membersFileModified;
+
+    public ClusterMembership(ClusterProperties properties) {
+        this.properties = properties;
+        this.membersFile = properties.getMembersFile() != null ? Path.of(properties.getMembersFile()) : null;
+        this.ring = buildRing(membersFile != null ? readMembersFile() : properties.getMembers());
+    }
+
+    public String getNodeId() {
+        return properties.getNodeId();
+    }
+
+    /** Member owning the given wallet. */
+    public ClusterProperties.Member ownerOf(UUID walletId) {
+        return ring.nodeFor(walletId);
+    }
+
+    public boolean isLocal(ClusterProperties.Member member) {
+        return member.getId().equals(properties.getNodeId());
+    }
+
+    public boolean ownsWallet(UUID walletId) {
+        return isLocal(ownerOf(walletId));
+    }
+
+    public List<ClusterProperties.Member> getMembers() {
+        return List.copyOf(ring.getNodes());
+    }
+
+    @Scheduled(initialDelayString = "${wallet.cluster.members-refresh-ms:5000}",
+            fixedDelayString = "${wallet.cluster.members-refresh-ms:5000}")
+    public void refresh() {
+        if (membersFile == null) {
+            return;
+        }
+        try {
+            if (Files.getLastModifiedTime(membersFile).equals(membersFileModified)) {
+                return;
+            }
+            ring = buildRing(readMembersFile());
+        } catch (IOException | UncheckedIOException | IllegalStateException e) {
+            // keep serving with the last good membership
+            log.warn("Ignoring unreadable cluster members file {}: {}", membersFile, e.getMessage());
+        }
+    }
+
+    private ConsistentHashRing<ClusterProperties.Member> buildRing(List<ClusterProperties.Member> members) {
+        Map<String, ClusterProperties.Member> nodes = new LinkedHashMap<>();
+        members.forEach(m -> nodes.put(m.getId(), m));
+        if (!nodes.containsKey(properties.getNodeId())) {
+            throw new IllegalStateException("wallet.cluster.node-id '" + properties.getNodeId()
+                    + "' is not a cluster member: " + nodes.keySet());
+        }
+        log.info("Cluster membership: {} (this node: {})", nodes.keySet(), properties.getNodeId());
+        return new ConsistentHashRing<>(nodes, properties.getVirtualNodes());
+    }
+
+    /** Reads {@code id=url} lines; blank lines and {@code #} comments are skipped. */
+    private List<ClusterProperties.Member> readMembersFile() {
+        try {
+            membersFileModified = Files.getLastModifiedTime(membersFile);
+            List<ClusterProperties.Member> members = new ArrayList<>();
+            for (String line : Files.readAllLines(membersFile)) {
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                int eq = line.indexOf('=');
+                if (eq < 1) {
+                    throw new IllegalStateException("Invalid member line: " + line);
+                }
+                ClusterProperties.Member member = new ClusterProperties.Member();
+                member.setId(line.substring(0, eq).strip());
+                member.setUrl(line.substring(eq + 1).strip());
+                members.add(member);
+            }
+            return members;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
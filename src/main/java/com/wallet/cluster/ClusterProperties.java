@@ -0,0 +1,42 @@
+package com.wallet.cluster;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration of cluster mode ({@code wallet.cluster.*}), in which several instances
+ * share the database and each owns a slice of the wallets.
+ * Members are either listed statically or read from a file that is watched for changes.
+ */
+@Data
+@ConfigurationProperties(prefix = "wallet.cluster")
+public class ClusterProperties {
+
+    private boolean enabled = false;
+
+    /** ID of this node; must be one of the members. */
+    private String nodeId;
+
+    /** Ring points per node; more points give a more even spread. */
+    private int virtualNodes = 128;
+
+    /** Static membership, used when no members file is configured. */
+    private List<Member> members = new ArrayList<>();
+
+    /** File with one {@code id=url} line per member; re-read when it changes. */
+    private String membersFile;
+
+    private long membersRefreshMs = 5_000;
+
+    private long forwardTimeoutMs = 5_000;
+
+    @Data
+    public static class Member {
+        private String id;
+        /** Base URL the node serves the API on, e.g. {@code http://10.0.0.5:8080}. */
+        private String url;
+    }
+}
@@ -0,0 +1,187 @@
+package com.wallet.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.web.CachedBodyRequest;
+import com.wallet.web.WalletRequests;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Routes wallet API requests to the cluster node owning the wallet.
+ * <ul>
+ *   <li>Requests for a wallet owned by another node are forwarded to it over HTTP
+ *       and its response is relayed unchanged.</li>
+ *   <li>Requests served locally continue down the chain, where mutations queue on
+ *       the in-memory wallet locks before they reach the database.</li>
+ *   <li>Transfers are routed by their source wallet.</li>
+ * </ul>
+ * Requests not addressed to a wallet (creation, batch reads, lookups by transaction ID)
+ * are served by whichever node receives them. A forwarded request is always served
+ * locally, so nodes with momentarily different membership views cannot bounce it.
+ * <p>
+ * When the owner cannot be reached, reads and requests that never left this node
+ * (connection refused or not established in time) are served locally. A mutation that
+ * was sent but timed out or failed mid-flight may already have been applied by the
+ * owner, so it is answered with 504 or 502 instead of being run a second time; the
+ * client retries it with the same reference ID.
+ */
+@Slf4j
+public class WalletOwnershipFilter extends OncePerRequestFilter implements Ordered {
+
+    static final String FORWARDED_BY_HEADER = "X-Wallet-Forwarded-By";
+    static final String SERVED_BY_HEADER = "X-Wallet-Node";
+
+    private static final String PREFIX = "/api/wallets/";
+    private static final Set<String> FORWARDED_REQUEST_HEADERS = Set.of(
+            HttpHeaders.CONTENT_TYPE, HttpHeaders.ACCEPT, HttpHeaders.IF_NONE_MATCH, HttpHeaders.IF_MODIFIED_SINCE);
+    private static final Set<String> RELAYED_RESPONSE_HEADERS = Set.of(
+            HttpHeaders.CONTENT_TYPE, HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED, HttpHeaders.CACHE_CONTROL,
+            SERVED_BY_HEADER);
+
+    private final ClusterMembership membership;
+    private final ObjectMapper objectMapper;
+    private final Duration forwardTimeout;
+    private final HttpClient client;
+
+    public WalletOwnershipFilter(ClusterMembership membership, ObjectMapper objectMapper, Duration forwardTimeout) {
+        this.membership = membership;
+        this.objectMapper = objectMapper;
+        this.forwardTimeout = forwardTimeout;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(forwardTimeout)
+                .build();
+    }
+
+    /** After admission control, before the wallet locks: forwarded requests hold no local lock. */
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 200;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !WalletRequests.path(request).startsWith(PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        String rest = WalletRequests.path(request).substring(PREFIX.length());
+        String first = rest.split("/", 2)[0];
+        boolean mutation = !"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod());
+
+        byte[] body = null;
+        List<UUID> walletIds;
+        if ("transfer".equals(first) && "POST".equals(request.getMethod())) {
+            body = request.getInputStream().readAllBytes();
+            request = new CachedBodyRequest(request, body);
+            walletIds = WalletRequests.transferWallets(objectMapper, body);
+        } else {
+            UUID walletId = WalletRequests.parseUuid(first);
+            walletIds = walletId != null ? List.of(walletId) : List.of();
+        }
+
+        if (walletIds.isEmpty()) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        ClusterProperties.Member owner = membership.ownerOf(walletIds.get(0));
+        if (!membership.isLocal(owner) && request.getHeader(FORWARDED_BY_HEADER) == null) {
+            if (body == null) {
+                body = request.getInputStream().readAllBytes();
+            }
+            if (forward(request, body, owner, mutation, response)) {
+                return;
+            }
+            request = new CachedBodyRequest(request, body);
+        }
+
+        response.setHeader(SERVED_BY_HEADER, membership.getNodeId());
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * Relays the request to its owner.
+     *
+     * @return false if the owner could not be reached and the request should be served locally
+     */
+    private boolean forward(HttpServletRequest request, byte[] body, ClusterProperties.Member owner,
+                            boolean mutation, HttpServletResponse response) throws IOException {
+        String target = owner.getUrl() + request.getRequestURI()
+                + (request.getQueryString() != null ? "?" + request.getQueryString() : "");
+        HttpRequest.Builder forwarded = HttpRequest.newBuilder(URI.create(target))
+                .timeout(forwardTimeout)
+                .header(FORWARDED_BY_HEADER, membership.getNodeId())
+                .method(request.getMethod(), body.length == 0
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofByteArray(body));
+        for (String name : FORWARDED_REQUEST_HEADERS) {
+            String value = request.getHeader(name);
+            if (value != null) {
+                forwarded.header(name, value);
+            }
+        }
+
+        HttpResponse<byte[]> reply;
+        try {
+            reply = client.send(forwarded.build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            if (!mutation || notSent(e)) {
+                log.warn("Owner {} of {} unreachable, serving locally: {}", owner.getId(), request.getRequestURI(),
+                        e.getMessage());
+                return false;
+            }
+            // The owner may have applied it: running it here too could apply it twice
+            HttpStatus status = e instanceof HttpTimeoutException ? HttpStatus.GATEWAY_TIMEOUT : HttpStatus.BAD_GATEWAY;
+            log.warn("Forwarding {} {} to owner {} failed with {}: {}", request.getMethod(), request.getRequestURI(),
+                    owner.getId(), status.value(), e.toString());
+            WalletRequests.reject(response, objectMapper, status, "Wallet owner " + owner.getId()
+                    + " did not answer; the request may have been applied, retry it with the same reference ID", 1);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while forwarding to " + owner.getId(), e);
+        }
+
+        response.setStatus(reply.statusCode());
+        reply.headers().map().forEach((name, values) -> {
+            if (RELAYED_RESPONSE_HEADERS.stream().anyMatch(name::equalsIgnoreCase)) {
+                values.forEach(value -> response.addHeader(name, value));
+            }
+        });
+        response.getOutputStream().write(reply.body());
+        return true;
+    }
+
+    /** True if the request failed before any of it reached the owner. */
+    private static boolean notSent(IOException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException || cause instanceof HttpConnectTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
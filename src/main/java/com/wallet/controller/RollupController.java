@@ -0,0 +1,53 @@
+package com.wallet.controller;
+
+import com.wallet.model.Transaction;
+import com.wallet.model.VolumeRollup;
+import com.wallet.payload.VolumeRollupDTO;
+import com.wallet.rollup.VolumeRollupService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * REST controller exposing ledger volume rollups for dashboards.
+ */
+@Tag(name = "Ledger Rollups", description = "Ledger volume per minute, hour and day")
+@RestController
+@RequestMapping("/api/rollups")
+@RequiredArgsConstructor
+public class RollupController {
+
+    private static final int DEFAULT_BUCKETS = 60;
+
+    private final VolumeRollupService rollupService;
+
+    /**
+     * Volume per bucket by transaction type and currency. Without a range,
+     * returns the last 60 buckets of the resolution.
+     */
+    @Operation(summary = "Get ledger volume per bucket")
+    @GetMapping
+    public ResponseEntity<List<VolumeRollupDTO>> getRollups(
+            @Parameter(description = "MINUTE, HOUR or DAY") @RequestParam(defaultValue = "MINUTE")
+            VolumeRollup.Resolution resolution,
+            @Parameter(description = "Range start (inclusive)") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Range end (exclusive)") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Transaction.TransactionType type,
+            @RequestParam(required = false) String currency) {
+
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from
+                : end.minus(Duration.ofMillis(resolution.getBucketMillis() * DEFAULT_BUCKETS));
+        return ResponseEntity.ok(rollupService.query(resolution, start, end, type, currency));
+    }
+}
@@ -1,8 +1,11 @@
 package com.wallet.controller;
 
+import com.wallet.bulkimport.WalletImporter;
 import com.wallet.payload.*;
+import com.wallet.reversal.BulkReversalService;
 import com.wallet.service.WalletService;
 import com.wallet.service.TransactionService;
+import com.wallet.stream.WalletStreamService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -10,10 +13,18 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -29,6 +40,9 @@ public class WalletController {
 
     private final WalletService walletService;
     private final TransactionService transactionService;
+    private final WalletStreamService walletStreamService;
+    private final WalletImporter walletImporter;
+    private final BulkReversalService bulkReversalService;
 
     /**
      * Create a new wallet for a user.
@@ -44,14 +58,46 @@ public class WalletController {
 
     /**
      * Retrieve wallet details using its unique wallet ID.
+     * Supports conditional requests: a matching If-None-Match returns 304
+     * after a version-only lookup, without loading the wallet.
      */
     @Operation(summary = "Get wallet details by ID")
     @GetMapping("/{walletId}")
     public ResponseEntity<WalletDTO> getWallet(
-            @Parameter(description = "Wallet ID") @PathVariable UUID walletId) {
+            @Parameter(description = "Wallet ID") @PathVariable UUID walletId,
+            WebRequest webRequest) {
+
+        if (isNotModified(webRequest, "w", walletService.getWalletETag(walletId))) {
+            return null;
+        }
 
         WalletDTO wallet = walletService.getWallet(walletId);
-        return ResponseEntity.ok(wallet);
+        return ResponseEntity.ok()
+                .eTag(eTag("w", WalletDTO.versionTag(wallet.getVersion(), wallet.getUpdatedAt())))
+                .body(wallet);
+    }
+
+    /**
+     * Look up balances and statuses of many wallets in one call.
+     */
+    @Operation(summary = "Get multiple wallets and balances")
+    @PostMapping("/batch")
+    public ResponseEntity<BatchWalletResponse> getWallets(
+            @Valid @RequestBody BatchWalletRequest request) {
+
+        BatchWalletResponse response = walletService.getWallets(request.getWalletIds());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Create wallets from a CSV body of userId,currency[,openingBalance] lines.
+     * The body is streamed; rejected lines are reported in the result.
+     */
+    @Operation(summary = "Import wallets from CSV")
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<WalletImportResult> importWallets(InputStream body) throws IOException {
+        WalletImportResult result = walletImporter.importCsv(new InputStreamReader(body, StandardCharsets.UTF_8));
+        return ResponseEntity.ok(result);
     }
 
     /**
@@ -99,10 +145,46 @@ public class WalletController {
     @GetMapping("/{walletId}/transactions")
     public ResponseEntity<Page<TransactionDTO>> getTransactions(
             @Parameter(description = "Wallet ID") @PathVariable UUID walletId,
-            @ModelAttribute TransactionHistoryRequest request) {
+            @ModelAttribute TransactionHistoryRequest request,
+            WebRequest webRequest) {
+
+        // Taken before the page is read, so the tag can only lag behind the content, never lead it
+        String tag = walletService.getTransactionHistoryETag(walletId, request);
+        if (tag != null && webRequest.checkNotModified(weakETag("h", tag))) {
+            return null;
+        }
 
         Page<TransactionDTO> transactions = walletService.getTransactionHistory(walletId, request);
-        return ResponseEntity.ok(transactions);
+        return ResponseEntity.ok()
+                .eTag(weakETag("h", tag))
+                .body(transactions);
+    }
+
+    /**
+     * Retrieve paginated transfers exchanged between a wallet and one counterparty.
+     */
+    @Operation(summary = "Get transfers between two wallets")
+    @GetMapping("/{walletId}/transfers/{counterpartyWalletId}")
+    public ResponseEntity<Page<TransactionDTO>> getTransfersBetween(
+            @Parameter(description = "Wallet ID") @PathVariable UUID walletId,
+            @Parameter(description = "Counterparty wallet ID") @PathVariable UUID counterpartyWalletId,
+            @ModelAttribute TransactionHistoryRequest request) {
+
+        Page<TransactionDTO> transfers = transactionService.getTransfersBetween(
+                walletId, counterpartyWalletId, request.getPage(), request.getSize());
+        return ResponseEntity.ok(transfers);
+    }
+
+    /**
+     * List all wallets a wallet has exchanged transfers with.
+     */
+    @Operation(summary = "Get transfer counterparties of a wallet")
+    @GetMapping("/{walletId}/counterparties")
+    public ResponseEntity<List<CounterpartyDTO>> getCounterparties(
+            @Parameter(description = "Wallet ID") @PathVariable UUID walletId) {
+
+        List<CounterpartyDTO> counterparties = transactionService.getCounterparties(walletId);
+        return ResponseEntity.ok(counterparties);
     }
 
     /**
@@ -111,10 +193,29 @@ public class WalletController {
     @Operation(summary = "Get wallet balance")
     @GetMapping("/{walletId}/balance")
     public ResponseEntity<BigDecimal> getBalance(
-            @Parameter(description = "Wallet ID") @PathVariable UUID walletId) {
+            @Parameter(description = "Wallet ID") @PathVariable UUID walletId,
+            WebRequest webRequest) {
 
-        BigDecimal balance = walletService.getBalance(walletId);
-        return ResponseEntity.ok(balance);
+        if (isNotModified(webRequest, "b", walletService.getWalletETag(walletId))) {
+            return null;
+        }
+
+        WalletDTO wallet = walletService.getWallet(walletId);
+        return ResponseEntity.ok()
+                .eTag(eTag("b", WalletDTO.versionTag(wallet.getVersion(), wallet.getUpdatedAt())))
+                .body(wallet.getBalance());
+    }
+
+    /**
+     * Subscribe to balance and transaction events of one or more wallets
+     * as Server-Sent Events, instead of polling the balance endpoint.
+     */
+    @Operation(summary = "Stream balance and transaction events (Server-Sent Events)")
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(
+            @Parameter(description = "Wallet IDs to follow") @RequestParam List<UUID> walletIds) {
+
+        return walletStreamService.subscribe(walletIds);
     }
 
     /**
@@ -153,6 +254,57 @@ public class WalletController {
         return ResponseEntity.ok(transaction);
     }
 
+    /**
+     * Reverse many deposits and withdrawals, given by ID or by a query, as a background job.
+     * Returns once every transaction is staged; poll the job for progress.
+     */
+    @Operation(summary = "Start a bulk reversal job")
+    @PostMapping("/transactions/reversals")
+    public ResponseEntity<ReversalJobDTO> startBulkReversal(
+            @RequestBody BulkReversalRequest request) {
+
+        ReversalJobDTO job = bulkReversalService.submit(request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    /**
+     * Retrieve the status of a bulk reversal job and its items per outcome.
+     */
+    @Operation(summary = "Get bulk reversal job progress")
+    @GetMapping("/transactions/reversals/{jobId}")
+    public ResponseEntity<ReversalJobDTO> getBulkReversal(
+            @Parameter(description = "Job ID") @PathVariable UUID jobId) {
+
+        return ResponseEntity.ok(bulkReversalService.getJob(jobId));
+    }
+
+    /**
+     * List the outcome of each transaction of a bulk reversal job, in transaction ID order.
+     * Pass the last transaction ID of a page as {@code after} to get the next page.
+     */
+    @Operation(summary = "Get per-transaction outcomes of a bulk reversal job")
+    @GetMapping("/transactions/reversals/{jobId}/items")
+    public ResponseEntity<List<ReversalItemDTO>> getBulkReversalItems(
+            @Parameter(description = "Job ID") @PathVariable UUID jobId,
+            @Parameter(description = "Last transaction ID of the previous page")
+            @RequestParam(required = false) UUID after,
+            @RequestParam(defaultValue = "100") int limit) {
+
+        return ResponseEntity.ok(bulkReversalService.getItems(jobId, after, limit));
+    }
+
+    /**
+     * Continue a bulk reversal job that failed or was interrupted by a restart.
+     */
+    @Operation(summary = "Resume a bulk reversal job")
+    @PostMapping("/transactions/reversals/{jobId}/resume")
+    public ResponseEntity<ReversalJobDTO> resumeBulkReversal(
+            @Parameter(description = "Job ID") @PathVariable UUID jobId) {
+
+        ReversalJobDTO job = bulkReversalService.resume(jobId);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
     /**
      * Retrieve details of a specific transaction.
      */
@@ -164,4 +316,35 @@ public class WalletController {
         TransactionDTO transaction = transactionService.getTransaction(transactionId);
         return ResponseEntity.ok(transaction);
     }
+
+    // -------------------------------------------------------------
+    // CONDITIONAL REQUEST HELPERS
+    // -------------------------------------------------------------
+
+    /**
+     * Evaluates If-None-Match against the current tag of a resource. When it matches,
+     * the response is already completed as 304 Not Modified and the handler should
+     * return null. A null tag (unknown or inactive wallet) never matches, so the
+     * regular lookup runs and reports the error.
+     * <p>
+     * Last-Modified is deliberately not used: its one-second resolution could
+     * validate a balance that changed twice within the same second.
+     */
+    private boolean isNotModified(WebRequest webRequest, String kind, String tag) {
+        return tag != null && webRequest.checkNotModified(eTag(kind, tag));
+    }
+
+    /** Strong entity tag; the kind prefix keeps tags of different representations distinct. */
+    private String eTag(String kind, String tag) {
+        return "\"" + kind + "-" + tag + "\"";
+    }
+
+    /**
+     * Weak entity tag, for responses large enough to be gzip-compressed:
+     * the servlet container does not compress responses carrying a strong tag,
+     * since the encoded bytes would no longer match it.
+     */
+    private String weakETag(String kind, String tag) {
+        return "W/" + eTag(kind, tag);
+    }
 }
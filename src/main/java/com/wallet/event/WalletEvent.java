@@ -0,0 +1,48 @@
+package com.wallet.event;
+
+import com.wallet.payload.TransactionDTO;
+import com.wallet.payload.WalletDTO;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.util.UUID;
+
+/**
+ * Published by the wallet service for every successful wallet mutation.
+ * Carries the wallet state produced by the operation and, for ledger
+ * operations, the transaction recorded on that wallet (a transfer publishes
+ * one event per wallet).
+ * <p>
+ * Listeners should use {@code @TransactionalEventListener} so that they only
+ * observe committed changes.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class WalletEvent {
+
+    public enum Type {
+        CREATED, TRANSACTION, STATUS_CHANGED
+    }
+
+    private final Type type;
+    private final WalletDTO wallet;
+    private final TransactionDTO transaction;
+
+    public static WalletEvent created(WalletDTO wallet) {
+        return new WalletEvent(Type.CREATED, wallet, null);
+    }
+
+    public static WalletEvent transaction(WalletDTO wallet, TransactionDTO transaction) {
+        return new WalletEvent(Type.TRANSACTION, wallet, transaction);
+    }
+
+    public static WalletEvent statusChanged(WalletDTO wallet) {
+        return new WalletEvent(Type.STATUS_CHANGED, wallet, null);
+    }
+
+    public UUID getWalletId() {
+        return wallet.getId();
+    }
+}
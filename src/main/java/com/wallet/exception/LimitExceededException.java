@@ -0,0 +1,7 @@
+package com.wallet.exception;
+
+public class LimitExceededException extends WalletException {
+    public LimitExceededException(String message) {
+        super(message);
+    }
+}
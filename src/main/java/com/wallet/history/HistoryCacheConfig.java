@@ -0,0 +1,9 @@
+package com.wallet.history;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(HistoryCacheProperties.class)
+public class HistoryCacheConfig {
+}
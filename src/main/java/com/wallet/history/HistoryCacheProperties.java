@@ -0,0 +1,20 @@
+package com.wallet.history;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * In-memory first page of transaction history ({@code wallet.history-cache.*}).
+ */
+@Data
+@ConfigurationProperties(prefix = "wallet.history-cache")
+public class HistoryCacheProperties {
+
+    private boolean enabled = true;
+
+    /** Most recent transactions kept per wallet; first-page requests up to this size are served from memory. */
+    private int size = 20;
+
+    /** Wallets kept in memory; the least recently read ones are dropped beyond this. */
+    private int maxWallets = 50_000;
+}
@@ -0,0 +1,110 @@
+package com.wallet.history;
+
+import com.wallet.payload.TransactionDTO;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ring of one wallet's most recent transactions, valid for exactly one wallet
+ * version. Committed operations advance it one version at a time; anything else
+ * (a missed event, a bulk update) leaves it behind the database and it is
+ * dropped on its next read.
+ */
+final class RecentTransactions {
+
+    private final TransactionDTO[] slots;
+    private int newest = -1;
+    private int size;
+    private long total;
+    private long version;
+
+    private volatile long lastRead;
+
+    /** @param newestFirst the latest transactions, at most the ring capacity */
+    RecentTransactions(int capacity, long version, List<TransactionDTO> newestFirst, long total) {
+        this.slots = new TransactionDTO[capacity];
+        this.version = version;
+        this.total = total;
+        for (int i = Math.min(newestFirst.size(), capacity) - 1; i >= 0; i--) {
+            push(newestFirst.get(i));
+        }
+        this.lastRead = System.currentTimeMillis();
+    }
+
+    /**
+     * Applies a committed transaction that produced {@code newVersion}.
+     *
+     * @return false if versions were skipped; the ring can no longer be advanced
+     */
+    synchronized boolean append(long newVersion, TransactionDTO transaction) {
+        if (newVersion <= version) {
+            return true;
+        }
+        if (newVersion != version + 1) {
+            return false;
+        }
+        version = newVersion;
+        // the loader may have read this transaction before its event arrived
+        if (!contains(transaction)) {
+            push(transaction);
+            total++;
+        }
+        return true;
+    }
+
+    /** Applies a committed change without a transaction, such as a status change. */
+    synchronized boolean advance(long newVersion) {
+        if (newVersion <= version) {
+            return true;
+        }
+        if (newVersion != version + 1) {
+            return false;
+        }
+        version = newVersion;
+        return true;
+    }
+
+    /**
+     * The first page of the wallet's history, newest first, or null if the ring is
+     * not at {@code expectedVersion}. The page size must not exceed the capacity.
+     */
+    synchronized Page<TransactionDTO> firstPage(long expectedVersion, Pageable pageable) {
+        if (version != expectedVersion) {
+            return null;
+        }
+        lastRead = System.currentTimeMillis();
+        int n = Math.min(pageable.getPageSize(), size);
+        List<TransactionDTO> content = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            content.add(slots[Math.floorMod(newest - i, slots.length)]);
+        }
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    synchronized long getVersion() {
+        return version;
+    }
+
+    long getLastRead() {
+        return lastRead;
+    }
+
+    private void push(TransactionDTO transaction) {
+        newest = (newest + 1) % slots.length;
+        slots[newest] = transaction;
+        size = Math.min(size + 1, slots.length);
+    }
+
+    private boolean contains(TransactionDTO transaction) {
+        for (int i = 0; i < size; i++) {
+            if (slots[Math.floorMod(newest - i, slots.length)].getId().equals(transaction.getId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,138 @@
+package com.wallet.history;
+
+import com.wallet.event.WalletEvent;
+import com.wallet.model.Wallet;
+import com.wallet.payload.TransactionDTO;
+import com.wallet.payload.WalletDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * First page of each wallet's transaction history, kept in memory.
+ * <p>
+ * A wallet's ring is loaded by its first first-page read and then advanced by the
+ * after-commit wallet events. Every read names the wallet version it expects
+ * (one primary-key lookup by the caller) and a ring at any other version is
+ * reloaded, so rows written by another instance or by a bulk update are never
+ * hidden. Beyond {@code max-wallets}, the least recently read rings are dropped.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RecentTransactionsCache {
+
+    private final HistoryCacheProperties properties;
+
+    private final ConcurrentMap<UUID, RecentTransactions> wallets = new ConcurrentHashMap<>();
+
+    /** Whether a request for this page can be answered from memory. */
+    public boolean serves(Pageable pageable) {
+        return properties.isEnabled() && pageable.getPageNumber() == 0
+                && pageable.getPageSize() <= properties.getSize();
+    }
+
+    /**
+     * The first page of a wallet at {@code version}, from memory or else from the
+     * loader, whose result then becomes the wallet's ring.
+     *
+     * @param loader reads a page of the wallet's history, newest first
+     */
+    public Page<TransactionDTO> firstPage(UUID walletId, long version, Pageable pageable,
+                                          Function<Pageable, Page<TransactionDTO>> loader) {
+        Page<TransactionDTO> cached = cachedFirstPage(walletId, version, pageable);
+        if (cached != null) {
+            return cached;
+        }
+        Page<TransactionDTO> loaded = loader.apply(PageRequest.of(0, properties.getSize(), pageable.getSort()));
+        // loaded after the version was read, so the rows are at least that new
+        install(walletId, new RecentTransactions(properties.getSize(), version,
+                loaded.getContent(), loaded.getTotalElements()));
+        List<TransactionDTO> content = loaded.getContent();
+        return new PageImpl<>(
+                content.subList(0, Math.min(pageable.getPageSize(), content.size())),
+                pageable, loaded.getTotalElements());
+    }
+
+    /** The first page of a wallet at {@code version} if held in memory, otherwise null. */
+    public Page<TransactionDTO> cachedFirstPage(UUID walletId, long version, Pageable pageable) {
+        if (!serves(pageable)) {
+            return null;
+        }
+        RecentTransactions recent = wallets.get(walletId);
+        return recent != null ? recent.firstPage(version, pageable) : null;
+    }
+
+    public void evict(UUID walletId) {
+        wallets.remove(walletId);
+    }
+
+    @TransactionalEventListener
+    public void onWalletEvent(WalletEvent event) {
+        WalletDTO wallet = event.getWallet();
+        if (!properties.isEnabled() || wallet.getVersion() == null) {
+            return;
+        }
+        switch (event.getType()) {
+            // no empty ring for new wallets: rows written without a version bump (imports,
+            // archive restores) would stay hidden behind it; the first read loads it instead
+            case CREATED -> {
+            }
+            case TRANSACTION -> advance(wallet.getId(), r -> r.append(wallet.getVersion(), event.getTransaction()));
+            case STATUS_CHANGED -> {
+                if (wallet.getStatus() == Wallet.WalletStatus.ACTIVE) {
+                    advance(wallet.getId(), r -> r.advance(wallet.getVersion()));
+                } else {
+                    evict(wallet.getId());
+                }
+            }
+        }
+    }
+
+    int size() {
+        return wallets.size();
+    }
+
+    private void advance(UUID walletId, Function<RecentTransactions, Boolean> step) {
+        RecentTransactions recent = wallets.get(walletId);
+        if (recent != null && !step.apply(recent)) {
+            wallets.remove(walletId, recent);
+        }
+    }
+
+    /** Stores the ring unless one at a newer version is already in place. */
+    private void install(UUID walletId, RecentTransactions recent) {
+        wallets.merge(walletId, recent,
+                (current, candidate) -> candidate.getVersion() >= current.getVersion() ? candidate : current);
+        if (wallets.size() > properties.getMaxWallets()) {
+            evictLeastRecentlyRead();
+        }
+    }
+
+    /** Drops the least recently read tenth of the rings, so trimming is not repeated on every load. */
+    private synchronized void evictLeastRecentlyRead() {
+        int excess = wallets.size() - properties.getMaxWallets();
+        if (excess <= 0) {
+            return;
+        }
+        int count = excess + properties.getMaxWallets() / 10;
+        wallets.entrySet().stream()
+                .sorted(Comparator.comparingLong(e -> e.getValue().getLastRead()))
+                .limit(count)
+                .toList()
+                .forEach(e -> wallets.remove(e.getKey(), e.getValue()));
+        log.debug("Evicted {} idle wallet history rings", count);
+    }
+}
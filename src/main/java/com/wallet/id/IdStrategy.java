@@ -0,0 +1,39 @@
+package com.wallet.id;
+
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Strategies available for generating entity identifiers in the application.
+ * Selected through the {@code wallet.id.strategy} JPA property.
+ */
+public enum IdStrategy {
+
+    /** Time-ordered version 7 UUIDs (default). */
+    TIME_ORDERED {
+        @Override
+        public UUID next() {
+            return UuidV7.next();
+        }
+    },
+
+    /** Random version 4 UUIDs, the JPA {@code GenerationType.UUID} behaviour. */
+    RANDOM {
+        @Override
+        public UUID next() {
+            return UUID.randomUUID();
+        }
+    };
+
+    public static final String PROPERTY = "wallet.id.strategy";
+
+    public abstract UUID next();
+
+    /** Parses a property value such as {@code time-ordered} or {@code random}. */
+    public static IdStrategy fromProperty(Object value) {
+        if (value == null || value.toString().isBlank()) {
+            return TIME_ORDERED;
+        }
+        return valueOf(value.toString().trim().replace('-', '_').toUpperCase(Locale.ROOT));
+    }
+}
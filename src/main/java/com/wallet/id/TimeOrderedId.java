@@ -0,0 +1,20 @@
+package com.wallet.id;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a {@code UUID} identifier as generated in the application by
+ * {@link TimeOrderedIdGenerator}. Identifiers are assigned before the INSERT
+ * is issued, so Hibernate can batch inserts, and an identifier already set on
+ * the entity is kept as-is.
+ */
+@IdGeneratorType(TimeOrderedIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface TimeOrderedId {
+}
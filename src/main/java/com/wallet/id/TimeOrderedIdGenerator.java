@@ -0,0 +1,54 @@
+package com.wallet.id;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+import java.lang.reflect.Member;
+import java.util.EnumSet;
+
+/**
+ * Hibernate identifier generator behind {@link TimeOrderedId}.
+ * The strategy is read from the {@code wallet.id.strategy} property
+ * ({@code time-ordered} or {@code random}), defaulting to time-ordered.
+ */
+public class TimeOrderedIdGenerator implements BeforeExecutionGenerator {
+
+    private final IdStrategy strategy;
+
+    public TimeOrderedIdGenerator(TimeOrderedId annotation, Member member,
+                                  CustomIdGeneratorCreationContext context) {
+        Object setting = context.getServiceRegistry()
+                .requireService(ConfigurationService.class)
+                .getSettings()
+                .get(IdStrategy.PROPERTY);
+        this.strategy = IdStrategy.fromProperty(setting);
+    }
+
+    /**
+     * Hibernate passes no current value when persisting, so an identifier assigned
+     * by the caller (e.g. one chosen for its shard) is read from the entity itself.
+     */
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner,
+                           Object currentValue, EventType eventType) {
+        if (currentValue != null) {
+            return currentValue;
+        }
+        Object assigned = session.getEntityPersister(null, owner).getIdentifier(owner, session);
+        return assigned != null ? assigned : strategy.next();
+    }
+
+    @Override
+    public boolean allowAssignedIdentifiers() {
+        return true;
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
@@ -0,0 +1,11 @@
+package com.wallet.idempotency;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling   // expired key purge
+@EnableConfigurationProperties(IdempotencyProperties.class)
+public class IdempotencyConfig {
+}
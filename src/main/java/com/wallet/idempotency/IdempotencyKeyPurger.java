@@ -0,0 +1,60 @@
+package com.wallet.idempotency;
+
+import com.wallet.sharding.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Deletes expired idempotency keys on every shard, one chunk per statement so the
+ * purge never holds many row locks at once.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IdempotencyKeyPurger {
+
+    private static final String DELETE_CHUNK =
+            "DELETE FROM idempotency_keys WHERE idempotency_key IN (SELECT idempotency_key FROM idempotency_keys " +
+            "WHERE expires_at < ? FETCH FIRST ? ROWS ONLY)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+    private final IdempotencyProperties properties;
+
+    @Scheduled(initialDelayString = "${wallet.idempotency.purge-interval-ms:300000}",
+            fixedDelayString = "${wallet.idempotency.purge-interval-ms:300000}")
+    public void purgeScheduled() {
+        purge(LocalDateTime.now());
+    }
+
+    /**
+     * Deletes keys that expired before {@code now}.
+     *
+     * @return number of keys deleted
+     */
+    public long purge(LocalDateTime now) {
+        long deleted = shardRouter.onEachShard(() -> purgeShard(Timestamp.valueOf(now))).stream()
+                .mapToLong(Long::longValue)
+                .sum();
+        if (deleted > 0) {
+            log.info("Purged {} expired idempotency keys", deleted);
+        }
+        return deleted;
+    }
+
+    private long purgeShard(Timestamp now) {
+        long deleted = 0;
+        int chunk;
+        do {
+            chunk = jdbcTemplate.update(DELETE_CHUNK, now, properties.getPurgeChunkSize());
+            deleted += chunk;
+        } while (chunk > 0);
+        return deleted;
+    }
+}
@@ -0,0 +1,20 @@
+package com.wallet.idempotency;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Stored responses of operations submitted with a reference ID ({@code wallet.idempotency.*}).
+ */
+@Data
+@ConfigurationProperties(prefix = "wallet.idempotency")
+public class IdempotencyProperties {
+
+    /** How long a retry is answered with the original response. */
+    private long ttlHours = 24;
+
+    private long purgeIntervalMs = 300_000;
+
+    /** Expired keys deleted per statement. */
+    private int purgeChunkSize = 1000;
+}
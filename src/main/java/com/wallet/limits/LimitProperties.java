@@ -0,0 +1,38 @@
+package com.wallet.limits;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+
+/**
+ * Per-wallet outflow limits ({@code wallet.limits.*}), applied to withdrawals and
+ * outgoing transfers. A zero count or amount means no limit for that window.
+ */
+@Data
+@ConfigurationProperties(prefix = "wallet.limits")
+public class LimitProperties {
+
+    private boolean enabled = true;
+
+    private Window minute = new Window();
+    private Window hour = new Window();
+    private Window day = new Window();
+
+    /** Windows of wallets without outflows for this long are dropped, and rebuilt on next use. */
+    private long idleEvictionMs = 600_000;
+
+    @Data
+    public static class Window {
+        private int maxCount;
+        private BigDecimal maxAmount = BigDecimal.ZERO;
+
+        boolean isLimited() {
+            return maxCount > 0 || maxAmount.signum() > 0;
+        }
+    }
+
+    boolean isLimited() {
+        return enabled && (minute.isLimited() || hour.isLimited() || day.isLimited());
+    }
+}
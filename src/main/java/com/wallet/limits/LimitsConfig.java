@@ -0,0 +1,11 @@
+package com.wallet.limits;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling   // idle window eviction
+@EnableConfigurationProperties(LimitProperties.class)
+public class LimitsConfig {
+}
@@ -0,0 +1,79 @@
+package com.wallet.limits;
+
+import java.util.Arrays;
+
+/**
+ * Count and amount of events over a sliding time window, kept as a ring of
+ * fixed-width buckets in primitive arrays with running totals.
+ * <p>
+ * Reads and writes are O(1) amortized: moving forward in time clears each
+ * expired bucket once. The window is exact to one bucket width, so a
+ * 60-bucket one-minute window forgets an event between 59 and 60 seconds
+ * after it happened. Not thread-safe; guarded by {@link WalletVelocity}.
+ */
+final class SlidingWindow {
+
+    private final long bucketMillis;
+    private final long[] counts;
+    private final long[] amounts;
+
+    private long totalCount;
+    private long totalAmount;
+    /** Index (time / bucketMillis) of the newest bucket; everything older than size buckets is clear. */
+    private long head = Long.MIN_VALUE;
+
+    SlidingWindow(long windowMillis, int buckets) {
+        this.bucketMillis = windowMillis / buckets;
+        this.counts = new long[buckets];
+        this.amounts = new long[buckets];
+    }
+
+    long count(long now) {
+        advance(now);
+        return totalCount;
+    }
+
+    long amount(long now) {
+        advance(now);
+        return totalAmount;
+    }
+
+    /**
+     * Adds (or, with negative values, removes) events that happened at {@code at}.
+     * Ignored if {@code at} has already left the window.
+     */
+    void add(long at, long now, long count, long amount) {
+        advance(now);
+        long bucket = Math.min(at / bucketMillis, head);
+        if (bucket <= head - counts.length) {
+            return;
+        }
+        int slot = (int) Math.floorMod(bucket, (long) counts.length);
+        counts[slot] += count;
+        amounts[slot] += amount;
+        totalCount += count;
+        totalAmount += amount;
+    }
+
+    private void advance(long now) {
+        long bucket = now / bucketMillis;
+        if (bucket <= head) {
+            return;
+        }
+        if (head == Long.MIN_VALUE || bucket - head >= counts.length) {
+            Arrays.fill(counts, 0);
+            Arrays.fill(amounts, 0);
+            totalCount = 0;
+            totalAmount = 0;
+        } else {
+            for (long b = head + 1; b <= bucket; b++) {
+                int slot = (int) Math.floorMod(b, (long) counts.length);
+                totalCount -= counts[slot];
+                totalAmount -= amounts[slot];
+                counts[slot] = 0;
+                amounts[slot] = 0;
+            }
+        }
+        head = bucket;
+    }
+}
@@ -0,0 +1,131 @@
+package com.wallet.limits;
+
+import com.wallet.exception.LimitExceededException;
+import com.wallet.model.Transaction;
+import com.wallet.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Enforces the per-wallet outflow limits of {@link LimitProperties} without querying
+ * the ledger on every operation.
+ * <p>
+ * Each wallet's recent outflows are kept in memory as sliding windows. A wallet seen
+ * for the first time (or again after being evicted as idle) has its windows rebuilt
+ * from the last day of its withdrawals and outgoing transfers. Callers reserve an
+ * outflow while holding the wallet's row lock, so concurrent operations on one
+ * wallet see each other's reservations; a reservation is given back if its
+ * transaction rolls back.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class VelocityLimiter {
+
+    private static final List<Transaction.TransactionType> OUTFLOW_TYPES =
+            List.of(Transaction.TransactionType.WITHDRAWAL, Transaction.TransactionType.TRANSFER_OUT);
+
+    private final TransactionRepository transactionRepository;
+    private final LimitProperties properties;
+
+    private final ConcurrentMap<UUID, WalletVelocity> wallets = new ConcurrentHashMap<>();
+
+    /**
+     * Checks an outflow against the limits and reserves it.
+     * Must be called inside the transaction holding the wallet's row lock.
+     *
+     * @throws LimitExceededException if the outflow would exceed a limit
+     */
+    public void checkAndReserve(UUID walletId, BigDecimal amount) {
+        if (!properties.isLimited()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long units = units(amount);
+        WalletVelocity velocity = velocityOf(walletId, now);
+
+        String exceeded = velocity.tryAdd(now, units, properties);
+        if (exceeded != null) {
+            throw new LimitExceededException("Outflow limit per " + exceeded + " exceeded for wallet " + walletId);
+        }
+        releaseOnRollback(velocity, now, units);
+    }
+
+    /** Records an outflow that is not subject to limits, such as a reversal. */
+    public void record(UUID walletId, BigDecimal amount) {
+        if (!properties.isLimited()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long units = units(amount);
+        WalletVelocity velocity = velocityOf(walletId, now);
+        velocity.add(now, now, 1, units);
+        releaseOnRollback(velocity, now, units);
+    }
+
+    /** Drops the in-memory windows of a wallet; they are rebuilt on next use. */
+    public void evict(UUID walletId) {
+        wallets.remove(walletId);
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.limits.idle-eviction-ms:600000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - properties.getIdleEvictionMs();
+        int before = wallets.size();
+        wallets.values().removeIf(v -> v.getLastUsed() < cutoff);
+        log.debug("Evicted {} idle wallet velocity windows", before - wallets.size());
+    }
+
+    static long units(BigDecimal amount) {
+        return amount.setScale(4, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private WalletVelocity velocityOf(UUID walletId, long now) {
+        WalletVelocity velocity = wallets.get(walletId);
+        if (velocity != null) {
+            return velocity;
+        }
+        // Built under the wallet's row lock, so no other outflow can commit meanwhile
+        WalletVelocity rebuilt = new WalletVelocity(now);
+        LocalDateTime since = toLocal(now - WalletVelocity.DAY_MILLIS);
+        for (TransactionRepository.Outflow outflow :
+                transactionRepository.findOutflowsSince(walletId, OUTFLOW_TYPES, since)) {
+            long at = outflow.getTimestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            rebuilt.add(at, now, 1, units(outflow.getAmount()));
+        }
+        WalletVelocity raced = wallets.putIfAbsent(walletId, rebuilt);
+        return raced != null ? raced : rebuilt;
+    }
+
+    private static void releaseOnRollback(WalletVelocity velocity, long at, long units) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    velocity.add(at, System.currentTimeMillis(), -1, -units);
+                }
+            }
+        });
+    }
+
+    private static LocalDateTime toLocal(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
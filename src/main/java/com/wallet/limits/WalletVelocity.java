@@ -0,0 +1,61 @@
+package com.wallet.limits;
+
+import java.time.Duration;
+
+/**
+ * Outflows of one wallet over the last minute, hour and day.
+ * Amounts are in units of 1/10000, the scale of wallet balances.
+ */
+final class WalletVelocity {
+
+    static final long DAY_MILLIS = Duration.ofDays(1).toMillis();
+
+    private final SlidingWindow minute = new SlidingWindow(Duration.ofMinutes(1).toMillis(), 60);
+    private final SlidingWindow hour = new SlidingWindow(Duration.ofHours(1).toMillis(), 60);
+    private final SlidingWindow day = new SlidingWindow(DAY_MILLIS, 96);
+
+    private volatile long lastUsed;
+
+    WalletVelocity(long now) {
+        this.lastUsed = now;
+    }
+
+    /**
+     * Adds the outflow if it keeps every window within its limit.
+     *
+     * @return name of the first window whose limit it would exceed, or null if it was added
+     */
+    synchronized String tryAdd(long now, long amount, LimitProperties limits) {
+        lastUsed = now;
+        if (exceeds(minute, now, amount, limits.getMinute())) {
+            return "minute";
+        }
+        if (exceeds(hour, now, amount, limits.getHour())) {
+            return "hour";
+        }
+        if (exceeds(day, now, amount, limits.getDay())) {
+            return "day";
+        }
+        add(now, now, 1, amount);
+        return null;
+    }
+
+    /** Adds (or removes, with negative values) an outflow that happened at {@code at}. */
+    synchronized void add(long at, long now, long count, long amount) {
+        minute.add(at, now, count, amount);
+        hour.add(at, now, count, amount);
+        day.add(at, now, count, amount);
+    }
+
+    long getLastUsed() {
+        return lastUsed;
+    }
+
+    private static boolean exceeds(SlidingWindow window, long now, long amount, LimitProperties.Window limit) {
+        if (limit.getMaxCount() > 0 && window.count(now) + 1 > limit.getMaxCount()) {
+            return true;
+        }
+        return limit.getMaxAmount().signum() > 0
+                && window.amount(now) + amount > VelocityLimiter.units(limit.getMaxAmount());
+    }
+}
@@ -0,0 +1,30 @@
+package com.wallet.locking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * In-memory wallet locks ({@code wallet.locks.enabled}, on by default): API
+ * mutations queue per wallet in {@link WalletLockFilter} instead of on database
+ * row locks.
+ */
+@Configuration
+@EnableConfigurationProperties(WalletLockProperties.class)
+@ConditionalOnProperty(prefix = "wallet.locks", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class WalletLockConfig {
+
+    @Bean
+    public WalletLocks walletLocks(WalletLockProperties properties, MeterRegistry meterRegistry) {
+        return new WalletLocks(properties, meterRegistry);
+    }
+
+    @Bean
+    public WalletLockFilter walletLockFilter(WalletLocks walletLocks, ObjectMapper objectMapper,
+                                             WalletLockProperties properties) {
+        return new WalletLockFilter(walletLocks, objectMapper, properties.getRetryAfterSeconds());
+    }
+}
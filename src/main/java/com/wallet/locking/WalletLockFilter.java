@@ -0,0 +1,91 @@
+package com.wallet.locking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.web.CachedBodyRequest;
+import com.wallet.web.WalletRequests;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Serializes deposits, withdrawals, freeze/unfreeze and transfers per wallet on
+ * {@link WalletLocks} before the request reaches the service layer, so it waits
+ * for a busy wallet without holding a database connection. Transfers take both
+ * wallets' locks. A request that cannot get its locks within {@code timeout-ms}
+ * is answered 429 with Retry-After.
+ * <p>
+ * Reversals are addressed by transaction ID and pass unlocked, as do requests
+ * forwarded to another cluster node; both still serialize on the row lock.
+ */
+public class WalletLockFilter extends OncePerRequestFilter implements Ordered {
+
+    private static final String PREFIX = "/api/wallets/";
+    private static final Set<String> WALLET_MUTATIONS = Set.of("deposit", "withdraw", "freeze", "unfreeze");
+
+    private final WalletLocks locks;
+    private final ObjectMapper objectMapper;
+    private final int retryAfterSeconds;
+
+    public WalletLockFilter(WalletLocks locks, ObjectMapper objectMapper, int retryAfterSeconds) {
+        this.locks = locks;
+        this.objectMapper = objectMapper;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /** After admission control and cluster forwarding. */
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 300;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || !WalletRequests.path(request).startsWith(PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        String[] segments = WalletRequests.path(request).substring(PREFIX.length()).split("/");
+        List<UUID> walletIds;
+        if (segments.length == 1 && segments[0].equals("transfer")) {
+            byte[] body = request.getInputStream().readAllBytes();
+            request = new CachedBodyRequest(request, body);
+            walletIds = WalletRequests.transferWallets(objectMapper, body);
+        } else {
+            UUID walletId = segments.length == 2 && WALLET_MUTATIONS.contains(segments[1])
+                    ? WalletRequests.parseUuid(segments[0]) : null;
+            walletIds = walletId != null ? List.of(walletId) : List.of();
+        }
+        if (walletIds.isEmpty()) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        WalletLocks.Held held;
+        try {
+            held = locks.tryLock(walletIds.toArray(UUID[]::new));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for wallet locks", e);
+        }
+        if (held == null) {
+            WalletRequests.reject(response, objectMapper, HttpStatus.TOO_MANY_REQUESTS,
+                    "Timed out waiting for earlier operations on this wallet, retry later", retryAfterSeconds);
+            return;
+        }
+        try (held) {
+            chain.doFilter(request, response);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.wallet.locking;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * In-memory wallet locks taken by API mutations before they open a database
+ * transaction ({@code wallet.locks.*}).
+ */
+@Data
+@ConfigurationProperties(prefix = "wallet.locks")
+public class WalletLockProperties {
+
+    private boolean enabled = true;
+
+    /** Number of locks; wallets hashing to the same stripe are serialized together. */
+    private int stripes = 1024;
+
+    /** Grant each lock to the longest-waiting request rather than to whichever thread gets it first. */
+    private boolean fair = true;
+
+    /** Longest wait for the locks of one request before it is rejected. */
+    private long timeoutMs = 2_000;
+
+    /** Sent as Retry-After on requests rejected after the timeout. */
+    private int retryAfterSeconds = 1;
+}
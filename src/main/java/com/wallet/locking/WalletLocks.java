@@ -0,0 +1,112 @@
+package com.wallet.locking;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped in-memory locks serializing mutations of a wallet, so concurrent requests
+ * for one wallet queue here instead of on its database row lock while each holds a
+ * pooled connection. The row lock stays in place for writers outside this JVM.
+ * <p>
+ * Locks are fair by default: a wallet's requests are served in arrival order and
+ * time out after {@code timeout-ms}. Exposes {@code wallet.locks.queued} (threads
+ * waiting), {@code wallet.locks.wait} (time to acquire) and
+ * {@code wallet.locks.timeouts}.
+ */
+public class WalletLocks {
+
+    private final ReentrantLock[] stripes;
+    private final long timeoutNanos;
+
+    private final Timer waitTimer;
+    private final Counter timeouts;
+
+    public WalletLocks(WalletLockProperties properties, MeterRegistry meterRegistry) {
+        this.stripes = new ReentrantLock[properties.getStripes()];
+        for (int i = 0; i < stripes.length; i++) {
+            this.stripes[i] = new ReentrantLock(properties.isFair());
+        }
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(properties.getTimeoutMs());
+
+        Gauge.builder("wallet.locks.queued", this, WalletLocks::queued)
+                .description("Requests waiting for a wallet lock")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("wallet.locks.wait")
+                .description("Time requests waited for their wallet locks")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.timeouts = Counter.builder("wallet.locks.timeouts")
+                .description("Requests that gave up waiting for a wallet lock")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes the locks of all given wallets, in stripe order to rule out deadlocks,
+     * waiting at most {@code timeout-ms} in total. Use with try-with-resources.
+     *
+     * @return the held locks, or null if they could not be taken in time
+     */
+    public Held tryLock(UUID... walletIds) throws InterruptedException {
+        int[] indexes = Arrays.stream(walletIds).mapToInt(this::stripe).distinct().sorted().toArray();
+        long started = System.nanoTime();
+        long deadline = started + timeoutNanos;
+        int locked = 0;
+        try {
+            for (int index : indexes) {
+                if (!stripes[index].tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    unlock(indexes, locked);
+                    timeouts.increment();
+                    return null;
+                }
+                locked++;
+            }
+        } catch (InterruptedException | RuntimeException | Error e) {
+            unlock(indexes, locked);
+            throw e;
+        }
+        waitTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        return new Held(indexes);
+    }
+
+    /** Threads currently waiting for any stripe; an estimate, as the queues keep changing. */
+    public int queued() {
+        int queued = 0;
+        for (ReentrantLock stripe : stripes) {
+            queued += stripe.getQueueLength();
+        }
+        return queued;
+    }
+
+    private void unlock(int[] indexes, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            stripes[indexes[i]].unlock();
+        }
+    }
+
+    private int stripe(UUID walletId) {
+        int h = walletId.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), stripes.length);
+    }
+
+    /** Locks held by one caller; released on close. */
+    public final class Held implements AutoCloseable {
+
+        private final int[] indexes;
+
+        private Held(int[] indexes) {
+            this.indexes = indexes;
+        }
+
+        @Override
+        public void close() {
+            unlock(indexes, indexes.length);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.wallet.migration;
+
+import com.wallet.sharding.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Backfills {@code transactions.counterparty_wallet_id} for transfer rows written
+ * before the column existed, when the counterparty was only encoded as a
+ * {@code " [To: uuid]"} / {@code " [From: uuid]"} suffix of the remarks.
+ * <p>
+ * The counterparty is taken from the linked transaction of the transfer pair and
+ * the redundant suffix is stripped from the remarks. Rows are processed in
+ * keyset-paginated batches, each in its own short transaction, with a pause
+ * between batches so row locks are never held for long and online traffic keeps
+ * flowing. The job is idempotent: it only touches rows whose counterparty is
+ * still null, so it can be interrupted and simply runs again on the next start.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CounterpartyBackfillMigration {
+
+    private static final Pattern LEGACY_SUFFIX =
+            Pattern.compile("\\s?\\[(To|From): [0-9a-fA-F-]{36}]$");
+
+    private static final String SELECT_BATCH =
+            "SELECT t.id, r.wallet_id, t.remarks FROM transactions t " +
+            "JOIN transactions r ON r.id = t.related_transaction_id " +
+            "WHERE t.counterparty_wallet_id IS NULL " +
+            "AND t.type IN ('TRANSFER_OUT', 'TRANSFER_IN') AND t.id > ? " +
+            "ORDER BY t.id FETCH FIRST ? ROWS ONLY";
+
+    private static final String UPDATE_ROW =
+            "UPDATE transactions SET counterparty_wallet_id = ?, remarks = ? " +
+            "WHERE id = ? AND counterparty_wallet_id IS NULL";
+
+    private static final UUID MIN_UUID = new UUID(0L, 0L);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor taskExecutor;
+    private final ShardRouter shardRouter;
+
+    @Value("${wallet.migration.counterparty-backfill.enabled:true}")
+    private boolean enabled;
+
+    @Value("${wallet.migration.counterparty-backfill.batch-size:500}")
+    private int batchSize;
+
+    @Value("${wallet.migration.counterparty-backfill.pause-ms:50}")
+    private long pauseMillis;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            // each shard holds its own ledger rows
+            taskExecutor.execute(() -> shardRouter.onEachShard(this::run));
+        }
+    }
+
+    /**
+     * Runs the backfill to completion.
+     *
+     * @return number of rows updated
+     */
+    public long run() {
+        long updated = 0;
+        UUID lastId = MIN_UUID;
+        try {
+            while (true) {
+                List<Object[]> rows = loadBatch(lastId);
+                if (rows.isEmpty()) {
+                    break;
+                }
+                updated += updateBatch(rows);
+                lastId = (UUID) rows.get(rows.size() - 1)[2];
+
+                if (rows.size() < batchSize) {
+                    break;
+                }
+                Thread.sleep(pauseMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Counterparty backfill interrupted after {} rows", updated);
+            return updated;
+        }
+
+        if (updated > 0) {
+            log.info("Counterparty backfill updated {} transfer rows", updated);
+        }
+        return updated;
+    }
+
+    /** Returns {counterpartyWalletId, cleanedRemarks, id} triples, in id order. */
+    private List<Object[]> loadBatch(UUID afterId) {
+        return jdbcTemplate.query(SELECT_BATCH, (rs, rowNum) -> new Object[]{
+                rs.getObject(2, UUID.class),
+                stripLegacySuffix(rs.getString(3)),
+                rs.getObject(1, UUID.class)
+        }, afterId, batchSize);
+    }
+
+    private int updateBatch(List<Object[]> rows) {
+        Integer count = transactionTemplate.execute(status -> {
+            int total = 0;
+            for (int n : jdbcTemplate.batchUpdate(UPDATE_ROW, new ArrayList<>(rows))) {
+                total += Math.max(n, 0);
+            }
+            return total;
+        });
+        return count != null ? count : 0;
+    }
+
+    private static String stripLegacySuffix(String remarks) {
+        if (remarks == null) {
+            return null;
+        }
+        String cleaned = LEGACY_SUFFIX.matcher(remarks).replaceFirst("");
+        return cleaned.isEmpty() ? null : cleaned;
+    }
+}
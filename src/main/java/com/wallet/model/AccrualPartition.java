@@ -0,0 +1,59 @@
+package com.wallet.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Progress of the daily accrual batch over one wallet ID range for one business date.
+ * The checkpoint is advanced in the same transaction as each chunk of balance updates,
+ * so an interrupted run resumes exactly where it stopped.
+ */
+@Entity
+@Table(name = "accrual_partitions", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_accrual_partition", columnNames = {"business_date", "partition_no"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AccrualPartition {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "business_date", nullable = false)
+    private LocalDate businessDate;
+
+    @Column(name = "partition_no", nullable = false)
+    private int partitionNo;
+
+    /** Exclusive lower bound of the range; null for the first partition. */
+    @Column(name = "lower_bound")
+    private UUID lowerBound;
+
+    /** Inclusive upper bound of the range; null for the last partition. */
+    @Column(name = "upper_bound")
+    private UUID upperBound;
+
+    /** Last wallet processed; null until the first chunk commits. */
+    @Column(name = "last_wallet_id")
+    private UUID lastWalletId;
+
+    @Column(name = "wallets_processed", nullable = false)
+    private long walletsProcessed;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public enum Status {
+        PENDING, DONE
+    }
+}
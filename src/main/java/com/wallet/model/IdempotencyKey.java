@@ -0,0 +1,65 @@
+package com.wallet.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.stream.Collectors;
+
+/**
+ * Response of an operation submitted with a reference ID, stored in the same
+ * transaction as the operation so a retry can be answered with the original
+ * result. Rows are purged once {@code expires_at} has passed; older retries are
+ * still rejected by the ledger's reference ID check.
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_expires", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyKey {
+
+    @Id
+    @Column(name = "idempotency_key")
+    private String key;
+
+    /** {@link #requestHash} of the operation and its arguments. */
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    /** JSON of the response. */
+    @Column(nullable = false, length = 4000)
+    private String response;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    /**
+     * SHA-256 of an operation name and its arguments, so a key reused for a different
+     * request is told apart from a retry. Amounts compare by value.
+     */
+    public static String requestHash(String operation, Object... arguments) {
+        String canonical = operation + "|" + Arrays.stream(arguments)
+                .map(a -> a instanceof BigDecimal amount ? amount.stripTrailingZeros().toPlainString()
+                        : String.valueOf(a))
+                .collect(Collectors.joining("|"));
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
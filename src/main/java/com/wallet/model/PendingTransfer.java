@@ -0,0 +1,86 @@
+package com.wallet.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Durable record of a transfer between wallets on different shards, stored on the
+ * source shard in the same local transaction as the debit. It drives the credit on
+ * the destination shard and lets recovery finish the transfer after a failure.
+ */
+@Entity
+@Table(name = "pending_transfers", indexes = {
+        @Index(name = "idx_pending_transfer_status", columnList = "status, created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PendingTransfer {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "from_wallet_id", nullable = false)
+    private UUID fromWalletId;
+
+    @Column(name = "to_wallet_id", nullable = false)
+    private UUID toWalletId;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal amount;
+
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    private String remarks;
+
+    @Column(name = "out_transaction_id")
+    private UUID outTransactionId;
+
+    @Column(name = "in_transaction_id")
+    private UUID inTransactionId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private Status status = Status.DEBITED;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false, nullable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Version
+    private Long version;
+
+    public enum Status {
+        /** Source debited, destination credit not yet confirmed. */
+        DEBITED,
+        /** Destination credited. */
+        COMPLETED,
+        /** Destination rejected the credit; the source was refunded. */
+        REFUNDED
+    }
+
+    public String outReferenceId() {
+        return "XFER_" + id + "_OUT";
+    }
+
+    public String inReferenceId() {
+        return "XFER_" + id + "_IN";
+    }
+
+    public String refundReferenceId() {
+        return "XFER_" + id + "_REFUND";
+    }
+}
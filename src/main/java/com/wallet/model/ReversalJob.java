@@ -0,0 +1,51 @@
+package com.wallet.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A bulk reversal of deposits and withdrawals. The job row lives on the first shard;
+ * its items ({@link ReversalJobItem}) live on the shards of their transactions and
+ * carry the progress, so a job interrupted at any point can be resumed.
+ */
+@Entity
+@Table(name = "reversal_jobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReversalJob {
+
+    @Id
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    /** Items staged, including transactions that were not found. */
+    @Column(name = "total_items", nullable = false)
+    private long totalItems;
+
+    /** Why the last run stopped; null unless FAILED. */
+    @Column(length = 1000)
+    private String error;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public enum Status {
+        /** Items are being staged; a job left here cannot be resumed and must be submitted again. */
+        STAGING,
+        RUNNING,
+        DONE,
+        /** A chunk failed; the items before it are final and the job can be resumed. */
+        FAILED
+    }
+}
@@ -0,0 +1,58 @@
+package com.wallet.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.UUID;
+
+/**
+ * One transaction of a {@link ReversalJob} and its outcome, stored on the shard of
+ * the transaction. Items are processed in (wallet, transaction) order, so the
+ * outcome of each is written in the same database transaction as its reversal.
+ */
+@Entity
+@Table(name = "reversal_job_items", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_reversal_item", columnNames = {"job_id", "transaction_id"})
+}, indexes = {
+        @Index(name = "idx_reversal_item_wallet", columnList = "job_id, wallet_id, transaction_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReversalJobItem {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "job_id", nullable = false)
+    private UUID jobId;
+
+    /** Transaction to reverse. */
+    @Column(name = "transaction_id", nullable = false)
+    private UUID transactionId;
+
+    /** Wallet of the transaction; null if the transaction was not found. */
+    @Column(name = "wallet_id")
+    private UUID walletId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 24)
+    private Outcome outcome;
+
+    /** The reversal written by the job, or the one found for ALREADY_REVERSED. */
+    @Column(name = "reversal_transaction_id")
+    private UUID reversalTransactionId;
+
+    private String message;
+
+    public enum Outcome {
+        PENDING,
+        REVERSED,
+        ALREADY_REVERSED,
+        NOT_FOUND,
+        NOT_REVERSIBLE,
+        WALLET_NOT_ACTIVE,
+        INSUFFICIENT_FUNDS
+    }
+}
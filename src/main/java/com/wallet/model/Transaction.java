@@ -1,5 +1,6 @@
 package com.wallet.model;
 
+import com.wallet.id.TimeOrderedId;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -9,7 +10,10 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_tx_wallet_counterparty_ts", columnList = "wallet_id, counterparty_wallet_id, timestamp"),
+        @Index(name = "idx_tx_timestamp", columnList = "timestamp")   // archival of whole months
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -17,7 +21,7 @@ import java.util.UUID;
 public class Transaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedId
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -39,6 +43,10 @@ public class Transaction {
 
     private String remarks;
 
+    /** Other side of a transfer; null for deposits, withdrawals and reversals. */
+    @Column(name = "counterparty_wallet_id")
+    private UUID counterpartyWalletId;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "related_transaction_id")
     private Transaction relatedTransaction;
@@ -48,6 +56,6 @@ public class Transaction {
     private LocalDateTime timestamp;
 
     public enum TransactionType {
-        DEPOSIT, WITHDRAWAL, TRANSFER_OUT, TRANSFER_IN
+        DEPOSIT, WITHDRAWAL, TRANSFER_OUT, TRANSFER_IN, INTEREST, FEE
     }
 }
@@ -0,0 +1,71 @@
+package com.wallet.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Ledger volume of one transaction type and currency over one time bucket.
+ * Rows are only ever merged into: each flush adds the operations committed
+ * since the previous one, so several instances can share the table.
+ */
+@Entity
+@Table(name = "ledger_rollups", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_ledger_rollup",
+                columnNames = {"resolution", "bucket_start", "type", "currency"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VolumeRollup {
+
+    @Id
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private Resolution resolution;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Transaction.TransactionType type;
+
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    @Column(name = "tx_count", nullable = false)
+    private long count;
+
+    @Column(name = "total_amount", nullable = false, precision = 19, scale = 4)
+    private BigDecimal total;
+
+    @Column(name = "min_amount", nullable = false, precision = 19, scale = 4)
+    private BigDecimal min;
+
+    @Column(name = "max_amount", nullable = false, precision = 19, scale = 4)
+    private BigDecimal max;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public enum Resolution {
+        MINUTE(60_000L), HOUR(3_600_000L), DAY(86_400_000L);
+
+        private final long bucketMillis;
+
+        Resolution(long bucketMillis) {
+            this.bucketMillis = bucketMillis;
+        }
+
+        public long getBucketMillis() {
+            return bucketMillis;
+        }
+    }
+}
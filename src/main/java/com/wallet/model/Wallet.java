@@ -1,5 +1,6 @@
 package com.wallet.model;
 
+import com.wallet.id.TimeOrderedId;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -10,7 +11,9 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "wallets")
+@Table(name = "wallets", indexes = {
+        @Index(name = "idx_wallet_user", columnList = "userId")   // one wallet per user checks
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -18,7 +21,7 @@ import java.util.UUID;
 public class Wallet {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedId
     private UUID id;
 
     @Column(nullable = false)
@@ -45,6 +48,9 @@ public class Wallet {
     @Column(name = "updatedAt",  nullable = false)
     private LocalDateTime updatedAt;
 
+    @Version
+    private Long version;
+
     public enum WalletStatus {
         ACTIVE, FROZEN, CLOSED
     }
@@ -0,0 +1,47 @@
+package com.wallet.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Row of a bulk wallet import batch, staged so the batch can be checked against
+ * existing wallets and inserted with set-based statements. Rows are deleted in
+ * the transaction that stages them.
+ */
+@Entity
+@Table(name = "wallet_import_rows", indexes = {
+        @Index(name = "idx_wallet_import_batch", columnList = "batch_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WalletImportRow {
+
+    /** ID the wallet gets if it is created. */
+    @Id
+    private UUID id;
+
+    @Column(name = "batch_id", nullable = false)
+    private UUID batchId;
+
+    /** Line of the source file, for the rejection report. */
+    @Column(name = "line_number", nullable = false)
+    private long lineNumber;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    @Column(name = "opening_balance", nullable = false, precision = 19, scale = 4)
+    private BigDecimal openingBalance;
+
+    /** ID of the opening deposit; null for a zero opening balance. */
+    @Column(name = "transaction_id")
+    private UUID transactionId;
+}
@@ -0,0 +1,15 @@
+package com.wallet.payload;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class BatchWalletRequest {
+    @NotEmpty(message = "At least one wallet ID is required")
+    @Size(max = 5000, message = "Cannot look up more than 5000 wallets at once")
+    private List<UUID> walletIds;
+}
@@ -0,0 +1,22 @@
+package com.wallet.payload;
+
+import com.wallet.model.Wallet;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchWalletResponse {
+    /** ACTIVE wallets, in request order. */
+    private List<WalletDTO> wallets;
+    /** Wallets that exist but are not ACTIVE, with their status. */
+    private Map<UUID, Wallet.WalletStatus> inactive;
+    /** IDs with no wallet. */
+    private List<UUID> missing;
+}
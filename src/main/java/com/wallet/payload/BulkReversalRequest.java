@@ -0,0 +1,31 @@
+package com.wallet.payload;
+
+import com.wallet.model.Transaction;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Transactions to reverse: either an explicit list of IDs, or a query over deposits
+ * and withdrawals. A query needs at least one criterion besides the type and never
+ * selects reversals themselves.
+ */
+@Data
+public class BulkReversalRequest {
+    private List<UUID> transactionIds;
+
+    private UUID walletId;
+    /** DEPOSIT or WITHDRAWAL; both if not given. */
+    private Transaction.TransactionType type;
+    private String referenceIdPrefix;
+    /** Inclusive. */
+    private LocalDateTime from;
+    /** Exclusive. */
+    private LocalDateTime to;
+
+    public boolean hasQuery() {
+        return walletId != null || referenceIdPrefix != null || from != null || to != null;
+    }
+}
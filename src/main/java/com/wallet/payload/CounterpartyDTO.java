@@ -0,0 +1,20 @@
+package com.wallet.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CounterpartyDTO {
+    private UUID counterpartyWalletId;
+    private long transferCount;
+    private BigDecimal totalSent;
+    private BigDecimal totalReceived;
+    private LocalDateTime lastTransferAt;
+}
@@ -0,0 +1,19 @@
+package com.wallet.payload;
+
+import com.wallet.model.ReversalJobItem;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReversalItemDTO {
+    private UUID transactionId;
+    private UUID walletId;
+    private ReversalJobItem.Outcome outcome;
+    private UUID reversalTransactionId;
+    private String message;
+}
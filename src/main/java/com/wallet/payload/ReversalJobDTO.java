@@ -0,0 +1,22 @@
+package com.wallet.payload;
+
+import com.wallet.model.ReversalJob;
+import com.wallet.model.ReversalJobItem;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+public class ReversalJobDTO {
+    private UUID id;
+    private ReversalJob.Status status;
+    private long totalItems;
+    /** Items per outcome, PENDING included. */
+    private Map<ReversalJobItem.Outcome, Long> outcomes = new EnumMap<>(ReversalJobItem.Outcome.class);
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
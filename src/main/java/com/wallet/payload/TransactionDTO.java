@@ -16,6 +16,7 @@ public class TransactionDTO {
     private BigDecimal balanceAfter;
     private String referenceId;
     private String remarks;
+    private UUID counterpartyWalletId;
     private LocalDateTime timestamp;
 
     public static TransactionDTO fromEntity(Transaction transaction) {
@@ -27,6 +28,7 @@ public class TransactionDTO {
         dto.setBalanceAfter(transaction.getBalanceAfter());
         dto.setReferenceId(transaction.getReferenceId());
         dto.setRemarks(transaction.getRemarks());
+        dto.setCounterpartyWalletId(transaction.getCounterpartyWalletId());
         dto.setTimestamp(transaction.getTimestamp());
         return dto;
     }
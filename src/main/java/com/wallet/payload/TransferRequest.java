@@ -22,7 +22,7 @@ public class TransferRequest {
     @DecimalMax(value = "1000000000", message = "Amount cannot exceed 1,000,000,000")
     private BigDecimal amount;
 
-//    @Size(max = 100, message = "Reference ID cannot exceed 100 characters")
+    @Size(max = 100, message = "Reference ID cannot exceed 100 characters")
     private String referenceId;
 
     @Size(max = 500, message = "Remarks cannot exceed 500 characters")
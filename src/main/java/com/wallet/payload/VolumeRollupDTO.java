@@ -0,0 +1,28 @@
+package com.wallet.payload;
+
+import com.wallet.model.Transaction;
+import com.wallet.model.VolumeRollup;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VolumeRollupDTO {
+    private LocalDateTime bucketStart;
+    private Transaction.TransactionType type;
+    private String currency;
+    private long count;
+    private BigDecimal total;
+    private BigDecimal min;
+    private BigDecimal max;
+
+    public static VolumeRollupDTO fromEntity(VolumeRollup rollup) {
+        return new VolumeRollupDTO(rollup.getBucketStart(), rollup.getType(), rollup.getCurrency(),
+                rollup.getCount(), rollup.getTotal(), rollup.getMin(), rollup.getMax());
+    }
+}
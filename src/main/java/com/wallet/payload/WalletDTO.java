@@ -5,6 +5,7 @@ import lombok.Data;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.UUID;
 
 @Data
@@ -16,6 +17,7 @@ public class WalletDTO {
     private Wallet.WalletStatus status;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
 
     public static WalletDTO fromEntity(Wallet wallet) {
         WalletDTO dto = new WalletDTO();
@@ -26,6 +28,17 @@ public class WalletDTO {
         dto.setStatus(wallet.getStatus());
         dto.setCreatedAt(wallet.getCreatedAt());
         dto.setUpdatedAt(wallet.getUpdatedAt());
+        dto.setVersion(wallet.getVersion());
         return dto;
     }
+
+    /**
+     * Opaque tag identifying one state of a wallet, used as HTTP entity tag.
+     * Changes whenever the wallet row is updated.
+     */
+    public static String versionTag(Long version, LocalDateTime updatedAt) {
+        long micros = updatedAt == null ? 0
+                : updatedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + updatedAt.getNano() / 1_000;
+        return version + "-" + Long.toHexString(micros);
+    }
 }
@@ -0,0 +1,31 @@
+package com.wallet.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class WalletImportResult {
+    /** Data lines read, excluding the header and blank lines. */
+    private long linesRead;
+    private long walletsCreated;
+    private long rejected;
+    /** Rejected lines, up to the configured maximum. */
+    private List<Rejection> rejections = new ArrayList<>();
+    /** True when more lines were rejected than listed. */
+    private boolean rejectionsTruncated;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Rejection {
+        private long line;
+        /** First field of the line as given. */
+        private String userId;
+        private String reason;
+    }
+}
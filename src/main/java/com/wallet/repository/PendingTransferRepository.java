@@ -0,0 +1,29 @@
+package com.wallet.repository;
+
+import com.wallet.model.PendingTransfer;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface PendingTransferRepository extends JpaRepository<PendingTransfer, UUID> {
+
+    List<PendingTransfer> findByStatusAndCreatedAtBeforeOrderByCreatedAt(
+            PendingTransfer.Status status, LocalDateTime before, Limit limit);
+
+    /** Moves a DEBITED transfer to its final state; returns 0 if it was already finished. */
+    @Modifying
+    @Query("UPDATE PendingTransfer p SET p.status = :status, p.inTransactionId = :inTransactionId, " +
+            "p.updatedAt = CURRENT_TIMESTAMP, p.version = p.version + 1 " +
+            "WHERE p.id = :id AND p.status = com.wallet.model.PendingTransfer.Status.DEBITED")
+    int finish(@Param("id") UUID id,
+               @Param("status") PendingTransfer.Status status,
+               @Param("inTransactionId") UUID inTransactionId);
+}
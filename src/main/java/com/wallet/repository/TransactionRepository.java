@@ -2,6 +2,8 @@ package com.wallet.repository;
 
 
 import com.wallet.model.Transaction;
+import com.wallet.payload.CounterpartyDTO;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -9,6 +11,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -21,10 +24,31 @@ public interface TransactionRepository extends JpaRepository<Transaction, UUID>
 
     Page<Transaction> findByWalletIdAndType(UUID walletId, Transaction.TransactionType type, Pageable pageable);
 
+    /** Hot rows from an archive floor onwards; older rows belong to archived segments. */
+    Page<Transaction> findByWalletIdAndTimestampGreaterThanEqual(UUID walletId, LocalDateTime floor,
+                                                                 Pageable pageable);
+
+    Page<Transaction> findByWalletIdAndTypeAndTimestampGreaterThanEqual(
+            UUID walletId, Transaction.TransactionType type, LocalDateTime floor, Pageable pageable);
+
+    long countByWalletId(UUID walletId);
+
+    long countByWalletIdAndTimestampGreaterThanEqual(UUID walletId, LocalDateTime floor);
+
     boolean existsByReferenceId(String referenceId);
 
+    @Query("SELECT t.id FROM Transaction t WHERE t.wallet.id = :walletId ORDER BY t.timestamp DESC, t.id DESC")
+    List<UUID> findLatestIds(@Param("walletId") UUID walletId, Limit limit);
+
     Optional<Transaction> findByReferenceId(String referenceId);
 
+    /** Timestamps and amounts of a wallet's transactions of the given types, for rebuilding outflow limits. */
+    @Query("SELECT t.timestamp AS timestamp, t.amount AS amount FROM Transaction t " +
+            "WHERE t.wallet.id = :walletId AND t.type IN (:types) AND t.timestamp >= :since")
+    List<Outflow> findOutflowsSince(@Param("walletId") UUID walletId,
+                                    @Param("types") List<Transaction.TransactionType> types,
+                                    @Param("since") LocalDateTime since);
+
     @Query("SELECT t FROM Transaction t WHERE t.wallet.id = :walletId AND t.timestamp BETWEEN :startDate AND :endDate")
     Page<Transaction> findByWalletIdAndTimestampBetween(
             @Param("walletId") UUID walletId,
@@ -34,5 +58,29 @@ public interface TransactionRepository extends JpaRepository<Transaction, UUID>
     );
 
     List<Transaction> findByRelatedTransactionId(UUID relatedTransactionId);
-}
 
+    /** Transfers in both directions between a wallet and one counterparty, as seen from the wallet. */
+    @Query("SELECT t FROM Transaction t WHERE t.wallet.id = :walletId AND t.counterpartyWalletId = :counterpartyWalletId")
+    Page<Transaction> findTransfersBetween(
+            @Param("walletId") UUID walletId,
+            @Param("counterpartyWalletId") UUID counterpartyWalletId,
+            Pageable pageable
+    );
+
+    @Query("SELECT new com.wallet.payload.CounterpartyDTO(t.counterpartyWalletId, COUNT(t), " +
+            "SUM(CASE WHEN t.type = :outType THEN t.amount ELSE 0 END), " +
+            "SUM(CASE WHEN t.type = :inType THEN t.amount ELSE 0 END), " +
+            "MAX(t.timestamp)) " +
+            "FROM Transaction t WHERE t.wallet.id = :walletId AND t.counterpartyWalletId IS NOT NULL " +
+            "GROUP BY t.counterpartyWalletId ORDER BY MAX(t.timestamp) DESC")
+    List<CounterpartyDTO> findCounterparties(
+            @Param("walletId") UUID walletId,
+            @Param("outType") Transaction.TransactionType outType,
+            @Param("inType") Transaction.TransactionType inType
+    );
+
+    interface Outflow {
+        LocalDateTime getTimestamp();
+        BigDecimal getAmount();
+    }
+}
@@ -0,0 +1,27 @@
+package com.wallet.repository;
+
+import com.wallet.model.Transaction;
+import com.wallet.model.VolumeRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface VolumeRollupRepository extends JpaRepository<VolumeRollup, UUID> {
+
+    /** Buckets starting in [from, to); a null type or currency matches all. */
+    @Query("SELECT r FROM VolumeRollup r WHERE r.resolution = :resolution " +
+            "AND r.bucketStart >= :from AND r.bucketStart < :to " +
+            "AND (:type IS NULL OR r.type = :type) AND (:currency IS NULL OR r.currency = :currency) " +
+            "ORDER BY r.bucketStart, r.type, r.currency")
+    List<VolumeRollup> findRange(@Param("resolution") VolumeRollup.Resolution resolution,
+                                 @Param("from") LocalDateTime from,
+                                 @Param("to") LocalDateTime to,
+                                 @Param("type") Transaction.TransactionType type,
+                                 @Param("currency") String currency);
+}
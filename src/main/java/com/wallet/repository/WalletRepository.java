@@ -9,6 +9,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import jakarta.persistence.LockModeType;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -18,6 +19,10 @@ public interface WalletRepository extends JpaRepository<Wallet, UUID> {
 
     Optional<Wallet> findByIdAndStatus(UUID id, Wallet.WalletStatus status);
 
+    /** Version columns only, for conditional requests that must not load the entity. */
+    @Query("SELECT w.version AS version, w.updatedAt AS updatedAt FROM Wallet w WHERE w.id = :id AND w.status = :status")
+    Optional<WalletVersion> findVersionByIdAndStatus(@Param("id") UUID id, @Param("status") Wallet.WalletStatus status);
+
     boolean existsByUserId(UUID userId);
 
     @Lock(LockModeType.PESSIMISTIC_WRITE)
@@ -31,4 +36,9 @@ public interface WalletRepository extends JpaRepository<Wallet, UUID> {
     List<Wallet> findByUserId(UUID userId);
 
     List<Wallet> findByStatus(Wallet.WalletStatus status);
+
+    interface WalletVersion {
+        Long getVersion();
+        LocalDateTime getUpdatedAt();
+    }
 }
\ No newline at end of file
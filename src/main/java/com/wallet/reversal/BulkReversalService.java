@@ -0,0 +1,595 @@
+package com.wallet.reversal;
+
+import com.wallet.event.WalletEvent;
+import com.wallet.exception.WalletException;
+import com.wallet.exception.WalletNotFoundException;
+import com.wallet.id.IdStrategy;
+import com.wallet.limits.VelocityLimiter;
+import com.wallet.model.ReversalJob;
+import com.wallet.model.ReversalJobItem;
+import com.wallet.model.Transaction;
+import com.wallet.model.Wallet;
+import com.wallet.payload.BulkReversalRequest;
+import com.wallet.payload.ReversalItemDTO;
+import com.wallet.payload.ReversalJobDTO;
+import com.wallet.payload.TransactionDTO;
+import com.wallet.payload.WalletDTO;
+import com.wallet.sharding.ShardRouter;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Reverses many deposits and withdrawals as one job.
+ * <p>
+ * Submitting a job stages one {@code reversal_job_items} row per transaction on the
+ * shard holding it, found with set-based lookups ({@code IN} lists, or keyset pages
+ * of a query). The job then runs in the background, shard by shard, in chunks of
+ * {@code chunk-size} items taken in (wallet, transaction) order. One chunk is one
+ * transaction that
+ * <ol>
+ *   <li>locks the distinct wallets of its items once, in ID order;</li>
+ *   <li>prefetches the original transactions and their existing reversals with one
+ *       {@code IN} query each;</li>
+ *   <li>decides every item against the locked balances, applying the reversals of a
+ *       wallet one after another, as {@code POST /transactions/{id}/reverse} would;</li>
+ *   <li>inserts the reversal rows in one JDBC batch, updates each wallet once and
+ *       records the item outcomes in another batch.</li>
+ * </ol>
+ * Each reversal still advances the wallet version by one and publishes its own
+ * {@link WalletEvent}, so caches, history, rollups and the audit log see the same
+ * sequence as for single reversals.
+ * <p>
+ * Resumable and idempotent: outcomes commit with their chunk, a resumed job only
+ * picks up PENDING items, and a transaction reversed by any means, before or during
+ * the job, is reported as ALREADY_REVERSED through its unique {@code REV_} reference.
+ */
+@Slf4j
+@Component
+public class BulkReversalService {
+
+    private static final int HOME_SHARD = 0;
+    private static final UUID MIN_UUID = new UUID(0L, 0L);
+    private static final String REFERENCE_PREFIX = "REV_";
+
+    /** Unsigned byte order of the UUID, as databases sort UUID columns. */
+    private static final Comparator<UUID> UUID_ORDER = Comparator
+            .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+    private static final String INSERT_JOB =
+            "INSERT INTO reversal_jobs (id, status, total_items, error, created_at, updated_at) " +
+            "VALUES (?, 'STAGING', 0, NULL, ?, ?)";
+
+    private static final String SELECT_JOB =
+            "SELECT id, status, total_items, error, created_at, updated_at FROM reversal_jobs WHERE id = ?";
+
+    private static final String UPDATE_JOB =
+            "UPDATE reversal_jobs SET status = ?, error = ?, updated_at = ? WHERE id = ?";
+
+    private static final String STAGED =
+            "UPDATE reversal_jobs SET status = 'RUNNING', total_items = ?, updated_at = ? WHERE id = ?";
+
+    private static final String FIND_TRANSACTIONS =
+            "SELECT id, wallet_id FROM transactions WHERE id IN (%s)";
+
+    /** Keyset page of the reversible transactions matching a query; criteria are appended. */
+    private static final String QUERY_TRANSACTIONS =
+            "SELECT id, wallet_id FROM transactions WHERE id > ? AND type IN (%s) " +
+            "AND (reference_id IS NULL OR reference_id NOT LIKE 'REV!_%%' ESCAPE '!')";
+
+    private static final String INSERT_ITEM =
+            "INSERT INTO reversal_job_items (id, job_id, transaction_id, wallet_id, outcome, " +
+            "reversal_transaction_id, message) VALUES (?, ?, ?, ?, ?, NULL, ?)";
+
+    private static final String PENDING_ITEMS =
+            "SELECT id, transaction_id, wallet_id FROM reversal_job_items " +
+            "WHERE job_id = ? AND outcome = 'PENDING' AND (wallet_id > ? OR (wallet_id = ? AND transaction_id > ?)) " +
+            "ORDER BY wallet_id, transaction_id FETCH FIRST ? ROWS ONLY";
+
+    private static final String LOCK_WALLETS =
+            "SELECT id, user_id, balance, currency, status, created_at, updated_at, version FROM wallets " +
+            "WHERE id IN (%s) ORDER BY id FOR UPDATE";
+
+    private static final String ORIGINALS =
+            "SELECT id, wallet_id, type, amount FROM transactions WHERE id IN (%s)";
+
+    private static final String EXISTING_REVERSALS =
+            "SELECT reference_id, id FROM transactions WHERE reference_id IN (%s)";
+
+    private static final String INSERT_TRANSACTION =
+            "INSERT INTO transactions (id, wallet_id, type, amount, balance_after, reference_id, remarks, timestamp) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_WALLET =
+            "UPDATE wallets SET balance = ?, version = version + ?, updated_at = ? WHERE id = ?";
+
+    private static final String RECORD_OUTCOME =
+            "UPDATE reversal_job_items SET outcome = ?, reversal_transaction_id = ?, message = ? WHERE id = ?";
+
+    private static final String COUNT_OUTCOMES =
+            "SELECT outcome, COUNT(*) FROM reversal_job_items WHERE job_id = ? GROUP BY outcome";
+
+    private static final String LIST_ITEMS =
+            "SELECT transaction_id, wallet_id, outcome, reversal_transaction_id, message FROM reversal_job_items " +
+            "WHERE job_id = ? AND transaction_id > ? ORDER BY transaction_id FETCH FIRST ? ROWS ONLY";
+
+    private static final RowMapper<ReversalItemDTO> ITEM_ROW = (rs, rowNum) -> new ReversalItemDTO(
+            rs.getObject(1, UUID.class),
+            rs.getObject(2, UUID.class),
+            ReversalJobItem.Outcome.valueOf(rs.getString(3)),
+            rs.getObject(4, UUID.class),
+            rs.getString(5));
+
+    private static final RowMapper<Wallet> WALLET_ROW = (rs, rowNum) -> Wallet.builder()
+            .id(rs.getObject("id", UUID.class))
+            .userId(rs.getObject("user_id", UUID.class))
+            .balance(rs.getBigDecimal("balance"))
+            .currency(rs.getString("currency"))
+            .status(Wallet.WalletStatus.valueOf(rs.getString("status")))
+            .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+            .updatedAt(rs.getTimestamp("updated_at").toLocalDateTime())
+            .version(rs.getLong("version"))
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final VelocityLimiter velocityLimiter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReversalProperties properties;
+    private final IdStrategy idStrategy;
+    private final boolean allowNegativeBalance;
+
+    private final Set<UUID> running = ConcurrentHashMap.newKeySet();
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "wallet-reversal");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public BulkReversalService(JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               ShardRouter shardRouter,
+                               VelocityLimiter velocityLimiter,
+                               ApplicationEventPublisher eventPublisher,
+                               ReversalProperties properties,
+                               @Value("${spring.jpa.properties." + IdStrategy.PROPERTY + ":}") String idStrategy,
+                               @Value("${wallet.allow-negative-balance:false}") boolean allowNegativeBalance) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.velocityLimiter = velocityLimiter;
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+        this.idStrategy = IdStrategy.fromProperty(idStrategy);
+        this.allowNegativeBalance = allowNegativeBalance;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        worker.shutdownNow();
+    }
+
+    /**
+     * Stages the transactions of the request and starts reversing them in the background.
+     *
+     * @return the job, RUNNING, with every item staged
+     */
+    public ReversalJobDTO submit(BulkReversalRequest request) {
+        boolean byIds = request.getTransactionIds() != null && !request.getTransactionIds().isEmpty();
+        if (byIds == request.hasQuery()) {
+            throw new WalletException("Give either transactionIds or query criteria (walletId, "
+                    + "referenceIdPrefix, from, to)");
+        }
+        if (byIds && request.getTransactionIds().size() > properties.getMaxTransactionIds()) {
+            throw new WalletException("Cannot reverse more than " + properties.getMaxTransactionIds()
+                    + " listed transactions at once; use a query");
+        }
+        if (request.getType() != null && !reversible(request.getType().name())) {
+            throw new WalletException("Only DEPOSIT/WITHDRAWAL can be reversed");
+        }
+
+        UUID jobId = idStrategy.next();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        shardRouter.onShard(HOME_SHARD, () -> jdbcTemplate.update(INSERT_JOB, jobId, now, now));
+
+        long staged = byIds ? stageIds(jobId, request.getTransactionIds()) : stageQuery(jobId, request);
+        shardRouter.onShard(HOME_SHARD, () ->
+                jdbcTemplate.update(STAGED, staged, Timestamp.valueOf(LocalDateTime.now()), jobId));
+        log.info("Reversal job {} staged {} transactions", jobId, staged);
+
+        start(jobId);
+        return getJob(jobId);
+    }
+
+    /**
+     * Continues a job that failed or was interrupted, e.g. by a restart. A finished
+     * job, or one running in this instance, is returned as it is.
+     */
+    public ReversalJobDTO resume(UUID jobId) {
+        ReversalJobDTO job = getJob(jobId);
+        if (job.getStatus() == ReversalJob.Status.STAGING) {
+            throw new WalletException("Reversal job " + jobId + " was not fully staged; submit it again");
+        }
+        if (job.getStatus() != ReversalJob.Status.DONE) {
+            start(jobId);
+        }
+        return getJob(jobId);
+    }
+
+    public ReversalJobDTO getJob(UUID jobId) {
+        ReversalJobDTO job = shardRouter.onShard(HOME_SHARD, () ->
+                jdbcTemplate.query(SELECT_JOB, (rs, rowNum) -> {
+                    ReversalJobDTO dto = new ReversalJobDTO();
+                    dto.setId(rs.getObject(1, UUID.class));
+                    dto.setStatus(ReversalJob.Status.valueOf(rs.getString(2)));
+                    dto.setTotalItems(rs.getLong(3));
+                    dto.setError(rs.getString(4));
+                    dto.setCreatedAt(rs.getTimestamp(5).toLocalDateTime());
+                    dto.setUpdatedAt(rs.getTimestamp(6).toLocalDateTime());
+                    return dto;
+                }, jobId)).stream().findFirst()
+                .orElseThrow(() -> new WalletNotFoundException("Reversal job not found: " + jobId));
+
+        for (ReversalJobItem.Outcome outcome : ReversalJobItem.Outcome.values()) {
+            job.getOutcomes().put(outcome, 0L);
+        }
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            shardRouter.onShard(shard, () -> {
+                jdbcTemplate.query(COUNT_OUTCOMES, rs -> {
+                    job.getOutcomes().merge(ReversalJobItem.Outcome.valueOf(rs.getString(1)), rs.getLong(2), Long::sum);
+                }, jobId);
+                return null;
+            });
+        }
+        return job;
+    }
+
+    /**
+     * Items of a job in transaction ID order, after the given transaction ID;
+     * pass the last ID of a page to get the next one.
+     */
+    public List<ReversalItemDTO> getItems(UUID jobId, UUID after, int limit) {
+        if (limit < 1 || limit > properties.getMaxPageSize()) {
+            throw new WalletException("Limit must be between 1 and " + properties.getMaxPageSize());
+        }
+        getJob(jobId);
+        UUID from = after != null ? after : MIN_UUID;
+        List<ReversalItemDTO> items = new ArrayList<>();
+        for (List<ReversalItemDTO> page : shardRouter.onEachShard(() ->
+                jdbcTemplate.query(LIST_ITEMS, ITEM_ROW, jobId, from, limit))) {
+            items.addAll(page);
+        }
+        items.sort(Comparator.comparing(ReversalItemDTO::getTransactionId, UUID_ORDER));
+        return items.size() > limit ? new ArrayList<>(items.subList(0, limit)) : items;
+    }
+
+    private void start(UUID jobId) {
+        if (!running.add(jobId)) {
+            return;
+        }
+        worker.execute(() -> {
+            try {
+                run(jobId);
+            } finally {
+                running.remove(jobId);
+            }
+        });
+    }
+
+    // -------------------------------------------------------------
+    // STAGING
+    // -------------------------------------------------------------
+
+    /** Stages the distinct IDs on the shards holding them, and the IDs found nowhere as NOT_FOUND. */
+    private long stageIds(UUID jobId, List<UUID> transactionIds) {
+        List<UUID> distinct = new ArrayList<>(new LinkedHashSet<>(transactionIds));
+        distinct.remove(null);
+        Set<UUID> found = new HashSet<>();
+        int batchSize = Math.max(1, properties.getStageBatchSize());
+
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            int s = shard;
+            for (int start = 0; start < distinct.size(); start += batchSize) {
+                List<UUID> slice = distinct.subList(start, Math.min(distinct.size(), start + batchSize));
+                shardRouter.onShard(s, () -> transactionTemplate.execute(status -> {
+                    List<Object[]> items = new ArrayList<>(slice.size());
+                    jdbcTemplate.query(String.format(FIND_TRANSACTIONS, placeholders(slice.size())), rs -> {
+                        UUID transactionId = rs.getObject(1, UUID.class);
+                        if (found.add(transactionId)) {
+                            items.add(item(jobId, transactionId, rs.getObject(2, UUID.class),
+                                    ReversalJobItem.Outcome.PENDING, null));
+                        }
+                    }, slice.toArray());
+                    jdbcTemplate.batchUpdate(INSERT_ITEM, items);
+                    return null;
+                }));
+            }
+        }
+
+        List<Object[]> missing = new ArrayList<>();
+        for (UUID transactionId : distinct) {
+            if (!found.contains(transactionId)) {
+                missing.add(item(jobId, transactionId, null, ReversalJobItem.Outcome.NOT_FOUND,
+                        "Transaction not found"));
+            }
+        }
+        shardRouter.onShard(HOME_SHARD, () -> jdbcTemplate.batchUpdate(INSERT_ITEM, missing));
+        return distinct.size();
+    }
+
+    /** Stages the matching transactions of every shard, walking them in keyset pages. */
+    private long stageQuery(UUID jobId, BulkReversalRequest request) {
+        List<String> types = request.getType() != null
+                ? List.of(request.getType().name())
+                : List.of(Transaction.TransactionType.DEPOSIT.name(), Transaction.TransactionType.WITHDRAWAL.name());
+        StringBuilder sql = new StringBuilder(String.format(QUERY_TRANSACTIONS, placeholders(types.size())));
+        List<Object> criteria = new ArrayList<>(types);
+        if (request.getWalletId() != null) {
+            sql.append(" AND wallet_id = ?");
+            criteria.add(request.getWalletId());
+        }
+        if (request.getReferenceIdPrefix() != null) {
+            sql.append(" AND reference_id LIKE ? ESCAPE '!'");
+            criteria.add(request.getReferenceIdPrefix().replaceAll("[!%_]", "!$0") + "%");
+        }
+        if (request.getFrom() != null) {
+            sql.append(" AND timestamp >= ?");
+            criteria.add(Timestamp.valueOf(request.getFrom()));
+        }
+        if (request.getTo() != null) {
+            sql.append(" AND timestamp < ?");
+            criteria.add(Timestamp.valueOf(request.getTo()));
+        }
+        sql.append(" ORDER BY id FETCH FIRST ? ROWS ONLY");
+        int batchSize = Math.max(1, properties.getStageBatchSize());
+
+        long staged = 0;
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            UUID last = MIN_UUID;
+            while (true) {
+                List<Object> args = new ArrayList<>(criteria.size() + 2);
+                args.add(last);
+                args.addAll(criteria);
+                args.add(batchSize);
+                List<Object[]> items = shardRouter.onShard(shard, () -> transactionTemplate.execute(status -> {
+                    List<Object[]> page = jdbcTemplate.query(sql.toString(), (rs, rowNum) ->
+                            item(jobId, rs.getObject(1, UUID.class), rs.getObject(2, UUID.class),
+                                    ReversalJobItem.Outcome.PENDING, null), args.toArray());
+                    jdbcTemplate.batchUpdate(INSERT_ITEM, page);
+                    return page;
+                }));
+                staged += items.size();
+                if (items.size() < batchSize) {
+                    break;
+                }
+                last = (UUID) items.get(items.size() - 1)[2];
+            }
+        }
+        return staged;
+    }
+
+    private Object[] item(UUID jobId, UUID transactionId, UUID walletId, ReversalJobItem.Outcome outcome,
+                          String message) {
+        return new Object[]{idStrategy.next(), jobId, transactionId, walletId, outcome.name(), message};
+    }
+
+    // -------------------------------------------------------------
+    // CHUNK PROCESSING
+    // -------------------------------------------------------------
+
+    private void run(UUID jobId) {
+        long started = System.nanoTime();
+        try {
+            updateJob(jobId, ReversalJob.Status.RUNNING, null);
+            long reversed = 0;
+            for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+                int s = shard;
+                Cursor cursor = new Cursor(MIN_UUID, MIN_UUID);
+                while (cursor != null) {
+                    Cursor from = cursor;
+                    Chunk chunk = shardRouter.onShard(s, () -> applyChunkWithRetry(jobId, from));
+                    reversed += chunk.reversed;
+                    cursor = chunk.next;
+                }
+            }
+            updateJob(jobId, ReversalJob.Status.DONE, null);
+            log.info("Reversal job {} reversed {} transactions in {} ms", jobId, reversed,
+                    (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("Reversal job {} failed; resume it to continue", jobId, e);
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getName();
+            updateJob(jobId, ReversalJob.Status.FAILED, message.length() > 1000 ? message.substring(0, 1000) : message);
+        }
+    }
+
+    private void updateJob(UUID jobId, ReversalJob.Status status, String error) {
+        shardRouter.onShard(HOME_SHARD, () ->
+                jdbcTemplate.update(UPDATE_JOB, status.name(), error, Timestamp.valueOf(LocalDateTime.now()), jobId));
+    }
+
+    private Chunk applyChunkWithRetry(UUID jobId, Cursor from) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> applyChunk(jobId, from));
+            } catch (TransientDataAccessException e) {
+                if (attempt >= properties.getMaxChunkAttempts()) {
+                    throw e;
+                }
+                log.debug("Reversal job {} chunk retried after {}", jobId, e.getMessage());
+            }
+        }
+    }
+
+    /** Reverses the next chunk of PENDING items after the cursor on the current shard. */
+    private Chunk applyChunk(UUID jobId, Cursor from) {
+        int chunkSize = Math.max(1, properties.getChunkSize());
+        List<PendingItem> items = jdbcTemplate.query(PENDING_ITEMS, (rs, rowNum) -> new PendingItem(
+                        rs.getObject(1, UUID.class), rs.getObject(2, UUID.class), rs.getObject(3, UUID.class)),
+                jobId, from.walletId, from.walletId, from.transactionId, chunkSize);
+        if (items.isEmpty()) {
+            return new Chunk(null, 0);
+        }
+
+        // Lock first: reversals of a wallet are only written under its lock, so the
+        // existing reversals read below cannot change until this chunk commits
+        List<UUID> walletIds = items.stream().map(PendingItem::walletId).distinct().toList();
+        Map<UUID, Wallet> wallets = new HashMap<>();
+        for (Wallet wallet : jdbcTemplate.query(String.format(LOCK_WALLETS, placeholders(walletIds.size())),
+                WALLET_ROW, walletIds.toArray())) {
+            wallets.put(wallet.getId(), wallet);
+        }
+
+        List<UUID> transactionIds = items.stream().map(PendingItem::transactionId).toList();
+        Map<UUID, Original> originals = new HashMap<>();
+        jdbcTemplate.query(String.format(ORIGINALS, placeholders(transactionIds.size())), rs -> {
+            UUID id = rs.getObject(1, UUID.class);
+            originals.put(id, new Original(id, rs.getString(3), rs.getBigDecimal(4)));
+        }, transactionIds.toArray());
+        Map<String, UUID> reversals = new HashMap<>();
+        jdbcTemplate.query(String.format(EXISTING_REVERSALS, placeholders(transactionIds.size())),
+                rs -> {
+                    reversals.put(rs.getString(1), rs.getObject(2, UUID.class));
+                },
+                transactionIds.stream().map(id -> REFERENCE_PREFIX + id).toArray());
+
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp timestamp = Timestamp.valueOf(now);
+        List<Object[]> ledger = new ArrayList<>();
+        List<Object[]> outcomes = new ArrayList<>(items.size());
+        Map<UUID, Integer> versionSteps = new LinkedHashMap<>();
+        List<WalletEvent> events = new ArrayList<>();
+
+        for (PendingItem item : items) {
+            Original original = originals.get(item.transactionId);
+            Wallet wallet = wallets.get(item.walletId);
+            String referenceId = REFERENCE_PREFIX + item.transactionId;
+            if (original == null || wallet == null) {
+                outcomes.add(outcome(item, ReversalJobItem.Outcome.NOT_FOUND, null,
+                        original == null ? "Transaction not found" : "Wallet not found"));
+            } else if (!reversible(original.type)) {
+                outcomes.add(outcome(item, ReversalJobItem.Outcome.NOT_REVERSIBLE, null,
+                        "Only DEPOSIT/WITHDRAWAL can be reversed"));
+            } else if (reversals.containsKey(referenceId)) {
+                outcomes.add(outcome(item, ReversalJobItem.Outcome.ALREADY_REVERSED, reversals.get(referenceId),
+                        "Transaction already reversed"));
+            } else if (wallet.getStatus() != Wallet.WalletStatus.ACTIVE) {
+                outcomes.add(outcome(item, ReversalJobItem.Outcome.WALLET_NOT_ACTIVE, null,
+                        "Wallet is " + wallet.getStatus()));
+            } else if (original.isDeposit() && !allowNegativeBalance
+                    && wallet.getBalance().compareTo(original.amount) < 0) {
+                outcomes.add(outcome(item, ReversalJobItem.Outcome.INSUFFICIENT_FUNDS, null, "Insufficient funds"));
+            } else {
+                Transaction reversal = reverse(original, wallet, referenceId, now);
+                ledger.add(new Object[]{
+                        reversal.getId(), wallet.getId(), reversal.getType().name(), reversal.getAmount(),
+                        reversal.getBalanceAfter(), referenceId, reversal.getRemarks(), timestamp
+                });
+                outcomes.add(outcome(item, ReversalJobItem.Outcome.REVERSED, reversal.getId(), null));
+                versionSteps.merge(wallet.getId(), 1, Integer::sum);
+                // each reversal is one version step, as if it had been made on its own
+                events.add(WalletEvent.transaction(WalletDTO.fromEntity(wallet), TransactionDTO.fromEntity(reversal)));
+            }
+        }
+
+        if (!ledger.isEmpty()) {
+            List<Object[]> updates = new ArrayList<>(versionSteps.size());
+            for (Map.Entry<UUID, Integer> step : versionSteps.entrySet()) {
+                updates.add(new Object[]{wallets.get(step.getKey()).getBalance(), step.getValue(), timestamp,
+                        step.getKey()});
+            }
+            jdbcTemplate.batchUpdate(INSERT_TRANSACTION, ledger);
+            jdbcTemplate.batchUpdate(UPDATE_WALLET, updates);
+        }
+        jdbcTemplate.batchUpdate(RECORD_OUTCOME, outcomes);
+        events.forEach(eventPublisher::publishEvent);   // delivered after commit
+
+        PendingItem last = items.get(items.size() - 1);
+        return new Chunk(items.size() < chunkSize ? null : new Cursor(last.walletId, last.transactionId),
+                ledger.size());
+    }
+
+    /** Applies the reversal of a locked original to its wallet and returns the reversal transaction. */
+    private Transaction reverse(Original original, Wallet wallet, String referenceId, LocalDateTime now) {
+        BigDecimal amount = original.amount;
+        Transaction.TransactionType type;
+        if (original.isDeposit()) {
+            // not subject to limits, but still counts as an outflow
+            velocityLimiter.record(wallet.getId(), amount);
+            wallet.setBalance(wallet.getBalance().subtract(amount));
+            type = Transaction.TransactionType.WITHDRAWAL;
+        } else {
+            wallet.setBalance(wallet.getBalance().add(amount));
+            type = Transaction.TransactionType.DEPOSIT;
+        }
+        wallet.setVersion(wallet.getVersion() + 1);
+        wallet.setUpdatedAt(now);
+
+        return Transaction.builder()
+                .id(idStrategy.next())
+                .wallet(wallet)
+                .type(type)
+                .amount(amount)
+                .balanceAfter(wallet.getBalance())
+                .referenceId(referenceId)
+                .remarks("Reversal of: " + original.id)
+                .timestamp(now)
+                .build();
+    }
+
+    private static Object[] outcome(PendingItem item, ReversalJobItem.Outcome outcome, UUID reversalId,
+                                    String message) {
+        return new Object[]{outcome.name(), reversalId, message, item.id};
+    }
+
+    private static boolean reversible(String type) {
+        return Transaction.TransactionType.DEPOSIT.name().equals(type)
+                || Transaction.TransactionType.WITHDRAWAL.name().equals(type);
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private record PendingItem(UUID id, UUID transactionId, UUID walletId) {
+    }
+
+    private record Original(UUID id, String type, BigDecimal amount) {
+        boolean isDeposit() {
+            return Transaction.TransactionType.DEPOSIT.name().equals(type);
+        }
+    }
+
+    /** Position after the last item of a chunk, in (wallet, transaction) order. */
+    private record Cursor(UUID walletId, UUID transactionId) {
+    }
+
+    /** Outcome of a chunk: where the next one starts (null when the shard is done) and the reversals made. */
+    private record Chunk(Cursor next, int reversed) {
+    }
+}
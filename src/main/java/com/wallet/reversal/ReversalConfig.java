@@ -0,0 +1,9 @@
+package com.wallet.reversal;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ReversalProperties.class)
+public class ReversalConfig {
+}
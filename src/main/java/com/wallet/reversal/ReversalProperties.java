@@ -0,0 +1,27 @@
+package com.wallet.reversal;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Bulk reversal jobs ({@code wallet.reversal.*}).
+ */
+@Data
+@ConfigurationProperties(prefix = "wallet.reversal")
+public class ReversalProperties {
+
+    /** Items reversed per transaction (per shard); their wallets are locked once per chunk. */
+    private int chunkSize = 500;
+
+    /** Transaction IDs looked up and staged per statement. */
+    private int stageBatchSize = 1000;
+
+    /** Largest explicit ID list accepted in one request; queries are not limited. */
+    private int maxTransactionIds = 100000;
+
+    /** Attempts of a chunk that lost a deadlock or timed out waiting for a wallet lock. */
+    private int maxChunkAttempts = 3;
+
+    /** Largest page of the per-item outcome listing. */
+    private int maxPageSize = 1000;
+}
@@ -0,0 +1,11 @@
+package com.wallet.rollup;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling   // periodic rollup flush
+@EnableConfigurationProperties(RollupProperties.class)
+public class RollupConfig {
+}
@@ -0,0 +1,31 @@
+package com.wallet.rollup;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Ledger volume rollups ({@code wallet.rollup.*}).
+ */
+@Data
+@ConfigurationProperties(prefix = "wallet.rollup")
+public class RollupProperties {
+
+    private boolean enabled = true;
+
+    /** Interval between writes of the accumulated volume to {@code ledger_rollups}. */
+    private long flushIntervalMs = 10_000;
+
+    /** Distinct currencies tracked; operations in further currencies are not rolled up. */
+    private int maxCurrencies = 16;
+
+    /** Buckets kept in memory per resolution; older ranges are read from the table. */
+    private int minuteBuckets = 360;
+    private int hourBuckets = 168;
+    private int dayBuckets = 90;
+
+    /**
+     * Serves recent ranges from memory. Memory only holds the operations of this
+     * instance, so disable it when several instances share the database.
+     */
+    private boolean memoryReads = true;
+}
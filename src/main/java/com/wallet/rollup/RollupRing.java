@@ -0,0 +1,168 @@
+package com.wallet.rollup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * Count, sum, min and max per series over the most recent buckets of one
+ * resolution, kept column by column in primitive arrays. Cell
+ * {@code slot * series + s} holds series {@code s} of the bucket stored in
+ * {@code slot}; a slot is recycled when time reaches the bucket
+ * {@code slots} further on.
+ * <p>
+ * Next to the totals it keeps the delta accumulated since the last
+ * {@link #drain()}. Deltas of a recycled slot, and events too old for the
+ * ring, are spilled into a list so no flush ever loses them. Amounts are in
+ * units of 1/10000. Thread-safe.
+ */
+final class RollupRing {
+
+    /** Volume of one series over one bucket. */
+    record Delta(long bucket, int series, long count, long sum, long min, long max) {
+    }
+
+    /** Receives the non-empty cells of a {@link #read}. */
+    interface CellConsumer {
+        void accept(long bucket, int series, long count, long sum, long min, long max);
+    }
+
+    private final long bucketMillis;
+    private final int slots;
+    private final int series;
+
+    private final long[] slotBucket;
+    private final long[] count;
+    private final long[] sum;
+    private final long[] min;
+    private final long[] max;
+
+    private final boolean[] dirty;
+    private final long[] deltaCount;
+    private final long[] deltaSum;
+    private final long[] deltaMin;
+    private final long[] deltaMax;
+    private final List<Delta> spilled = new ArrayList<>();
+
+    RollupRing(long bucketMillis, int slots, int series) {
+        this.bucketMillis = bucketMillis;
+        this.slots = slots;
+        this.series = series;
+        int cells = slots * series;
+        this.slotBucket = new long[slots];
+        Arrays.fill(slotBucket, Long.MIN_VALUE);
+        this.count = new long[cells];
+        this.sum = new long[cells];
+        this.min = new long[cells];
+        this.max = new long[cells];
+        this.dirty = new boolean[slots];
+        this.deltaCount = new long[cells];
+        this.deltaSum = new long[cells];
+        this.deltaMin = new long[cells];
+        this.deltaMax = new long[cells];
+    }
+
+    long bucketOf(long millis) {
+        return Math.floorDiv(millis, bucketMillis);
+    }
+
+    int getSlots() {
+        return slots;
+    }
+
+    synchronized void add(long at, int s, long amount) {
+        long bucket = bucketOf(at);
+        int slot = (int) Math.floorMod(bucket, (long) slots);
+        if (slotBucket[slot] != bucket) {
+            if (bucket < slotBucket[slot]) {
+                spilled.add(new Delta(bucket, s, 1, amount, amount, amount));
+                return;
+            }
+            recycle(slot, bucket);
+        }
+
+        int cell = slot * series + s;
+        if (count[cell] == 0) {
+            min[cell] = amount;
+            max[cell] = amount;
+        } else {
+            min[cell] = Math.min(min[cell], amount);
+            max[cell] = Math.max(max[cell], amount);
+        }
+        count[cell]++;
+        sum[cell] += amount;
+
+        if (deltaCount[cell] == 0) {
+            deltaMin[cell] = amount;
+            deltaMax[cell] = amount;
+        } else {
+            deltaMin[cell] = Math.min(deltaMin[cell], amount);
+            deltaMax[cell] = Math.max(deltaMax[cell], amount);
+        }
+        deltaCount[cell]++;
+        deltaSum[cell] += amount;
+        dirty[slot] = true;
+    }
+
+    /**
+     * Visits the non-empty cells of buckets in [fromBucket, toBucket) still held
+     * by the ring, in bucket then series order.
+     */
+    synchronized void read(long fromBucket, long toBucket, IntPredicate selected, CellConsumer consumer) {
+        for (long bucket = Math.max(fromBucket, toBucket - slots); bucket < toBucket; bucket++) {
+            int slot = (int) Math.floorMod(bucket, (long) slots);
+            if (slotBucket[slot] != bucket) {
+                continue;
+            }
+            int base = slot * series;
+            for (int s = 0; s < series; s++) {
+                int cell = base + s;
+                if (count[cell] > 0 && selected.test(s)) {
+                    consumer.accept(bucket, s, count[cell], sum[cell], min[cell], max[cell]);
+                }
+            }
+        }
+    }
+
+    /** Takes the volume added since the previous drain. */
+    synchronized List<Delta> drain() {
+        List<Delta> deltas = new ArrayList<>(spilled);
+        spilled.clear();
+        for (int slot = 0; slot < slots; slot++) {
+            if (dirty[slot]) {
+                takeDeltas(slot, deltas);
+            }
+        }
+        return deltas;
+    }
+
+    /** Puts back deltas whose flush failed; they are returned by the next drain. */
+    synchronized void restore(List<Delta> deltas) {
+        spilled.addAll(deltas);
+    }
+
+    private void recycle(int slot, long bucket) {
+        if (dirty[slot]) {
+            takeDeltas(slot, spilled);
+        }
+        int from = slot * series;
+        Arrays.fill(count, from, from + series, 0);
+        Arrays.fill(sum, from, from + series, 0);
+        slotBucket[slot] = bucket;
+    }
+
+    private void takeDeltas(int slot, List<Delta> into) {
+        int base = slot * series;
+        for (int s = 0; s < series; s++) {
+            int cell = base + s;
+            if (deltaCount[cell] > 0) {
+                into.add(new Delta(slotBucket[slot], s, deltaCount[cell], deltaSum[cell],
+                        deltaMin[cell], deltaMax[cell]));
+                deltaCount[cell] = 0;
+                deltaSum[cell] = 0;
+            }
+        }
+        dirty[slot] = false;
+    }
+}
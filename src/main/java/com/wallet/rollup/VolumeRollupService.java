@@ -0,0 +1,252 @@
+package com.wallet.rollup;
+
+import com.wallet.event.WalletEvent;
+import com.wallet.exception.WalletException;
+import com.wallet.model.Transaction;
+import com.wallet.model.VolumeRollup;
+import com.wallet.payload.TransactionDTO;
+import com.wallet.payload.VolumeRollupDTO;
+import com.wallet.repository.VolumeRollupRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntPredicate;
+
+/**
+ * Ledger volume per minute, hour and day, by transaction type and currency.
+ * <p>
+ * Fed by the after-commit wallet events, so only committed operations are
+ * counted (batch updates that bypass events, like the daily accrual, are not).
+ * Each resolution keeps its recent buckets in a {@link RollupRing}; the volume
+ * added since the last flush is merged into {@code ledger_rollups} every
+ * {@code flush-interval-ms}, adding to whatever the table already holds, so
+ * restarts and several instances never overwrite each other.
+ * <p>
+ * Queries are answered from memory when the whole range is still held by the
+ * ring and was collected by this instance since startup; otherwise pending
+ * volume is flushed and the table is read. Operations still in flight at a
+ * crash are lost to the rollups, never to the ledger.
+ */
+@Slf4j
+@Service
+public class VolumeRollupService {
+
+    private static final Transaction.TransactionType[] TYPES = Transaction.TransactionType.values();
+    private static final int MAX_POINTS = 10_000;
+
+    private static final String MERGE =
+            "MERGE INTO ledger_rollups r USING (SELECT CAST(? AS VARCHAR(8)) AS resolution, " +
+            "CAST(? AS TIMESTAMP) AS bucket_start, CAST(? AS VARCHAR(20)) AS type, CAST(? AS VARCHAR(3)) AS currency, " +
+            "CAST(? AS BIGINT) AS tx_count, CAST(? AS DECIMAL(19,4)) AS total_amount, " +
+            "CAST(? AS DECIMAL(19,4)) AS min_amount, CAST(? AS DECIMAL(19,4)) AS max_amount) d " +
+            "ON (r.resolution = d.resolution AND r.bucket_start = d.bucket_start " +
+            "AND r.type = d.type AND r.currency = d.currency) " +
+            "WHEN MATCHED THEN UPDATE SET tx_count = r.tx_count + d.tx_count, " +
+            "total_amount = r.total_amount + d.total_amount, min_amount = LEAST(r.min_amount, d.min_amount), " +
+            "max_amount = GREATEST(r.max_amount, d.max_amount), updated_at = ? " +
+            "WHEN NOT MATCHED THEN INSERT (id, resolution, bucket_start, type, currency, tx_count, " +
+            "total_amount, min_amount, max_amount, updated_at) VALUES (?, d.resolution, d.bucket_start, d.type, " +
+            "d.currency, d.tx_count, d.total_amount, d.min_amount, d.max_amount, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final VolumeRollupRepository rollupRepository;
+    private final RollupProperties properties;
+
+    private final Map<VolumeRollup.Resolution, RollupRing> rings = new EnumMap<>(VolumeRollup.Resolution.class);
+    private final Map<String, Integer> currencyIndex = new ConcurrentHashMap<>();
+    private final String[] currencies;
+    private final Set<String> untracked = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final long startedAt = epochMillis(LocalDateTime.now());
+
+    public VolumeRollupService(JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               VolumeRollupRepository rollupRepository,
+                               RollupProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.rollupRepository = rollupRepository;
+        this.properties = properties;
+        this.currencies = new String[properties.getMaxCurrencies()];
+
+        int series = TYPES.length * properties.getMaxCurrencies();
+        rings.put(VolumeRollup.Resolution.MINUTE, new RollupRing(
+                VolumeRollup.Resolution.MINUTE.getBucketMillis(), properties.getMinuteBuckets(), series));
+        rings.put(VolumeRollup.Resolution.HOUR, new RollupRing(
+                VolumeRollup.Resolution.HOUR.getBucketMillis(), properties.getHourBuckets(), series));
+        rings.put(VolumeRollup.Resolution.DAY, new RollupRing(
+                VolumeRollup.Resolution.DAY.getBucketMillis(), properties.getDayBuckets(), series));
+    }
+
+    // -------------------------------------------------------------
+    // COLLECTION
+    // -------------------------------------------------------------
+
+    @TransactionalEventListener
+    public void onWalletEvent(WalletEvent event) {
+        TransactionDTO transaction = event.getTransaction();
+        if (!properties.isEnabled() || transaction == null) {
+            return;
+        }
+        record(transaction.getType(), event.getWallet().getCurrency(), transaction.getAmount(),
+                transaction.getTimestamp() != null ? transaction.getTimestamp() : LocalDateTime.now());
+    }
+
+    void record(Transaction.TransactionType type, String currency, BigDecimal amount, LocalDateTime at) {
+        int currencyNo = currencyNo(currency);
+        if (currencyNo < 0) {
+            if (untracked.add(currency)) {
+                log.warn("Currency {} not rolled up: wallet.rollup.max-currencies ({}) reached",
+                        currency, currencies.length);
+            }
+            return;
+        }
+        int series = type.ordinal() * currencies.length + currencyNo;
+        long millis = epochMillis(at);
+        long units = amount.setScale(4, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        rings.values().forEach(ring -> ring.add(millis, series, units));
+    }
+
+    private int currencyNo(String currency) {
+        Integer index = currencyIndex.get(currency);
+        if (index != null) {
+            return index;
+        }
+        synchronized (currencies) {
+            index = currencyIndex.get(currency);
+            if (index != null) {
+                return index;
+            }
+            int size = currencyIndex.size();
+            if (size == currencies.length) {
+                return -1;
+            }
+            currencies[size] = currency;
+            currencyIndex.put(currency, size);
+            return size;
+        }
+    }
+
+    // -------------------------------------------------------------
+    // FLUSH
+    // -------------------------------------------------------------
+
+    @Scheduled(fixedDelayString = "${wallet.rollup.flush-interval-ms:10000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            rings.forEach(this::flush);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void flush(VolumeRollup.Resolution resolution, RollupRing ring) {
+        List<RollupRing.Delta> deltas = ring.drain();
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(MERGE, deltas, 500,
+                    (ps, d) -> {
+                        ps.setString(1, resolution.name());
+                        ps.setTimestamp(2, Timestamp.valueOf(bucketStart(resolution, d.bucket())));
+                        ps.setString(3, TYPES[d.series() / currencies.length].name());
+                        ps.setString(4, currencies[d.series() % currencies.length]);
+                        ps.setLong(5, d.count());
+                        ps.setBigDecimal(6, BigDecimal.valueOf(d.sum(), 4));
+                        ps.setBigDecimal(7, BigDecimal.valueOf(d.min(), 4));
+                        ps.setBigDecimal(8, BigDecimal.valueOf(d.max(), 4));
+                        ps.setTimestamp(9, now);
+                        ps.setObject(10, UUID.randomUUID());
+                        ps.setTimestamp(11, now);
+                    }));
+        } catch (DataAccessException e) {
+            ring.restore(deltas);
+            log.warn("Flushing {} {} rollup buckets failed, retrying on next flush: {}",
+                    deltas.size(), resolution, e.getMessage());
+        }
+    }
+
+    // -------------------------------------------------------------
+    // QUERIES
+    // -------------------------------------------------------------
+
+    /**
+     * Volume per bucket starting in [from, to), ordered by bucket, type and currency.
+     * Empty buckets are omitted; a null type or currency matches all.
+     */
+    public List<VolumeRollupDTO> query(VolumeRollup.Resolution resolution, LocalDateTime from, LocalDateTime to,
+                                       Transaction.TransactionType type, String currency) {
+        if (!from.isBefore(to)) {
+            throw new WalletException("Range start must be before its end");
+        }
+        RollupRing ring = rings.get(resolution);
+        long fromBucket = ring.bucketOf(epochMillis(from));
+        long toBucket = ring.bucketOf(epochMillis(to) - 1) + 1;
+        if (toBucket - fromBucket > MAX_POINTS) {
+            throw new WalletException("Range spans more than " + MAX_POINTS + " " + resolution + " buckets");
+        }
+
+        long currentBucket = ring.bucketOf(epochMillis(LocalDateTime.now()));
+        boolean inMemory = properties.isEnabled() && properties.isMemoryReads()
+                && fromBucket > ring.bucketOf(startedAt)
+                && fromBucket > currentBucket - ring.getSlots();
+        if (!inMemory) {
+            flush();
+            return rollupRepository.findRange(resolution, from, to, type, currency).stream()
+                    .map(VolumeRollupDTO::fromEntity)
+                    .toList();
+        }
+
+        Integer currencyNo = currency != null ? currencyIndex.get(currency) : null;
+        if (currency != null && currencyNo == null) {
+            return List.of();
+        }
+        int width = currencies.length;
+        IntPredicate selected = s -> (type == null || s / width == type.ordinal())
+                && (currencyNo == null || s % width == currencyNo);
+
+        List<VolumeRollupDTO> points = new ArrayList<>();
+        ring.read(fromBucket, Math.min(toBucket, currentBucket + 1), selected,
+                (bucket, s, count, sum, min, max) -> points.add(new VolumeRollupDTO(
+                        bucketStart(resolution, bucket), TYPES[s / width], currencies[s % width], count,
+                        BigDecimal.valueOf(sum, 4), BigDecimal.valueOf(min, 4), BigDecimal.valueOf(max, 4))));
+        return points;
+    }
+
+    /** Ledger timestamps are local date-times; buckets are aligned to that local clock. */
+    private static long epochMillis(LocalDateTime at) {
+        return at.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime bucketStart(VolumeRollup.Resolution resolution, long bucket) {
+        return LocalDateTime.ofEpochSecond(bucket * (resolution.getBucketMillis() / 1000), 0, ZoneOffset.UTC);
+    }
+}
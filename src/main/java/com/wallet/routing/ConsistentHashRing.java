@@ -0,0 +1,82 @@
+package com.wallet.routing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Immutable consistent-hash ring mapping wallet IDs to nodes (shards, cluster members).
+ * <p>
+ * Each node is placed on the ring at {@code virtualNodes} pseudo-random points derived
+ * from its name, and a key belongs to the first node point at or after the key's hash.
+ * Adding or removing a node therefore only moves the keys adjacent to its points,
+ * roughly {@code 1/n} of all keys. Keys are hashed over all 128 bits, so time-ordered
+ * UUIDs spread evenly even though their high bits are a timestamp.
+ *
+ * @param <T> node type
+ */
+public final class ConsistentHashRing<T> {
+
+    private final NavigableMap<Long, T> ring = new TreeMap<>();
+    private final Map<String, T> nodes;
+
+    /**
+     * @param nodes        nodes keyed by a stable name, which determines their ring positions
+     * @param virtualNodes number of ring points per node
+     */
+    public ConsistentHashRing(Map<String, T> nodes, int virtualNodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("A hash ring needs at least one node");
+        }
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("virtualNodes must be positive");
+        }
+        this.nodes = Map.copyOf(nodes);
+        nodes.forEach((name, node) -> {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(name + "#" + i), node);
+            }
+        });
+    }
+
+    /** Node owning the given key. */
+    public T nodeFor(UUID key) {
+        Map.Entry<Long, T> entry = ring.ceilingEntry(hash(key));
+        return (entry != null ? entry : ring.firstEntry()).getValue();
+    }
+
+    public Collection<T> getNodes() {
+        return nodes.values();
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    static long hash(UUID key) {
+        return mix(key.getMostSignificantBits() ^ mix(key.getLeastSignificantBits()));
+    }
+
+    static long hash(String name) {
+        // FNV-1a, then the finalizer for better avalanche on short names
+        long h = 0xcbf29ce484222325L;
+        for (byte b : name.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    /** MurmurHash3 64-bit finalizer. */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -1,5 +1,23 @@
 package com.wallet.service;
 
+import java.util.Optional;
+
 public interface IdempotencyService {
      void checkDuplicate(String referenceId);
+
+     /**
+      * Response stored for a reference ID by an earlier request, if any.
+      * Call while holding the row locks of the operation's wallets, so a concurrent
+      * attempt with the same reference ID has either committed or not started.
+      *
+      * @throws com.wallet.exception.DuplicateTransactionException if the reference ID
+      *         was used for a different request
+      */
+     <T> Optional<T> findResponse(String referenceId, String requestHash, Class<T> responseType);
+
+     /** Stores the response of a reference ID in the caller's transaction. */
+     void saveResponse(String referenceId, String requestHash, Object response);
+
+     /** Replaces a stored response, for operations that complete after their first transaction. */
+     void updateResponse(String referenceId, Object response);
 }
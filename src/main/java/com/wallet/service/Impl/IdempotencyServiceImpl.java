@@ -1,30 +1,69 @@
 package com.wallet.service.Impl;
 
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.archive.TieredTransactionReader;
 import com.wallet.exception.DuplicateTransactionException;
-import com.wallet.repository.TransactionRepository;
+import com.wallet.idempotency.IdempotencyProperties;
 import com.wallet.service.IdempotencyService;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reference ID checks of the ledger operations.
+ * <p>
+ * Responses are kept in {@code idempotency_keys} for {@code wallet.idempotency.ttl-hours},
+ * written with plain JDBC in the operation's own transaction. Within that time a
+ * retry is answered with the stored response; after it, the reference ID recorded
+ * on the ledger row still rejects the retry as a duplicate.
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class IdempotencyServiceImpl implements IdempotencyService {
 
-    private final TransactionRepository transactionRepository;
+    private static final String SELECT =
+            "SELECT request_hash, response FROM idempotency_keys WHERE idempotency_key = ?";
+
+    private static final String INSERT =
+            "INSERT INTO idempotency_keys (idempotency_key, request_hash, response, created_at, expires_at) " +
+            "VALUES (?, ?, ?, ?, ?)";
+
+    private static final String UPDATE =
+            "UPDATE idempotency_keys SET response = ? WHERE idempotency_key = ?";
+
+    private final TieredTransactionReader tieredReader;
+    private final JdbcTemplate jdbcTemplate;
+    private final IdempotencyProperties properties;
+    private final ObjectMapper objectMapper;
+
+    public IdempotencyServiceImpl(TieredTransactionReader tieredReader, JdbcTemplate jdbcTemplate,
+                                  IdempotencyProperties properties, ObjectMapper objectMapper) {
+        this.tieredReader = tieredReader;
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        // null fields are left out of stored responses
+        this.objectMapper = objectMapper.copy().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    }
 
     @Override
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void checkDuplicate(String referenceId) {
-        if (referenceId == null || referenceId.trim().isEmpty()) {
+        if (isBlank(referenceId)) {
             return;
         }
 
-        if (transactionRepository.existsByReferenceId(referenceId)) {
+        if (tieredReader.existsByReferenceId(referenceId)) {
             log.warn("Duplicate transaction detected with referenceId: {}", referenceId);
             throw new DuplicateTransactionException(
                     "Duplicate transaction detected with referenceId: " + referenceId);
@@ -32,4 +71,59 @@ public class IdempotencyServiceImpl implements IdempotencyService {
 
         log.debug("Reference ID {} is unique, proceeding with transaction", referenceId);
     }
+
+    @Override
+    public <T> Optional<T> findResponse(String referenceId, String requestHash, Class<T> responseType) {
+        if (isBlank(referenceId)) {
+            return Optional.empty();
+        }
+        List<String[]> stored = jdbcTemplate.query(SELECT,
+                (rs, rowNum) -> new String[]{rs.getString("request_hash"), rs.getString("response")}, referenceId);
+        if (stored.isEmpty()) {
+            return Optional.empty();
+        }
+        if (!stored.get(0)[0].equals(requestHash)) {
+            throw new DuplicateTransactionException("Reference ID already used for a different request: " + referenceId);
+        }
+        log.info("Replaying stored response for referenceId: {}", referenceId);
+        try {
+            return Optional.of(objectMapper.readValue(stored.get(0)[1], responseType));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable stored response for referenceId " + referenceId, e);
+        }
+    }
+
+    @Override
+    public void saveResponse(String referenceId, String requestHash, Object response) {
+        if (isBlank(referenceId)) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            jdbcTemplate.update(INSERT, referenceId, requestHash, write(response),
+                    Timestamp.valueOf(now), Timestamp.valueOf(now.plusHours(properties.getTtlHours())));
+        } catch (DuplicateKeyException e) {
+            // a concurrent request with this reference ID on another wallet committed first
+            throw new DuplicateTransactionException("Duplicate transaction detected with referenceId: " + referenceId);
+        }
+    }
+
+    @Override
+    public void updateResponse(String referenceId, Object response) {
+        if (!isBlank(referenceId)) {
+            jdbcTemplate.update(UPDATE, write(response), referenceId);
+        }
+    }
+
+    private String write(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize response", e);
+        }
+    }
+
+    private static boolean isBlank(String referenceId) {
+        return referenceId == null || referenceId.trim().isEmpty();
+    }
 }
@@ -1,5 +1,7 @@
 package com.wallet.service.Impl;
 
+import com.wallet.archive.TieredTransactionReader;
+import com.wallet.payload.CounterpartyDTO;
 import com.wallet.payload.TransactionDTO;
 import com.wallet.exception.WalletException;
 import com.wallet.model.Transaction;
@@ -13,6 +15,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -26,6 +29,7 @@ import java.util.UUID;
 public class TransactionServiceImpl implements TransactionService {
 
     private final TransactionRepository transactionRepository;
+    private final TieredTransactionReader tieredReader;
 
     /**
      * Fetch a single transaction by its unique identifier.
@@ -37,12 +41,9 @@ public class TransactionServiceImpl implements TransactionService {
     @Override
     public TransactionDTO getTransaction(UUID transactionId) {
 
-        // Fetch the transaction or throw a domain-specific exception
-        Transaction transaction = transactionRepository.findById(transactionId)
+        // Hot table first, then archived segments; DTOs avoid exposing persistence-layer details
+        return tieredReader.findById(transactionId)
                 .orElseThrow(() -> new WalletException("Transaction not found: " + transactionId));
-
-        // Convert entity → DTO to avoid exposing persistence-layer details
-        return TransactionDTO.fromEntity(transaction);
     }
 
     /**
@@ -59,11 +60,8 @@ public class TransactionServiceImpl implements TransactionService {
         // Build pageable with descending sort to ensure most recent records appear first
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "timestamp"));
 
-        // Query repository using paging
-        Page<Transaction> transactions = transactionRepository.findByWalletId(walletId, pageable);
-
-        // Transform all entities → DTOs efficiently using map() from Spring Data Page
-        return transactions.map(TransactionDTO::fromEntity);
+        // Query hot rows and archived segments using paging
+        return tieredReader.findByWallet(walletId, null, pageable);
     }
 
     /**
@@ -81,10 +79,42 @@ public class TransactionServiceImpl implements TransactionService {
         // Build pageable with timestamp sorting for consistency
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "timestamp"));
 
-        // Run filtered query
-        Page<Transaction> transactions = transactionRepository.findByWalletIdAndType(walletId, type, pageable);
+        // Run filtered query across hot rows and archived segments
+        return tieredReader.findByWallet(walletId, type, pageable);
+    }
 
-        // Convert page content to DTOs
-        return transactions.map(TransactionDTO::fromEntity);
+    /**
+     * Returns paginated transfers exchanged between a wallet and one counterparty,
+     * in both directions, as recorded on the given wallet (latest first).
+     *
+     * @param walletId             Wallet identifier
+     * @param counterpartyWalletId Other wallet of the transfers
+     * @param page                 Page number
+     * @param size                 Page size
+     * @return Paginated list of TRANSFER_OUT / TRANSFER_IN transactions
+     */
+    @Override
+    public Page<TransactionDTO> getTransfersBetween(UUID walletId, UUID counterpartyWalletId, int page, int size) {
+
+        // (wallet_id, counterparty_wallet_id, timestamp) index serves both the filter and the sort
+        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "timestamp"));
+
+        return transactionRepository.findTransfersBetween(walletId, counterpartyWalletId, pageable)
+                .map(TransactionDTO::fromEntity);
+    }
+
+    /**
+     * Lists every wallet the given wallet has exchanged transfers with,
+     * most recently active counterparty first.
+     *
+     * @param walletId Wallet identifier
+     * @return Per-counterparty transfer count, totals and last transfer time
+     */
+    @Override
+    public List<CounterpartyDTO> getCounterparties(UUID walletId) {
+        return transactionRepository.findCounterparties(
+                walletId,
+                Transaction.TransactionType.TRANSFER_OUT,
+                Transaction.TransactionType.TRANSFER_IN);
     }
 }
@@ -1,12 +1,11 @@
 package com.wallet.service.Impl;
 
+import com.wallet.archive.TieredTransactionReader;
 import com.wallet.payload.WalletDTO;
 import com.wallet.model.Wallet;
-import com.wallet.repository.TransactionRepository;
 import com.wallet.repository.WalletRepository;
 import com.wallet.service.WalletMonitoringService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -23,7 +22,7 @@ import java.util.UUID;
 class WalletMonitoringServiceImpl implements WalletMonitoringService {
 
     private final WalletRepository walletRepository;
-    private final TransactionRepository transactionRepository;
+    private final TieredTransactionReader tieredReader;
 
     /**
      * Fetch all wallets belonging to a specific user.
@@ -87,8 +86,8 @@ class WalletMonitoringServiceImpl implements WalletMonitoringService {
     }
 
     /**
-     * Retrieves the number of transactions for a specific wallet.
-     * Uses an unpaged query to avoid unnecessary pagination for counting.
+     * Retrieves the number of transactions for a specific wallet,
+     * hot rows and archived segments alike.
      *
      * @param walletId Wallet identifier
      * @return total number of transactions for the wallet
@@ -96,9 +95,7 @@ class WalletMonitoringServiceImpl implements WalletMonitoringService {
     @Override
     public int getTransactionCount(UUID walletId) {
 
-        // Pageable.unpaged() returns all records → get element count
-        return transactionRepository
-                .findByWalletId(walletId, Pageable.unpaged())
-                .getNumberOfElements();
+        // COUNT on the hot table plus the segment run headers; no rows are loaded
+        return (int) tieredReader.countByWallet(walletId);
     }
 }
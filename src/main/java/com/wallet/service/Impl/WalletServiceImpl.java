@@ -1,6 +1,13 @@
 package com.wallet.service.Impl;
 
+import com.wallet.archive.TieredTransactionReader;
+import com.wallet.balance.BalanceIndex;
+import com.wallet.cache.WalletCache;
+import com.wallet.event.WalletEvent;
 import com.wallet.exception.*;
+import com.wallet.history.RecentTransactionsCache;
+import com.wallet.limits.VelocityLimiter;
+import com.wallet.model.IdempotencyKey;
 import com.wallet.model.Transaction;
 import com.wallet.model.Wallet;
 import com.wallet.payload.*;
@@ -8,11 +15,18 @@ import com.wallet.repository.TransactionRepository;
 import com.wallet.repository.WalletRepository;
 import com.wallet.service.IdempotencyService;
 import com.wallet.service.WalletService;
+import com.wallet.store.LedgerStore;
+import com.wallet.store.WalletStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
 
 import java.math.BigDecimal;
 import java.util.*;
@@ -24,9 +38,26 @@ import java.util.stream.Stream;
 @RequiredArgsConstructor
 public class WalletServiceImpl implements WalletService {
 
+    /** Maximum number of IDs per IN query for batch reads. */
+    private static final int BATCH_READ_CHUNK_SIZE = 500;
+
     private final WalletRepository walletRepository;
     private final TransactionRepository transactionRepository;
     private final IdempotencyService idempotencyService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final WalletCache walletCache;
+    private final WalletStore walletStore;
+    private final LedgerStore ledgerStore;
+    private final VelocityLimiter velocityLimiter;
+    private final TieredTransactionReader tieredReader;
+    private final RecentTransactionsCache recentTransactions;
+    private final BalanceIndex balanceIndex;
+
+    @Value("${wallet.max-transfer-amount:1000000}")
+    private BigDecimal maxTransferAmount;
+
+    @Value("${wallet.allow-negative-balance:false}")
+    private boolean allowNegativeBalance;
 
     // -------------------------------------------------------------
     // WALLET CREATION
@@ -41,6 +72,15 @@ public class WalletServiceImpl implements WalletService {
     @Override
     @Transactional
     public WalletDTO createWallet(CreateWalletRequest request) {
+        return createWallet(request, null);
+    }
+
+    /**
+     * Creates a wallet with a caller-assigned ID, e.g. one chosen for its shard.
+     * A null ID is assigned by the entity's ID generator.
+     */
+    @Transactional
+    public WalletDTO createWallet(CreateWalletRequest request, UUID walletId) {
         validateCreateWalletRequest(request);
 
         if (walletRepository.existsByUserId(request.getUserId())) {
@@ -48,6 +88,7 @@ public class WalletServiceImpl implements WalletService {
         }
 
         Wallet wallet = Wallet.builder()
+                .id(walletId)
                 .userId(request.getUserId())
                 .currency(request.getCurrency())
                 .balance(BigDecimal.ZERO)
@@ -55,9 +96,15 @@ public class WalletServiceImpl implements WalletService {
                 .build();
 
        Wallet wallets = walletRepository.saveAndFlush(wallet);
-        log.info("Created wallet {} for user {}", wallets.getId(), wallets.getUserId());
+        if (walletId != null && !walletId.equals(wallets.getId())) {
+            // the ID routes the wallet to its shard; a replaced one would strand it
+            throw new IllegalStateException("Wallet saved as " + wallets.getId() + " instead of " + walletId);
+        }
+        log.debug("Created wallet {} for user {}", wallets.getId(), wallets.getUserId());
 
-        return WalletDTO.fromEntity(wallets);
+        WalletDTO dto = WalletDTO.fromEntity(wallets);
+        eventPublisher.publishEvent(WalletEvent.created(dto));
+        return dto;
     }
 
     // -------------------------------------------------------------
@@ -67,14 +114,62 @@ public class WalletServiceImpl implements WalletService {
     /** Fetch wallet details if wallet exists and is ACTIVE */
     @Override
     public WalletDTO getWallet(UUID walletId) {
-        Wallet wallet = findActiveWallet(walletId);
-        return WalletDTO.fromEntity(wallet);
+        return findActiveWalletState(walletId);
     }
 
     /** Returns balance for an ACTIVE wallet */
     @Override
     public BigDecimal getBalance(UUID walletId) {
-        return findActiveWallet(walletId).getBalance();
+        return findActiveWalletState(walletId).getBalance();
+    }
+
+    /**
+     * Looks up many wallets at once.
+     * Wallets present in the wallet cache, when enabled, are served from it; the rest are loaded
+     * with chunked IN queries (each in its own short read transaction) and cached.
+     * Missing and non-ACTIVE wallets are reported separately from ACTIVE ones.
+     */
+    @Override
+    public BatchWalletResponse getWallets(List<UUID> walletIds) {
+        Set<UUID> ids = new LinkedHashSet<>(walletIds);
+        Map<UUID, WalletDTO> found = new HashMap<>(ids.size() * 2);
+
+        List<UUID> toLoad = new ArrayList<>();
+        for (UUID id : ids) {
+            WalletDTO cached = walletCache.get(id);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                toLoad.add(id);
+            }
+        }
+
+        for (int from = 0; from < toLoad.size(); from += BATCH_READ_CHUNK_SIZE) {
+            List<UUID> chunk = toLoad.subList(from, Math.min(from + BATCH_READ_CHUNK_SIZE, toLoad.size()));
+            for (Wallet wallet : walletRepository.findAllById(chunk)) {
+                WalletDTO dto = WalletDTO.fromEntity(wallet);
+                walletCache.put(dto);
+                found.put(wallet.getId(), dto);
+            }
+        }
+
+        List<WalletDTO> active = new ArrayList<>(found.size());
+        Map<UUID, Wallet.WalletStatus> inactive = new LinkedHashMap<>();
+        List<UUID> missing = new ArrayList<>();
+        for (UUID id : ids) {
+            WalletDTO wallet = found.get(id);
+            if (wallet == null) {
+                missing.add(id);
+            } else if (wallet.getStatus() != Wallet.WalletStatus.ACTIVE) {
+                inactive.put(id, wallet.getStatus());
+            } else {
+                active.add(wallet);
+            }
+        }
+
+        log.debug("Batch wallet lookup: {} requested, {} from cache, {} missing",
+                ids.size(), ids.size() - toLoad.size(), missing.size());
+        return new BatchWalletResponse(active, inactive, missing);
     }
 
     // -------------------------------------------------------------
@@ -89,8 +184,8 @@ public class WalletServiceImpl implements WalletService {
         wallet.setStatus(Wallet.WalletStatus.FROZEN);
         walletRepository.saveAndFlush(wallet);
 
-        log.info("Frozen wallet: {}", walletId);
-        return WalletDTO.fromEntity(wallet);
+        log.debug("Frozen wallet: {}", walletId);
+        return publishStatusChange(wallet);
     }
 
     /** Unfreeze wallet so operations can continue */
@@ -107,8 +202,8 @@ public class WalletServiceImpl implements WalletService {
         wallet.setStatus(Wallet.WalletStatus.ACTIVE);
         walletRepository.saveAndFlush(wallet);
 
-        log.info("Unfrozen wallet: {}", walletId);
-        return WalletDTO.fromEntity(wallet);
+        log.debug("Unfrozen wallet: {}", walletId);
+        return publishStatusChange(wallet);
     }
 
     // -------------------------------------------------------------
@@ -119,7 +214,7 @@ public class WalletServiceImpl implements WalletService {
      * Performs a deposit into a wallet.
      * Includes:
      *  - Validation
-     *  - Idempotency check (if refId is provided)
+     *  - Idempotency check (if refId is provided); a retry gets the original transaction
      *  - Pessimistic locking via findByIdForUpdate()
      */
     @Override
@@ -127,18 +222,20 @@ public class WalletServiceImpl implements WalletService {
     public TransactionDTO deposit(UUID walletId, DepositWithdrawRequest request) {
         validateAmount(request.getAmount());
 
-        if (request.getReferenceId() != null) {
-            idempotencyService.checkDuplicate(request.getReferenceId());
-        }
-
-        Wallet wallet = walletRepository.findByIdForUpdate(walletId)
+        Wallet wallet = walletStore.findByIdForUpdate(walletId)
                 .orElseThrow(() -> new WalletNotFoundException("Wallet not found: " + walletId));
 
+        String requestHash = IdempotencyKey.requestHash("DEPOSIT", walletId, request.getAmount());
+        Optional<TransactionDTO> replay = replay(request.getReferenceId(), requestHash, TransactionDTO.class);
+        if (replay.isPresent()) {
+            return replay.get();
+        }
+
         validateWalletStatus(wallet);
 
         BigDecimal newBalance = wallet.getBalance().add(request.getAmount());
         wallet.setBalance(newBalance);
-        walletRepository.saveAndFlush(wallet);
+        walletStore.update(wallet);
 
         Transaction transaction = createTransaction(
                 wallet,
@@ -147,10 +244,11 @@ public class WalletServiceImpl implements WalletService {
                 request.getReferenceId(),
                 request.getRemarks()
         );
-        log.info("Deposited {} {} to wallet {}, new balance {}",
+        log.debug("Deposited {} {} to wallet {}, new balance {}",
                 request.getAmount(), wallet.getCurrency(), walletId, newBalance);
-        System.out.println("time time "+ transaction.getTimestamp());
-        return TransactionDTO.fromEntity(transaction);
+        TransactionDTO dto = publishTransaction(wallet, transaction);
+        idempotencyService.saveResponse(request.getReferenceId(), requestHash, dto);
+        return dto;
     }
 
     // -------------------------------------------------------------
@@ -162,26 +260,29 @@ public class WalletServiceImpl implements WalletService {
      * Includes:
      *  - Balance check
      *  - Lock row before modifying
-     *  - Idempotency check
+     *  - Idempotency check; a retry gets the original transaction
      */
     @Override
     @Transactional
     public TransactionDTO withdraw(UUID walletId, DepositWithdrawRequest request) {
         validateAmount(request.getAmount());
 
-        if (request.getReferenceId() != null) {
-            idempotencyService.checkDuplicate(request.getReferenceId());
-        }
-
-        Wallet wallet = walletRepository.findByIdForUpdate(walletId)
+        Wallet wallet = walletStore.findByIdForUpdate(walletId)
                 .orElseThrow(() -> new WalletNotFoundException("Wallet not found: " + walletId));
 
+        String requestHash = IdempotencyKey.requestHash("WITHDRAWAL", walletId, request.getAmount());
+        Optional<TransactionDTO> replay = replay(request.getReferenceId(), requestHash, TransactionDTO.class);
+        if (replay.isPresent()) {
+            return replay.get();
+        }
+
         validateWalletStatus(wallet);
         validateSufficientBalance(wallet, request.getAmount());
+        velocityLimiter.checkAndReserve(walletId, request.getAmount());
 
         BigDecimal newBalance = wallet.getBalance().subtract(request.getAmount());
         wallet.setBalance(newBalance);
-        walletRepository.saveAndFlush(wallet);
+        walletStore.update(wallet);
 
         Transaction transaction = createTransaction(
                 wallet,
@@ -191,10 +292,12 @@ public class WalletServiceImpl implements WalletService {
                 request.getRemarks()
         );
 
-        log.info("Withdrew {} {} from wallet {}, new balance {}",
+        log.debug("Withdrew {} {} from wallet {}, new balance {}",
                 request.getAmount(), wallet.getCurrency(), walletId, newBalance);
 
-        return TransactionDTO.fromEntity(transaction);
+        TransactionDTO dto = publishTransaction(wallet, transaction);
+        idempotencyService.saveResponse(request.getReferenceId(), requestHash, dto);
+        return dto;
     }
 
     // -------------------------------------------------------------
@@ -208,11 +311,13 @@ public class WalletServiceImpl implements WalletService {
      *  - Balance and status validation
      *  - Currency validation
      *  - Dual linked transaction records
+     *  - Idempotency check (if refId is provided); a retry gets the original response
      */
     @Override
     @Transactional
     public TransferResponse transfer(TransferRequest request) {
         validateAmount(request.getAmount());
+        validateTransferAmount(request.getAmount());
 
         if (request.getFromWalletId().equals(request.getToWalletId())) {
             throw new WalletException("Cannot transfer to the same wallet");
@@ -226,11 +331,17 @@ public class WalletServiceImpl implements WalletService {
                 .sorted()
                 .collect(Collectors.toList());
 
-        List<Wallet> wallets = (List<Wallet>) walletRepository.findAllByIdForUpdate(ordered);
+        List<Wallet> wallets = walletStore.findAllByIdForUpdate(ordered);
 
         Wallet fromWallet = findWalletInList(wallets, w1);
         Wallet toWallet = findWalletInList(wallets, w2);
 
+        String requestHash = IdempotencyKey.requestHash("TRANSFER", w1, w2, request.getAmount());
+        Optional<TransferResponse> replay = replay(request.getReferenceId(), requestHash, TransferResponse.class);
+        if (replay.isPresent()) {
+            return replay.get();
+        }
+
         validateWalletStatus(fromWallet);
         validateWalletStatus(toWallet);
 
@@ -239,21 +350,21 @@ public class WalletServiceImpl implements WalletService {
         }
 
         validateSufficientBalance(fromWallet, request.getAmount());
+        velocityLimiter.checkAndReserve(w1, request.getAmount());
 
         // Adjust balances
         fromWallet.setBalance(fromWallet.getBalance().subtract(request.getAmount()));
         toWallet.setBalance(toWallet.getBalance().add(request.getAmount()));
-        walletRepository.saveAllAndFlush(List.of(fromWallet, toWallet));
-
-        String remarks = request.getRemarks() != null ? request.getRemarks() : "";
+        walletStore.updateAll(List.of(fromWallet, toWallet));
 
         // Outgoing transaction
         Transaction outTx = createTransaction(
                 fromWallet,
                 request.getAmount(),
                 Transaction.TransactionType.TRANSFER_OUT,
-                generateRefId(),
-                remarks + " [To: " + toWallet.getId() + "]"
+                StringUtils.hasText(request.getReferenceId()) ? request.getReferenceId() : generateRefId(),
+                request.getRemarks(),
+                toWallet.getId()
         );
 
         // Incoming transaction
@@ -262,20 +373,114 @@ public class WalletServiceImpl implements WalletService {
                 request.getAmount(),
                 Transaction.TransactionType.TRANSFER_IN,
                 generateRefId(),
-                remarks + " [From: " + fromWallet.getId() + "]"
+                request.getRemarks(),
+                fromWallet.getId()
         );
 
         // link transactions (bidirectional)
-        outTx.setRelatedTransaction(inTx);
-        inTx.setRelatedTransaction(outTx);
-        transactionRepository.saveAllAndFlush(List.of(outTx, inTx));
+        ledgerStore.link(outTx, inTx);
 
-        log.info("Transferred {} from {} → {}", request.getAmount(), w1, w2);
+        log.debug("Transferred {} from {} → {}", request.getAmount(), w1, w2);
 
-        return new TransferResponse(
-                TransactionDTO.fromEntity(outTx),
-                TransactionDTO.fromEntity(inTx)
+        TransferResponse response = new TransferResponse(
+                publishTransaction(fromWallet, outTx),
+                publishTransaction(toWallet, inTx)
         );
+        idempotencyService.saveResponse(request.getReferenceId(), requestHash, response);
+        return response;
+    }
+
+    // -------------------------------------------------------------
+    // TWO-STEP TRANSFER (wallets on different shards)
+    // -------------------------------------------------------------
+
+    /**
+     * Debit half of a transfer whose destination lives in another database.
+     * Runs in the caller's transaction, so the caller can record the pending
+     * credit atomically with the debit.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public TransactionDTO debitForTransfer(UUID fromWalletId, UUID toWalletId, String currency,
+                                           BigDecimal amount, String referenceId, String remarks) {
+        validateAmount(amount);
+        validateTransferAmount(amount);
+
+        Wallet wallet = walletStore.findByIdForUpdate(fromWalletId)
+                .orElseThrow(() -> new WalletNotFoundException("Wallet not found: " + fromWalletId));
+
+        validateWalletStatus(wallet);
+        if (!wallet.getCurrency().equals(currency)) {
+            throw new WalletException("Currency mismatch between wallets");
+        }
+        validateSufficientBalance(wallet, amount);
+        velocityLimiter.checkAndReserve(fromWalletId, amount);
+
+        wallet.setBalance(wallet.getBalance().subtract(amount));
+        walletStore.update(wallet);
+
+        Transaction outTx = createTransaction(wallet, amount, Transaction.TransactionType.TRANSFER_OUT,
+                referenceId, remarks, toWalletId);
+
+        log.debug("Debited {} from {} for transfer to {}", amount, fromWalletId, toWalletId);
+        return publishTransaction(wallet, outTx);
+    }
+
+    /**
+     * Credit half of a transfer whose source lives in another database.
+     * Idempotent on the reference ID: a retried credit returns the transaction
+     * recorded by the first attempt.
+     */
+    @Transactional
+    public TransactionDTO creditForTransfer(UUID toWalletId, UUID fromWalletId, String currency,
+                                            BigDecimal amount, String referenceId, String remarks) {
+        Wallet wallet = walletStore.findByIdForUpdate(toWalletId)
+                .orElseThrow(() -> new WalletNotFoundException("Wallet not found: " + toWalletId));
+
+        // checked under the wallet lock, so concurrent retries cannot both apply
+        Optional<Transaction> applied = ledgerStore.findByReferenceId(referenceId);
+        if (applied.isPresent()) {
+            return TransactionDTO.fromEntity(applied.get());
+        }
+
+        validateWalletStatus(wallet);
+        if (!wallet.getCurrency().equals(currency)) {
+            throw new WalletException("Currency mismatch between wallets");
+        }
+
+        wallet.setBalance(wallet.getBalance().add(amount));
+        walletStore.update(wallet);
+
+        Transaction inTx = createTransaction(wallet, amount, Transaction.TransactionType.TRANSFER_IN,
+                referenceId, remarks, fromWalletId);
+
+        log.debug("Credited {} to {} for transfer from {}", amount, toWalletId, fromWalletId);
+        return publishTransaction(wallet, inTx);
+    }
+
+    /**
+     * Gives the debit of a transfer back to the source wallet after the destination
+     * rejected the credit. Applied regardless of wallet status: the money must return.
+     * Idempotent on the reference ID.
+     */
+    @Transactional
+    public TransactionDTO refundTransfer(UUID fromWalletId, UUID outTransactionId,
+                                         BigDecimal amount, String referenceId) {
+        Wallet wallet = walletStore.findByIdForUpdate(fromWalletId)
+                .orElseThrow(() -> new WalletNotFoundException("Wallet not found: " + fromWalletId));
+
+        Optional<Transaction> applied = ledgerStore.findByReferenceId(referenceId);
+        if (applied.isPresent()) {
+            return TransactionDTO.fromEntity(applied.get());
+        }
+
+        wallet.setBalance(wallet.getBalance().add(amount));
+        walletStore.update(wallet);
+
+        Transaction refund = createTransaction(wallet, amount, Transaction.TransactionType.DEPOSIT,
+                referenceId, "Reversal of: " + outTransactionId);
+
+        log.debug("Refunded failed transfer {} to wallet {}", outTransactionId, fromWalletId);
+        return publishTransaction(wallet, refund);
     }
 
     // -------------------------------------------------------------
@@ -289,7 +494,7 @@ public class WalletServiceImpl implements WalletService {
     @Override
     @Transactional
     public TransactionDTO reverseTransaction(UUID transactionId) {
-        Transaction original = transactionRepository.findById(transactionId)
+        Transaction original = ledgerStore.findById(transactionId)
                 .orElseThrow(() -> new WalletException("Transaction not found: " + transactionId));
 
         if (original.getType() != Transaction.TransactionType.DEPOSIT &&
@@ -297,14 +502,15 @@ public class WalletServiceImpl implements WalletService {
             throw new WalletException("Only DEPOSIT/WITHDRAWAL can be reversed");
         }
 
-        // prevent repeated reversals
-        if (transactionRepository.existsByReferenceId("REV_" + transactionId)) {
+        Wallet wallet = walletStore.findByIdForUpdate(original.getWallet().getId())
+                .orElseThrow(() -> new WalletNotFoundException("Wallet not found"));
+
+        // prevent repeated reversals; checked under the wallet lock, so a concurrent
+        // reversal of the same transaction has committed and is visible here
+        if (ledgerStore.existsByReferenceId("REV_" + transactionId)) {
             throw new DuplicateTransactionException("Transaction already reversed");
         }
 
-        Wallet wallet = walletRepository.findByIdForUpdate(original.getWallet().getId())
-                .orElseThrow(() -> new WalletNotFoundException("Wallet not found"));
-
         validateWalletStatus(wallet);
 
         BigDecimal amount = original.getAmount();
@@ -313,6 +519,8 @@ public class WalletServiceImpl implements WalletService {
 
         if (original.getType() == Transaction.TransactionType.DEPOSIT) {
             validateSufficientBalance(wallet, amount);
+            // not subject to limits, but still counts as an outflow
+            velocityLimiter.record(wallet.getId(), amount);
             newBalance = wallet.getBalance().subtract(amount);
             reverseType = Transaction.TransactionType.WITHDRAWAL;
         } else {
@@ -321,7 +529,7 @@ public class WalletServiceImpl implements WalletService {
         }
 
         wallet.setBalance(newBalance);
-        walletRepository.saveAndFlush(wallet);
+        walletStore.update(wallet);
 
         Transaction reversal = createTransaction(
                 wallet,
@@ -331,39 +539,82 @@ public class WalletServiceImpl implements WalletService {
                 "Reversal of: " + transactionId
         );
 
-        log.info("Reversed transaction {}", transactionId);
-        return TransactionDTO.fromEntity(reversal);
+        log.debug("Reversed transaction {}", transactionId);
+        return publishTransaction(wallet, reversal);
     }
 
     // -------------------------------------------------------------
     // TRANSACTION HISTORY
     // -------------------------------------------------------------
 
-    /** Fetch paginated and optionally filtered transaction history */
+    /**
+     * Fetch paginated and optionally filtered transaction history.
+     * Unfiltered first pages come from the in-memory recent transactions of the wallet.
+     */
     @Override
     public Page<TransactionDTO> getTransactionHistory(UUID walletId, TransactionHistoryRequest request) {
-        findActiveWallet(walletId);
-
         Pageable pageable = PageRequest.of(
                 request.getPage(),
                 request.getSize(),
                 Sort.by(Sort.Direction.DESC, "timestamp")
         );
 
-        Page<Transaction> txPage;
-
+        Transaction.TransactionType type = null;
         if (request.getType() != null && !request.getType().isEmpty()) {
             try {
-                Transaction.TransactionType type = Transaction.TransactionType.valueOf(request.getType());
-                txPage = transactionRepository.findByWalletIdAndType(walletId, type, pageable);
+                type = Transaction.TransactionType.valueOf(request.getType());
             } catch (IllegalArgumentException e) {
                 throw new WalletException("Invalid transaction type: " + request.getType());
             }
-        } else {
-            txPage = transactionRepository.findByWalletId(walletId, pageable);
         }
 
-        return txPage.map(TransactionDTO::fromEntity);
+        if (type == null && recentTransactions.serves(pageable)) {
+            // a primary-key lookup instead of the sorted page query and its COUNT
+            long version = findActiveWalletVersion(walletId);
+            return recentTransactions.firstPage(walletId, version, pageable,
+                    p -> tieredReader.findByWallet(walletId, null, p));
+        }
+
+        findActiveWallet(walletId);
+        // spans archived segments once old transactions have moved to cold storage
+        return tieredReader.findByWallet(walletId, type, pageable);
+    }
+
+    // -------------------------------------------------------------
+    // CONDITIONAL REQUEST SUPPORT
+    // -------------------------------------------------------------
+
+    /**
+     * Returns the current version tag of an ACTIVE wallet without loading the entity,
+     * or null if the wallet is missing or not ACTIVE.
+     */
+    @Override
+    public String getWalletETag(UUID walletId) {
+        return walletRepository.findVersionByIdAndStatus(walletId, Wallet.WalletStatus.ACTIVE)
+                .map(v -> WalletDTO.versionTag(v.getVersion(), v.getUpdatedAt()))
+                .orElse(null);
+    }
+
+    /**
+     * Returns a tag for one history page, derived from the latest transaction ID of the
+     * wallet (ledger rows are append-only) and the page parameters, or null if the
+     * wallet is missing or not ACTIVE.
+     */
+    @Override
+    public String getTransactionHistoryETag(UUID walletId, TransactionHistoryRequest request) {
+        Optional<WalletRepository.WalletVersion> version =
+                walletRepository.findVersionByIdAndStatus(walletId, Wallet.WalletStatus.ACTIVE);
+        if (version.isEmpty()) {
+            return null;
+        }
+        Page<TransactionDTO> recent = recentTransactions.cachedFirstPage(
+                walletId, version.get().getVersion(), PageRequest.of(0, 1));
+        List<UUID> latest = recent != null
+                ? recent.map(TransactionDTO::getId).getContent()
+                : transactionRepository.findLatestIds(walletId, Limit.of(1));
+        String head = latest.isEmpty() ? "empty" : latest.get(0).toString();
+        return head + "-" + request.getPage() + "-" + request.getSize()
+                + "-" + Objects.toString(request.getType(), "");
     }
 
     // -------------------------------------------------------------
@@ -375,6 +626,45 @@ public class WalletServiceImpl implements WalletService {
                 .orElseThrow(() -> new WalletNotFoundException("Active wallet not found: " + walletId));
     }
 
+    /**
+     * State of an ACTIVE wallet, from the balance index when it holds the wallet.
+     * Only state read outside a transaction is known to be committed and indexed.
+     */
+    private WalletDTO findActiveWalletState(UUID walletId) {
+        WalletDTO indexed = balanceIndex.get(walletId);
+        if (indexed == null) {
+            indexed = WalletDTO.fromEntity(findActiveWallet(walletId));
+            if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+                balanceIndex.put(indexed);
+            }
+        } else if (indexed.getStatus() != Wallet.WalletStatus.ACTIVE) {
+            throw new WalletNotFoundException("Active wallet not found: " + walletId);
+        }
+        return indexed;
+    }
+
+    private long findActiveWalletVersion(UUID walletId) {
+        return walletRepository.findVersionByIdAndStatus(walletId, Wallet.WalletStatus.ACTIVE)
+                .map(WalletRepository.WalletVersion::getVersion)
+                .orElseThrow(() -> new WalletNotFoundException("Active wallet not found: " + walletId));
+    }
+
+    /**
+     * Response stored by an earlier request with this reference ID. Without one, a
+     * reference ID already on the ledger (stored response expired) is rejected.
+     * Called under the wallet row locks.
+     */
+    private <T> Optional<T> replay(String referenceId, String requestHash, Class<T> responseType) {
+        if (!StringUtils.hasText(referenceId)) {
+            return Optional.empty();
+        }
+        Optional<T> stored = idempotencyService.findResponse(referenceId, requestHash, responseType);
+        if (stored.isEmpty()) {
+            idempotencyService.checkDuplicate(referenceId);
+        }
+        return stored;
+    }
+
     private Wallet findWalletInList(List<Wallet> wallets, UUID id) {
         return wallets.stream()
                 .filter(w -> w.getId().equals(id))
@@ -382,7 +672,8 @@ public class WalletServiceImpl implements WalletService {
                 .orElseThrow(() -> new WalletNotFoundException("Wallet not found in locked set: " + id));
     }
 
-    private void validateCreateWalletRequest(CreateWalletRequest request) {
+    /** Also applied to every line of a bulk wallet import. */
+    public static void validateCreateWalletRequest(CreateWalletRequest request) {
         if (request.getUserId() == null) {
             throw new WalletException("User ID is required");
         }
@@ -403,8 +694,14 @@ public class WalletServiceImpl implements WalletService {
         }
     }
 
+    private void validateTransferAmount(BigDecimal amount) {
+        if (amount.compareTo(maxTransferAmount) > 0) {
+            throw new LimitExceededException("Transfer amount exceeds maximum of " + maxTransferAmount);
+        }
+    }
+
     private void validateSufficientBalance(Wallet wallet, BigDecimal amount) {
-        if (wallet.getBalance().compareTo(amount) < 0) {
+        if (!allowNegativeBalance && wallet.getBalance().compareTo(amount) < 0) {
             throw new InsufficientFundsException("Insufficient funds");
         }
     }
@@ -412,6 +709,13 @@ public class WalletServiceImpl implements WalletService {
     private Transaction createTransaction(Wallet wallet, BigDecimal amount,
                                           Transaction.TransactionType type,
                                           String referenceId, String remarks) {
+        return createTransaction(wallet, amount, type, referenceId, remarks, null);
+    }
+
+    private Transaction createTransaction(Wallet wallet, BigDecimal amount,
+                                          Transaction.TransactionType type,
+                                          String referenceId, String remarks,
+                                          UUID counterpartyWalletId) {
         Transaction tx = Transaction.builder()
                 .wallet(wallet)
                 .type(type)
@@ -419,9 +723,23 @@ public class WalletServiceImpl implements WalletService {
                 .balanceAfter(wallet.getBalance())
                 .referenceId(referenceId)
                 .remarks(remarks)
+                .counterpartyWalletId(counterpartyWalletId)
                 .build();
 
-        return transactionRepository.saveAndFlush(tx);
+        return ledgerStore.insert(tx);
+    }
+
+    /** Publishes the committed-state event for a ledger operation and returns the transaction DTO. */
+    private TransactionDTO publishTransaction(Wallet wallet, Transaction transaction) {
+        TransactionDTO dto = TransactionDTO.fromEntity(transaction);
+        eventPublisher.publishEvent(WalletEvent.transaction(WalletDTO.fromEntity(wallet), dto));
+        return dto;
+    }
+
+    private WalletDTO publishStatusChange(Wallet wallet) {
+        WalletDTO dto = WalletDTO.fromEntity(wallet);
+        eventPublisher.publishEvent(WalletEvent.statusChanged(dto));
+        return dto;
     }
 
     private String generateRefId() {
@@ -1,14 +1,18 @@
 package com.wallet.service;
 
 
+import com.wallet.payload.CounterpartyDTO;
 import com.wallet.payload.TransactionDTO;
 import com.wallet.model.Transaction;
 import org.springframework.data.domain.Page;
 
+import java.util.List;
 import java.util.UUID;
 
 public interface TransactionService {
     TransactionDTO getTransaction(UUID transactionId);
     Page<TransactionDTO> getTransactionsByWallet(UUID walletId, int page, int size);
     Page<TransactionDTO> getTransactionsByWalletAndType(UUID walletId, Transaction.TransactionType type, int page, int size);
+    Page<TransactionDTO> getTransfersBetween(UUID walletId, UUID counterpartyWalletId, int page, int size);
+    List<CounterpartyDTO> getCounterparties(UUID walletId);
 }
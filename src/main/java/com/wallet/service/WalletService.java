@@ -5,6 +5,7 @@ import com.wallet.payload.*;
 import org.springframework.data.domain.Page;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.UUID;
 
 public interface WalletService {
@@ -13,6 +14,7 @@ public interface WalletService {
     WalletDTO createWallet(CreateWalletRequest request);
     WalletDTO getWallet(UUID walletId);
     BigDecimal getBalance(UUID walletId);
+    BatchWalletResponse getWallets(List<UUID> walletIds);
     WalletDTO freezeWallet(UUID walletId);
     WalletDTO unfreezeWallet(UUID walletId);
 
@@ -24,6 +26,10 @@ public interface WalletService {
 
     // Query operations
     Page<TransactionDTO> getTransactionHistory(UUID walletId, TransactionHistoryRequest request);
+
+    // Conditional request support (null when the wallet is not ACTIVE)
+    String getWalletETag(UUID walletId);
+    String getTransactionHistoryETag(UUID walletId, TransactionHistoryRequest request);
 }
 
 
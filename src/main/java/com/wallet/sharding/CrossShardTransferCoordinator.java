@@ -0,0 +1,201 @@
+package com.wallet.sharding;
+
+import com.wallet.exception.WalletException;
+import com.wallet.exception.WalletFrozenException;
+import com.wallet.exception.WalletNotFoundException;
+import com.wallet.id.UuidV7;
+import com.wallet.model.IdempotencyKey;
+import com.wallet.model.PendingTransfer;
+import com.wallet.model.Wallet;
+import com.wallet.payload.TransactionDTO;
+import com.wallet.payload.TransferRequest;
+import com.wallet.payload.TransferResponse;
+import com.wallet.repository.PendingTransferRepository;
+import com.wallet.repository.WalletRepository;
+import com.wallet.service.IdempotencyService;
+import com.wallet.service.Impl.WalletServiceImpl;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Runs transfers whose wallets live on different shards, where a single database
+ * transaction cannot cover both sides.
+ * <ol>
+ *   <li>On the source shard, one local transaction debits the source wallet and
+ *       stores a {@link PendingTransfer} in state DEBITED.</li>
+ *   <li>On the destination shard, one local transaction credits the destination.
+ *       The credit is idempotent on a reference ID derived from the transfer ID.</li>
+ *   <li>On the source shard, the pending transfer is marked COMPLETED.</li>
+ * </ol>
+ * If the destination rejects the credit (frozen, closed, missing), the source is
+ * refunded and the transfer marked REFUNDED. If step 2 or 3 fails for any other
+ * reason the transfer stays DEBITED and {@link #recoverPendingTransfers()} drives
+ * it to completion later; every step is safe to repeat.
+ * <p>
+ * A transfer with a reference ID stores its response on the source shard with the
+ * debit (credit still pending) and again once completed; a retry gets that response.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "wallet.sharding", name = "enabled", havingValue = "true")
+public class CrossShardTransferCoordinator {
+
+    private static final int RECOVERY_BATCH_SIZE = 100;
+
+    private final WalletServiceImpl ledger;
+    private final WalletRepository walletRepository;
+    private final PendingTransferRepository pendingTransferRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final ShardingProperties properties;
+    private final IdempotencyService idempotencyService;
+
+    public TransferResponse transfer(TransferRequest request) {
+        String referenceId = request.getReferenceId();
+        String requestHash = IdempotencyKey.requestHash("TRANSFER",
+                request.getFromWalletId(), request.getToWalletId(), request.getAmount());
+        Optional<TransferResponse> replay = shardRouter.onShardOf(request.getFromWalletId(),
+                () -> idempotencyService.findResponse(referenceId, requestHash, TransferResponse.class));
+        if (replay.isPresent()) {
+            return replay.get();
+        }
+
+        PendingTransfer transfer = prepare(request);
+        TransactionDTO outTx = debit(transfer, referenceId, requestHash);
+        TransferResponse response;
+        try {
+            response = new TransferResponse(outTx, complete(transfer));
+        } catch (DataAccessException e) {
+            log.warn("Credit of cross-shard transfer {} deferred to recovery: {}", transfer.getId(), e.getMessage());
+            return pending(outTx);
+        } catch (WalletException rejected) {
+            updateResponse(transfer, referenceId,
+                    new TransferResponse(outTx, null, "Transfer rejected, source refunded: " + rejected.getMessage()));
+            throw rejected;
+        }
+        updateResponse(transfer, referenceId, response);
+        return response;
+    }
+
+    /** Validates the destination and builds the transfer record; no money moves yet. */
+    PendingTransfer prepare(TransferRequest request) {
+        // Fail fast on an unusable destination before any money moves
+        Wallet destination = shardRouter.onShardOf(request.getToWalletId(),
+                () -> walletRepository.findById(request.getToWalletId()))
+                .orElseThrow(() -> new WalletNotFoundException("Wallet not found: " + request.getToWalletId()));
+        if (destination.getStatus() != Wallet.WalletStatus.ACTIVE) {
+            throw new WalletFrozenException("Wallet is " + destination.getStatus());
+        }
+
+        return PendingTransfer.builder()
+                .id(UuidV7.next())
+                .fromWalletId(request.getFromWalletId())
+                .toWalletId(request.getToWalletId())
+                .amount(request.getAmount())
+                .currency(destination.getCurrency())
+                .remarks(request.getRemarks())
+                .build();
+    }
+
+    /** Step 1: debit the source and persist the pending transfer in one source-shard transaction. */
+    TransactionDTO debit(PendingTransfer transfer) {
+        return debit(transfer, null, null);
+    }
+
+    /** Step 1, also storing the response so far under the request's reference ID, if any. */
+    TransactionDTO debit(PendingTransfer transfer, String referenceId, String requestHash) {
+        return shardRouter.onShardOf(transfer.getFromWalletId(), () -> transactionTemplate.execute(status -> {
+            TransactionDTO outTx = ledger.debitForTransfer(
+                    transfer.getFromWalletId(), transfer.getToWalletId(), transfer.getCurrency(),
+                    transfer.getAmount(), transfer.outReferenceId(), transfer.getRemarks());
+            transfer.setOutTransactionId(outTx.getId());
+            pendingTransferRepository.save(transfer);
+            idempotencyService.saveResponse(referenceId, requestHash, pending(outTx));
+            return outTx;
+        }));
+    }
+
+    /**
+     * Steps 2 and 3, or the refund when the destination rejects the credit.
+     *
+     * @return the destination transaction
+     * @throws WalletException when the credit was rejected and the source refunded
+     */
+    TransactionDTO complete(PendingTransfer transfer) {
+        TransactionDTO inTx;
+        try {
+            inTx = shardRouter.onShardOf(transfer.getToWalletId(), () -> ledger.creditForTransfer(
+                    transfer.getToWalletId(), transfer.getFromWalletId(), transfer.getCurrency(),
+                    transfer.getAmount(), transfer.inReferenceId(), transfer.getRemarks()));
+        } catch (WalletException rejected) {
+            refund(transfer);
+            throw rejected;
+        }
+
+        shardRouter.onShardOf(transfer.getFromWalletId(), () -> transactionTemplate.execute(status ->
+                pendingTransferRepository.finish(transfer.getId(), PendingTransfer.Status.COMPLETED, inTx.getId())));
+        return inTx;
+    }
+
+    private void updateResponse(PendingTransfer transfer, String referenceId, TransferResponse response) {
+        if (referenceId == null) {
+            return;
+        }
+        shardRouter.onShardOf(transfer.getFromWalletId(), () -> transactionTemplate.execute(status -> {
+            idempotencyService.updateResponse(referenceId, response);
+            return null;
+        }));
+    }
+
+    private static TransferResponse pending(TransactionDTO outTx) {
+        return new TransferResponse(outTx, null, "Transfer debited, credit pending");
+    }
+
+    private void refund(PendingTransfer transfer) {
+        shardRouter.onShardOf(transfer.getFromWalletId(), () -> transactionTemplate.execute(status -> {
+            ledger.refundTransfer(transfer.getFromWalletId(), transfer.getOutTransactionId(),
+                    transfer.getAmount(), transfer.refundReferenceId());
+            return pendingTransferRepository.finish(transfer.getId(), PendingTransfer.Status.REFUNDED, null);
+        }));
+        log.warn("Cross-shard transfer {} rejected by destination {}, source refunded",
+                transfer.getId(), transfer.getToWalletId());
+    }
+
+    /**
+     * Finishes transfers left DEBITED by a crash or a failed credit, on every shard.
+     * Only transfers older than {@code wallet.sharding.recovery-grace-ms} are picked up,
+     * so in-flight transfers are normally left to their own request.
+     */
+    @Scheduled(initialDelayString = "${wallet.sharding.recovery-interval-ms:30000}",
+            fixedDelayString = "${wallet.sharding.recovery-interval-ms:30000}")
+    public void recoverPendingTransfers() {
+        LocalDateTime cutoff = LocalDateTime.now().minusNanos(properties.getRecoveryGraceMs() * 1_000_000);
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            List<PendingTransfer> pending = shardRouter.onShard(shard, () ->
+                    pendingTransferRepository.findByStatusAndCreatedAtBeforeOrderByCreatedAt(
+                            PendingTransfer.Status.DEBITED, cutoff, Limit.of(RECOVERY_BATCH_SIZE)));
+            for (PendingTransfer transfer : pending) {
+                try {
+                    complete(transfer);
+                    log.info("Recovered cross-shard transfer {}", transfer.getId());
+                } catch (WalletException e) {
+                    // refunded inside complete()
+                } catch (RuntimeException e) {
+                    log.warn("Recovery of cross-shard transfer {} failed, will retry: {}",
+                            transfer.getId(), e.getMessage());
+                }
+            }
+        }
+    }
+}
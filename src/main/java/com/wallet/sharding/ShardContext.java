@@ -0,0 +1,45 @@
+package com.wallet.sharding;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * Holds the shard the current thread is working on; read by
+ * {@link ShardRoutingDataSource} when a connection is borrowed.
+ * <p>
+ * The shard must be chosen before a transaction starts, since the connection is
+ * bound to the transaction: switching to another shard while a transaction is
+ * active is rejected instead of silently running on the wrong database.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /** Current shard, or null outside of any shard scope (default shard). */
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    static <T> T call(int shard, Supplier<T> action) {
+        Integer previous = CURRENT.get();
+        int active = previous != null ? previous : 0;
+        if (active != shard && TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException(
+                    "Cannot switch to shard " + shard + " inside a transaction on shard " + active);
+        }
+        CURRENT.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
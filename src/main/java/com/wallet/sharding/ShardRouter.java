@@ -0,0 +1,83 @@
+package com.wallet.sharding;
+
+import com.wallet.routing.ConsistentHashRing;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Maps wallets to shards by consistent hash of the wallet ID and runs work on a
+ * given shard. With sharding disabled there is exactly one shard (0), so callers
+ * can be written shard-aware unconditionally.
+ */
+@Component
+public class ShardRouter {
+
+    private final int shardCount;
+    private final ConsistentHashRing<Integer> ring;
+
+    public ShardRouter(ShardingProperties properties) {
+        this.shardCount = properties.isEnabled() ? properties.getShards().size() : 1;
+        if (shardCount < 1) {
+            throw new IllegalStateException("wallet.sharding.enabled requires at least one shard");
+        }
+        Map<String, Integer> nodes = new LinkedHashMap<>();
+        for (int i = 0; i < shardCount; i++) {
+            nodes.put("shard-" + i, i);
+        }
+        this.ring = new ConsistentHashRing<>(nodes, properties.getVirtualNodes());
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public int shardFor(UUID walletId) {
+        return shardCount == 1 ? 0 : ring.nodeFor(walletId);
+    }
+
+    /** Runs the action with connections routed to the given shard. Must be called outside a transaction. */
+    public <T> T onShard(int shard, Supplier<T> action) {
+        return ShardContext.call(shard, action);
+    }
+
+    public <T> T onShardOf(UUID walletId, Supplier<T> action) {
+        return onShard(shardFor(walletId), action);
+    }
+
+    /** Runs the action on every shard in turn and returns the per-shard results. */
+    public <T> List<T> onEachShard(Supplier<T> action) {
+        List<T> results = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            results.add(onShard(shard, action));
+        }
+        return results;
+    }
+
+    /** Runs a lookup on each shard until one finds a result; for keys that do not encode their shard. */
+    public <T> Optional<T> findOnAnyShard(Supplier<Optional<T>> lookup) {
+        for (int shard = 0; shard < shardCount; shard++) {
+            Optional<T> result = onShard(shard, lookup);
+            if (result.isPresent()) {
+                return result;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /** Shard holding the first match of the lookup, if any. */
+    public Optional<Integer> findShard(Supplier<Boolean> lookup) {
+        for (int shard = 0; shard < shardCount; shard++) {
+            if (onShard(shard, lookup)) {
+                return Optional.of(shard);
+            }
+        }
+        return Optional.empty();
+    }
+}
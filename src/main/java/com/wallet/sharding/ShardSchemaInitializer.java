@@ -0,0 +1,73 @@
+package com.wallet.sharding;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies the Hibernate schema action ({@code spring.jpa.hibernate.ddl-auto}) to every shard.
+ * <p>
+ * Hibernate only manages the schema of the connection it bootstraps with, which the
+ * routing DataSource serves from shard 0. This captures the mapping metadata during
+ * bootstrap and, once the entity manager factory exists, runs the same schema action
+ * against shards 1..n-1.
+ */
+@Slf4j
+public class ShardSchemaInitializer implements HibernatePropertiesCustomizer, SmartInitializingSingleton, Integrator {
+
+    private final ShardRouter shardRouter;
+
+    private volatile Metadata metadata;
+    private volatile SessionFactoryImplementor sessionFactory;
+
+    public ShardSchemaInitializer(ShardRouter shardRouter) {
+        this.shardRouter = shardRouter;
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put("hibernate.integrator_provider", (IntegratorProvider) () -> List.of(this));
+    }
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        this.metadata = metadata;
+        this.sessionFactory = sessionFactory;
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        this.metadata = null;
+        this.sessionFactory = null;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (metadata == null) {
+            throw new IllegalStateException("Hibernate metadata was not captured; shard schemas cannot be initialized");
+        }
+        Map<String, Object> settings = new HashMap<>(sessionFactory.getServiceRegistry()
+                .requireService(ConfigurationService.class).getSettings());
+
+        for (int shard = 1; shard < shardRouter.getShardCount(); shard++) {
+            shardRouter.onShard(shard, () -> {
+                SchemaManagementToolCoordinator.process(metadata, sessionFactory.getServiceRegistry(), settings, action -> {
+                });
+                return null;
+            });
+            log.info("Initialized schema on shard {}", shard);
+        }
+    }
+}
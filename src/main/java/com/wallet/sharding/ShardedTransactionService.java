@@ -0,0 +1,62 @@
+package com.wallet.sharding;
+
+import com.wallet.archive.TieredTransactionReader;
+import com.wallet.exception.WalletException;
+import com.wallet.model.Transaction;
+import com.wallet.payload.CounterpartyDTO;
+import com.wallet.payload.TransactionDTO;
+import com.wallet.service.Impl.TransactionServiceImpl;
+import com.wallet.service.TransactionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * {@link TransactionService} front for sharded deployments. Wallet queries run on the
+ * wallet's shard, which holds its whole ledger (both legs of a cross-shard transfer
+ * name their counterparty); single transactions are looked up shard by shard.
+ */
+@Service
+@Primary
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "wallet.sharding", name = "enabled", havingValue = "true")
+public class ShardedTransactionService implements TransactionService {
+
+    private final TransactionServiceImpl transactions;
+    private final TieredTransactionReader tieredReader;
+    private final ShardRouter shardRouter;
+
+    @Override
+    public TransactionDTO getTransaction(UUID transactionId) {
+        return shardRouter.findOnAnyShard(() -> tieredReader.findById(transactionId))
+                .orElseThrow(() -> new WalletException("Transaction not found: " + transactionId));
+    }
+
+    @Override
+    public Page<TransactionDTO> getTransactionsByWallet(UUID walletId, int page, int size) {
+        return shardRouter.onShardOf(walletId, () -> transactions.getTransactionsByWallet(walletId, page, size));
+    }
+
+    @Override
+    public Page<TransactionDTO> getTransactionsByWalletAndType(UUID walletId, Transaction.TransactionType type,
+                                                               int page, int size) {
+        return shardRouter.onShardOf(walletId,
+                () -> transactions.getTransactionsByWalletAndType(walletId, type, page, size));
+    }
+
+    @Override
+    public Page<TransactionDTO> getTransfersBetween(UUID walletId, UUID counterpartyWalletId, int page, int size) {
+        return shardRouter.onShardOf(walletId,
+                () -> transactions.getTransfersBetween(walletId, counterpartyWalletId, page, size));
+    }
+
+    @Override
+    public List<CounterpartyDTO> getCounterparties(UUID walletId) {
+        return shardRouter.onShardOf(walletId, () -> transactions.getCounterparties(walletId));
+    }
+}
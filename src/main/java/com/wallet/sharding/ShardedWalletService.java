@@ -0,0 +1,179 @@
+package com.wallet.sharding;
+
+import com.wallet.exception.WalletException;
+import com.wallet.id.UuidV7;
+import com.wallet.model.Wallet;
+import com.wallet.payload.*;
+import com.wallet.repository.TransactionRepository;
+import com.wallet.service.Impl.WalletServiceImpl;
+import com.wallet.service.WalletService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * {@link WalletService} front for sharded deployments: selects the shard owning the
+ * wallet before delegating to {@link WalletServiceImpl}, whose transactions then run
+ * entirely on that shard's database.
+ * <ul>
+ *   <li>New wallets get an ID that hashes to the shard of their user, so the
+ *       one-wallet-per-user check stays a single-shard query.</li>
+ *   <li>Transfers between wallets on the same shard keep the single local transaction;
+ *       other transfers go through {@link CrossShardTransferCoordinator}.</li>
+ *   <li>Operations addressed by transaction ID look the transaction up shard by shard.</li>
+ * </ul>
+ * Methods here must not be transactional themselves: the shard is fixed once a
+ * transaction has borrowed its connection.
+ */
+@Slf4j
+@Service
+@Primary
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "wallet.sharding", name = "enabled", havingValue = "true")
+public class ShardedWalletService implements WalletService {
+
+    private final WalletServiceImpl ledger;
+    private final CrossShardTransferCoordinator crossShardTransfers;
+    private final TransactionRepository transactionRepository;
+    private final ShardRouter shardRouter;
+
+    // -------------------------------------------------------------
+    // WALLET CREATION
+    // -------------------------------------------------------------
+
+    @Override
+    public WalletDTO createWallet(CreateWalletRequest request) {
+        if (request.getUserId() == null) {
+            return ledger.createWallet(request);   // rejected by validation
+        }
+
+        // Draw IDs until one lands on the user's shard; takes shardCount draws on average
+        int shard = shardRouter.shardFor(request.getUserId());
+        UUID walletId;
+        do {
+            walletId = UuidV7.next();
+        } while (shardRouter.shardFor(walletId) != shard);
+
+        UUID id = walletId;
+        return shardRouter.onShard(shard, () -> ledger.createWallet(request, id));
+    }
+
+    // -------------------------------------------------------------
+    // SINGLE-WALLET OPERATIONS
+    // -------------------------------------------------------------
+
+    @Override
+    public WalletDTO getWallet(UUID walletId) {
+        return shardRouter.onShardOf(walletId, () -> ledger.getWallet(walletId));
+    }
+
+    @Override
+    public BigDecimal getBalance(UUID walletId) {
+        return shardRouter.onShardOf(walletId, () -> ledger.getBalance(walletId));
+    }
+
+    @Override
+    public WalletDTO freezeWallet(UUID walletId) {
+        return shardRouter.onShardOf(walletId, () -> ledger.freezeWallet(walletId));
+    }
+
+    @Override
+    public WalletDTO unfreezeWallet(UUID walletId) {
+        return shardRouter.onShardOf(walletId, () -> ledger.unfreezeWallet(walletId));
+    }
+
+    @Override
+    public TransactionDTO deposit(UUID walletId, DepositWithdrawRequest request) {
+        return shardRouter.onShardOf(walletId, () -> ledger.deposit(walletId, request));
+    }
+
+    @Override
+    public TransactionDTO withdraw(UUID walletId, DepositWithdrawRequest request) {
+        return shardRouter.onShardOf(walletId, () -> ledger.withdraw(walletId, request));
+    }
+
+    @Override
+    public Page<TransactionDTO> getTransactionHistory(UUID walletId, TransactionHistoryRequest request) {
+        return shardRouter.onShardOf(walletId, () -> ledger.getTransactionHistory(walletId, request));
+    }
+
+    @Override
+    public String getWalletETag(UUID walletId) {
+        return shardRouter.onShardOf(walletId, () -> ledger.getWalletETag(walletId));
+    }
+
+    @Override
+    public String getTransactionHistoryETag(UUID walletId, TransactionHistoryRequest request) {
+        return shardRouter.onShardOf(walletId, () -> ledger.getTransactionHistoryETag(walletId, request));
+    }
+
+    // -------------------------------------------------------------
+    // MULTI-WALLET OPERATIONS
+    // -------------------------------------------------------------
+
+    /** Splits the lookup by shard and merges the answers back into request order. */
+    @Override
+    public BatchWalletResponse getWallets(List<UUID> walletIds) {
+        Map<Integer, List<UUID>> byShard = new TreeMap<>();
+        for (UUID id : new LinkedHashSet<>(walletIds)) {
+            byShard.computeIfAbsent(shardRouter.shardFor(id), s -> new ArrayList<>()).add(id);
+        }
+
+        Map<UUID, WalletDTO> active = new HashMap<>();
+        Map<UUID, Wallet.WalletStatus> inactive = new HashMap<>();
+        Set<UUID> missing = new HashSet<>();
+        byShard.forEach((shard, ids) -> {
+            BatchWalletResponse part = shardRouter.onShard(shard, () -> ledger.getWallets(ids));
+            part.getWallets().forEach(w -> active.put(w.getId(), w));
+            inactive.putAll(part.getInactive());
+            missing.addAll(part.getMissing());
+        });
+
+        List<WalletDTO> orderedActive = new ArrayList<>(active.size());
+        Map<UUID, Wallet.WalletStatus> orderedInactive = new LinkedHashMap<>();
+        List<UUID> orderedMissing = new ArrayList<>();
+        for (UUID id : new LinkedHashSet<>(walletIds)) {
+            if (active.containsKey(id)) {
+                orderedActive.add(active.get(id));
+            } else if (inactive.containsKey(id)) {
+                orderedInactive.put(id, inactive.get(id));
+            } else if (missing.contains(id)) {
+                orderedMissing.add(id);
+            }
+        }
+        return new BatchWalletResponse(orderedActive, orderedInactive, orderedMissing);
+    }
+
+    @Override
+    public TransferResponse transfer(TransferRequest request) {
+        if (request.getAmount() == null || request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+            throw new WalletException("Amount must be greater than zero");
+        }
+        if (request.getFromWalletId().equals(request.getToWalletId())) {
+            throw new WalletException("Cannot transfer to the same wallet");
+        }
+
+        int fromShard = shardRouter.shardFor(request.getFromWalletId());
+        if (fromShard == shardRouter.shardFor(request.getToWalletId())) {
+            return shardRouter.onShard(fromShard, () -> ledger.transfer(request));
+        }
+        return crossShardTransfers.transfer(request);
+    }
+
+    // -------------------------------------------------------------
+    // OPERATIONS BY TRANSACTION ID
+    // -------------------------------------------------------------
+
+    @Override
+    public TransactionDTO reverseTransaction(UUID transactionId) {
+        int shard = shardRouter.findShard(() -> transactionRepository.existsById(transactionId))
+                .orElseThrow(() -> new WalletException("Transaction not found: " + transactionId));
+        return shardRouter.onShard(shard, () -> ledger.reverseTransaction(transactionId));
+    }
+}
@@ -0,0 +1,53 @@
+package com.wallet.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the single {@code spring.datasource} with one connection pool per shard
+ * behind a {@link ShardRoutingDataSource} when {@code wallet.sharding.enabled=true}.
+ * JPA repositories, JdbcTemplate and the transaction manager all run on top of it,
+ * so every existing data access path becomes shard-routed.
+ */
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    @Configuration
+    @EnableScheduling   // cross-shard transfer recovery
+    @ConditionalOnProperty(prefix = "wallet.sharding", name = "enabled", havingValue = "true")
+    static class ShardedDataSourceConfig {
+
+        @Bean
+        public DataSource dataSource(ShardingProperties properties) {
+            List<HikariDataSource> pools = new ArrayList<>();
+            for (int i = 0; i < properties.getShards().size(); i++) {
+                ShardingProperties.Shard shard = properties.getShards().get(i);
+                HikariDataSource pool = DataSourceBuilder.create()
+                        .type(HikariDataSource.class)
+                        .url(shard.getUrl())
+                        .username(shard.getUsername())
+                        .password(shard.getPassword())
+                        .build();
+                pool.setPoolName("wallet-shard-" + i);
+                pool.setMaximumPoolSize(shard.getMaximumPoolSize());
+                pools.add(pool);
+            }
+            return new ShardRoutingDataSource(pools);
+        }
+
+        @Bean
+        public ShardSchemaInitializer shardSchemaInitializer(ShardRouter shardRouter) {
+            return new ShardSchemaInitializer(shardRouter);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.wallet.sharding;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration of wallet sharding ({@code wallet.sharding.*}).
+ * When disabled the application runs on the single {@code spring.datasource}.
+ */
+@Data
+@ConfigurationProperties(prefix = "wallet.sharding")
+public class ShardingProperties {
+
+    private boolean enabled = false;
+
+    /** Ring points per shard; more points give a more even spread. */
+    private int virtualNodes = 128;
+
+    /** Pending cross-shard transfers older than this are picked up by recovery. */
+    private long recoveryGraceMs = 30_000;
+
+    private long recoveryIntervalMs = 30_000;
+
+    /** Shards, in a fixed order: the index is the shard's identity on the ring. */
+    private List<Shard> shards = new ArrayList<>();
+
+    @Data
+    public static class Shard {
+        private String url;
+        private String username = "sa";
+        private String password = "";
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,106 @@
+package com.wallet.store;
+
+import com.wallet.id.IdStrategy;
+import com.wallet.model.Transaction;
+import com.wallet.model.Wallet;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * {@link LedgerStore} on plain JDBC; counterpart of {@link JdbcWalletStore}.
+ * IDs come from the same {@link IdStrategy} as the JPA generator, and the
+ * unique reference ID constraint still rejects duplicates as a
+ * {@link org.springframework.dao.DataIntegrityViolationException}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "wallet", name = "store", havingValue = "jdbc")
+public class JdbcLedgerStore implements LedgerStore {
+
+    private static final String COLUMNS = "id, wallet_id, type, amount, balance_after, reference_id, remarks, "
+            + "counterparty_wallet_id, timestamp";
+
+    private static final String INSERT = "INSERT INTO transactions (" + COLUMNS + ") "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String LINK = "UPDATE transactions SET related_transaction_id = ? WHERE id = ?";
+
+    private static final String SELECT_BY_ID = "SELECT " + COLUMNS + " FROM transactions WHERE id = ?";
+
+    private static final String SELECT_BY_REFERENCE = "SELECT " + COLUMNS + " FROM transactions WHERE reference_id = ?";
+
+    private static final String EXISTS_BY_REFERENCE = "SELECT COUNT(*) FROM transactions WHERE reference_id = ?";
+
+    private static final RowMapper<Transaction> TRANSACTION_ROW = (rs, rowNum) -> Transaction.builder()
+            .id(rs.getObject("id", UUID.class))
+            .wallet(Wallet.builder().id(rs.getObject("wallet_id", UUID.class)).build())
+            .type(Transaction.TransactionType.valueOf(rs.getString("type")))
+            .amount(rs.getBigDecimal("amount"))
+            .balanceAfter(rs.getBigDecimal("balance_after"))
+            .referenceId(rs.getString("reference_id"))
+            .remarks(rs.getString("remarks"))
+            .counterpartyWalletId(rs.getObject("counterparty_wallet_id", UUID.class))
+            .timestamp(rs.getTimestamp("timestamp").toLocalDateTime())
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final IdStrategy idStrategy;
+
+    public JdbcLedgerStore(JdbcTemplate jdbcTemplate,
+                           @Value("${spring.jpa.properties." + IdStrategy.PROPERTY + ":}") String idStrategy) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.idStrategy = IdStrategy.fromProperty(idStrategy);
+    }
+
+    @Override
+    public Transaction insert(Transaction transaction) {
+        if (transaction.getId() == null) {
+            transaction.setId(idStrategy.next());
+        }
+        transaction.setTimestamp(LocalDateTime.now());
+        jdbcTemplate.update(INSERT,
+                transaction.getId(),
+                transaction.getWallet().getId(),
+                transaction.getType().name(),
+                transaction.getAmount(),
+                transaction.getBalanceAfter(),
+                transaction.getReferenceId(),
+                transaction.getRemarks(),
+                transaction.getCounterpartyWalletId(),
+                Timestamp.valueOf(transaction.getTimestamp()));
+        return transaction;
+    }
+
+    @Override
+    public void link(Transaction outTransaction, Transaction inTransaction) {
+        jdbcTemplate.batchUpdate(LINK, List.of(
+                new Object[]{inTransaction.getId(), outTransaction.getId()},
+                new Object[]{outTransaction.getId(), inTransaction.getId()}));
+        outTransaction.setRelatedTransaction(inTransaction);
+        inTransaction.setRelatedTransaction(outTransaction);
+    }
+
+    @Override
+    public Optional<Transaction> findById(UUID transactionId) {
+        return jdbcTemplate.query(SELECT_BY_ID, TRANSACTION_ROW, transactionId).stream().findFirst();
+    }
+
+    @Override
+    public Optional<Transaction> findByReferenceId(String referenceId) {
+        return jdbcTemplate.query(SELECT_BY_REFERENCE, TRANSACTION_ROW, referenceId).stream().findFirst();
+    }
+
+    @Override
+    public boolean existsByReferenceId(String referenceId) {
+        Integer count = jdbcTemplate.queryForObject(EXISTS_BY_REFERENCE, Integer.class, referenceId);
+        return count != null && count > 0;
+    }
+}
@@ -0,0 +1,98 @@
+package com.wallet.store;
+
+import com.wallet.model.Wallet;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * {@link WalletStore} on plain JDBC: one fixed statement per operation and no
+ * persistence context, so there are no entity snapshots or dirty checks to pay for.
+ * Runs in the surrounding Spring transaction, whose connection it shares with JPA.
+ * Updates keep the JPA optimistic-lock semantics: the version must still match.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "wallet", name = "store", havingValue = "jdbc")
+public class JdbcWalletStore implements WalletStore {
+
+    private static final String COLUMNS =
+            "id, user_id, balance, currency, status, created_at, updated_at, version";
+
+    private static final String SELECT_FOR_UPDATE =
+            "SELECT " + COLUMNS + " FROM wallets WHERE id = ? FOR UPDATE";
+
+    private static final String UPDATE_BALANCE =
+            "UPDATE wallets SET balance = ?, updated_at = ?, version = version + 1 WHERE id = ? AND version = ?";
+
+    private static final RowMapper<Wallet> WALLET_ROW = (rs, rowNum) -> Wallet.builder()
+            .id(rs.getObject("id", UUID.class))
+            .userId(rs.getObject("user_id", UUID.class))
+            .balance(rs.getBigDecimal("balance"))
+            .currency(rs.getString("currency"))
+            .status(Wallet.WalletStatus.valueOf(rs.getString("status")))
+            .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+            .updatedAt(rs.getTimestamp("updated_at").toLocalDateTime())
+            .version(rs.getLong("version"))
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Optional<Wallet> findByIdForUpdate(UUID walletId) {
+        return jdbcTemplate.query(SELECT_FOR_UPDATE, WALLET_ROW, walletId).stream().findFirst();
+    }
+
+    @Override
+    public List<Wallet> findAllByIdForUpdate(List<UUID> walletIds) {
+        if (walletIds.isEmpty()) {
+            return List.of();
+        }
+        String sql = "SELECT " + COLUMNS + " FROM wallets WHERE id IN ("
+                + String.join(", ", Collections.nCopies(walletIds.size(), "?")) + ") ORDER BY id FOR UPDATE";
+        return jdbcTemplate.query(sql, WALLET_ROW, walletIds.toArray());
+    }
+
+    @Override
+    public void update(Wallet wallet) {
+        LocalDateTime now = LocalDateTime.now();
+        int rows = jdbcTemplate.update(UPDATE_BALANCE,
+                wallet.getBalance(), Timestamp.valueOf(now), wallet.getId(), wallet.getVersion());
+        if (rows != 1) {
+            throw new ObjectOptimisticLockingFailureException(Wallet.class, wallet.getId());
+        }
+        wallet.setUpdatedAt(now);
+        wallet.setVersion(wallet.getVersion() + 1);
+    }
+
+    @Override
+    public void updateAll(List<Wallet> wallets) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> args = new ArrayList<>(wallets.size());
+        for (Wallet wallet : wallets) {
+            args.add(new Object[]{wallet.getBalance(), Timestamp.valueOf(now), wallet.getId(), wallet.getVersion()});
+        }
+        int[] rows = jdbcTemplate.batchUpdate(UPDATE_BALANCE, args);
+        for (int i = 0; i < wallets.size(); i++) {
+            // drivers may report SUCCESS_NO_INFO (-2) for batched statements
+            if (rows[i] == 0) {
+                throw new ObjectOptimisticLockingFailureException(Wallet.class, wallets.get(i).getId());
+            }
+        }
+        for (Wallet wallet : wallets) {
+            wallet.setUpdatedAt(now);
+            wallet.setVersion(wallet.getVersion() + 1);
+        }
+    }
+}
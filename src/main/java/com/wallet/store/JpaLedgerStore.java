@@ -0,0 +1,46 @@
+package com.wallet.store;
+
+import com.wallet.model.Transaction;
+import com.wallet.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "wallet", name = "store", havingValue = "jpa", matchIfMissing = true)
+public class JpaLedgerStore implements LedgerStore {
+
+    private final TransactionRepository transactionRepository;
+
+    @Override
+    public Transaction insert(Transaction transaction) {
+        return transactionRepository.saveAndFlush(transaction);
+    }
+
+    @Override
+    public void link(Transaction outTransaction, Transaction inTransaction) {
+        outTransaction.setRelatedTransaction(inTransaction);
+        inTransaction.setRelatedTransaction(outTransaction);
+        transactionRepository.saveAllAndFlush(List.of(outTransaction, inTransaction));
+    }
+
+    @Override
+    public Optional<Transaction> findById(UUID transactionId) {
+        return transactionRepository.findById(transactionId);
+    }
+
+    @Override
+    public Optional<Transaction> findByReferenceId(String referenceId) {
+        return transactionRepository.findByReferenceId(referenceId);
+    }
+
+    @Override
+    public boolean existsByReferenceId(String referenceId) {
+        return transactionRepository.existsByReferenceId(referenceId);
+    }
+}
@@ -0,0 +1,39 @@
+package com.wallet.store;
+
+import com.wallet.model.Wallet;
+import com.wallet.repository.WalletRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "wallet", name = "store", havingValue = "jpa", matchIfMissing = true)
+public class JpaWalletStore implements WalletStore {
+
+    private final WalletRepository walletRepository;
+
+    @Override
+    public Optional<Wallet> findByIdForUpdate(UUID walletId) {
+        return walletRepository.findByIdForUpdate(walletId);
+    }
+
+    @Override
+    public List<Wallet> findAllByIdForUpdate(List<UUID> walletIds) {
+        return walletRepository.findAllByIdForUpdate(walletIds);
+    }
+
+    @Override
+    public void update(Wallet wallet) {
+        walletRepository.saveAndFlush(wallet);
+    }
+
+    @Override
+    public void updateAll(List<Wallet> wallets) {
+        walletRepository.saveAllAndFlush(wallets);
+    }
+}
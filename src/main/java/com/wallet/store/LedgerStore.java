@@ -0,0 +1,25 @@
+package com.wallet.store;
+
+import com.wallet.model.Transaction;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Transaction row access used by the ledger write path; counterpart of {@link WalletStore}.
+ * Transactions returned by a non-JPA store carry a wallet reference holding only its ID.
+ */
+public interface LedgerStore {
+
+    /** Inserts the transaction, assigning its ID and timestamp on the given instance. */
+    Transaction insert(Transaction transaction);
+
+    /** Links the two legs of a transfer to each other. */
+    void link(Transaction outTransaction, Transaction inTransaction);
+
+    Optional<Transaction> findById(UUID transactionId);
+
+    Optional<Transaction> findByReferenceId(String referenceId);
+
+    boolean existsByReferenceId(String referenceId);
+}
@@ -0,0 +1,30 @@
+package com.wallet.store;
+
+import com.wallet.model.Wallet;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Wallet row access used by the ledger write path (deposit, withdraw, transfer, reversal).
+ * Selected with {@code wallet.store}: {@code jpa} (default) or {@code jdbc}.
+ * All methods must be called inside a transaction.
+ */
+public interface WalletStore {
+
+    /** Loads the wallet and locks its row until the end of the transaction. */
+    Optional<Wallet> findByIdForUpdate(UUID walletId);
+
+    /** Loads and locks the given wallets; missing IDs are absent from the result. */
+    List<Wallet> findAllByIdForUpdate(List<UUID> walletIds);
+
+    /**
+     * Writes the wallet's balance, advancing its version and update time on the given instance.
+     *
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if the row changed since it was read
+     */
+    void update(Wallet wallet);
+
+    void updateAll(List<Wallet> wallets);
+}
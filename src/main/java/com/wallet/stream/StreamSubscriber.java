@@ -0,0 +1,123 @@
+package com.wallet.stream;
+
+import com.wallet.event.WalletEvent;
+import com.wallet.payload.WalletDTO;
+import lombok.Getter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One SSE connection and its bounded outbound buffer.
+ * <p>
+ * Events are queued by the publishing thread and written to the connection by
+ * a dispatcher thread. When the queue is full the event is dropped, but the
+ * wallet state it carried is kept in a per-wallet "latest balance" slot, so a
+ * slow consumer still ends up with the current balance of every wallet it
+ * follows, just without the intermediate transactions.
+ */
+class StreamSubscriber {
+
+    /** Message names sent on the stream. */
+    static final String BALANCE = "balance";
+    static final String TRANSACTION = "transaction";
+
+    record Message(String name, Object data) {
+    }
+
+    private static final Message HEARTBEAT = new Message(null, null);
+
+    @Getter
+    private final SseEmitter emitter;
+    @Getter
+    private final Set<UUID> walletIds;
+    private final int capacity;
+
+    private final ArrayDeque<Message> queue = new ArrayDeque<>(4);
+    /** Latest state of wallets whose events were dropped; allocated on first overflow. */
+    private Map<UUID, WalletDTO> coalesced;
+
+    final AtomicBoolean scheduled = new AtomicBoolean();
+    volatile boolean closed;
+
+    StreamSubscriber(SseEmitter emitter, Set<UUID> walletIds, int capacity) {
+        this.emitter = emitter;
+        this.walletIds = walletIds;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Queues an event.
+     *
+     * @return false if the buffer was full and the event was folded into the
+     *         wallet's latest-balance slot instead
+     */
+    synchronized boolean offer(WalletEvent event) {
+        Message message = event.getTransaction() != null
+                ? new Message(TRANSACTION, event.getTransaction())
+                : new Message(BALANCE, event.getWallet());
+        if (queue.size() < capacity) {
+            queue.add(message);
+            // A pending coalesced balance is sent after the queue; keep it at least this recent
+            if (coalesced != null) {
+                coalesced.computeIfPresent(event.getWalletId(), (id, current) -> newer(current, event.getWallet()));
+            }
+            return true;
+        }
+        if (coalesced == null) {
+            coalesced = new LinkedHashMap<>();
+        }
+        coalesced.merge(event.getWalletId(), event.getWallet(), StreamSubscriber::newer);
+        return false;
+    }
+
+    /** Queues a snapshot unconditionally; used for the initial state of a subscription. */
+    synchronized void offerSnapshot(WalletDTO wallet) {
+        queue.add(new Message(BALANCE, wallet));
+    }
+
+    /** Queues a keep-alive comment if nothing else is pending. */
+    synchronized boolean offerHeartbeat() {
+        if (!queue.isEmpty() || (coalesced != null && !coalesced.isEmpty())) {
+            return false;
+        }
+        queue.add(HEARTBEAT);
+        return true;
+    }
+
+    /** Next message to write, or null if the buffer is drained. */
+    synchronized Message poll() {
+        Message next = queue.poll();
+        if (next != null) {
+            return next;
+        }
+        if (coalesced != null && !coalesced.isEmpty()) {
+            Iterator<WalletDTO> it = coalesced.values().iterator();
+            WalletDTO wallet = it.next();
+            it.remove();
+            return new Message(BALANCE, wallet);
+        }
+        return null;
+    }
+
+    synchronized boolean hasPending() {
+        return !queue.isEmpty() || (coalesced != null && !coalesced.isEmpty());
+    }
+
+    static boolean isHeartbeat(Message message) {
+        return message == HEARTBEAT;
+    }
+
+    private static WalletDTO newer(WalletDTO current, WalletDTO candidate) {
+        if (current.getVersion() == null || candidate.getVersion() == null) {
+            return candidate;
+        }
+        return candidate.getVersion() >= current.getVersion() ? candidate : current;
+    }
+}
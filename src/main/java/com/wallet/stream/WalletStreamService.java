@@ -0,0 +1,237 @@
+package com.wallet.stream;
+
+import com.wallet.event.WalletEvent;
+import com.wallet.exception.WalletException;
+import com.wallet.payload.WalletDTO;
+import com.wallet.service.WalletService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes committed wallet changes to Server-Sent Events subscribers.
+ * <p>
+ * Fan-out never blocks the committing thread: the after-commit listener only
+ * appends to each subscriber's bounded buffer and schedules a dispatcher task,
+ * and the dispatcher pool performs the network writes. Idle subscriptions hold
+ * no thread (async servlet requests), only their emitter and an empty buffer.
+ */
+@Slf4j
+@Service
+public class WalletStreamService {
+
+    /** Maximum messages written for one subscriber before yielding the dispatcher thread. */
+    private static final int DRAIN_BATCH = 64;
+
+    private final WalletService walletService;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final int maxWalletsPerSubscription;
+    private final long timeoutMillis;
+
+    private final ConcurrentHashMap<UUID, Set<StreamSubscriber>> subscribersByWallet = new ConcurrentHashMap<>();
+    private final Set<StreamSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final ExecutorService dispatcher;
+    private final ScheduledExecutorService heartbeat;
+
+    private final Counter sentCounter;
+    private final Counter droppedCounter;
+
+    public WalletStreamService(WalletService walletService,
+                               MeterRegistry meterRegistry,
+                               @Value("${wallet.stream.buffer-size:64}") int bufferSize,
+                               @Value("${wallet.stream.max-subscribers:100000}") int maxSubscribers,
+                               @Value("${wallet.stream.max-wallets-per-subscription:100}") int maxWalletsPerSubscription,
+                               @Value("${wallet.stream.timeout-ms:1800000}") long timeoutMillis,
+                               @Value("${wallet.stream.heartbeat-ms:30000}") long heartbeatMillis,
+                               @Value("${wallet.stream.dispatch-threads:4}") int dispatchThreads) {
+        this.walletService = walletService;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.maxWalletsPerSubscription = maxWalletsPerSubscription;
+        this.timeoutMillis = timeoutMillis;
+
+        this.dispatcher = Executors.newFixedThreadPool(dispatchThreads, daemonThreads("wallet-stream-"));
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(daemonThreads("wallet-stream-heartbeat-"));
+        this.heartbeat.scheduleAtFixedRate(this::sendHeartbeats, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+
+        Gauge.builder("wallet.stream.subscribers", subscribers, Set::size)
+                .description("Open wallet event stream connections")
+                .register(meterRegistry);
+        this.sentCounter = Counter.builder("wallet.stream.events.sent")
+                .description("Events written to wallet event streams")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("wallet.stream.events.dropped")
+                .description("Events dropped for slow subscribers (coalesced into a balance update)")
+                .register(meterRegistry);
+    }
+
+    // -------------------------------------------------------------
+    // SUBSCRIPTION
+    // -------------------------------------------------------------
+
+    /**
+     * Opens a stream of balance and transaction events for the given ACTIVE wallets.
+     * The current state of each wallet is sent first; clients should use the wallet
+     * version to discard a snapshot that arrives after a newer event.
+     */
+    public SseEmitter subscribe(Collection<UUID> walletIds) {
+        Set<UUID> ids = new LinkedHashSet<>(walletIds);
+        if (ids.isEmpty() || ids.size() > maxWalletsPerSubscription) {
+            throw new WalletException("A subscription must cover between 1 and "
+                    + maxWalletsPerSubscription + " wallets");
+        }
+        if (subscribers.size() >= maxSubscribers) {
+            throw new WalletException("Too many stream subscribers, retry later");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        StreamSubscriber subscriber = new StreamSubscriber(emitter, Set.copyOf(ids), bufferSize);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+
+        // Register before reading snapshots so no committed change falls in between
+        register(subscriber);
+        try {
+            for (UUID walletId : ids) {
+                WalletDTO wallet = walletService.getWallet(walletId);
+                subscriber.offerSnapshot(wallet);
+            }
+        } catch (RuntimeException e) {
+            unsubscribe(subscriber);
+            throw e;
+        }
+        schedule(subscriber);
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    private void register(StreamSubscriber subscriber) {
+        subscribers.add(subscriber);
+        for (UUID walletId : subscriber.getWalletIds()) {
+            subscribersByWallet.computeIfAbsent(walletId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        }
+    }
+
+    private void unsubscribe(StreamSubscriber subscriber) {
+        subscriber.closed = true;
+        if (!subscribers.remove(subscriber)) {
+            return;
+        }
+        for (UUID walletId : subscriber.getWalletIds()) {
+            subscribersByWallet.computeIfPresent(walletId, (id, set) -> {
+                set.remove(subscriber);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+
+    // -------------------------------------------------------------
+    // FAN-OUT
+    // -------------------------------------------------------------
+
+    /** Runs on the committing thread: buffer and schedule only, no I/O. */
+    @TransactionalEventListener
+    public void onWalletEvent(WalletEvent event) {
+        Set<StreamSubscriber> targets = subscribersByWallet.get(event.getWalletId());
+        if (targets == null) {
+            return;
+        }
+        for (StreamSubscriber subscriber : targets) {
+            if (!subscriber.offer(event)) {
+                droppedCounter.increment();
+            }
+            schedule(subscriber);
+        }
+    }
+
+    private void sendHeartbeats() {
+        for (StreamSubscriber subscriber : subscribers) {
+            if (subscriber.offerHeartbeat()) {
+                schedule(subscriber);
+            }
+        }
+    }
+
+    private void schedule(StreamSubscriber subscriber) {
+        if (!subscriber.closed && subscriber.scheduled.compareAndSet(false, true)) {
+            dispatcher.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(StreamSubscriber subscriber) {
+        try {
+            StreamSubscriber.Message message;
+            int written = 0;
+            while (written < DRAIN_BATCH && !subscriber.closed && (message = subscriber.poll()) != null) {
+                subscriber.getEmitter().send(toSseEvent(message));
+                if (!StreamSubscriber.isHeartbeat(message)) {
+                    sentCounter.increment();
+                }
+                written++;
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client went away or the emitter already completed
+            log.debug("Closing wallet stream subscriber: {}", e.getMessage());
+            unsubscribe(subscriber);
+            subscriber.getEmitter().complete();
+        } finally {
+            subscriber.scheduled.set(false);
+        }
+        if (subscriber.hasPending()) {
+            schedule(subscriber);
+        }
+    }
+
+    private static SseEmitter.SseEventBuilder toSseEvent(StreamSubscriber.Message message) {
+        if (StreamSubscriber.isHeartbeat(message)) {
+            return SseEmitter.event().comment("ping");
+        }
+        return SseEmitter.event().name(message.name()).data(message.data());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeat.shutdownNow();
+        dispatcher.shutdownNow();
+        for (StreamSubscriber subscriber : subscribers) {
+            subscriber.closed = true;
+            subscriber.getEmitter().complete();
+        }
+        subscribers.clear();
+        subscribersByWallet.clear();
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
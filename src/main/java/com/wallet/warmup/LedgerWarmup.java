@@ -0,0 +1,155 @@
+package com.wallet.warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.history.RecentTransactionsCache;
+import com.wallet.limits.VelocityLimiter;
+import com.wallet.payload.CreateWalletRequest;
+import com.wallet.payload.DepositWithdrawRequest;
+import com.wallet.payload.TransactionDTO;
+import com.wallet.payload.TransactionHistoryRequest;
+import com.wallet.payload.TransferRequest;
+import com.wallet.payload.TransferResponse;
+import com.wallet.payload.WalletDTO;
+import com.wallet.service.Impl.WalletServiceImpl;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Runs synthetic deposit / withdraw / transfer / history cycles through
+ * {@link WalletServiceImpl} at startup, and JSON-serializes their results, so the
+ * JIT, Hibernate's query plan cache and Jackson's serializers are warm before the
+ * first real request.
+ * <p>
+ * Application runners finish before Spring Boot reports the readiness state
+ * ACCEPTING_TRAFFIC, so {@code /actuator/health/readiness} stays down until the
+ * warm-up is over. Each cycle runs in one transaction that is rolled back: its
+ * scratch wallets never become visible, and no after-commit wallet event reaches
+ * the caches, rollups or event streams. In-memory state that reads built for the
+ * scratch wallets is dropped after each cycle.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class LedgerWarmup implements ApplicationRunner {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("10.00");
+
+    private final WalletServiceImpl ledger;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final RecentTransactionsCache recentTransactions;
+    private final VelocityLimiter velocityLimiter;
+    private final WarmupProperties properties;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (properties.isEnabled()) {
+            warmUp();
+        }
+    }
+
+    /**
+     * Runs the configured cycles, or fewer if {@code max-duration-ms} runs out.
+     *
+     * @return number of cycles completed
+     */
+    public int warmUp() {
+        int cycles = properties.getCycles();
+        long[] nanos = new long[cycles];
+        long start = System.nanoTime();
+        long deadline = start + properties.getMaxDurationMs() * 1_000_000;
+
+        int completed = 0;
+        while (completed < cycles && System.nanoTime() < deadline) {
+            long cycleStart = System.nanoTime();
+            List<UUID> scratch = new ArrayList<>(2);
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    status.setRollbackOnly();
+                    cycle(scratch);
+                });
+            } catch (RuntimeException e) {
+                log.warn("Warm-up cycle failed, stopping warm-up: {}", e.toString());
+                break;
+            } finally {
+                scratch.forEach(recentTransactions::evict);
+                scratch.forEach(velocityLimiter::evict);
+            }
+            nanos[completed++] = System.nanoTime() - cycleStart;
+        }
+
+        if (completed > 0) {
+            // latency of the first tenth of the cycles against the last tenth
+            int tenth = Math.max(1, completed / 10);
+            log.info("Warm-up ran {} cycles in {} ms; median cycle {} us in the first {}, {} us in the last {}",
+                    completed, (System.nanoTime() - start) / 1_000_000,
+                    median(nanos, 0, tenth) / 1_000, tenth, median(nanos, completed - tenth, completed) / 1_000, tenth);
+        }
+        return completed;
+    }
+
+    private void cycle(List<UUID> scratch) {
+        WalletDTO from = createScratchWallet();
+        WalletDTO to = createScratchWallet();
+        scratch.add(from.getId());
+        scratch.add(to.getId());
+
+        DepositWithdrawRequest deposit = new DepositWithdrawRequest();
+        deposit.setAmount(AMOUNT.add(AMOUNT));
+        deposit.setReferenceId("WARMUP_" + UUID.randomUUID());
+        serialize(ledger.deposit(from.getId(), deposit));
+
+        DepositWithdrawRequest withdrawal = new DepositWithdrawRequest();
+        withdrawal.setAmount(AMOUNT.divide(BigDecimal.TEN));
+        serialize(ledger.withdraw(from.getId(), withdrawal));
+
+        TransferRequest transfer = new TransferRequest();
+        transfer.setFromWalletId(from.getId());
+        transfer.setToWalletId(to.getId());
+        transfer.setAmount(AMOUNT);
+        TransferResponse response = ledger.transfer(transfer);
+        serialize(response);
+
+        TransactionHistoryRequest history = new TransactionHistoryRequest();
+        Page<TransactionDTO> page = ledger.getTransactionHistory(from.getId(), history);
+        serialize(page);
+        history.setType("DEPOSIT");
+        serialize(ledger.getTransactionHistory(from.getId(), history));
+        serialize(ledger.getWallet(to.getId()));
+    }
+
+    private WalletDTO createScratchWallet() {
+        CreateWalletRequest request = new CreateWalletRequest();
+        request.setUserId(UUID.randomUUID());
+        return ledger.createWallet(request);
+    }
+
+    private void serialize(Object response) {
+        try {
+            objectMapper.writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long median(long[] nanos, int from, int to) {
+        long[] range = Arrays.copyOfRange(nanos, from, to);
+        Arrays.sort(range);
+        return range[range.length / 2];
+    }
+}
@@ -0,0 +1,20 @@
+package com.wallet.warmup;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Startup warm-up of the ledger path ({@code wallet.warmup.*}).
+ */
+@Data
+@ConfigurationProperties(prefix = "wallet.warmup")
+public class WarmupProperties {
+
+    private boolean enabled = false;
+
+    /** Synthetic cycles to run; each is one rolled-back transaction. */
+    private int cycles = 2000;
+
+    /** Readiness is not held back longer than this, whatever the cycles left. */
+    private long maxDurationMs = 60_000;
+}
@@ -0,0 +1,77 @@
+package com.wallet.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Request parsing and error responses shared by the servlet filters in front of
+ * the wallet API, which run before Spring MVC has bound anything.
+ */
+public final class WalletRequests {
+
+    private WalletRequests() {
+    }
+
+    /** Request path without the context path. */
+    public static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    /** The UUID in canonical form, or null. */
+    public static UUID parseUuid(String value) {
+        if (value == null || value.length() != 36) {
+            return null;
+        }
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /** Source and destination of a transfer body, in that order, leaving out missing ones. */
+    public static List<UUID> transferWallets(ObjectMapper objectMapper, byte[] body) {
+        try {
+            JsonNode json = objectMapper.readTree(body);
+            List<UUID> walletIds = new ArrayList<>(2);
+            UUID from = parseUuid(json.path("fromWalletId").asText(null));
+            UUID to = parseUuid(json.path("toWalletId").asText(null));
+            if (from != null) {
+                walletIds.add(from);
+            }
+            if (to != null) {
+                walletIds.add(to);
+            }
+            return walletIds;
+        } catch (IOException e) {
+            return List.of();   // left to request validation
+        }
+    }
+
+    /** Writes an error body shaped like {@code GlobalExceptionHandler}'s, with Retry-After. */
+    public static void reject(HttpServletResponse response, ObjectMapper objectMapper, HttpStatus status,
+                              String message, int retryAfterSeconds) throws IOException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", status.value());
+        body.put("error", status.getReasonPhrase());
+        body.put("message", message);
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+}
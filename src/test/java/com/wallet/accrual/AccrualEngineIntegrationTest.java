@@ -0,0 +1,90 @@
+package com.wallet.accrual;
+
+import com.wallet.payload.CreateWalletRequest;
+import com.wallet.payload.DepositWithdrawRequest;
+import com.wallet.payload.TransactionHistoryRequest;
+import com.wallet.payload.TransactionDTO;
+import com.wallet.model.Transaction;
+import com.wallet.service.WalletService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:accrualtest;DB_CLOSE_DELAY=-1",
+        "wallet.accrual.daily-interest-rate=0.001",
+        "wallet.accrual.maintenance-fee=0.25",
+        "wallet.accrual.partitions=3",
+        "wallet.accrual.chunk-size=4",
+        "wallet.accrual.pause-ms=0"
+})
+class AccrualEngineIntegrationTest {
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private AccrualEngine accrualEngine;
+
+    @Test
+    void accruesActiveWalletsOncePerBusinessDate() {
+        List<UUID> active = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            active.add(createWallet("1000"));
+        }
+        UUID empty = createWallet(null);
+        UUID frozen = createWallet("1000");
+        walletService.freezeWallet(frozen);
+
+        LocalDate businessDate = LocalDate.of(2026, 1, 15);
+        accrualEngine.run(businessDate);
+        accrualEngine.run(businessDate);   // rerun of a finished date changes nothing
+
+        for (UUID walletId : active) {
+            // 1000 + 1.0000 interest - 0.25 fee
+            assertEquals(0, new BigDecimal("1000.75").compareTo(walletService.getBalance(walletId)));
+            List<Transaction.TransactionType> types = history(walletId).stream()
+                    .map(TransactionDTO::getType).toList();
+            assertEquals(1, types.stream().filter(t -> t == Transaction.TransactionType.INTEREST).count());
+            assertEquals(1, types.stream().filter(t -> t == Transaction.TransactionType.FEE).count());
+        }
+        assertEquals(0, BigDecimal.ZERO.compareTo(walletService.getBalance(empty)));
+        assertTrue(history(empty).isEmpty());
+
+        walletService.unfreezeWallet(frozen);
+        assertEquals(0, new BigDecimal("1000").compareTo(walletService.getBalance(frozen)));
+
+        // the next business date accrues again
+        accrualEngine.run(businessDate.plusDays(1));
+        assertEquals(0, new BigDecimal("1001.5008").compareTo(walletService.getBalance(active.get(0))));
+    }
+
+    private List<TransactionDTO> history(UUID walletId) {
+        TransactionHistoryRequest request = new TransactionHistoryRequest();
+        request.setSize(50);
+        return walletService.getTransactionHistory(walletId, request).getContent().stream()
+                .filter(t -> t.getType() == Transaction.TransactionType.INTEREST
+                        || t.getType() == Transaction.TransactionType.FEE)
+                .toList();
+    }
+
+    private UUID createWallet(String balance) {
+        CreateWalletRequest request = new CreateWalletRequest();
+        request.setUserId(UUID.randomUUID());
+        UUID walletId = walletService.createWallet(request).getId();
+        if (balance != null) {
+            DepositWithdrawRequest deposit = new DepositWithdrawRequest();
+            deposit.setAmount(new BigDecimal(balance));
+            walletService.deposit(walletId, deposit);
+        }
+        return walletId;
+    }
+}
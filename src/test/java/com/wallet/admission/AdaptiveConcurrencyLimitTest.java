@@ -0,0 +1,69 @@
+package com.wallet.admission;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long MILLI = 1_000_000;
+
+    @Test
+    void growsWhileLatencyHoldsAndBacksOffWhenRequestsQueue() {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setInitialLimit(10);
+        properties.setMinLimit(4);
+        properties.setMaxLimit(30);
+        properties.setWindowSamples(10);
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(properties);
+
+        // saturating load at no-load latency: +1 per window up to the maximum
+        for (int window = 0; window < 40; window++) {
+            runWindow(limit, limit.getLimit(), 5 * MILLI);
+        }
+        assertEquals(30, limit.getLimit());
+
+        // requests queue: latency far above no-load, the limit shrinks to the minimum
+        for (int window = 0; window < 40; window++) {
+            runWindow(limit, Math.min(limit.getLimit(), 10), 50 * MILLI);
+        }
+        assertEquals(4, limit.getLimit());
+
+        // light load does not grow the limit
+        int before = limit.getLimit();
+        runWindow(limit, 1, 5 * MILLI);
+        assertEquals(before, limit.getLimit());
+    }
+
+    @Test
+    void rejectsOverTheLimit() {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setInitialLimit(4);
+        properties.setMinLimit(4);
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(properties);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limit.tryAcquire());
+        }
+        assertFalse(limit.tryAcquire());
+        limit.release(MILLI);
+        assertTrue(limit.tryAcquire());
+        assertEquals(4, limit.getInFlight());
+    }
+
+    /** One window of requests at the given concurrency and latency. */
+    private static void runWindow(AdaptiveConcurrencyLimit limit, int concurrency, long latencyNanos) {
+        for (int done = 0; done < 10; ) {
+            int started = 0;
+            while (started < concurrency && limit.tryAcquire()) {
+                started++;
+            }
+            for (int i = 0; i < started && done < 10; i++, done++) {
+                limit.release(latencyNanos);
+            }
+            while (limit.getInFlight() > 0) {
+                limit.release(latencyNanos);
+                done++;
+            }
+        }
+    }
+}
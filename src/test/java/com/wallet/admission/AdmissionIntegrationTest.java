@@ -0,0 +1,90 @@
+package com.wallet.admission;
+
+import com.wallet.payload.CreateWalletRequest;
+import com.wallet.service.WalletService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:admissiontest;DB_CLOSE_DELAY=-1",
+        "wallet.admission.per-wallet-limit=2",
+        "wallet.admission.retry-after-seconds=3"
+})
+class AdmissionIntegrationTest {
+
+    private static final HttpClient client = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private AdmissionGate gate;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Test
+    void busyWalletIsRejectedWithoutAffectingOthers() throws Exception {
+        UUID busy = createWallet();
+        UUID other = createWallet();
+
+        // two mutations of the wallet in progress
+        assertNull(gate.tryAcquire(List.of(busy)));
+        assertNull(gate.tryAcquire(List.of(busy)));
+        try {
+            HttpResponse<String> rejected = post("/api/wallets/" + busy + "/deposit", "{\"amount\": 10}");
+            assertEquals(429, rejected.statusCode());
+            assertEquals("3", rejected.headers().firstValue("Retry-After").orElseThrow());
+            assertTrue(rejected.body().contains("retry later"), rejected.body());
+
+            HttpResponse<String> transfer = post("/api/wallets/transfer",
+                    "{\"fromWalletId\": \"" + other + "\", \"toWalletId\": \"" + busy + "\", \"amount\": 1}");
+            assertEquals(429, transfer.statusCode());
+
+            assertEquals(200, post("/api/wallets/" + other + "/deposit", "{\"amount\": 10}").statusCode());
+            assertEquals(200, client.send(HttpRequest.newBuilder(url("/api/wallets/" + busy)).build(),
+                    HttpResponse.BodyHandlers.ofString()).statusCode());   // reads are not limited
+        } finally {
+            gate.release(List.of(busy), 1_000_000);
+        }
+
+        assertEquals(200, post("/api/wallets/" + busy + "/deposit", "{\"amount\": 10}").statusCode());
+        HttpResponse<String> transfer = post("/api/wallets/transfer",
+                "{\"fromWalletId\": \"" + other + "\", \"toWalletId\": \"" + busy + "\", \"amount\": 1}");
+        assertEquals(200, transfer.statusCode(), transfer.body());
+        assertEquals(0, new BigDecimal("11").compareTo(walletService.getBalance(busy)));
+
+        gate.release(List.of(busy), 1_000_000);
+        assertEquals(0, gate.busyWallets());
+    }
+
+    private UUID createWallet() {
+        CreateWalletRequest request = new CreateWalletRequest();
+        request.setUserId(UUID.randomUUID());
+        return walletService.createWallet(request).getId();
+    }
+
+    private HttpResponse<String> post(String path, String json) throws Exception {
+        return client.send(HttpRequest.newBuilder(url(path))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(json))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI url(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
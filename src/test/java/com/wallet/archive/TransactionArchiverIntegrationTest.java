@@ -0,0 +1,145 @@
+package com.wallet.archive;
+
+import com.wallet.exception.DuplicateTransactionException;
+import com.wallet.model.Transaction;
+import com.wallet.payload.CreateWalletRequest;
+import com.wallet.payload.DepositWithdrawRequest;
+import com.wallet.payload.TransactionDTO;
+import com.wallet.payload.TransactionHistoryRequest;
+import com.wallet.service.TransactionService;
+import com.wallet.service.WalletMonitoringService;
+import com.wallet.service.WalletService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:archivetest;DB_CLOSE_DELAY=-1",
+        "wallet.archive.enabled=true",
+        "wallet.archive.block-records=8",
+        "wallet.archive.delete-chunk-size=7"
+})
+class TransactionArchiverIntegrationTest {
+
+    private static final String INSERT =
+            "INSERT INTO transactions (id, wallet_id, type, amount, balance_after, reference_id, remarks, " +
+            "counterparty_wallet_id, timestamp) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @DynamicPropertySource
+    static void archiveDirectory(DynamicPropertyRegistry registry) throws IOException {
+        String directory = Files.createTempDirectory("wallet-archive").toString();
+        registry.add("wallet.archive.directory", () -> directory);
+    }
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private WalletMonitoringService monitoringService;
+
+    @Autowired
+    private TransactionArchiver archiver;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void archivedTransactionsStayReadableAndIdempotent() {
+        UUID walletId = createWallet();
+        UUID otherWalletId = createWallet();
+
+        // 20 rows in January and 12 in February 2024, every 3rd a withdrawal
+        List<UUID> oldIds = new ArrayList<>();
+        LocalDateTime at = LocalDateTime.of(2024, 1, 10, 9, 0, 0, 123_456_000);
+        for (int i = 0; i < 32; i++) {
+            LocalDateTime timestamp = i < 20 ? at.plusHours(i) : at.plusMonths(1).plusHours(i);
+            Transaction.TransactionType type = i % 3 == 2
+                    ? Transaction.TransactionType.WITHDRAWAL : Transaction.TransactionType.DEPOSIT;
+            oldIds.add(insert(walletId, type, new BigDecimal(i + 1 + ".2500"), "OLD-" + i, timestamp));
+            insert(otherWalletId, Transaction.TransactionType.DEPOSIT, BigDecimal.ONE, null, timestamp);
+        }
+        deposit(walletId, "5", null);
+        deposit(walletId, "6", null);
+
+        List<TransactionDTO> before = history(walletId, 0, 100, null).getContent();
+        assertEquals(64, archiver.run(LocalDateTime.now()));   // old rows of both wallets
+        assertEquals(0, archiver.run(LocalDateTime.now()));    // deletes their hot copies
+
+        Long hot = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transactions WHERE timestamp < ?", Long.class,
+                Timestamp.valueOf(LocalDateTime.of(2024, 3, 1, 0, 0)));
+        assertEquals(0, hot);
+
+        // every page, across the hot / cold boundary, matches the pre-archive history
+        for (int page = 0; page < 5; page++) {
+            Page<TransactionDTO> result = history(walletId, page, 7, null);
+            assertEquals(34, result.getTotalElements());
+            List<UUID> expected = before.subList(page * 7, Math.min(34, page * 7 + 7)).stream()
+                    .map(TransactionDTO::getId).toList();
+            assertEquals(expected, result.getContent().stream().map(TransactionDTO::getId).toList());
+        }
+        TransactionDTO archived = before.get(5);
+        TransactionDTO read = transactionService.getTransaction(archived.getId());
+        assertEquals(0, archived.getAmount().compareTo(read.getAmount()));
+        assertEquals(archived.getTimestamp(), read.getTimestamp());
+        assertEquals(archived.getReferenceId(), read.getReferenceId());
+
+        Page<TransactionDTO> withdrawals = history(walletId, 0, 100, "WITHDRAWAL");
+        assertEquals(10, withdrawals.getTotalElements());
+        assertTrue(withdrawals.getContent().stream()
+                .allMatch(t -> t.getType() == Transaction.TransactionType.WITHDRAWAL));
+
+        assertEquals(34, monitoringService.getTransactionCount(walletId));
+        assertTrue(oldIds.contains(read.getId()));
+
+        assertThrows(DuplicateTransactionException.class, () -> deposit(walletId, "1", "OLD-17"));
+        deposit(walletId, "1", "NEW-1");
+    }
+
+    private UUID insert(UUID walletId, Transaction.TransactionType type, BigDecimal amount, String referenceId,
+                        LocalDateTime timestamp) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update(INSERT, id, walletId, type.name(), amount, amount, referenceId, "legacy",
+                null, Timestamp.valueOf(timestamp));
+        return id;
+    }
+
+    private Page<TransactionDTO> history(UUID walletId, int page, int size, String type) {
+        TransactionHistoryRequest request = new TransactionHistoryRequest();
+        request.setPage(page);
+        request.setSize(size);
+        request.setType(type);
+        return walletService.getTransactionHistory(walletId, request);
+    }
+
+    private UUID createWallet() {
+        CreateWalletRequest request = new CreateWalletRequest();
+        request.setUserId(UUID.randomUUID());
+        return walletService.createWallet(request).getId();
+    }
+
+    private void deposit(UUID walletId, String amount, String referenceId) {
+        DepositWithdrawRequest request = new DepositWithdrawRequest();
+        request.setAmount(new BigDecimal(amount));
+        request.setReferenceId(referenceId);
+        walletService.deposit(walletId, request);
+    }
+}
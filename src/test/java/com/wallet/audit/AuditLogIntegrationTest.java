@@ -0,0 +1,138 @@
+package com.wallet.audit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.accrual.AccrualEngine;
+import com.wallet.payload.CreateWalletRequest;
+import com.wallet.payload.DepositWithdrawRequest;
+import com.wallet.payload.TransferRequest;
+import com.wallet.service.WalletService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:audittest;DB_CLOSE_DELAY=-1",
+        "wallet.audit.max-file-size=4KB",
+        "wallet.audit.max-files=3",
+        "wallet.accrual.daily-interest-rate=0.001",
+        "wallet.accrual.maintenance-fee=0.25",
+        "wallet.accrual.pause-ms=0"
+})
+class AuditLogIntegrationTest {
+
+    private static Path directory;
+
+    @DynamicPropertySource
+    static void auditFile(DynamicPropertyRegistry registry) throws IOException {
+        directory = Files.createTempDirectory("wallet-audit");
+        registry.add("wallet.audit.file", () -> directory.resolve("audit.log").toString());
+    }
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AccrualEngine accrualEngine;
+
+    @Test
+    void writesCommittedOperationsAndRotates() throws Exception {
+        UUID walletId = createWallet();
+        UUID otherWalletId = createWallet();
+        walletService.deposit(walletId, amount("100", "AUDIT-\"1\"-é"));
+        walletService.withdraw(walletId, amount("10", null));
+        TransferRequest transfer = new TransferRequest();
+        transfer.setFromWalletId(walletId);
+        transfer.setToWalletId(otherWalletId);
+        transfer.setAmount(new BigDecimal("5"));
+        walletService.transfer(transfer);
+        assertThrows(RuntimeException.class, () -> walletService.withdraw(otherWalletId, amount("1000", null)));
+        walletService.freezeWallet(otherWalletId);
+        auditLog.flush();
+
+        List<JsonNode> records = records();
+        List<JsonNode> own = records.stream()
+                .filter(r -> r.path("walletId").asText().equals(walletId.toString())
+                        || r.path("walletId").asText().equals(otherWalletId.toString()))
+                .toList();
+        // 2 creations, deposit, withdrawal, 2 transfer legs, freeze; the failed withdrawal is not audited
+        assertEquals(7, own.size());
+        JsonNode deposit = own.stream().filter(r -> "DEPOSIT".equals(r.path("transactionType").asText()))
+                .findFirst().orElseThrow();
+        assertEquals("TRANSACTION", deposit.get("event").asText());
+        assertEquals("AUDIT-\"1\"-é", deposit.get("referenceId").asText());
+        assertEquals(0, new BigDecimal("100").compareTo(new BigDecimal(deposit.get("amount").asText())));
+        assertEquals("FROZEN", own.get(own.size() - 1).get("status").asText());
+
+        // enough records to rotate several times; only max-files old files are kept
+        for (int i = 0; i < 40; i++) {
+            walletService.deposit(walletId, amount("1", null));
+        }
+        auditLog.flush();
+        assertTrue(Files.exists(directory.resolve("audit.log.1")));
+        assertFalse(Files.exists(directory.resolve("audit.log.4")));
+        assertTrue(Files.size(directory.resolve("audit.log.1")) <= 4096);
+        for (String line : Files.readAllLines(directory.resolve("audit.log"))) {
+            objectMapper.readTree(line);   // every line is a complete record
+        }
+    }
+
+    @Test
+    void writesAccrualPostings() throws Exception {
+        UUID walletId = createWallet();
+        walletService.deposit(walletId, amount("1000", null));
+        accrualEngine.run(LocalDate.of(2026, 3, 1));
+        auditLog.flush();
+
+        List<String> types = records().stream()
+                .filter(r -> r.path("walletId").asText().equals(walletId.toString()))
+                .map(r -> r.path("transactionType").asText())
+                .toList();
+        assertEquals(List.of("", "DEPOSIT", "INTEREST", "FEE"), types);
+    }
+
+    private List<JsonNode> records() throws IOException {
+        List<JsonNode> records = new ArrayList<>();
+        for (int i = 3; i >= 0; i--) {
+            Path file = directory.resolve(i == 0 ? "audit.log" : "audit.log." + i);
+            if (Files.exists(file)) {
+                for (String line : Files.readAllLines(file)) {
+                    records.add(objectMapper.readTree(line));
+                }
+            }
+        }
+        return records;
+    }
+
+    private UUID createWallet() {
+        CreateWalletRequest request = new CreateWalletRequest();
+        request.setUserId(UUID.randomUUID());
+        return walletService.createWallet(request).getId();
+    }
+
+    private static DepositWithdrawRequest amount(String amount, String referenceId) {
+        DepositWithdrawRequest request = new DepositWithdrawRequest();
+        request.setAmount(new BigDecimal(amount));
+        request.setReferenceId(referenceId);
+        return request;
+    }
+}
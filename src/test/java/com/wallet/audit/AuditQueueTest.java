@@ -0,0 +1,76 @@
+package com.wallet.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditQueueTest {
+
+    @Test
+    void reportsFullQueueAndReusesSlots() {
+        AuditQueue queue = new AuditQueue(3);
+        assertEquals(4, queue.capacity());
+        for (int i = 0; i < 4; i++) {
+            long position = queue.tryClaim();
+            assertEquals(i, position);
+            queue.record(position).version = i;
+            queue.publish(position);
+        }
+        assertEquals(-1, queue.tryClaim());
+
+        assertEquals(0, queue.peek().version);
+        queue.release();
+        long position = queue.tryClaim();
+        assertEquals(4, position);
+        assertEquals(-1, queue.tryClaim());
+        // positions 1-3 published, 4 claimed but not yet published: all count
+        assertEquals(4, queue.size());
+    }
+
+    @Test
+    void deliversEveryRecordOfConcurrentProducersInOrder() throws Exception {
+        int producers = 4;
+        int perProducer = 200_000;
+        AuditQueue queue = new AuditQueue(1024);
+        UUID[] ids = new UUID[producers];
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            UUID id = ids[p] = UUID.randomUUID();
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    long position;
+                    while ((position = queue.tryClaim()) < 0) {
+                        Thread.onSpinWait();
+                    }
+                    AuditRecord record = queue.record(position);
+                    record.walletId = id;
+                    record.version = i;
+                    queue.publish(position);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+
+        long[] next = new long[producers];
+        for (long received = 0; received < (long) producers * perProducer; ) {
+            AuditRecord record = queue.peek();
+            if (record == null) {
+                Thread.onSpinWait();
+                continue;
+            }
+            int producer = List.of(ids).indexOf(record.walletId);
+            assertEquals(next[producer]++, record.version);
+            queue.release();
+            received++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(queue.peek());
+        assertEquals(0, queue.size());
+    }
+}
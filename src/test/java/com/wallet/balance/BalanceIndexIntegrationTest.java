@@ -0,0 +1,176 @@
+package com.wallet.balance;
+
+import com.wallet.exception.WalletNotFoundException;
+import com.wallet.model.Wallet;
+import com.wallet.payload.CreateWalletRequest;
+import com.wallet.payload.DepositWithdrawRequest;
+import com.wallet.payload.WalletDTO;
+import com.wallet.service.WalletService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:balanceindextest;DB_CLOSE_DELAY=-1",
+        "wallet.balance-index.enabled=true",
+        "wallet.balance-index.capacity=64"
+})
+class BalanceIndexIntegrationTest {
+
+    @DynamicPropertySource
+    static void indexFile(DynamicPropertyRegistry registry) throws IOException {
+        String file = Files.createTempDirectory("balance-index").resolve("index.dat").toString();
+        registry.add("wallet.balance-index.file", () -> file);
+    }
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private BalanceIndex balanceIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void readsFollowCommittedWrites() {
+        UUID walletId = createWallet();
+        deposit(walletId, "100.25");
+        walletService.withdraw(walletId, amount("0.2500"));
+
+        WalletDTO indexed = balanceIndex.get(walletId);
+        assertNotNull(indexed);
+        assertEquals(0, new BigDecimal("100").compareTo(indexed.getBalance()));
+        WalletDTO wallet = walletService.getWallet(walletId);
+        assertEquals(indexed, wallet);
+        assertEquals("USD", wallet.getCurrency());
+        assertEquals(Wallet.WalletStatus.ACTIVE, wallet.getStatus());
+
+        // served from the index: a row change without a wallet event is not seen
+        jdbcTemplate.update("UPDATE wallets SET balance = 1 WHERE id = ?", walletId);
+        assertEquals(0, new BigDecimal("100").compareTo(walletService.getBalance(walletId)));
+
+        // until the wallet is invalidated
+        balanceIndex.invalidate(walletId);
+        assertNull(balanceIndex.get(walletId));
+        assertEquals(0, BigDecimal.ONE.compareTo(walletService.getBalance(walletId)));
+        assertNotNull(balanceIndex.get(walletId));
+
+        walletService.freezeWallet(walletId);
+        assertEquals(Wallet.WalletStatus.FROZEN, balanceIndex.get(walletId).getStatus());
+        assertThrows(WalletNotFoundException.class, () -> walletService.getBalance(walletId));
+        walletService.unfreezeWallet(walletId);
+        assertEquals(0, BigDecimal.ONE.compareTo(walletService.getBalance(walletId)));
+    }
+
+    @Test
+    void olderVersionsDoNotReplaceNewerOnes() {
+        UUID walletId = createWallet();
+        deposit(walletId, "10");
+        WalletDTO current = balanceIndex.get(walletId);
+
+        WalletDTO stale = copy(current);
+        stale.setVersion(current.getVersion() - 1);
+        stale.setBalance(new BigDecimal("3"));
+        balanceIndex.put(stale);
+        assertEquals(current, balanceIndex.get(walletId));
+
+        assertThrows(WalletNotFoundException.class, () -> walletService.getWallet(UUID.randomUUID()));
+    }
+
+    @Test
+    void readersNeverSeeTornRecords() throws Exception {
+        WalletDTO wallet = new WalletDTO();
+        wallet.setId(UUID.randomUUID());
+        wallet.setUserId(UUID.randomUUID());
+        wallet.setCurrency("EUR");
+        wallet.setStatus(Wallet.WalletStatus.ACTIVE);
+        wallet.setCreatedAt(LocalDateTime.of(2024, 1, 1, 0, 0));
+
+        // every state written has balance == version and updatedAt == createdAt + version seconds
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> torn = new AtomicReference<>();
+        Thread writer = new Thread(() -> {
+            for (long version = 1; version <= 200_000; version++) {
+                WalletDTO state = copy(wallet);
+                state.setVersion(version);
+                state.setBalance(BigDecimal.valueOf(version));
+                state.setUpdatedAt(wallet.getCreatedAt().plusSeconds(version));
+                balanceIndex.put(state);
+            }
+            done.set(true);
+        });
+        List<Thread> readers = List.of(new Thread(() -> read(wallet, done, torn)),
+                new Thread(() -> read(wallet, done, torn)));
+        writer.start();
+        readers.forEach(Thread::start);
+        writer.join();
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        assertNull(torn.get());
+        assertEquals(200_000L, balanceIndex.get(wallet.getId()).getVersion());
+    }
+
+    private void read(WalletDTO wallet, AtomicBoolean done, AtomicReference<String> torn) {
+        long last = 0;
+        while (!done.get()) {
+            WalletDTO read = balanceIndex.get(wallet.getId());
+            if (read == null) {
+                continue;
+            }
+            long version = read.getVersion();
+            if (read.getBalance().longValueExact() != version
+                    || !read.getUpdatedAt().equals(wallet.getCreatedAt().plusSeconds(version))
+                    || !read.getUserId().equals(wallet.getUserId())
+                    || version < last) {
+                torn.compareAndSet(null, read.toString());
+                return;
+            }
+            last = version;
+        }
+    }
+
+    private static WalletDTO copy(WalletDTO wallet) {
+        WalletDTO copy = new WalletDTO();
+        copy.setId(wallet.getId());
+        copy.setUserId(wallet.getUserId());
+        copy.setBalance(wallet.getBalance());
+        copy.setCurrency(wallet.getCurrency());
+        copy.setStatus(wallet.getStatus());
+        copy.setCreatedAt(wallet.getCreatedAt());
+        copy.setUpdatedAt(wallet.getUpdatedAt());
+        copy.setVersion(wallet.getVersion());
+        return copy;
+    }
+
+    private UUID createWallet() {
+        CreateWalletRequest request = new CreateWalletRequest();
+        request.setUserId(UUID.randomUUID());
+        return walletService.createWallet(request).getId();
+    }
+
+    private void deposit(UUID walletId, String amount) {
+        walletService.deposit(walletId, amount(amount));
+    }
+
+    private static DepositWithdrawRequest amount(String amount) {
+        DepositWithdrawRequest request = new DepositWithdrawRequest();
+        request.setAmount(new BigDecimal(amount));
+        return request;
+    }
+}
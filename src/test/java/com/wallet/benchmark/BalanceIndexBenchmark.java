@@ -0,0 +1,115 @@
+package com.wallet.benchmark;
+
+import com.wallet.balance.BalanceIndex;
+import com.wallet.balance.BalanceIndexProperties;
+import com.wallet.model.Wallet;
+import com.wallet.payload.WalletDTO;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Heap footprint and random-read latency of the off-heap {@link BalanceIndex}
+ * against an on-heap {@code ConcurrentHashMap<UUID, WalletDTO>} holding the same wallets.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Dtest=BalanceIndexBenchmark};
+ * the wallet count can be changed with {@code -Dbenchmark.wallets=...}.
+ */
+@Tag("benchmark")
+class BalanceIndexBenchmark {
+
+    private static final int WALLETS = Integer.getInteger("benchmark.wallets", 1_000_000);
+    private static final int READS = Integer.getInteger("benchmark.reads", 5_000_000);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void compareWithHeapMap() throws Exception {
+        UUID[] ids = new UUID[WALLETS];
+        for (int i = 0; i < WALLETS; i++) {
+            ids[i] = UUID.randomUUID();
+        }
+
+        long baseline = usedHeap();
+        Map<UUID, WalletDTO> map = new ConcurrentHashMap<>(WALLETS * 2);
+        for (UUID id : ids) {
+            map.put(id, wallet(id));
+        }
+        long mapHeap = usedHeap() - baseline;
+        report("heap map", mapHeap, readNanos(ids, map::get));
+        map = null;
+
+        baseline = usedHeap();
+        BalanceIndexProperties properties = new BalanceIndexProperties();
+        properties.setEnabled(true);
+        properties.setFile(dir.resolve("index.dat").toString());
+        properties.setCapacity((int) Math.min(Integer.MAX_VALUE, WALLETS * 4L / 3 + 1));
+        BalanceIndex index = new BalanceIndex(properties);
+        try {
+            for (UUID id : ids) {
+                index.put(wallet(id));
+            }
+            assertEquals(WALLETS, index.size());
+            long indexHeap = usedHeap() - baseline;
+            report("off-heap index", indexHeap, readNanos(ids, index::get));
+        } finally {
+            index.close();
+        }
+    }
+
+    /** Average nanoseconds per random lookup, after a warm-up pass. */
+    private static double readNanos(UUID[] ids, Function<UUID, WalletDTO> lookup) {
+        long checksum = 0;
+        for (int round = 0; round < 2; round++) {
+            long started = System.nanoTime();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < READS; i++) {
+                checksum += lookup.apply(ids[random.nextInt(ids.length)]).getVersion();
+            }
+            if (round == 1) {
+                assertEquals(2L * READS, checksum);
+                return (System.nanoTime() - started) / (double) READS;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private static void report(String store, long heapBytes, double nanosPerRead) {
+        System.out.printf("%-15s wallets=%d  heap=%,d KiB (%d B/wallet)  read=%.0f ns/op%n",
+                store, WALLETS, heapBytes / 1024, heapBytes / WALLETS, nanosPerRead);
+    }
+
+    private static WalletDTO wallet(UUID id) {
+        WalletDTO wallet = new WalletDTO();
+        wallet.setId(id);
+        wallet.setUserId(UUID.randomUUID());
+        wallet.setBalance(new BigDecimal("1234.5600"));
+        wallet.setCurrency("USD");
+        wallet.setStatus(Wallet.WalletStatus.ACTIVE);
+        wallet.setCreatedAt(LocalDateTime.now());
+        wallet.setUpdatedAt(LocalDateTime.now());
+        wallet.setVersion(1L);
+        return wallet;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,100 @@
+package com.wallet.benchmark;
+
+import com.sun.management.OperatingSystemMXBean;
+import com.wallet.payload.CreateWalletRequest;
+import com.wallet.payload.DepositWithdrawRequest;
+import com.wallet.service.WalletService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Simulates clients polling wallet reads and compares CPU time and bytes on the
+ * wire for plain polling, conditional polling (If-None-Match) and gzip-encoded
+ * history pages.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Dtest=ConditionalGetLoadTest};
+ * the number of polls can be changed with {@code -Dbenchmark.polls=...}.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ConditionalGetLoadTest {
+
+    private static final int POLLS = Integer.getInteger("benchmark.polls", 20_000);
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final OperatingSystemMXBean os =
+            (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Test
+    void pollingWithAndWithoutConditionalRequests() throws Exception {
+        CreateWalletRequest create = new CreateWalletRequest();
+        create.setUserId(UUID.randomUUID());
+        UUID walletId = walletService.createWallet(create).getId();
+        for (int i = 0; i < 100; i++) {
+            DepositWithdrawRequest deposit = new DepositWithdrawRequest();
+            deposit.setAmount(new BigDecimal("10.00"));
+            deposit.setRemarks("Polling benchmark deposit " + i);
+            walletService.deposit(walletId, deposit);
+        }
+
+        for (String path : new String[]{"", "/balance", "/transactions?size=100"}) {
+            String url = "http://localhost:" + port + "/api/wallets/" + walletId + path;
+            poll(url, false, false, POLLS / 10); // warm-up
+            report(path, "plain", poll(url, false, false, POLLS));
+            report(path, "if-none-match", poll(url, true, false, POLLS));
+        }
+
+        String history = "http://localhost:" + port + "/api/wallets/" + walletId + "/transactions?size=100";
+        report("/transactions?size=100", "gzip", poll(history, false, true, POLLS));
+    }
+
+    /** Returns {cpu nanos, wall nanos, body bytes}. */
+    private long[] poll(String url, boolean conditional, boolean gzip, int polls) throws Exception {
+        HttpResponse<byte[]> first = client.send(HttpRequest.newBuilder(URI.create(url)).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(200, first.statusCode());
+        String eTag = first.headers().firstValue("ETag").orElseThrow();
+
+        long bytes = 0;
+        long cpuStart = os.getProcessCpuTime();
+        long wallStart = System.nanoTime();
+        for (int i = 0; i < polls; i++) {
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url));
+            if (conditional) {
+                request.header("If-None-Match", eTag);
+            }
+            if (gzip) {
+                request.header("Accept-Encoding", "gzip");
+            }
+            HttpResponse<byte[]> response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+            assertEquals(conditional ? 304 : 200, response.statusCode());
+            bytes += response.body().length;
+        }
+        return new long[]{os.getProcessCpuTime() - cpuStart, System.nanoTime() - wallStart, bytes};
+    }
+
+    private void report(String path, String mode, long[] result) {
+        System.out.printf("%-24s %-14s cpu/req=%,7d us  wall/req=%,7d us  body bytes/req=%,d%n",
+                path.isEmpty() ? "/{walletId}" : path, mode,
+                result[0] / POLLS / 1_000, result[1] / POLLS / 1_000, result[2] / POLLS);
+    }
+}
@@ -0,0 +1,105 @@
+package com.wallet.benchmark;
+
+import com.wallet.id.IdStrategy;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Insert-throughput and storage-size comparison of random (v4) and
+ * time-ordered (v7) UUID primary keys on a transactions-shaped table.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Dtest=IdStrategyBenchmark};
+ * the row count can be changed with {@code -Dbenchmark.rows=...}.
+ */
+@Tag("benchmark")
+class IdStrategyBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 1_000_000);
+    private static final int WALLETS = Integer.getInteger("benchmark.wallets", 10_000);
+    private static final int BATCH_SIZE = 1_000;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void compareIdStrategies() throws Exception {
+        // Warm up the JIT on both code paths so neither strategy pays for it in the measurement
+        for (IdStrategy strategy : IdStrategy.values()) {
+            run(strategy, ROWS / 10, "warmup-");
+        }
+        for (IdStrategy strategy : IdStrategy.values()) {
+            long[] result = run(strategy, ROWS, "");
+            System.out.printf("%-12s rows=%d  inserts/s=%,.0f  table+indexes=%,d KiB%n",
+                    strategy, ROWS, ROWS / (result[0] / 1e9), result[1] / 1024);
+        }
+    }
+
+    /** Returns the elapsed insert time in nanoseconds and the table size in bytes. */
+    private long[] run(IdStrategy strategy, int rows, String prefix) throws Exception {
+        String url = "jdbc:h2:file:" + dir.resolve(prefix + strategy.name()).toAbsolutePath();
+        try (Connection connection = DriverManager.getConnection(url, "sa", "")) {
+            try (Statement ddl = connection.createStatement()) {
+                ddl.execute("CREATE TABLE transactions (" +
+                        "id UUID PRIMARY KEY, wallet_id UUID NOT NULL, " +
+                        "amount NUMERIC(19,4) NOT NULL, timestamp TIMESTAMP NOT NULL)");
+                ddl.execute("CREATE INDEX idx_tx_wallet ON transactions(wallet_id)");
+            }
+
+            UUID[] wallets = new UUID[WALLETS];
+            for (int i = 0; i < WALLETS; i++) {
+                wallets[i] = strategy.next();
+            }
+
+            connection.setAutoCommit(false);
+            long start = System.nanoTime();
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO transactions (id, wallet_id, amount, timestamp) VALUES (?, ?, ?, ?)")) {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 1; i <= rows; i++) {
+                    insert.setObject(1, strategy.next());
+                    insert.setObject(2, wallets[random.nextInt(WALLETS)]);
+                    insert.setBigDecimal(3, BigDecimal.valueOf(random.nextInt(1, 100_000), 2));
+                    insert.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
+                    insert.addBatch();
+                    if (i % BATCH_SIZE == 0) {
+                        insert.executeBatch();
+                        connection.commit();
+                    }
+                }
+                insert.executeBatch();
+                connection.commit();
+            }
+            long elapsedNanos = System.nanoTime() - start;
+
+            long bytes;
+            long count;
+            try (Statement query = connection.createStatement()) {
+                query.execute("CHECKPOINT SYNC");
+                try (ResultSet rs = query.executeQuery("SELECT DISK_SPACE_USED('TRANSACTIONS')")) {
+                    rs.next();
+                    bytes = rs.getLong(1);
+                }
+                try (ResultSet rs = query.executeQuery("SELECT COUNT(*) FROM transactions")) {
+                    rs.next();
+                    count = rs.getLong(1);
+                }
+            }
+            assertEquals(rows, count);
+            return new long[]{elapsedNanos, bytes};
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.wallet.benchmark;
+
+import com.wallet.WalletApplication;
+import com.wallet.payload.CreateWalletRequest;
+import com.wallet.payload.DepositWithdrawRequest;
+import com.wallet.payload.TransferRequest;
+import com.wallet.service.WalletService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Single-threaded latency of deposit, withdraw, transfer and reversal on the
+ * JPA store and on the plain JDBC store, each against a fresh in-memory database.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Dtest=LedgerStoreBenchmark};
+ * the number of operations can be changed with {@code -Dbenchmark.ops=...}.
+ */
+@Tag("benchmark")
+class LedgerStoreBenchmark {
+
+    private static final int OPS = Integer.getInteger("benchmark.ops", 50_000);
+    private static final int WALLETS = 1_000;
+
+    @Test
+    void compareStores() {
+        for (String store : new String[]{"jpa", "jdbc"}) {
+            try (ConfigurableApplicationContext context = start(store)) {
+                WalletService walletService = context.getBean(WalletService.class);
+                List<UUID> wallets = createWallets(walletService);
+
+                run(walletService, wallets, OPS / 5);   // warm-up
+                long[] nanos = run(walletService, wallets, OPS);
+                System.out.printf("%-5s deposit=%,.1fus  withdraw=%,.1fus  transfer=%,.1fus  reverse=%,.1fus%n",
+                        store, nanos[0] / 1e3 / OPS, nanos[1] / 1e3 / OPS, nanos[2] / 1e3 / OPS,
+                        nanos[3] / 1e3 / OPS);
+            }
+        }
+    }
+
+    private ConfigurableApplicationContext start(String store) {
+        return new SpringApplicationBuilder(WalletApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "wallet.store=" + store,
+                        "spring.datasource.url=jdbc:h2:mem:store-" + store + ";DB_CLOSE_DELAY=-1",
+                        "wallet.migration.counterparty-backfill.enabled=false",
+                        "logging.level.org.hibernate.SQL=WARN",
+                        "logging.level.com.wallet=WARN")
+                .run();
+    }
+
+    private List<UUID> createWallets(WalletService walletService) {
+        List<UUID> wallets = new ArrayList<>(WALLETS);
+        for (int i = 0; i < WALLETS; i++) {
+            CreateWalletRequest request = new CreateWalletRequest();
+            request.setUserId(UUID.randomUUID());
+            UUID id = walletService.createWallet(request).getId();
+
+            // enough for every reversal of a deposit that has already been withdrawn
+            DepositWithdrawRequest deposit = new DepositWithdrawRequest();
+            deposit.setAmount(new BigDecimal("1000000"));
+            walletService.deposit(id, deposit);
+            wallets.add(id);
+        }
+        return wallets;
+    }
+
+    /** Returns total nanoseconds spent in deposit, withdraw, transfer and reversal. */
+    private long[] run(WalletService walletService, List<UUID> wallets, int ops) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long[] nanos = new long[4];
+        DepositWithdrawRequest amount = new DepositWithdrawRequest();
+        amount.setAmount(BigDecimal.TEN);
+
+        for (int i = 0; i < ops; i++) {
+            UUID from = wallets.get(random.nextInt(wallets.size()));
+            UUID to = wallets.get(random.nextInt(wallets.size()));
+            if (from.equals(to)) {
+                to = wallets.get((wallets.indexOf(from) + 1) % wallets.size());
+            }
+
+            long t0 = System.nanoTime();
+            UUID depositId = walletService.deposit(from, amount).getId();
+            long t1 = System.nanoTime();
+            walletService.withdraw(from, amount);
+            long t2 = System.nanoTime();
+            TransferRequest transfer = new TransferRequest();
+            transfer.setFromWalletId(to);
+            transfer.setToWalletId(from);
+            transfer.setAmount(BigDecimal.ONE);
+            long t3 = System.nanoTime();
+            walletService.transfer(transfer);
+            long t4 = System.nanoTime();
+            walletService.reverseTransaction(depositId);
+            long t5 = System.nanoTime();
+
+            nanos[0] += t1 - t0;
+            nanos[1] += t2 - t1;
+            nanos[2] += t4 - t3;
+            nanos[3] += t5 - t4;
+        }
+        return nanos;
+    }
+}
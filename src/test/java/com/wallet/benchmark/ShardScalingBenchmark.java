@@ -0,0 +1,148 @@
+package com.wallet.benchmark;
+
+import com.wallet.WalletApplication;
+import com.wallet.payload.CreateWalletRequest;
+import com.wallet.payload.DepositWithdrawRequest;
+import com.wallet.payload.TransferRequest;
+import com.wallet.service.WalletService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Throughput of a deposit/transfer mix against 1, 2 and 4 shards, each shard an
+ * independent in-memory H2 database with its own small connection pool, so the
+ * per-database pool is the ceiling that sharding lifts. Balances are checked for
+ * conservation after every run.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Dtest=ShardScalingBenchmark}; threads,
+ * wallets, run time and pool size per shard can be changed with
+ * {@code -Dbenchmark.threads}, {@code -Dbenchmark.wallets}, {@code -Dbenchmark.seconds}
+ * and {@code -Dbenchmark.pool-size}.
+ */
+@Tag("benchmark")
+class ShardScalingBenchmark {
+
+    private static final int THREADS = Integer.getInteger("benchmark.threads", 32);
+    private static final int WALLETS = Integer.getInteger("benchmark.wallets", 1_000);
+    private static final int SECONDS = Integer.getInteger("benchmark.seconds", 20);
+    private static final int POOL_SIZE = Integer.getInteger("benchmark.pool-size", 4);
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000000");
+
+    /** Sum of the deposits made by the runs against the current context. */
+    private BigDecimal depositedTotal = BigDecimal.ZERO;
+
+    @Test
+    void throughputScalesWithShardCount() throws Exception {
+        for (int shards : new int[]{1, 2, 4}) {
+            try (ConfigurableApplicationContext context = start(shards)) {
+                WalletService walletService = context.getBean(WalletService.class);
+                List<UUID> wallets = createWallets(walletService);
+
+                run(walletService, wallets, SECONDS / 4);   // warm-up
+                long ops = run(walletService, wallets, SECONDS);
+                System.out.printf("shards=%d  pool/shard=%d  threads=%d  ops/s=%,.0f%n",
+                        shards, POOL_SIZE, THREADS, ops / (double) SECONDS);
+
+                BigDecimal total = wallets.stream()
+                        .map(walletService::getBalance)
+                        .reduce(BigDecimal.ZERO, BigDecimal::add);
+                assertEquals(0, total.compareTo(INITIAL_BALANCE.multiply(BigDecimal.valueOf(WALLETS))
+                        .add(depositedTotal)), "money was created or lost");
+                depositedTotal = BigDecimal.ZERO;
+            }
+        }
+    }
+
+    private ConfigurableApplicationContext start(int shards) {
+        List<String> properties = new ArrayList<>(List.of(
+                "wallet.sharding.enabled=true",
+                "wallet.migration.counterparty-backfill.enabled=false",
+                "logging.level.org.hibernate.SQL=WARN",
+                "logging.level.com.wallet=WARN"));
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        for (int i = 0; i < shards; i++) {
+            properties.add("wallet.sharding.shards[" + i + "].url=jdbc:h2:mem:bench-" + run + "-" + i
+                    + ";DB_CLOSE_DELAY=-1");
+            properties.add("wallet.sharding.shards[" + i + "].maximum-pool-size=" + POOL_SIZE);
+        }
+        return new SpringApplicationBuilder(WalletApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(properties.toArray(String[]::new))
+                .run();
+    }
+
+    private List<UUID> createWallets(WalletService walletService) {
+        List<UUID> wallets = new ArrayList<>(WALLETS);
+        for (int i = 0; i < WALLETS; i++) {
+            CreateWalletRequest request = new CreateWalletRequest();
+            request.setUserId(UUID.randomUUID());
+            UUID id = walletService.createWallet(request).getId();
+
+            DepositWithdrawRequest deposit = new DepositWithdrawRequest();
+            deposit.setAmount(INITIAL_BALANCE);
+            walletService.deposit(id, deposit);
+            wallets.add(id);
+        }
+        return wallets;
+    }
+
+    /** Runs the mix for the given time and returns the number of completed operations. */
+    private long run(WalletService walletService, List<UUID> wallets, int seconds) throws InterruptedException {
+        AtomicLong completed = new AtomicLong();
+        AtomicLong depositedCents = new AtomicLong();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch done = new CountDownLatch(THREADS);
+
+        for (int t = 0; t < THREADS; t++) {
+            executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    while (System.nanoTime() < deadline) {
+                        UUID from = wallets.get(random.nextInt(wallets.size()));
+                        UUID to = wallets.get(random.nextInt(wallets.size()));
+                        try {
+                            if (random.nextBoolean() || from.equals(to)) {
+                                DepositWithdrawRequest deposit = new DepositWithdrawRequest();
+                                deposit.setAmount(BigDecimal.ONE);
+                                walletService.deposit(from, deposit);
+                                depositedCents.addAndGet(100);
+                            } else {
+                                TransferRequest transfer = new TransferRequest();
+                                transfer.setFromWalletId(from);
+                                transfer.setToWalletId(to);
+                                transfer.setAmount(BigDecimal.ONE);
+                                walletService.transfer(transfer);
+                            }
+                            completed.incrementAndGet();
+                        } catch (RuntimeException e) {
+                            // lock timeouts under contention; not counted
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        done.await();
+        executor.shutdown();
+        depositedTotal = depositedTotal.add(BigDecimal.valueOf(depositedCents.get(), 2));
+        return completed.get();
+    }
+}
@@ -0,0 +1,167 @@
+package com.wallet.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Time from process start to the first successful deposit over HTTP, and the
+ * resident memory at that point, for the plain jar and the {@code fast-start}
+ * build (AOT + AppCDS).
+ * <p>
+ * Build both first, then run:
+ * <pre>
+ * mvn package -Pfast-start -DskipTests
+ * mvn test -Pbenchmark -Dtest=StartupBenchmark -Dbenchmark.runs=5
+ * </pre>
+ * RSS is read from {@code /proc}, so it is only reported on Linux.
+ */
+@Tag("benchmark")
+class StartupBenchmark {
+
+    private static final int RUNS = Integer.getInteger("benchmark.runs", 5);
+    private static final Path TARGET = Paths.get(System.getProperty("benchmark.target", "target"));
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void plainJarVersusFastStart() throws Exception {
+        Path plainJar = findJar(TARGET);
+        Path fastStartDir = TARGET.resolve("fast-start");
+        assumeTrue(plainJar != null, "no packaged jar in " + TARGET);
+        assumeTrue(Files.exists(fastStartDir.resolve("application.jsa")), "no fast-start build in " + fastStartDir);
+        Path fastStartJar = fastStartDir.resolve(plainJar.getFileName());
+
+        measure("plain jar", List.of("-jar", plainJar.toString()));
+        measure("fast-start", List.of(
+                "-XX:SharedArchiveFile=" + fastStartDir.resolve("application.jsa"),
+                "-Dspring.aot.enabled=true",
+                "-jar", fastStartJar.toString()));
+    }
+
+    private void measure(String variant, List<String> arguments) throws Exception {
+        long[] millis = new long[RUNS];
+        long[] rssKb = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long[] result = startAndDeposit(arguments);
+            millis[i] = result[0];
+            rssKb[i] = result[1];
+        }
+        Arrays.sort(millis);
+        Arrays.sort(rssKb);
+        System.out.printf("%-10s first deposit: median %,d ms (min %,d, max %,d)   RSS: median %,d MB%n",
+                variant, millis[RUNS / 2], millis[0], millis[RUNS - 1], rssKb[RUNS / 2] / 1024);
+    }
+
+    /** Returns milliseconds until the first successful deposit and the RSS in kB at that point. */
+    private long[] startAndDeposit(List<String> arguments) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(arguments);
+        command.add("--server.port=" + port);
+        command.add("--spring.datasource.url=jdbc:h2:mem:startup-" + UUID.randomUUID());
+        command.add("--logging.level.root=WARN");
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            String base = "http://localhost:" + port + "/api/wallets";
+            long deadline = start + TIMEOUT.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited with " + process.exitValue());
+                }
+                try {
+                    String walletId = createWallet(base);
+                    if (walletId != null && deposit(base, walletId)) {
+                        long millis = (System.nanoTime() - start) / 1_000_000;
+                        return new long[]{millis, rssKb(process.pid())};
+                    }
+                } catch (ConnectException e) {
+                    // not listening yet
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException("No successful deposit within " + TIMEOUT);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private String createWallet(String base) throws IOException, InterruptedException {
+        HttpResponse<String> response = post(base, "{\"userId\":\"" + UUID.randomUUID() + "\",\"currency\":\"USD\"}");
+        if (response.statusCode() != 201) {
+            return null;
+        }
+        JsonNode wallet = mapper.readTree(response.body());
+        return wallet.get("id").asText();
+    }
+
+    private boolean deposit(String base, String walletId) throws IOException, InterruptedException {
+        return post(base + "/" + walletId + "/deposit", "{\"amount\":10.00}").statusCode() == 200;
+    }
+
+    private HttpResponse<String> post(String url, String json) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static long rssKb(long pid) throws IOException {
+        Path status = Paths.get("/proc", String.valueOf(pid), "status");
+        if (!Files.exists(status)) {
+            return 0;
+        }
+        return Files.readAllLines(status).stream()
+                .filter(line -> line.startsWith("VmRSS:"))
+                .mapToLong(line -> Long.parseLong(line.replaceAll("[^0-9]", "")))
+                .findFirst()
+                .orElse(0);
+    }
+
+    private static Path findJar(Path target) throws IOException {
+        if (!Files.isDirectory(target)) {
+            return null;
+        }
+        try (var files = Files.list(target)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(".jar"))
+                    .filter(p -> !p.getFileName().toString().endsWith("-plain.jar"))
+                    .findFirst()
+                    .orElse(null);
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
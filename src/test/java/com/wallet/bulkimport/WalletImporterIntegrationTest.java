@@ -0,0 +1,112 @@
+package com.wallet.bulkimport;
+
+import com.wallet.model.Transaction;
+import com.wallet.payload.CreateWalletRequest;
+import com.wallet.payload.TransactionDTO;
+import com.wallet.payload.TransactionHistoryRequest;
+import com.wallet.payload.WalletImportResult;
+import com.wallet.service.WalletService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:importtest;DB_CLOSE_DELAY=-1",
+        "wallet.import.batch-size=3",
+        "wallet.import.max-reported-rejections=7"
+})
+class WalletImporterIntegrationTest {
+
+    @Autowired
+    private WalletImporter importer;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void importsValidLinesAndReportsTheRest() throws Exception {
+        UUID existing = UUID.randomUUID();
+        CreateWalletRequest request = new CreateWalletRequest();
+        request.setUserId(existing);
+        walletService.createWallet(request);
+
+        List<UUID> users = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(),
+                UUID.randomUUID(), UUID.randomUUID());
+        String csv = String.join("\n",
+                "userId,currency,openingBalance",
+                users.get(0) + ",USD,100.50",                 // 2
+                users.get(1) + ",EUR",                        // 3
+                "",
+                "\"" + users.get(2) + "\",\"GBP\",0",         // 5
+                "not-a-uuid,USD,1",                           // 6
+                users.get(3) + ",usd,1",                      // 7
+                users.get(3) + ",USD,-1",                     // 8
+                users.get(3) + ",USD,1.00001",                // 9
+                users.get(3) + ",USD,1,extra",                // 10
+                existing + ",USD,5",                          // 11
+                users.get(3) + ",USD,7",                      // 12
+                users.get(3) + ",USD,8",                      // 13, same batch
+                users.get(0) + ",USD,9",                      // 14, earlier batch
+                users.get(4) + ",USD,12345678901234.5");      // 15
+
+        WalletImportResult result = importer.importCsv(new StringReader(csv));
+
+        assertEquals(13, result.getLinesRead());
+        assertEquals(5, result.getWalletsCreated());
+        assertEquals(8, result.getRejected());
+        assertTrue(result.isRejectionsTruncated());
+        Map<Long, String> reasons = result.getRejections().stream()
+                .collect(Collectors.toMap(WalletImportResult.Rejection::getLine,
+                        WalletImportResult.Rejection::getReason));
+        assertEquals(7, reasons.size());   // line 14 is rejected last, past the maximum
+        assertEquals("Invalid user ID", reasons.get(6L));
+        assertEquals("Currency must be a 3-letter uppercase code", reasons.get(7L));
+        assertEquals("Opening balance must not be negative", reasons.get(8L));
+        assertTrue(reasons.containsKey(9L) && reasons.containsKey(10L));
+        assertEquals("Wallet already exists for user", reasons.get(11L));
+        assertEquals("Duplicate user ID in file", reasons.get(13L));
+
+        assertEquals(0, new BigDecimal("100.50").compareTo(balanceOf(users.get(0))));
+        assertEquals(0, BigDecimal.ZERO.compareTo(balanceOf(users.get(1))));
+        assertEquals(0, new BigDecimal("7").compareTo(balanceOf(users.get(3))));
+        assertEquals(0, new BigDecimal("12345678901234.5").compareTo(balanceOf(users.get(4))));
+
+        // opening balances are deposits in the ledger; zero balances have none
+        List<TransactionDTO> history = walletService.getTransactionHistory(walletOf(users.get(0)),
+                new TransactionHistoryRequest()).getContent();
+        assertEquals(1, history.size());
+        assertEquals(Transaction.TransactionType.DEPOSIT, history.get(0).getType());
+        assertEquals(0, new BigDecimal("100.50").compareTo(history.get(0).getBalanceAfter()));
+        assertTrue(walletService.getTransactionHistory(walletOf(users.get(2)), new TransactionHistoryRequest())
+                .isEmpty());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM wallet_import_rows", Long.class));
+
+        // running the file again creates nothing
+        WalletImportResult rerun = importer.importCsv(new StringReader(csv));
+        assertEquals(0, rerun.getWalletsCreated());
+        assertEquals(13, rerun.getRejected());
+        assertEquals(1L, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM wallets WHERE user_id = ?", Long.class, users.get(3)));
+    }
+
+    private UUID walletOf(UUID userId) {
+        return jdbcTemplate.queryForObject("SELECT id FROM wallets WHERE user_id = ?", UUID.class, userId);
+    }
+
+    private BigDecimal balanceOf(UUID userId) {
+        return walletService.getBalance(walletOf(userId));
+    }
+}
@@ -0,0 +1,144 @@
+package com.wallet.cache;
+
+import com.wallet.bulkimport.WalletImporter;
+import com.wallet.model.Wallet;
+import com.wallet.payload.BatchWalletResponse;
+import com.wallet.payload.CreateWalletRequest;
+import com.wallet.payload.DepositWithdrawRequest;
+import com.wallet.payload.WalletDTO;
+import com.wallet.repository.WalletRepository;
+import com.wallet.service.WalletService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:walletcachetest;DB_CLOSE_DELAY=-1",
+        "wallet.wallet-cache.enabled=true",
+        "wallet.wallet-cache.max-wallets=20"
+})
+class WalletCacheIntegrationTest {
+
+    private static final HttpClient client = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private WalletCache walletCache;
+
+    @Autowired
+    private WalletImporter walletImporter;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Test
+    void batchReadKeepsRequestOrderAndSeparatesMissingAndInactiveWallets() {
+        UUID first = createWallet();
+        UUID second = createWallet();
+        UUID frozen = createWallet();
+        walletService.freezeWallet(frozen);
+        UUID unknown = UUID.randomUUID();
+
+        List<UUID> request = List.of(second, unknown, frozen, first, second);
+        BatchWalletResponse cold = walletService.getWallets(request);
+        assertEquals(List.of(second, first), cold.getWallets().stream().map(WalletDTO::getId).toList());
+        assertEquals(Map.of(frozen, Wallet.WalletStatus.FROZEN), cold.getInactive());
+        assertEquals(List.of(unknown), cold.getMissing());
+
+        // served from the cache, which follows committed changes
+        walletService.deposit(first, amount("12.5"));
+        BatchWalletResponse warm = walletService.getWallets(request);
+        assertEquals(List.of(second, first), warm.getWallets().stream().map(WalletDTO::getId).toList());
+        assertEquals(0, new BigDecimal("12.5").compareTo(warm.getWallets().get(1).getBalance()));
+        walletService.unfreezeWallet(frozen);
+        assertEquals(List.of(second, frozen, first),
+                walletService.getWallets(request).getWallets().stream().map(WalletDTO::getId).toList());
+    }
+
+    @Test
+    void cacheStaysWithinItsBound() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            ids.add(createWallet());
+        }
+
+        BatchWalletResponse response = walletService.getWallets(ids);
+        assertEquals(ids, response.getWallets().stream().map(WalletDTO::getId).toList());
+        assertTrue(walletCache.size() <= 20, "cached " + walletCache.size());
+        // evicted wallets are reloaded
+        assertEquals(ids, walletService.getWallets(ids).getWallets().stream().map(WalletDTO::getId).toList());
+    }
+
+    @Test
+    void importedWalletsAreReadFromTheDatabase() throws Exception {
+        UUID userId = UUID.randomUUID();
+        walletImporter.importCsv(new StringReader(userId + ",USD,40\n"));
+        UUID walletId = walletRepository.findByUserId(userId).get(0).getId();
+        assertNull(walletCache.get(walletId));
+        assertEquals(0, new BigDecimal("40").compareTo(walletService.getWallets(List.of(walletId))
+                .getWallets().get(0).getBalance()));
+    }
+
+    @Test
+    void batchEndpointLooksUpAtMost5000Wallets() throws Exception {
+        assertEquals(400, postBatch(List.of()).statusCode());
+        assertEquals(400, postBatch(randomIds(5001)).statusCode());
+
+        HttpResponse<String> full = postBatch(randomIds(5000));
+        assertEquals(200, full.statusCode(), full.body());
+    }
+
+    // -------------------------------------------------------------
+    // HELPERS
+    // -------------------------------------------------------------
+
+    private HttpResponse<String> postBatch(List<UUID> walletIds) throws Exception {
+        String body = walletIds.stream().map(id -> "\"" + id + "\"")
+                .collect(Collectors.joining(",", "{\"walletIds\": [", "]}"));
+        return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/wallets/batch"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static List<UUID> randomIds(int count) {
+        List<UUID> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(UUID.randomUUID());
+        }
+        return ids;
+    }
+
+    private UUID createWallet() {
+        CreateWalletRequest request = new CreateWalletRequest();
+        request.setUserId(UUID.randomUUID());
+        return walletService.createWallet(request).getId();
+    }
+
+    private static DepositWithdrawRequest amount(String amount) {
+        DepositWithdrawRequest request = new DepositWithdrawRequest();
+        request.setAmount(new BigDecimal(amount));
+        return request;
+    }
+}
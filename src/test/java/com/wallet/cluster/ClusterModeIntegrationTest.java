@@ -0,0 +1,246 @@
+package com.wallet.cluster;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.wallet.WalletApplication;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two cluster nodes on localhost sharing one in-memory database.
+ */
+class ClusterModeIntegrationTest {
+
+    private static final Pattern WALLET_ID = Pattern.compile("\"id\"\\s*:\\s*\"([0-9a-f-]{36})\"");
+    private static final Pattern BALANCE = Pattern.compile("\"balance\"\\s*:\\s*([0-9.]+)");
+
+    private static final HttpClient client = HttpClient.newHttpClient();
+    private static final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+    private static final Map<String, String> urls = new HashMap<>();
+
+    @BeforeAll
+    static void startNodes() throws IOException {
+        String db = "jdbc:h2:mem:cluster-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        int[] ports = {freePort(), freePort()};
+        for (int i = 0; i < ports.length; i++) {
+            urls.put("node-" + (i + 1), "http://localhost:" + ports[i]);
+        }
+        for (int i = 0; i < ports.length; i++) {
+            // command-line arguments, so they take precedence over application.yaml
+            nodes.add(new SpringApplicationBuilder(WalletApplication.class).run(
+                    "--server.port=" + ports[i],
+                    "--spring.datasource.url=" + db,
+                    "--wallet.admission.per-wallet-limit=8",   // the concurrent test's 8 clients on one wallet
+                    "--wallet.cluster.enabled=true",
+                    "--wallet.cluster.node-id=node-" + (i + 1),
+                    "--wallet.cluster.members[0].id=node-1",
+                    "--wallet.cluster.members[0].url=" + urls.get("node-1"),
+                    "--wallet.cluster.members[1].id=node-2",
+                    "--wallet.cluster.members[1].url=" + urls.get("node-2")
+            ));
+        }
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        nodes.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    void requestsForForeignWalletsAreServedByTheirOwner() throws Exception {
+        ClusterMembership membership = nodes.get(0).getBean(ClusterMembership.class);
+
+        for (int i = 0; i < 10; i++) {
+            UUID walletId = createWallet("node-1");
+            String owner = membership.ownerOf(walletId).getId();
+
+            for (String entry : urls.keySet()) {
+                HttpResponse<String> deposit = post(entry, "/api/wallets/" + walletId + "/deposit",
+                        "{\"amount\": 10}");
+                assertEquals(200, deposit.statusCode(), deposit.body());
+                assertEquals(owner, deposit.headers().firstValue(WalletOwnershipFilter.SERVED_BY_HEADER).orElseThrow());
+            }
+            assertEquals(20.0, balance("node-2", walletId), 0.0001);
+        }
+    }
+
+    @Test
+    void concurrentDepositsThroughBothNodesAreAllApplied() throws Exception {
+        UUID walletId = createWallet("node-2");
+        int requests = 40;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch done = new CountDownLatch(requests);
+        List<Integer> statuses = Collections.synchronizedList(new ArrayList<>());
+
+        for (int i = 0; i < requests; i++) {
+            String node = i % 2 == 0 ? "node-1" : "node-2";
+            executor.submit(() -> {
+                try {
+                    statuses.add(post(node, "/api/wallets/" + walletId + "/deposit", "{\"amount\": 1}").statusCode());
+                } catch (Exception e) {
+                    statuses.add(-1);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        executor.shutdown();
+
+        assertTrue(statuses.stream().allMatch(s -> s == 200), statuses::toString);
+        assertEquals(requests, balance("node-1", walletId), 0.0001);
+    }
+
+    @Test
+    void membersFileChangeMovesOnlyWalletsOfTheNewNode(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("members");
+        Files.writeString(file, "node-1=http://a\nnode-2=http://b\n");
+
+        ClusterProperties properties = new ClusterProperties();
+        properties.setNodeId("node-1");
+        properties.setMembersFile(file.toString());
+        ClusterMembership membership = new ClusterMembership(properties);
+
+        List<UUID> wallets = new ArrayList<>();
+        Map<UUID, String> before = new HashMap<>();
+        for (int i = 0; i < 3_000; i++) {
+            UUID id = UUID.randomUUID();
+            wallets.add(id);
+            before.put(id, membership.ownerOf(id).getId());
+        }
+
+        Files.writeString(file, "node-1=http://a\nnode-2=http://b\nnode-3=http://c\n");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+        membership.refresh();
+
+        int moved = 0;
+        for (UUID id : wallets) {
+            String owner = membership.ownerOf(id).getId();
+            if (!owner.equals(before.get(id))) {
+                assertEquals("node-3", owner);
+                moved++;
+            }
+        }
+        assertTrue(moved > 600 && moved < 1_400, "moved " + moved + " of 3000");
+    }
+
+    @Test
+    void unreachableOwnerFailsOnlyMutationsThatWereSent(@TempDir Path dir) throws Exception {
+        try (ServerSocket silent = new ServerSocket(0)) {
+            // accepts connections and never answers: requests time out after being sent
+            ClusterMembership membership = membershipWithNode2At(dir, silent.getLocalPort());
+            WalletOwnershipFilter filter = filter(membership);
+            UUID walletId = walletOwnedBy(membership, "node-2");
+
+            MockFilterChain deposit = new MockFilterChain();
+            MockHttpServletResponse timedOut = new MockHttpServletResponse();
+            filter.doFilter(depositRequest(walletId), timedOut, deposit);
+            assertEquals(504, timedOut.getStatus());
+            assertNull(deposit.getRequest(), "a mutation the owner may have applied was run locally");
+
+            MockFilterChain read = new MockFilterChain();
+            filter.doFilter(new MockHttpServletRequest("GET", "/api/wallets/" + walletId),
+                    new MockHttpServletResponse(), read);
+            assertNotNull(read.getRequest());
+        }
+
+        // nothing listening: the request never left this node
+        ClusterMembership membership = membershipWithNode2At(dir, freePort());
+        MockFilterChain refused = new MockFilterChain();
+        filter(membership).doFilter(depositRequest(walletOwnedBy(membership, "node-2")),
+                new MockHttpServletResponse(), refused);
+        assertNotNull(refused.getRequest());
+    }
+
+    /** Membership as seen by node-1, with node-2 listening on the given port. */
+    private static ClusterMembership membershipWithNode2At(Path dir, int port) throws IOException {
+        Path file = dir.resolve("members-" + port);
+        Files.writeString(file, "node-1=http://localhost:1\nnode-2=http://localhost:" + port + "\n");
+        ClusterProperties properties = new ClusterProperties();
+        properties.setNodeId("node-1");
+        properties.setMembersFile(file.toString());
+        return new ClusterMembership(properties);
+    }
+
+    private static WalletOwnershipFilter filter(ClusterMembership membership) {
+        return new WalletOwnershipFilter(membership, JsonMapper.builder().findAndAddModules().build(),
+                Duration.ofMillis(300));
+    }
+
+    private static UUID walletOwnedBy(ClusterMembership membership, String node) {
+        UUID walletId;
+        do {
+            walletId = UUID.randomUUID();
+        } while (!membership.ownerOf(walletId).getId().equals(node));
+        return walletId;
+    }
+
+    private static MockHttpServletRequest depositRequest(UUID walletId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/wallets/" + walletId + "/deposit");
+        request.setContentType("application/json");
+        request.setContent("{\"amount\": 1}".getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private UUID createWallet(String node) throws Exception {
+        HttpResponse<String> created = post(node, "/api/wallets",
+                "{\"userId\": \"" + UUID.randomUUID() + "\", \"currency\": \"USD\"}");
+        assertEquals(201, created.statusCode(), created.body());
+        Matcher m = WALLET_ID.matcher(created.body());
+        assertTrue(m.find());
+        return UUID.fromString(m.group(1));
+    }
+
+    private double balance(String node, UUID walletId) throws Exception {
+        HttpResponse<String> wallet = client.send(HttpRequest.newBuilder(
+                URI.create(urls.get(node) + "/api/wallets/" + walletId)).build(), HttpResponse.BodyHandlers.ofString());
+        Matcher m = BALANCE.matcher(wallet.body());
+        assertTrue(m.find(), wallet.body());
+        return Double.parseDouble(m.group(1));
+    }
+
+    private HttpResponse<String> post(String node, String path, String json) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(urls.get(node) + path))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(json))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.wallet.controller;
+
+import com.wallet.payload.CreateWalletRequest;
+import com.wallet.payload.DepositWithdrawRequest;
+import com.wallet.service.WalletService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@AutoConfigureMockMvc
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:conditionalgettest;DB_CLOSE_DELAY=-1",
+        // compress every JSON response, so only the entity tag decides
+        "server.compression.min-response-size=1"
+})
+class ConditionalGetIntegrationTest {
+
+    private static final HttpClient client = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Test
+    void walletAndBalanceAnswerAMatchingTagWith304UntilTheWalletChanges() throws Exception {
+        UUID walletId = createWallet();
+        for (String path : new String[]{"/api/wallets/" + walletId, "/api/wallets/" + walletId + "/balance"}) {
+            String tag = etag(path);
+            assertTrue(tag.startsWith("\""), tag);   // strong
+
+            mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, tag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, tag))
+                    .andExpect(content().string(""));
+        }
+
+        String walletTag = etag("/api/wallets/" + walletId);
+        String balanceTag = etag("/api/wallets/" + walletId + "/balance");
+        assertNotEquals(walletTag, balanceTag);
+        deposit(walletId, "10");
+
+        String changed = mockMvc.perform(get("/api/wallets/" + walletId).header(HttpHeaders.IF_NONE_MATCH, walletTag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(walletTag, changed);
+        mockMvc.perform(get("/api/wallets/" + walletId + "/balance").header(HttpHeaders.IF_NONE_MATCH, balanceTag))
+                .andExpect(status().isOk())
+                .andExpect(content().string("10.0000"));
+    }
+
+    @Test
+    void historyUsesWeakTagsPerPage() throws Exception {
+        UUID walletId = createWallet();
+        deposit(walletId, "5");
+        String path = "/api/wallets/" + walletId + "/transactions";
+
+        String tag = etag(path);
+        assertTrue(tag.startsWith("W/\"h-"), tag);
+        assertNotEquals(tag, etag(path + "?size=5"));
+        mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, tag))
+                .andExpect(status().isNotModified());
+
+        deposit(walletId, "7");
+        mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, tag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void unknownWalletIsNotFoundEvenWithATag() throws Exception {
+        mockMvc.perform(get("/api/wallets/" + UUID.randomUUID()).header(HttpHeaders.IF_NONE_MATCH, "\"w-1-0\""))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void onlyResponsesWithWeakTagsAreCompressed() throws Exception {
+        UUID walletId = createWallet();
+        deposit(walletId, "5");
+
+        HttpResponse<byte[]> wallet = fetchGzip("/api/wallets/" + walletId);
+        assertEquals(200, wallet.statusCode());
+        assertTrue(wallet.headers().firstValue(HttpHeaders.CONTENT_ENCODING).isEmpty());
+
+        HttpResponse<byte[]> history = fetchGzip("/api/wallets/" + walletId + "/transactions");
+        assertEquals(200, history.statusCode());
+        assertEquals("gzip", history.headers().firstValue(HttpHeaders.CONTENT_ENCODING).orElse(null));
+        assertTrue(history.headers().firstValue(HttpHeaders.ETAG).orElseThrow().startsWith("W/"));
+    }
+
+    // -------------------------------------------------------------
+    // HELPERS
+    // -------------------------------------------------------------
+
+    private String etag(String path) throws Exception {
+        String tag = mockMvc.perform(get(path))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(tag, path);
+        return tag;
+    }
+
+    /** Through the real connector, which does the compression. */
+    private HttpResponse<byte[]> fetchGzip(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private UUID createWallet() {
+        CreateWalletRequest request = new CreateWalletRequest();
+        request.setUserId(UUID.randomUUID());
+        return walletService.createWallet(request).getId();
+    }
+
+    private void deposit(UUID walletId, String amount) {
+        DepositWithdrawRequest request = new DepositWithdrawRequest();
+        request.setAmount(new BigDecimal(amount));
+        walletService.deposit(walletId, request);
+    }
+}
@@ -0,0 +1,166 @@
+package com.wallet.history;
+
+import com.wallet.archive.TieredTransactionReader;
+import com.wallet.exception.WalletNotFoundException;
+import com.wallet.payload.CreateWalletRequest;
+import com.wallet.payload.DepositWithdrawRequest;
+import com.wallet.payload.TransactionDTO;
+import com.wallet.payload.TransactionHistoryRequest;
+import com.wallet.payload.TransferRequest;
+import com.wallet.service.WalletService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:historytest;DB_CLOSE_DELAY=-1",
+        "wallet.history-cache.size=5",
+        "wallet.history-cache.max-wallets=20"
+})
+class RecentTransactionsCacheIntegrationTest {
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private RecentTransactionsCache cache;
+
+    @Autowired
+    private TieredTransactionReader tieredReader;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void firstPageFollowsCommittedOperations() {
+        UUID walletId = createWallet();
+        UUID otherWalletId = createWallet();
+        for (int i = 1; i <= 7; i++) {
+            deposit(walletId, String.valueOf(i * 10));
+            if (i == 3) {
+                history(walletId, 5);   // loads the ring part-way
+            }
+        }
+        walletService.withdraw(walletId, amount("5"));
+        transfer(walletId, otherWalletId, "15");
+        transfer(otherWalletId, walletId, "1");
+
+        for (int size : new int[]{1, 3, 5}) {
+            Page<TransactionDTO> page = history(walletId, size);
+            assertEquals(ids(fromDatabase(walletId, size)), ids(page.getContent()));
+            assertEquals(10, page.getTotalElements());
+        }
+        assertEquals(ids(fromDatabase(otherWalletId, 5)), ids(history(otherWalletId, 5).getContent()));
+    }
+
+    @Test
+    void ringIsReloadedWhenTheWalletVersionMovedWithoutAnEvent() {
+        UUID walletId = createWallet();
+        deposit(walletId, "100");
+        deposit(walletId, "50");
+        assertEquals(2, history(walletId, 5).getTotalElements());
+
+        // a row written elsewhere only shows once the wallet version moves
+        UUID external = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO transactions (id, wallet_id, type, amount, balance_after, timestamp) " +
+                        "VALUES (?, ?, 'DEPOSIT', 1, 151, ?)",
+                external, walletId, Timestamp.valueOf(LocalDateTime.now().plusSeconds(1)));
+        assertEquals(2, history(walletId, 5).getTotalElements());
+
+        jdbcTemplate.update("UPDATE wallets SET balance = 151, version = version + 1 WHERE id = ?", walletId);
+        Page<TransactionDTO> page = history(walletId, 5);
+        assertEquals(3, page.getTotalElements());
+        assertEquals(external, page.getContent().get(0).getId());
+    }
+
+    @Test
+    void newWalletsHaveNoRingUntilTheirHistoryIsRead() {
+        UUID walletId = createWallet();
+
+        // e.g. restored from the archive: rows that never moved the wallet version
+        UUID restored = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO transactions (id, wallet_id, type, amount, balance_after, timestamp) " +
+                        "VALUES (?, ?, 'DEPOSIT', 1, 1, ?)",
+                restored, walletId, Timestamp.valueOf(LocalDateTime.now()));
+
+        Page<TransactionDTO> page = history(walletId, 5);
+        assertEquals(1, page.getTotalElements());
+        assertEquals(restored, page.getContent().get(0).getId());
+    }
+
+    @Test
+    void frozenWalletsAreNotServedFromMemory() {
+        UUID walletId = createWallet();
+        deposit(walletId, "100");
+        history(walletId, 5);
+
+        walletService.freezeWallet(walletId);
+        assertThrows(WalletNotFoundException.class, () -> history(walletId, 5));
+
+        walletService.unfreezeWallet(walletId);
+        deposit(walletId, "20");
+        assertEquals(ids(fromDatabase(walletId, 5)), ids(history(walletId, 5).getContent()));
+    }
+
+    @Test
+    void leastRecentlyReadWalletsAreDropped() {
+        for (int i = 0; i < 50; i++) {
+            UUID walletId = createWallet();
+            deposit(walletId, "1");
+            history(walletId, 5);
+        }
+        assertTrue(cache.size() <= 20);
+    }
+
+    private Page<TransactionDTO> history(UUID walletId, int size) {
+        TransactionHistoryRequest request = new TransactionHistoryRequest();
+        request.setPage(0);
+        request.setSize(size);
+        return walletService.getTransactionHistory(walletId, request);
+    }
+
+    private List<TransactionDTO> fromDatabase(UUID walletId, int size) {
+        return tieredReader.findByWallet(walletId, null,
+                PageRequest.of(0, size, Sort.by(Sort.Direction.DESC, "timestamp"))).getContent();
+    }
+
+    private static List<UUID> ids(List<TransactionDTO> transactions) {
+        return transactions.stream().map(TransactionDTO::getId).toList();
+    }
+
+    private UUID createWallet() {
+        CreateWalletRequest request = new CreateWalletRequest();
+        request.setUserId(UUID.randomUUID());
+        return walletService.createWallet(request).getId();
+    }
+
+    private void deposit(UUID walletId, String value) {
+        walletService.deposit(walletId, amount(value));
+    }
+
+    private void transfer(UUID from, UUID to, String value) {
+        TransferRequest request = new TransferRequest();
+        request.setFromWalletId(from);
+        request.setToWalletId(to);
+        request.setAmount(new BigDecimal(value));
+        walletService.transfer(request);
+    }
+
+    private static DepositWithdrawRequest amount(String value) {
+        DepositWithdrawRequest request = new DepositWithdrawRequest();
+        request.setAmount(new BigDecimal(value));
+        return request;
+    }
+}
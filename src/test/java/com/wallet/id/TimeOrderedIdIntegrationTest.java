@@ -0,0 +1,40 @@
+package com.wallet.id;
+
+import com.wallet.model.Wallet;
+import com.wallet.repository.WalletRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:idtest;DB_CLOSE_DELAY=-1")
+class TimeOrderedIdIntegrationTest {
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Test
+    void keepsAnAssignedIdentifier() {
+        UUID preset = UuidV7.next();
+        Wallet saved = walletRepository.saveAndFlush(Wallet.builder()
+                .id(preset)
+                .userId(UUID.randomUUID())
+                .build());
+
+        assertEquals(preset, saved.getId());
+        assertTrue(walletRepository.findById(preset).isPresent());
+    }
+
+    @Test
+    void generatesTimeOrderedIdentifiersWhenNoneIsAssigned() {
+        Wallet first = walletRepository.saveAndFlush(Wallet.builder().userId(UUID.randomUUID()).build());
+        Wallet second = walletRepository.saveAndFlush(Wallet.builder().userId(UUID.randomUUID()).build());
+
+        assertEquals(7, first.getId().version());
+        // hex strings of equal length sort like the unsigned bytes
+        assertTrue(first.getId().toString().compareTo(second.getId().toString()) < 0);
+    }
+}
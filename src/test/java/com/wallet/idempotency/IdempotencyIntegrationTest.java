@@ -0,0 +1,98 @@
+package com.wallet.idempotency;
+
+import com.wallet.exception.DuplicateTransactionException;
+import com.wallet.payload.CreateWalletRequest;
+import com.wallet.payload.DepositWithdrawRequest;
+import com.wallet.payload.TransactionDTO;
+import com.wallet.payload.TransferRequest;
+import com.wallet.payload.TransferResponse;
+import com.wallet.service.WalletService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:idempotencytest;DB_CLOSE_DELAY=-1",
+        "wallet.idempotency.purge-chunk-size=2"
+})
+class IdempotencyIntegrationTest {
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private IdempotencyKeyPurger purger;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void retriedOperationsReplayTheOriginalResponse() {
+        UUID walletId = createWallet();
+        UUID otherWalletId = createWallet();
+
+        TransactionDTO deposit = walletService.deposit(walletId, request("100.50", "DEP-" + UUID.randomUUID()));
+        TransactionDTO replayed = walletService.deposit(walletId, request("100.5000", deposit.getReferenceId()));
+        assertEquals(deposit.getId(), replayed.getId());
+        assertEquals(deposit.getTimestamp(), replayed.getTimestamp());
+        assertEquals(0, deposit.getBalanceAfter().compareTo(replayed.getBalanceAfter()));
+
+        String withdrawalKey = "WD-" + UUID.randomUUID();
+        TransactionDTO withdrawal = walletService.withdraw(walletId, request("10", withdrawalKey));
+        assertEquals(withdrawal.getId(), walletService.withdraw(walletId, request("10", withdrawalKey)).getId());
+        assertThrows(DuplicateTransactionException.class,
+                () -> walletService.deposit(walletId, request("10", withdrawalKey)));
+
+        TransferRequest transfer = new TransferRequest();
+        transfer.setFromWalletId(walletId);
+        transfer.setToWalletId(otherWalletId);
+        transfer.setAmount(new BigDecimal("40"));
+        transfer.setReferenceId("XFER-" + UUID.randomUUID());
+        TransferResponse first = walletService.transfer(transfer);
+        TransferResponse retried = walletService.transfer(transfer);
+        assertEquals(first.getFromTransaction().getId(), retried.getFromTransaction().getId());
+        assertEquals(first.getToTransaction().getId(), retried.getToTransaction().getId());
+        assertEquals(transfer.getReferenceId(), first.getFromTransaction().getReferenceId());
+
+        assertEquals(0, new BigDecimal("50.50").compareTo(walletService.getBalance(walletId)));
+        assertEquals(0, new BigDecimal("40").compareTo(walletService.getBalance(otherWalletId)));
+    }
+
+    @Test
+    void expiredKeysArePurgedAndRetriesThenRejected() {
+        UUID walletId = createWallet();
+        String key = "DEP-" + UUID.randomUUID();
+        walletService.deposit(walletId, request("5", key));
+        for (int i = 0; i < 4; i++) {
+            walletService.deposit(walletId, request("1", "DEP-" + UUID.randomUUID()));
+        }
+
+        assertEquals(0, purger.purge(LocalDateTime.now()));
+        assertTrue(purger.purge(LocalDateTime.now().plusDays(2)) >= 5);
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM idempotency_keys", Long.class));
+
+        // the ledger still knows the reference ID
+        assertThrows(DuplicateTransactionException.class, () -> walletService.deposit(walletId, request("5", key)));
+        assertEquals(0, new BigDecimal("9").compareTo(walletService.getBalance(walletId)));
+    }
+
+    private UUID createWallet() {
+        CreateWalletRequest request = new CreateWalletRequest();
+        request.setUserId(UUID.randomUUID());
+        return walletService.createWallet(request).getId();
+    }
+
+    private static DepositWithdrawRequest request(String amount, String referenceId) {
+        DepositWithdrawRequest request = new DepositWithdrawRequest();
+        request.setAmount(new BigDecimal(amount));
+        request.setReferenceId(referenceId);
+        return request;
+    }
+}
@@ -0,0 +1,93 @@
+package com.wallet.limits;
+
+import com.wallet.exception.LimitExceededException;
+import com.wallet.payload.CreateWalletRequest;
+import com.wallet.payload.DepositWithdrawRequest;
+import com.wallet.payload.TransferRequest;
+import com.wallet.service.WalletService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "wallet.limits.minute.max-count=3",
+        "wallet.limits.day.max-amount=500",
+        "wallet.max-transfer-amount=1000"
+})
+class VelocityLimiterIntegrationTest {
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private VelocityLimiter velocityLimiter;
+
+    private UUID walletId;
+
+    @BeforeEach
+    void setUp() {
+        walletId = createWallet();
+        walletService.deposit(walletId, amount("5000"));
+    }
+
+    @Test
+    void countLimitPerMinuteRejectsFurtherWithdrawals() {
+        for (int i = 0; i < 3; i++) {
+            walletService.withdraw(walletId, amount("10"));
+        }
+        assertThrows(LimitExceededException.class, () -> walletService.withdraw(walletId, amount("10")));
+        assertEquals(0, new BigDecimal("4970").compareTo(walletService.getBalance(walletId)));
+    }
+
+    @Test
+    void windowsAreRebuiltFromLedgerAfterEviction() {
+        walletService.withdraw(walletId, amount("300"));
+        walletService.withdraw(walletId, amount("150"));
+
+        velocityLimiter.evict(walletId);
+
+        assertThrows(LimitExceededException.class, () -> walletService.withdraw(walletId, amount("100")));
+        walletService.withdraw(walletId, amount("50"));
+    }
+
+    @Test
+    void outgoingTransfersCountTowardsLimits() {
+        UUID other = createWallet();
+        walletService.transfer(transfer(walletId, other, "400"));
+
+        assertThrows(LimitExceededException.class, () -> walletService.transfer(transfer(walletId, other, "200")));
+        assertEquals(0, new BigDecimal("4600").compareTo(walletService.getBalance(walletId)));
+    }
+
+    @Test
+    void transferAboveMaximumIsRejected() {
+        UUID other = createWallet();
+        assertThrows(LimitExceededException.class, () -> walletService.transfer(transfer(walletId, other, "1000.01")));
+    }
+
+    private UUID createWallet() {
+        CreateWalletRequest request = new CreateWalletRequest();
+        request.setUserId(UUID.randomUUID());
+        return walletService.createWallet(request).getId();
+    }
+
+    private DepositWithdrawRequest amount(String value) {
+        DepositWithdrawRequest request = new DepositWithdrawRequest();
+        request.setAmount(new BigDecimal(value));
+        return request;
+    }
+
+    private TransferRequest transfer(UUID from, UUID to, String value) {
+        TransferRequest request = new TransferRequest();
+        request.setFromWalletId(from);
+        request.setToWalletId(to);
+        request.setAmount(new BigDecimal(value));
+        return request;
+    }
+}
@@ -0,0 +1,62 @@
+package com.wallet.loadtest;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Intended start times of an open-model run: requests arrive at a rate rising
+ * linearly from {@code startRate} to {@code endRate} per second over the duration,
+ * whether or not earlier ones have completed. A constant rate is a ramp with
+ * equal ends.
+ */
+final class ArrivalSchedule {
+
+    private final double startRate;
+    private final double endRate;
+    private final double seconds;
+
+    private ArrivalSchedule(double startRate, double endRate, Duration duration) {
+        if (startRate < 0 || endRate < 0 || startRate + endRate == 0 || duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("Rates must be non-negative, not both zero, over a positive duration");
+        }
+        this.startRate = startRate;
+        this.endRate = endRate;
+        this.seconds = duration.toNanos() / 1e9;
+    }
+
+    static ArrivalSchedule constant(double rate, Duration duration) {
+        return new ArrivalSchedule(rate, rate, duration);
+    }
+
+    static ArrivalSchedule ramp(double startRate, double endRate, Duration duration) {
+        return new ArrivalSchedule(startRate, endRate, duration);
+    }
+
+    /** Number of requests in the run. */
+    long count() {
+        return (long) ((startRate + endRate) / 2 * seconds);
+    }
+
+    /**
+     * Offset from the start of the run at which request {@code n} (0-based) is due:
+     * the t solving {@code startRate * t + (endRate - startRate) / (2 * seconds) * t^2 = n}.
+     */
+    long offsetNanos(long n) {
+        double a = (endRate - startRate) / (2 * seconds);
+        double t;
+        if (Math.abs(a) < 1e-12) {
+            t = n / startRate;
+        } else {
+            double discriminant = Math.max(0, startRate * startRate + 4 * a * n);
+            t = (Math.sqrt(discriminant) - startRate) / (2 * a);
+        }
+        return (long) (t * TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Override
+    public String toString() {
+        return startRate == endRate
+                ? String.format("%.0f req/s for %.0f s", startRate, seconds)
+                : String.format("%.0f -> %.0f req/s over %.0f s", startRate, endRate, seconds);
+    }
+}
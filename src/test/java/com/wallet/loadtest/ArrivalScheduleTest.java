@@ -0,0 +1,67 @@
+package com.wallet.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArrivalScheduleTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void constantRateSpacesRequestsEvenly() {
+        ArrivalSchedule schedule = ArrivalSchedule.constant(200, Duration.ofSeconds(10));
+
+        assertEquals(2_000, schedule.count());
+        assertEquals(0, schedule.offsetNanos(0));
+        assertEquals(SECOND / 200, schedule.offsetNanos(1), 1);
+        assertEquals(5 * SECOND, schedule.offsetNanos(1_000), 1_000);
+    }
+
+    @Test
+    void rampArrivesFasterTowardsTheEnd() {
+        ArrivalSchedule schedule = ArrivalSchedule.ramp(0, 100, Duration.ofSeconds(10));
+
+        assertEquals(500, schedule.count());
+        // n(t) = 5 t^2: a quarter of the requests in the first half
+        assertEquals(5 * SECOND, schedule.offsetNanos(125), SECOND / 1_000);
+        assertEquals(10 * SECOND, schedule.offsetNanos(500), SECOND / 1_000);
+        long early = schedule.offsetNanos(11) - schedule.offsetNanos(10);
+        long late = schedule.offsetNanos(491) - schedule.offsetNanos(490);
+        assertTrue(early > 5 * late, early + " vs " + late);
+
+        ArrivalSchedule down = ArrivalSchedule.ramp(100, 0, Duration.ofSeconds(10));
+        assertEquals(500, down.count());
+        assertEquals(10 * SECOND, down.offsetNanos(500), SECOND / 100);
+    }
+
+    @Test
+    void zipfFavoursLowRanks() {
+        ZipfDistribution zipf = new ZipfDistribution(1_000, 1.0);
+        int[] hits = new int[1_000];
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            hits[zipf.sample(random)]++;
+        }
+        // H(1000) ~ 7.49, so rank 0 gets ~13% and rank 1 half of that
+        assertEquals(zipf.probability(0) * 100_000, hits[0], 1_000);
+        assertEquals(hits[0] / 2.0, hits[1], 600);
+        assertTrue(hits[999] < 50);
+
+        ZipfDistribution uniform = new ZipfDistribution(4, 0);
+        assertEquals(0.25, uniform.probability(3), 1e-12);
+    }
+
+    @Test
+    void mixIsParsedByOperationName() {
+        assertEquals(Map.of(Operation.BALANCE, 3, Operation.TRANSFER, 1),
+                LoadProfile.parseMix("balance=3, transfer=1"));
+        assertThrows(IllegalArgumentException.class, () -> LoadProfile.parseMix("balance=0"));
+        assertThrows(IllegalArgumentException.class, () -> LoadProfile.parseMix("refund=1"));
+    }
+}
@@ -0,0 +1,51 @@
+package com.wallet.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Outcomes of one operation in the measured phase. Latencies are in microseconds:
+ * {@code latency} from the intended start in the arrival schedule, which charges the
+ * time a request spent waiting behind a stalled server to that request (corrected
+ * for coordinated omission); {@code serviceTime} from the moment it was sent.
+ */
+final class EndpointStats {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    final Histogram latency = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+    final Histogram serviceTime = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+
+    final LongAdder succeeded = new LongAdder();
+    /** 429: shed by admission control or a wallet lock timeout. */
+    final LongAdder throttled = new LongAdder();
+    final LongAdder clientErrors = new LongAdder();
+    final LongAdder serverErrors = new LongAdder();
+    /** No response: connection failures and timeouts. */
+    final LongAdder failed = new LongAdder();
+
+    void record(int status, long latencyMicros, long serviceMicros) {
+        latency.recordValue(latencyMicros);
+        serviceTime.recordValue(serviceMicros);
+        if (status >= 200 && status < 300) {
+            succeeded.increment();
+        } else if (status == 429) {
+            throttled.increment();
+        } else if (status < 500) {
+            clientErrors.increment();
+        } else {
+            serverErrors.increment();
+        }
+    }
+
+    void recordFailure(long latencyMicros) {
+        latency.recordValue(latencyMicros);
+        failed.increment();
+    }
+
+    long count() {
+        return latency.getTotalCount();
+    }
+}
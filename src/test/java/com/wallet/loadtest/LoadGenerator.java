@@ -0,0 +1,239 @@
+package com.wallet.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator for the wallet API. Requests are sent at the times
+ * the {@link ArrivalSchedule} gives, without waiting for earlier responses, so a
+ * slow server builds a backlog the way real clients would and the recorded latency
+ * includes the time spent in it.
+ * <p>
+ * A run seeds {@code wallets} funded wallets, sends the warm-up schedule without
+ * recording it, then the measured schedule. Each request picks an operation by
+ * the mix weights and its wallets by a Zipf distribution over the pool.
+ */
+final class LoadGenerator {
+
+    private static final BigDecimal SEED_BALANCE = new BigDecimal("1000000");
+    private static final int SEED_THREADS = 8;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final LoadProfile profile;
+    private final String baseUrl;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(REQUEST_TIMEOUT)
+            .build();
+
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final ZipfDistribution zipf;
+    private UUID[] wallets;
+
+    private final AtomicLong outstanding = new AtomicLong();
+
+    LoadGenerator(LoadProfile profile, String baseUrl) {
+        this.profile = profile;
+        this.baseUrl = baseUrl;
+        this.operations = profile.mix().keySet().toArray(Operation[]::new);
+        this.cumulativeWeights = new int[operations.length];
+        int sum = 0;
+        for (int i = 0; i < operations.length; i++) {
+            sum += profile.mix().get(operations[i]);
+            cumulativeWeights[i] = sum;
+        }
+        this.zipf = new ZipfDistribution(profile.wallets(), profile.zipfExponent());
+    }
+
+    LoadReport run() throws Exception {
+        System.out.printf("Load test against %s: %d wallets (zipf %.2f), warm-up %s, measured %s%n",
+                baseUrl, profile.wallets(), profile.zipfExponent(), profile.warmup(), profile.schedule());
+        long seedStarted = System.nanoTime();
+        wallets = seedWallets(profile.wallets());
+        System.out.printf("Seeded %d wallets in %d ms%n", wallets.length,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - seedStarted));
+
+        runPhase("warm-up", profile.warmup(), null);
+
+        Map<Operation, EndpointStats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : operations) {
+            stats.put(operation, new EndpointStats());
+        }
+        long elapsed = runPhase("measured", profile.schedule(), stats);
+        return new LoadReport(profile, stats, elapsed);
+    }
+
+    // -------------------------------------------------------------
+    // DISPATCH
+    // -------------------------------------------------------------
+
+    /** Sends the schedule's requests and waits for all of them; returns the phase's wall time. */
+    private long runPhase(String phase, ArrivalSchedule schedule, Map<Operation, EndpointStats> stats)
+            throws InterruptedException {
+        Random random = new Random();
+        long count = schedule.count();
+        long start = System.nanoTime();
+        long nextProgress = start + PROGRESS_INTERVAL_NANOS;
+
+        for (long n = 0; n < count; n++) {
+            long intended = start + schedule.offsetNanos(n);
+            long delay;
+            while ((delay = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            if (intended >= nextProgress) {
+                System.out.printf("[%s] %,d of %,d sent, %,d in flight%n", phase, n, count, outstanding.get());
+                nextProgress += PROGRESS_INTERVAL_NANOS;
+            }
+
+            Operation operation = pick(random);
+            HttpRequest request = request(operation, random);
+            outstanding.incrementAndGet();
+            long sent = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                long done = System.nanoTime();
+                if (stats != null) {
+                    EndpointStats endpoint = stats.get(operation);
+                    long latency = TimeUnit.NANOSECONDS.toMicros(done - intended);
+                    if (error != null) {
+                        endpoint.recordFailure(latency);
+                    } else {
+                        endpoint.record(response.statusCode(), latency, TimeUnit.NANOSECONDS.toMicros(done - sent));
+                    }
+                }
+                outstanding.decrementAndGet();
+            });
+        }
+
+        long deadline = System.nanoTime() + REQUEST_TIMEOUT.toNanos() * 2;
+        while (outstanding.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        if (outstanding.get() > 0) {
+            throw new IllegalStateException(outstanding.get() + " requests of the " + phase + " phase never completed");
+        }
+        return System.nanoTime() - start;
+    }
+
+    private Operation pick(Random random) {
+        int draw = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (draw < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        throw new IllegalStateException("unreachable");
+    }
+
+    private HttpRequest request(Operation operation, Random random) {
+        UUID wallet = wallets[zipf.sample(random)];
+        return switch (operation) {
+            case CREATE -> post("/api/wallets", "{\"userId\": \"" + UUID.randomUUID() + "\"}");
+            case DEPOSIT -> post("/api/wallets/" + wallet + "/deposit", amount(random, 100));
+            case WITHDRAW -> post("/api/wallets/" + wallet + "/withdraw", amount(random, 50));
+            case TRANSFER -> {
+                UUID to = wallets[zipf.sample(random)];
+                while (to.equals(wallet) && wallets.length > 1) {
+                    to = wallets[random.nextInt(wallets.length)];
+                }
+                yield post("/api/wallets/transfer", "{\"fromWalletId\": \"" + wallet + "\", \"toWalletId\": \""
+                        + to + "\", \"amount\": " + decimal(random, 50) + "}");
+            }
+            case HISTORY -> get("/api/wallets/" + wallet + "/transactions?page=0&size=20");
+            case BALANCE -> get("/api/wallets/" + wallet + "/balance");
+        };
+    }
+
+    private static String amount(Random random, int max) {
+        return "{\"amount\": " + decimal(random, max) + "}";
+    }
+
+    /** An amount from 0.01 to {@code max - 1}.99, with cents. */
+    private static String decimal(Random random, int max) {
+        return random.nextInt(max) + "." + String.format("%02d", 1 + random.nextInt(99));
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .GET()
+                .build();
+    }
+
+    // -------------------------------------------------------------
+    // SEEDING
+    // -------------------------------------------------------------
+
+    private UUID[] seedWallets(int count) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(SEED_THREADS);
+        try {
+            List<Future<UUID>> created = new ArrayList<>(count);
+            SplittableRandom random = new SplittableRandom();
+            for (int i = 0; i < count; i++) {
+                UUID userId = new UUID(random.nextLong(), random.nextLong());
+                created.add(executor.submit(() -> seedWallet(userId)));
+            }
+            UUID[] ids = new UUID[count];
+            for (int i = 0; i < count; i++) {
+                ids[i] = created.get(i).get();
+            }
+            return ids;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private UUID seedWallet(UUID userId) throws IOException, InterruptedException {
+        JsonNode wallet = objectMapper.readTree(send(post("/api/wallets", "{\"userId\": \"" + userId + "\"}")));
+        UUID walletId = UUID.fromString(wallet.path("id").asText());
+        send(post("/api/wallets/" + walletId + "/deposit", "{\"amount\": " + SEED_BALANCE + "}"));
+        return walletId;
+    }
+
+    /** Sends a seeding request, backing off while the service sheds load. */
+    private String send(HttpRequest request) throws IOException, InterruptedException {
+        for (int attempt = 0; ; attempt++) {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() / 100 == 2) {
+                return response.body();
+            }
+            if (response.statusCode() != 429 || attempt == 50) {
+                throw new IllegalStateException("Seeding " + request.uri() + " failed with "
+                        + response.statusCode() + ": " + response.body());
+            }
+            Thread.sleep(20L * (attempt + 1));
+        }
+    }
+}
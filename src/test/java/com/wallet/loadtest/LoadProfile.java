@@ -0,0 +1,85 @@
+package com.wallet.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Settings of a load test run, read from {@code loadtest.*} system properties:
+ * <ul>
+ *   <li>{@code url}: base URL of a running instance; empty to use the embedded one;</li>
+ *   <li>{@code wallets}, {@code zipf-exponent}: wallet pool and how skewed its traffic is;</li>
+ *   <li>{@code arrival} ({@code constant} or {@code ramp}), {@code rate}, {@code start-rate}
+ *       (ramp only), {@code warmup-seconds}, {@code duration-seconds};</li>
+ *   <li>{@code mix}: relative weights, e.g. {@code balance=30,deposit=20,transfer=20};</li>
+ *   <li>{@code label}, {@code report-dir}: where the reports of this build go.</li>
+ * </ul>
+ */
+record LoadProfile(String url,
+                   int wallets,
+                   double zipfExponent,
+                   ArrivalSchedule warmup,
+                   ArrivalSchedule schedule,
+                   Map<Operation, Integer> mix,
+                   String label,
+                   Path reportDirectory) {
+
+    static final String DEFAULT_MIX = "create=2,deposit=20,withdraw=15,transfer=20,history=13,balance=30";
+
+    static LoadProfile fromSystemProperties() {
+        double rate = Double.parseDouble(property("rate", "200"));
+        Duration warmupDuration = Duration.ofSeconds(Long.parseLong(property("warmup-seconds", "10")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(property("duration-seconds", "60")));
+
+        String arrival = property("arrival", "constant").toLowerCase(Locale.ROOT);
+        ArrivalSchedule warmup;
+        ArrivalSchedule schedule;
+        switch (arrival) {
+            case "constant" -> {
+                warmup = ArrivalSchedule.constant(rate, warmupDuration);
+                schedule = ArrivalSchedule.constant(rate, duration);
+            }
+            case "ramp" -> {
+                double startRate = Double.parseDouble(property("start-rate", "10"));
+                warmup = ArrivalSchedule.constant(Math.max(startRate, 1), warmupDuration);
+                schedule = ArrivalSchedule.ramp(startRate, rate, duration);
+            }
+            default -> throw new IllegalArgumentException("loadtest.arrival must be constant or ramp: " + arrival);
+        }
+
+        return new LoadProfile(
+                property("url", ""),
+                Integer.parseInt(property("wallets", "1000")),
+                Double.parseDouble(property("zipf-exponent", "1.0")),
+                warmup,
+                schedule,
+                parseMix(property("mix", DEFAULT_MIX)),
+                property("label", "current"),
+                Path.of(property("report-dir", "target/loadtest")));
+    }
+
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Mix entries are operation=weight: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight: " + entry);
+            }
+            weights.put(Operation.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), weight);
+        }
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("Mix has no operations: " + mix);
+        }
+        return weights;
+    }
+
+    private static String property(String name, String defaultValue) {
+        return System.getProperty("loadtest." + name, defaultValue);
+    }
+}
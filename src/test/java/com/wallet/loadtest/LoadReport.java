@@ -0,0 +1,115 @@
+package com.wallet.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Per-endpoint throughput and latency percentiles of a measured phase.
+ * <p>
+ * {@link #write()} leaves, under {@code report-dir}, one {@code <label>-<operation>.hgrm}
+ * percentile distribution per operation (plottable with the HdrHistogram plotter) and a
+ * {@code <label>-summary.csv}; runs of two builds with different labels compare side by side.
+ */
+final class LoadReport {
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+    private static final String ALL = "ALL";
+
+    private final LoadProfile profile;
+    private final Map<Operation, EndpointStats> stats;
+    private final double seconds;
+
+    LoadReport(LoadProfile profile, Map<Operation, EndpointStats> stats, long elapsedNanos) {
+        this.profile = profile;
+        this.stats = stats;
+        this.seconds = elapsedNanos / 1e9;
+    }
+
+    long count() {
+        return stats.values().stream().mapToLong(EndpointStats::count).sum();
+    }
+
+    long serverErrors() {
+        return stats.values().stream().mapToLong(s -> s.serverErrors.sum()).sum();
+    }
+
+    long failed() {
+        return stats.values().stream().mapToLong(s -> s.failed.sum()).sum();
+    }
+
+    void print(PrintStream out) {
+        out.printf("%n%-36s %9s %8s %8s %6s %6s %6s %6s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint (latency in ms)", "requests", "req/s", "2xx", "429", "4xx", "5xx", "fail",
+                "p50", "p90", "p99", "p99.9", "max", "svc p99");
+        Histogram allLatency = new Histogram(3);
+        Histogram allService = new Histogram(3);
+        EndpointStats total = new EndpointStats();
+        for (Map.Entry<Operation, EndpointStats> entry : stats.entrySet()) {
+            EndpointStats endpoint = entry.getValue();
+            if (endpoint.count() == 0) {
+                continue;
+            }
+            printRow(out, entry.getKey().endpoint(), endpoint, endpoint.latency, endpoint.serviceTime);
+            allLatency.add(endpoint.latency);
+            allService.add(endpoint.serviceTime);
+            total.succeeded.add(endpoint.succeeded.sum());
+            total.throttled.add(endpoint.throttled.sum());
+            total.clientErrors.add(endpoint.clientErrors.sum());
+            total.serverErrors.add(endpoint.serverErrors.sum());
+            total.failed.add(endpoint.failed.sum());
+        }
+        printRow(out, ALL, total, allLatency, allService);
+        out.printf("Latency is measured from each request's scheduled start; svc p99 from when it was sent.%n");
+    }
+
+    private void printRow(PrintStream out, String name, EndpointStats endpoint, Histogram latency, Histogram service) {
+        long count = latency.getTotalCount();
+        out.printf(Locale.ROOT, "%-36s %9d %8.1f %8d %6d %6d %6d %6d %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                name, count, count / seconds,
+                endpoint.succeeded.sum(), endpoint.throttled.sum(), endpoint.clientErrors.sum(),
+                endpoint.serverErrors.sum(), endpoint.failed.sum(),
+                millis(latency, 50), millis(latency, 90), millis(latency, 99), millis(latency, 99.9),
+                latency.getMaxValue() / MICROS_PER_MILLI, millis(service, 99));
+    }
+
+    void write() throws IOException {
+        Path directory = profile.reportDirectory();
+        Files.createDirectories(directory);
+        Path summary = directory.resolve(profile.label() + "-summary.csv");
+        try (Writer csv = Files.newBufferedWriter(summary)) {
+            csv.write("label,operation,requests,throughput,succeeded,throttled,client_errors,server_errors,failed,"
+                    + "p50_ms,p90_ms,p99_ms,p999_ms,max_ms,service_p99_ms\n");
+            for (Map.Entry<Operation, EndpointStats> entry : stats.entrySet()) {
+                EndpointStats endpoint = entry.getValue();
+                if (endpoint.count() == 0) {
+                    continue;
+                }
+                Histogram latency = endpoint.latency;
+                csv.write(String.format(Locale.ROOT, "%s,%s,%d,%.1f,%d,%d,%d,%d,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f%n",
+                        profile.label(), entry.getKey().name().toLowerCase(Locale.ROOT), endpoint.count(),
+                        endpoint.count() / seconds, endpoint.succeeded.sum(), endpoint.throttled.sum(),
+                        endpoint.clientErrors.sum(), endpoint.serverErrors.sum(), endpoint.failed.sum(),
+                        millis(latency, 50), millis(latency, 90), millis(latency, 99), millis(latency, 99.9),
+                        latency.getMaxValue() / MICROS_PER_MILLI, millis(endpoint.serviceTime, 99)));
+
+                Path distribution = directory.resolve(
+                        profile.label() + "-" + entry.getKey().name().toLowerCase(Locale.ROOT) + ".hgrm");
+                try (PrintStream out = new PrintStream(Files.newOutputStream(distribution))) {
+                    latency.outputPercentileDistribution(out, MICROS_PER_MILLI);
+                }
+            }
+        }
+        System.out.println("Reports written to " + directory.toAbsolutePath());
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / MICROS_PER_MILLI;
+    }
+}
@@ -0,0 +1,22 @@
+package com.wallet.loadtest;
+
+/** Wallet API calls the load generator mixes, with the endpoint each one reports under. */
+enum Operation {
+
+    CREATE("POST /api/wallets"),
+    DEPOSIT("POST /api/wallets/{id}/deposit"),
+    WITHDRAW("POST /api/wallets/{id}/withdraw"),
+    TRANSFER("POST /api/wallets/transfer"),
+    HISTORY("GET /api/wallets/{id}/transactions"),
+    BALANCE("GET /api/wallets/{id}/balance");
+
+    private final String endpoint;
+
+    Operation(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    String endpoint() {
+        return endpoint;
+    }
+}
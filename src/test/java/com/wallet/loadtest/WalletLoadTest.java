@@ -0,0 +1,43 @@
+package com.wallet.loadtest;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives the wallet API with {@link LoadGenerator} and reports latency percentiles
+ * and throughput per endpoint.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Dtest=WalletLoadTest}, tuned by the
+ * {@code loadtest.*} properties of {@link LoadProfile}, e.g.
+ * {@code -Dloadtest.arrival=ramp -Dloadtest.start-rate=50 -Dloadtest.rate=2000 -Dloadtest.label=before}.
+ * The embedded application on H2 is the target unless {@code -Dloadtest.url} names
+ * a running instance.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1"
+})
+class WalletLoadTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void walletApiUnderOpenModelLoad() throws Exception {
+        LoadProfile profile = LoadProfile.fromSystemProperties();
+        String baseUrl = profile.url().isEmpty() ? "http://localhost:" + port : profile.url();
+
+        LoadReport report = new LoadGenerator(profile, baseUrl).run();
+        report.print(System.out);
+        report.write();
+
+        assertTrue(report.count() > 0);
+        assertEquals(0, report.serverErrors(), "requests answered 5xx");
+        assertEquals(0, report.failed(), "requests without a response");
+    }
+}
@@ -0,0 +1,129 @@
+package com.wallet.locking;
+
+import com.wallet.payload.CreateWalletRequest;
+import com.wallet.service.WalletService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:walletlocktest;DB_CLOSE_DELAY=-1",
+        "wallet.locks.timeout-ms=1000",
+        "wallet.locks.retry-after-seconds=2",
+        "wallet.admission.per-wallet-limit=50"
+})
+class WalletLockIntegrationTest {
+
+    private static final HttpClient client = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private WalletLocks locks;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void requestsForALockedWalletTimeOutWithoutBlockingOthers() throws Exception {
+        UUID busy = createWallet();
+        UUID other = createWallet();
+        double timeouts = meterRegistry.get("wallet.locks.timeouts").counter().count();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            Future<?> holder = executor.submit(() -> {
+                try (WalletLocks.Held held = locks.tryLock(busy)) {
+                    holding.countDown();
+                    release.await();
+                }
+                return null;
+            });
+            holding.await();
+
+            HttpResponse<String> rejected = post("/api/wallets/" + busy + "/deposit", "{\"amount\": 10}");
+            assertEquals(429, rejected.statusCode());
+            assertEquals("2", rejected.headers().firstValue("Retry-After").orElseThrow());
+            assertTrue(rejected.body().contains("retry later"), rejected.body());
+
+            HttpResponse<String> transfer = post("/api/wallets/transfer",
+                    "{\"fromWalletId\": \"" + other + "\", \"toWalletId\": \"" + busy + "\", \"amount\": 1}");
+            assertEquals(429, transfer.statusCode());
+
+            assertEquals(200, post("/api/wallets/" + other + "/deposit", "{\"amount\": 10}").statusCode());
+            assertEquals(200, client.send(HttpRequest.newBuilder(url("/api/wallets/" + busy)).build(),
+                    HttpResponse.BodyHandlers.ofString()).statusCode());   // reads take no lock
+
+            release.countDown();
+            holder.get();
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+
+        assertEquals(0, new BigDecimal("10").compareTo(walletService.getBalance(other)));
+        assertEquals(0, walletService.getBalance(busy).signum());
+        assertEquals(timeouts + 2, meterRegistry.get("wallet.locks.timeouts").counter().count());
+    }
+
+    @Test
+    void concurrentDepositsToOneWalletAllApply() throws Exception {
+        UUID walletId = createWallet();
+        ExecutorService executor = Executors.newFixedThreadPool(15);
+        try {
+            List<Future<Integer>> statuses = new ArrayList<>();
+            for (int i = 0; i < 15; i++) {
+                statuses.add(executor.submit(() ->
+                        post("/api/wallets/" + walletId + "/deposit", "{\"amount\": 1}").statusCode()));
+            }
+            for (Future<Integer> status : statuses) {
+                assertEquals(200, status.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(0, new BigDecimal("15").compareTo(walletService.getBalance(walletId)));
+        assertEquals(0, locks.queued());
+    }
+
+    private UUID createWallet() {
+        CreateWalletRequest request = new CreateWalletRequest();
+        request.setUserId(UUID.randomUUID());
+        return walletService.createWallet(request).getId();
+    }
+
+    private HttpResponse<String> post(String path, String json) throws Exception {
+        return client.send(HttpRequest.newBuilder(url(path))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(json))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI url(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
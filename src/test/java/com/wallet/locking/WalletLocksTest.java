@@ -0,0 +1,158 @@
+package com.wallet.locking;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WalletLocksTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void waitersAreServedInArrivalOrder() throws Exception {
+        WalletLocks locks = locks(5_000);
+        UUID wallet = UUID.randomUUID();
+        List<Integer> served = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> waiters = new ArrayList<>();
+
+        try (WalletLocks.Held held = locks.tryLock(wallet)) {
+            for (int i = 0; i < 5; i++) {
+                int index = i;
+                Thread waiter = new Thread(() -> {
+                    try (WalletLocks.Held turn = locks.tryLock(wallet)) {
+                        assertNotNull(turn);
+                        served.add(index);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                waiter.start();
+                waiters.add(waiter);
+                awaitQueued(locks, i + 1);
+            }
+            assertEquals(5, meterRegistry.get("wallet.locks.queued").gauge().value());
+        }
+        for (Thread waiter : waiters) {
+            waiter.join(5_000);
+        }
+
+        assertEquals(List.of(0, 1, 2, 3, 4), served);
+        assertEquals(0, locks.queued());
+        assertEquals(6, meterRegistry.get("wallet.locks.wait").timer().count());
+    }
+
+    @Test
+    void givesUpAfterTheTimeout() throws Exception {
+        WalletLocks locks = locks(100);
+        UUID busy = UUID.randomUUID();
+        UUID idle = otherStripe(busy);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            Future<?> holder = executor.submit(() -> {
+                try (WalletLocks.Held held = locks.tryLock(busy)) {
+                    holding.countDown();
+                    release.await();
+                }
+                return null;
+            });
+            holding.await();
+
+            long started = System.nanoTime();
+            assertNull(locks.tryLock(idle, busy));
+            assertTrue(System.nanoTime() - started >= TimeUnit.MILLISECONDS.toNanos(100));
+            assertEquals(1, meterRegistry.get("wallet.locks.timeouts").counter().count());
+
+            // the stripe taken before the timeout was released again
+            assertTrue(CompletableFuture.supplyAsync(() -> lockAndRelease(locks, idle)).get());
+
+            release.countDown();
+            holder.get();
+            try (WalletLocks.Held held = locks.tryLock(idle, busy)) {
+                assertNotNull(held);
+            }
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void transfersInOppositeDirectionsDoNotDeadlock() throws Exception {
+        WalletLocks locks = locks(5_000);
+        UUID a = UUID.randomUUID();
+        UUID b = otherStripe(a);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> forward = executor.submit(() -> transfer(locks, a, b, 10_000));
+            Future<Integer> backward = executor.submit(() -> transfer(locks, b, a, 10_000));
+            assertEquals(10_000, forward.get(30, TimeUnit.SECONDS));
+            assertEquals(10_000, backward.get(30, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(0, meterRegistry.get("wallet.locks.timeouts").counter().count());
+    }
+
+    private WalletLocks locks(long timeoutMs) {
+        WalletLockProperties properties = new WalletLockProperties();
+        properties.setStripes(64);
+        properties.setTimeoutMs(timeoutMs);
+        return new WalletLocks(properties, meterRegistry);
+    }
+
+    private static int transfer(WalletLocks locks, UUID from, UUID to, int times) throws InterruptedException {
+        int done = 0;
+        for (int i = 0; i < times; i++) {
+            try (WalletLocks.Held held = locks.tryLock(from, to)) {
+                if (held != null) {
+                    done++;
+                }
+            }
+        }
+        return done;
+    }
+
+    private static boolean lockAndRelease(WalletLocks locks, UUID walletId) {
+        try (WalletLocks.Held held = locks.tryLock(walletId)) {
+            return held != null;
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void awaitQueued(WalletLocks locks, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (locks.queued() < expected) {
+            assertTrue(System.nanoTime() < deadline, "waiter did not queue");
+            Thread.sleep(1);
+        }
+    }
+
+    /** A wallet on a different stripe of the 64, so the two never share a lock. */
+    private static UUID otherStripe(UUID walletId) {
+        UUID other;
+        do {
+            other = UUID.randomUUID();
+        } while (stripe(other) == stripe(walletId));
+        return other;
+    }
+
+    private static int stripe(UUID walletId) {
+        int h = walletId.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), 64);
+    }
+}
@@ -0,0 +1,186 @@
+package com.wallet.migration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.model.Transaction;
+import com.wallet.payload.CreateWalletRequest;
+import com.wallet.payload.DepositWithdrawRequest;
+import com.wallet.payload.TransferRequest;
+import com.wallet.payload.TransferResponse;
+import com.wallet.service.WalletService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:counterpartytest;DB_CLOSE_DELAY=-1",
+        "wallet.migration.counterparty-backfill.enabled=false",
+        "wallet.migration.counterparty-backfill.batch-size=3",
+        "wallet.migration.counterparty-backfill.pause-ms=0"
+})
+class CounterpartyBackfillIntegrationTest {
+
+    private static final HttpClient client = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private CounterpartyBackfillMigration migration;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void backfillsLegacyTransferRowsInBatches() {
+        UUID from = createWallet("1000");
+        UUID to = createWallet(null);
+        List<TransferResponse> transfers = new ArrayList<>();
+        transfers.add(transfer(from, to, "10", "Rent"));
+        transfers.add(transfer(from, to, "20", null));
+        transfers.add(transfer(to, from, "5", "Refund [note]"));
+        transfers.add(transfer(from, to, "1", "Rent"));
+
+        // rows as written before the column existed
+        for (TransferResponse transfer : transfers) {
+            makeLegacy(transfer.getFromTransaction().getId(), " [To: " + transfer.getToTransaction().getWalletId() + "]");
+            makeLegacy(transfer.getToTransaction().getId(), " [From: " + transfer.getFromTransaction().getWalletId() + "]");
+        }
+        assertEquals(8, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transactions WHERE counterparty_wallet_id IS NULL AND type LIKE 'TRANSFER_%'",
+                Long.class));
+
+        // 8 rows in batches of 3
+        assertEquals(8, migration.run());
+        assertEquals(0, migration.run());   // nothing left to do
+
+        TransferResponse rent = transfers.get(0);
+        assertEquals(to, counterparty(rent.getFromTransaction().getId()));
+        assertEquals(from, counterparty(rent.getToTransaction().getId()));
+        assertEquals("Rent", remarks(rent.getFromTransaction().getId()));
+        // a remark that was only the suffix becomes null, other brackets are kept
+        assertNull(remarks(transfers.get(1).getFromTransaction().getId()));
+        assertEquals("Refund [note]", remarks(transfers.get(2).getToTransaction().getId()));
+        assertEquals(to, counterparty(transfers.get(2).getToTransaction().getId()));
+
+        // deposits are never touched
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transactions WHERE wallet_id = ? AND type = 'DEPOSIT' "
+                        + "AND counterparty_wallet_id IS NULL", Long.class, from));
+    }
+
+    @Test
+    void listsTransfersAndCounterpartiesOfAWallet() throws Exception {
+        UUID wallet = createWallet("100");
+        UUID friend = createWallet("100");
+        UUID shop = createWallet(null);
+        transfer(wallet, friend, "10", null);
+        transfer(wallet, friend, "20", null);
+        transfer(friend, wallet, "5", null);
+        transfer(wallet, shop, "1", null);
+
+        JsonNode page = get("/api/wallets/" + wallet + "/transfers/" + friend + "?page=0&size=2");
+        assertEquals(3, page.get("totalElements").asInt());
+        JsonNode content = page.get("content");
+        assertEquals(2, content.size());
+        // latest first, both directions, as recorded on the wallet
+        assertEquals(Transaction.TransactionType.TRANSFER_IN.name(), content.get(0).get("type").asText());
+        assertEquals(0, new BigDecimal("5").compareTo(content.get(0).get("amount").decimalValue()));
+        assertEquals(Transaction.TransactionType.TRANSFER_OUT.name(), content.get(1).get("type").asText());
+        for (JsonNode transfer : content) {
+            assertEquals(wallet.toString(), transfer.get("walletId").asText());
+            assertEquals(friend.toString(), transfer.get("counterpartyWalletId").asText());
+        }
+        assertEquals(0, get("/api/wallets/" + wallet + "/transfers/" + UUID.randomUUID()).get("totalElements").asInt());
+
+        JsonNode counterparties = get("/api/wallets/" + wallet + "/counterparties");
+        assertEquals(2, counterparties.size());
+        // most recently active first
+        JsonNode first = counterparties.get(0);
+        assertEquals(shop.toString(), first.get("counterpartyWalletId").asText());
+        assertEquals(1, first.get("transferCount").asLong());
+        assertEquals(0, BigDecimal.ONE.compareTo(first.get("totalSent").decimalValue()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(first.get("totalReceived").decimalValue()));
+        JsonNode second = counterparties.get(1);
+        assertEquals(friend.toString(), second.get("counterpartyWalletId").asText());
+        assertEquals(3, second.get("transferCount").asLong());
+        assertEquals(0, new BigDecimal("30").compareTo(second.get("totalSent").decimalValue()));
+        assertEquals(0, new BigDecimal("5").compareTo(second.get("totalReceived").decimalValue()));
+
+        assertEquals(0, get("/api/wallets/" + shop + "/transfers/" + friend).get("totalElements").asInt());
+        assertEquals(1, get("/api/wallets/" + shop + "/counterparties").size());
+    }
+
+    // -------------------------------------------------------------
+    // HELPERS
+    // -------------------------------------------------------------
+
+    private void makeLegacy(UUID transactionId, String suffix) {
+        jdbcTemplate.update("UPDATE transactions SET counterparty_wallet_id = NULL, "
+                + "remarks = COALESCE(remarks, '') || ? WHERE id = ?", suffix, transactionId);
+    }
+
+    private UUID counterparty(UUID transactionId) {
+        return jdbcTemplate.queryForObject("SELECT counterparty_wallet_id FROM transactions WHERE id = ?",
+                UUID.class, transactionId);
+    }
+
+    private String remarks(UUID transactionId) {
+        return jdbcTemplate.queryForObject("SELECT remarks FROM transactions WHERE id = ?",
+                String.class, transactionId);
+    }
+
+    private JsonNode get(String path) throws Exception {
+        HttpResponse<String> response = client.send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), response.body());
+        return objectMapper.readTree(response.body());
+    }
+
+    private TransferResponse transfer(UUID from, UUID to, String amount, String remarks) {
+        TransferRequest request = new TransferRequest();
+        request.setFromWalletId(from);
+        request.setToWalletId(to);
+        request.setAmount(new BigDecimal(amount));
+        request.setRemarks(remarks);
+        TransferResponse response = walletService.transfer(request);
+        try {
+            Thread.sleep(2);   // distinct timestamps for the latest-first orderings
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return response;
+    }
+
+    private UUID createWallet(String deposit) {
+        CreateWalletRequest request = new CreateWalletRequest();
+        request.setUserId(UUID.randomUUID());
+        UUID walletId = walletService.createWallet(request).getId();
+        if (deposit != null) {
+            DepositWithdrawRequest depositRequest = new DepositWithdrawRequest();
+            depositRequest.setAmount(new BigDecimal(deposit));
+            walletService.deposit(walletId, depositRequest);
+        }
+        return walletId;
+    }
+}
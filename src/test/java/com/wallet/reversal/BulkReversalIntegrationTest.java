@@ -0,0 +1,222 @@
+package com.wallet.reversal;
+
+import com.wallet.model.ReversalJob;
+import com.wallet.model.ReversalJobItem;
+import com.wallet.model.Transaction;
+import com.wallet.payload.BulkReversalRequest;
+import com.wallet.payload.CreateWalletRequest;
+import com.wallet.payload.DepositWithdrawRequest;
+import com.wallet.payload.ReversalItemDTO;
+import com.wallet.payload.ReversalJobDTO;
+import com.wallet.payload.TransactionDTO;
+import com.wallet.payload.TransactionHistoryRequest;
+import com.wallet.payload.TransferRequest;
+import com.wallet.service.WalletService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:reversaltest;DB_CLOSE_DELAY=-1",
+        "wallet.reversal.chunk-size=2",
+        "wallet.reversal.stage-batch-size=3"
+})
+class BulkReversalIntegrationTest {
+
+    @Autowired
+    private BulkReversalService bulkReversalService;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void reversesListedTransactionsAndReportsEachOutcome() throws Exception {
+        UUID active = createWallet();
+        deposit(active, "200");
+        UUID depositA = deposit(active, "100");
+        UUID depositB = deposit(active, "50");
+        UUID withdrawal = withdraw(active, "30");
+        UUID reversedAlready = deposit(active, "5");
+        walletService.reverseTransaction(reversedAlready);
+
+        UUID spent = createWallet();
+        UUID spentDeposit = deposit(spent, "100");
+        withdraw(spent, "80");
+
+        UUID frozen = createWallet();
+        UUID frozenDeposit = deposit(frozen, "10");
+        walletService.freezeWallet(frozen);
+
+        TransferRequest transfer = new TransferRequest();
+        transfer.setFromWalletId(active);
+        transfer.setToWalletId(spent);
+        transfer.setAmount(new BigDecimal("1"));
+        UUID transferOut = walletService.transfer(transfer).getFromTransaction().getId();
+        UUID unknown = UUID.randomUUID();
+
+        BulkReversalRequest request = new BulkReversalRequest();
+        request.setTransactionIds(List.of(depositA, depositB, withdrawal, reversedAlready, spentDeposit,
+                frozenDeposit, transferOut, unknown, depositA));
+        ReversalJobDTO job = awaitDone(bulkReversalService.submit(request).getId());
+
+        assertEquals(8, job.getTotalItems());
+        assertEquals(3, job.getOutcomes().get(ReversalJobItem.Outcome.REVERSED));
+        assertEquals(1, job.getOutcomes().get(ReversalJobItem.Outcome.ALREADY_REVERSED));
+        assertEquals(1, job.getOutcomes().get(ReversalJobItem.Outcome.INSUFFICIENT_FUNDS));
+        assertEquals(1, job.getOutcomes().get(ReversalJobItem.Outcome.WALLET_NOT_ACTIVE));
+        assertEquals(1, job.getOutcomes().get(ReversalJobItem.Outcome.NOT_REVERSIBLE));
+        assertEquals(1, job.getOutcomes().get(ReversalJobItem.Outcome.NOT_FOUND));
+        assertEquals(0, job.getOutcomes().get(ReversalJobItem.Outcome.PENDING));
+
+        // 200 + 100 + 50 - 30 - 1, then the three reversals
+        assertBalance("199", active);
+        assertBalance("21", spent);
+        assertBalance("10", frozen);
+
+        // pages in transaction ID order
+        List<ReversalItemDTO> items = new ArrayList<>();
+        UUID after = null;
+        List<ReversalItemDTO> page;
+        do {
+            page = bulkReversalService.getItems(job.getId(), after, 3);
+            items.addAll(page);
+            after = page.isEmpty() ? null : page.get(page.size() - 1).getTransactionId();
+        } while (page.size() == 3);
+        assertEquals(8, items.size());
+        Map<UUID, ReversalItemDTO> byTransaction = items.stream()
+                .collect(Collectors.toMap(ReversalItemDTO::getTransactionId, i -> i));
+        assertEquals(ReversalJobItem.Outcome.REVERSED, byTransaction.get(depositA).getOutcome());
+        assertEquals(ReversalJobItem.Outcome.NOT_FOUND, byTransaction.get(unknown).getOutcome());
+        assertEquals("Wallet is FROZEN", byTransaction.get(frozenDeposit).getMessage());
+
+        // every reversal is in the wallet's history with its own running balance
+        List<TransactionDTO> history = history(active);
+        TransactionDTO reversal = history.stream()
+                .filter(t -> t.getId().equals(byTransaction.get(depositA).getReversalTransactionId()))
+                .findFirst().orElseThrow();
+        assertEquals(Transaction.TransactionType.WITHDRAWAL, reversal.getType());
+        assertEquals("REV_" + depositA, reversal.getReferenceId());
+        assertEquals(0, history.get(0).getBalanceAfter().compareTo(new BigDecimal("199")));
+
+        // submitting the same list again reverses nothing twice
+        ReversalJobDTO rerun = awaitDone(bulkReversalService.submit(request).getId());
+        assertEquals(4, rerun.getOutcomes().get(ReversalJobItem.Outcome.ALREADY_REVERSED));
+        assertEquals(0, rerun.getOutcomes().get(ReversalJobItem.Outcome.REVERSED));
+        assertBalance("199", active);
+    }
+
+    @Test
+    void reversesTheDepositsAndWithdrawalsMatchingAQuery() throws Exception {
+        UUID wallet = createWallet();
+        for (int i = 1; i <= 5; i++) {
+            deposit(wallet, String.valueOf(i * 10));
+        }
+        UUID withdrawal = withdraw(wallet, "25");
+        walletService.reverseTransaction(withdrawal);
+        UUID other = createWallet();
+        deposit(other, "7");
+
+        BulkReversalRequest request = new BulkReversalRequest();
+        request.setWalletId(wallet);
+        request.setType(Transaction.TransactionType.DEPOSIT);
+        ReversalJobDTO job = awaitDone(bulkReversalService.submit(request).getId());
+
+        // the deposit written by the single reversal is not picked up by the query
+        assertEquals(5, job.getTotalItems());
+        assertEquals(5, job.getOutcomes().get(ReversalJobItem.Outcome.REVERSED));
+        assertBalance("0", wallet);
+        assertBalance("7", other);
+
+        BulkReversalRequest empty = new BulkReversalRequest();
+        empty.setType(Transaction.TransactionType.DEPOSIT);
+        assertThrows(RuntimeException.class, () -> bulkReversalService.submit(empty));
+    }
+
+    @Test
+    void resumesTheItemsAnInterruptedJobLeftPending() throws Exception {
+        UUID wallet = createWallet();
+        UUID done = deposit(wallet, "40");
+        UUID pending = deposit(wallet, "15");
+        walletService.reverseTransaction(done);
+
+        // a job interrupted after its first item, as a restart would leave it
+        UUID jobId = UUID.randomUUID();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO reversal_jobs (id, status, total_items, created_at, updated_at) "
+                + "VALUES (?, 'RUNNING', 2, ?, ?)", jobId, now, now);
+        jdbcTemplate.update("INSERT INTO reversal_job_items (id, job_id, transaction_id, wallet_id, outcome) "
+                + "VALUES (?, ?, ?, ?, 'REVERSED')", UUID.randomUUID(), jobId, done, wallet);
+        jdbcTemplate.update("INSERT INTO reversal_job_items (id, job_id, transaction_id, wallet_id, outcome) "
+                + "VALUES (?, ?, ?, ?, 'PENDING')", UUID.randomUUID(), jobId, pending, wallet);
+
+        bulkReversalService.resume(jobId);
+        ReversalJobDTO job = awaitDone(jobId);
+
+        assertEquals(2, job.getOutcomes().get(ReversalJobItem.Outcome.REVERSED));
+        assertEquals(0, job.getOutcomes().get(ReversalJobItem.Outcome.PENDING));
+        assertBalance("0", wallet);
+        assertEquals(ReversalJob.Status.DONE, bulkReversalService.resume(jobId).getStatus());
+    }
+
+    // -------------------------------------------------------------
+    // HELPERS
+    // -------------------------------------------------------------
+
+    private ReversalJobDTO awaitDone(UUID jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        ReversalJobDTO job = bulkReversalService.getJob(jobId);
+        while (job.getStatus() != ReversalJob.Status.DONE && System.currentTimeMillis() < deadline) {
+            assertNotEquals(ReversalJob.Status.FAILED, job.getStatus(), job.getError());
+            Thread.sleep(20);
+            job = bulkReversalService.getJob(jobId);
+        }
+        assertEquals(ReversalJob.Status.DONE, job.getStatus());
+        return job;
+    }
+
+    /** Reads the stored balance, since the service refuses to report it for FROZEN wallets. */
+    private void assertBalance(String expected, UUID walletId) {
+        BigDecimal balance = jdbcTemplate.queryForObject("SELECT balance FROM wallets WHERE id = ?",
+                BigDecimal.class, walletId);
+        assertEquals(0, new BigDecimal(expected).compareTo(balance), expected + " vs " + balance);
+    }
+
+    private List<TransactionDTO> history(UUID walletId) {
+        TransactionHistoryRequest request = new TransactionHistoryRequest();
+        request.setSize(50);
+        return walletService.getTransactionHistory(walletId, request).getContent();
+    }
+
+    private UUID createWallet() {
+        CreateWalletRequest request = new CreateWalletRequest();
+        request.setUserId(UUID.randomUUID());
+        return walletService.createWallet(request).getId();
+    }
+
+    private UUID deposit(UUID walletId, String amount) {
+        DepositWithdrawRequest request = new DepositWithdrawRequest();
+        request.setAmount(new BigDecimal(amount));
+        return walletService.deposit(walletId, request).getId();
+    }
+
+    private UUID withdraw(UUID walletId, String amount) {
+        DepositWithdrawRequest request = new DepositWithdrawRequest();
+        request.setAmount(new BigDecimal(amount));
+        return walletService.withdraw(walletId, request).getId();
+    }
+}
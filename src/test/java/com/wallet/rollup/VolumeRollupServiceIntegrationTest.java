@@ -0,0 +1,120 @@
+package com.wallet.rollup;
+
+import com.wallet.model.Transaction;
+import com.wallet.model.VolumeRollup;
+import com.wallet.payload.CreateWalletRequest;
+import com.wallet.payload.DepositWithdrawRequest;
+import com.wallet.payload.TransferRequest;
+import com.wallet.payload.VolumeRollupDTO;
+import com.wallet.service.WalletService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:rolluptest;DB_CLOSE_DELAY=-1",
+        "wallet.rollup.flush-interval-ms=600000"
+})
+class VolumeRollupServiceIntegrationTest {
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private VolumeRollupService rollupService;
+
+    @Test
+    void rollsUpCommittedOperationsByTypeAndCurrency() {
+        UUID from = createWallet("EUR");
+        UUID to = createWallet("EUR");
+        deposit(from, "100");
+        deposit(from, "50");
+        DepositWithdrawRequest withdrawal = new DepositWithdrawRequest();
+        withdrawal.setAmount(new BigDecimal("30"));
+        walletService.withdraw(from, withdrawal);
+        TransferRequest transfer = new TransferRequest();
+        transfer.setFromWalletId(from);
+        transfer.setToWalletId(to);
+        transfer.setAmount(new BigDecimal("20"));
+        walletService.transfer(transfer);
+
+        VolumeRollupDTO deposits = total(Transaction.TransactionType.DEPOSIT);
+        assertEquals(2, deposits.getCount());
+        assertEquals(0, new BigDecimal("150").compareTo(deposits.getTotal()));
+        assertEquals(0, new BigDecimal("50").compareTo(deposits.getMin()));
+        assertEquals(0, new BigDecimal("100").compareTo(deposits.getMax()));
+        assertEquals(1, total(Transaction.TransactionType.WITHDRAWAL).getCount());
+        assertEquals(1, total(Transaction.TransactionType.TRANSFER_OUT).getCount());
+        assertEquals(1, total(Transaction.TransactionType.TRANSFER_IN).getCount());
+
+        // flushes only ever add what happened since the previous one
+        rollupService.flush();
+        assertEquals(2, total(Transaction.TransactionType.DEPOSIT).getCount());
+        deposit(to, "7.5");
+        VolumeRollupDTO merged = total(Transaction.TransactionType.DEPOSIT);
+        assertEquals(3, merged.getCount());
+        assertEquals(0, new BigDecimal("157.5").compareTo(merged.getTotal()));
+        assertEquals(0, new BigDecimal("7.5").compareTo(merged.getMin()));
+    }
+
+    @Test
+    void ringKeepsUnflushedVolumeOfRecycledBuckets() {
+        RollupRing ring = new RollupRing(1000, 4, 2);
+        ring.add(1_500, 0, 10);
+        ring.add(1_700, 0, 30);
+        ring.add(2_100, 1, 5);
+        ring.add(5_200, 0, 1);     // recycles the slot of bucket 1
+        ring.add(1_200, 0, 3);     // bucket 1 has left the ring
+
+        List<long[]> cells = new ArrayList<>();
+        ring.read(0, 6, s -> true, (bucket, s, count, sum, min, max) ->
+                cells.add(new long[]{bucket, s, count, sum, min, max}));
+        assertEquals(2, cells.size());
+        assertArrayEquals(new long[]{2, 1, 1, 5, 5, 5}, cells.get(0));
+        assertArrayEquals(new long[]{5, 0, 1, 1, 1, 1}, cells.get(1));
+
+        List<RollupRing.Delta> deltas = ring.drain();
+        assertTrue(deltas.contains(new RollupRing.Delta(1, 0, 2, 40, 10, 30)));
+        assertTrue(deltas.contains(new RollupRing.Delta(1, 0, 1, 3, 3, 3)));
+        assertTrue(deltas.contains(new RollupRing.Delta(2, 1, 1, 5, 5, 5)));
+        assertTrue(deltas.contains(new RollupRing.Delta(5, 0, 1, 1, 1, 1)));
+        assertEquals(4, deltas.size());
+        assertTrue(ring.drain().isEmpty());
+    }
+
+    /** Volume of one type in EUR around now, summed over buckets. */
+    private VolumeRollupDTO total(Transaction.TransactionType type) {
+        LocalDateTime now = LocalDateTime.now();
+        List<VolumeRollupDTO> points = rollupService.query(VolumeRollup.Resolution.HOUR,
+                now.minusHours(2), now.plusHours(2), type, "EUR");
+        VolumeRollupDTO total = new VolumeRollupDTO(null, type, "EUR", 0, BigDecimal.ZERO, null, null);
+        for (VolumeRollupDTO point : points) {
+            total.setCount(total.getCount() + point.getCount());
+            total.setTotal(total.getTotal().add(point.getTotal()));
+            total.setMin(total.getMin() == null ? point.getMin() : total.getMin().min(point.getMin()));
+            total.setMax(total.getMax() == null ? point.getMax() : total.getMax().max(point.getMax()));
+        }
+        return total;
+    }
+
+    private UUID createWallet(String currency) {
+        CreateWalletRequest request = new CreateWalletRequest();
+        request.setUserId(UUID.randomUUID());
+        request.setCurrency(currency);
+        return walletService.createWallet(request).getId();
+    }
+
+    private void deposit(UUID walletId, String amount) {
+        DepositWithdrawRequest request = new DepositWithdrawRequest();
+        request.setAmount(new BigDecimal(amount));
+        walletService.deposit(walletId, request);
+    }
+}
@@ -0,0 +1,13 @@
+package com.wallet.service;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Runs the wallet service scenarios against the plain JDBC store, which must
+ * behave exactly like the JPA one.
+ */
+@SpringBootTest(properties = "wallet.store=jdbc")
+@ActiveProfiles("test")
+class JdbcStoreWalletServiceIntegrationTest extends WalletServiceIntegrationTest {
+}
@@ -196,7 +196,12 @@ class WalletServiceIntegrationTest {
         TransactionDTO firstTransaction = walletService.deposit(walletId, deposit);
         assertNotNull(firstTransaction);
 
-        // Second deposit with same reference should fail (duplicate detection)
+        // Second deposit with same reference replays the first result
+        TransactionDTO retried = walletService.deposit(walletId, deposit);
+        assertEquals(firstTransaction.getId(), retried.getId());
+
+        // The same reference for a different request is rejected
+        deposit.setAmount(new BigDecimal("50.00"));
         assertThrows(DuplicateTransactionException.class, () -> walletService.deposit(walletId, deposit));
 
         // Balance should only reflect first deposit
@@ -0,0 +1,168 @@
+package com.wallet.sharding;
+
+import com.wallet.exception.WalletFrozenException;
+import com.wallet.model.PendingTransfer;
+import com.wallet.payload.*;
+import com.wallet.repository.PendingTransferRepository;
+import com.wallet.repository.WalletRepository;
+import com.wallet.service.WalletService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "wallet.sharding.enabled=true",
+        "wallet.sharding.recovery-grace-ms=0",
+        "wallet.sharding.recovery-interval-ms=3600000",
+        "wallet.sharding.shards[0].url=jdbc:h2:mem:shardtest0;DB_CLOSE_DELAY=-1",
+        "wallet.sharding.shards[1].url=jdbc:h2:mem:shardtest1;DB_CLOSE_DELAY=-1",
+        "wallet.sharding.shards[2].url=jdbc:h2:mem:shardtest2;DB_CLOSE_DELAY=-1"
+})
+class ShardedWalletServiceIntegrationTest {
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private CrossShardTransferCoordinator coordinator;
+
+    @Autowired
+    private PendingTransferRepository pendingTransferRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Test
+    void walletsArePlacedOnEveryShard() {
+        Set<Integer> shards = new HashSet<>();
+        for (int i = 0; i < 30; i++) {
+            WalletDTO wallet = createWallet("100.00");
+            // the wallet ID routes to the shard of its user, where the row was inserted
+            assertEquals(shardRouter.shardFor(wallet.getUserId()), shardRouter.shardFor(wallet.getId()));
+            assertTrue(shardRouter.onShardOf(wallet.getId(), () -> walletRepository.existsById(wallet.getId())));
+            shards.add(shardRouter.shardFor(wallet.getId()));
+            assertEquals(0, new BigDecimal("100.00").compareTo(walletService.getBalance(wallet.getId())));
+        }
+        assertEquals(3, shards.size());
+    }
+
+    @Test
+    void crossShardTransferMovesFundsAndCompletes() {
+        WalletDTO from = createWallet("500.00");
+        WalletDTO to = createWalletOnOtherShard(from.getId(), "0.00");
+
+        TransferRequest request = transferRequest(from.getId(), to.getId(), "200.00");
+        TransferResponse response = walletService.transfer(request);
+
+        assertNotNull(response.getToTransaction());
+        assertEquals(0, new BigDecimal("300.00").compareTo(walletService.getBalance(from.getId())));
+        assertEquals(0, new BigDecimal("200.00").compareTo(walletService.getBalance(to.getId())));
+
+        List<PendingTransfer> transfers = shardRouter.onShardOf(from.getId(), pendingTransferRepository::findAll);
+        assertTrue(transfers.stream().anyMatch(t ->
+                t.getOutTransactionId().equals(response.getFromTransaction().getId())
+                        && t.getStatus() == PendingTransfer.Status.COMPLETED));
+    }
+
+    @Test
+    void crossShardTransferToFrozenWalletMovesNothing() {
+        WalletDTO from = createWallet("500.00");
+        WalletDTO to = createWalletOnOtherShard(from.getId(), "0.00");
+        walletService.freezeWallet(to.getId());
+
+        assertThrows(WalletFrozenException.class,
+                () -> walletService.transfer(transferRequest(from.getId(), to.getId(), "200.00")));
+        assertEquals(0, new BigDecimal("500.00").compareTo(walletService.getBalance(from.getId())));
+    }
+
+    @Test
+    void recoveryCompletesDebitedTransfer() {
+        WalletDTO from = createWallet("500.00");
+        WalletDTO to = createWalletOnOtherShard(from.getId(), "0.00");
+
+        // Simulate a crash between the debit and the credit
+        PendingTransfer transfer = coordinator.prepare(transferRequest(from.getId(), to.getId(), "150.00"));
+        coordinator.debit(transfer);
+        assertEquals(0, BigDecimal.ZERO.compareTo(walletService.getBalance(to.getId())));
+
+        coordinator.recoverPendingTransfers();
+        coordinator.recoverPendingTransfers();   // a second pass must not credit twice
+
+        assertEquals(0, new BigDecimal("350.00").compareTo(walletService.getBalance(from.getId())));
+        assertEquals(0, new BigDecimal("150.00").compareTo(walletService.getBalance(to.getId())));
+        assertEquals(PendingTransfer.Status.COMPLETED, shardRouter.onShardOf(from.getId(),
+                () -> pendingTransferRepository.findById(transfer.getId()).orElseThrow().getStatus()));
+    }
+
+    @Test
+    void recoveryRefundsTransferRejectedByDestination() {
+        WalletDTO from = createWallet("500.00");
+        WalletDTO to = createWalletOnOtherShard(from.getId(), "0.00");
+
+        PendingTransfer transfer = coordinator.prepare(transferRequest(from.getId(), to.getId(), "150.00"));
+        coordinator.debit(transfer);
+        walletService.freezeWallet(to.getId());
+
+        coordinator.recoverPendingTransfers();
+
+        assertEquals(0, new BigDecimal("500.00").compareTo(walletService.getBalance(from.getId())));
+        assertEquals(PendingTransfer.Status.REFUNDED, shardRouter.onShardOf(from.getId(),
+                () -> pendingTransferRepository.findById(transfer.getId()).orElseThrow().getStatus()));
+    }
+
+    @Test
+    void batchLookupSpansShards() {
+        WalletDTO first = createWallet("10.00");
+        WalletDTO second = createWalletOnOtherShard(first.getId(), "20.00");
+        UUID unknown = UUID.randomUUID();
+
+        BatchWalletResponse response = walletService.getWallets(List.of(second.getId(), unknown, first.getId()));
+
+        assertEquals(List.of(second.getId(), first.getId()),
+                response.getWallets().stream().map(WalletDTO::getId).toList());
+        assertEquals(List.of(unknown), response.getMissing());
+    }
+
+    private WalletDTO createWalletOnOtherShard(UUID walletId, String balance) {
+        int shard = shardRouter.shardFor(walletId);
+        while (true) {
+            WalletDTO wallet = createWallet(balance);
+            if (shardRouter.shardFor(wallet.getId()) != shard) {
+                return wallet;
+            }
+        }
+    }
+
+    private WalletDTO createWallet(String balance) {
+        CreateWalletRequest request = new CreateWalletRequest();
+        request.setUserId(UUID.randomUUID());
+        request.setCurrency("USD");
+        WalletDTO wallet = walletService.createWallet(request);
+
+        if (new BigDecimal(balance).signum() > 0) {
+            DepositWithdrawRequest deposit = new DepositWithdrawRequest();
+            deposit.setAmount(new BigDecimal(balance));
+            walletService.deposit(wallet.getId(), deposit);
+        }
+        return wallet;
+    }
+
+    private TransferRequest transferRequest(UUID from, UUID to, String amount) {
+        TransferRequest request = new TransferRequest();
+        request.setFromWalletId(from);
+        request.setToWalletId(to);
+        request.setAmount(new BigDecimal(amount));
+        return request;
+    }
+}
@@ -0,0 +1,191 @@
+package com.wallet.sql;
+
+import com.wallet.model.Wallet;
+import com.wallet.payload.CreateWalletRequest;
+import com.wallet.payload.DepositWithdrawRequest;
+import com.wallet.payload.TransactionDTO;
+import com.wallet.payload.TransactionHistoryRequest;
+import com.wallet.payload.TransferRequest;
+import com.wallet.service.WalletMonitoringService;
+import com.wallet.service.WalletService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.Properties;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Fails when a wallet operation sends more SQL than its budget in
+ * {@code sql-budget.properties}, and when a read repeats the same SELECT
+ * (an N+1 pattern). Each operation prints the statements it ran.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sqlbudget;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN",
+        // no scheduled SQL while flushes are counted
+        "wallet.rollup.enabled=false",
+        "wallet.migration.counterparty-backfill.enabled=false"
+})
+@Import(SqlRecorder.class)
+class SqlBudgetTest {
+
+    private static final Properties BUDGET = new Properties();
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private WalletMonitoringService monitoringService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private UUID walletId;
+    private UUID otherWalletId;
+
+    @BeforeAll
+    static void loadBudget() throws IOException {
+        try (InputStream in = SqlBudgetTest.class.getResourceAsStream("/sql-budget.properties")) {
+            assertNotNull(in, "sql-budget.properties missing");
+            BUDGET.load(in);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        walletId = newWallet();
+        otherWalletId = newWallet();
+        walletService.deposit(walletId, amount("1000", null));
+    }
+
+    @Test
+    void createWallet() {
+        CreateWalletRequest request = new CreateWalletRequest();
+        request.setUserId(UUID.randomUUID());
+        check("create-wallet", () -> walletService.createWallet(request));
+    }
+
+    @Test
+    void deposit() {
+        check("deposit", () -> walletService.deposit(walletId, amount("10", null)));
+    }
+
+    @Test
+    void depositWithReference() {
+        check("deposit-with-reference",
+                () -> walletService.deposit(walletId, amount("10", "REF-" + UUID.randomUUID())));
+    }
+
+    @Test
+    void withdraw() {
+        check("withdraw", () -> walletService.withdraw(walletId, amount("10", null)));
+    }
+
+    @Test
+    void transfer() {
+        TransferRequest request = new TransferRequest();
+        request.setFromWalletId(walletId);
+        request.setToWalletId(otherWalletId);
+        request.setAmount(new BigDecimal("25"));
+        check("transfer", () -> walletService.transfer(request));
+    }
+
+    @Test
+    void reverse() {
+        TransactionDTO deposit = walletService.deposit(walletId, amount("10", null));
+        check("reverse", () -> walletService.reverseTransaction(deposit.getId()));
+    }
+
+    @Test
+    void getWallet() {
+        checkRead("get-wallet", () -> walletService.getWallet(walletId));
+    }
+
+    @Test
+    void historyFirstPage() {
+        history(0, 20);   // loads the wallet's recent transactions
+        checkRead("history-first-page", () -> history(0, 20));
+    }
+
+    @Test
+    void historyDeepPage() {
+        for (int i = 0; i < 30; i++) {
+            walletService.deposit(walletId, amount("1", null));
+        }
+        checkRead("history-deep-page", () -> history(1, 10));
+    }
+
+    @Test
+    void transactionCount() {
+        checkRead("transaction-count", () -> monitoringService.getTransactionCount(walletId));
+    }
+
+    @Test
+    void walletsByStatus() {
+        checkRead("wallets-by-status", () -> monitoringService.getWalletsByStatus(Wallet.WalletStatus.ACTIVE));
+    }
+
+    /** Checks a read against its budget and for repeated SELECTs. */
+    private void checkRead(String operation, Runnable action) {
+        SqlRecorder.Recording recording = check(operation, action);
+        assertTrue(recording.getRepeatedSelects().isEmpty(),
+                operation + " repeats SELECTs (N+1): " + recording.getRepeatedSelects());
+    }
+
+    private SqlRecorder.Recording check(String operation, Runnable action) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long flushesBefore = statistics.getFlushCount();
+        SqlRecorder.Recording recording = SqlRecorder.record(action);
+        long flushes = statistics.getFlushCount() - flushesBefore;
+
+        System.out.printf("%-24s statements=%d round-trips=%d flushes=%d%n", operation,
+                recording.getStatements().size(), recording.getRoundTrips(), flushes);
+        recording.getStatements().forEach(sql -> System.out.println("    " + sql.replaceAll("\\s+", " ")));
+
+        assertWithin(operation, "statements", recording.getStatements().size());
+        assertWithin(operation, "round-trips", recording.getRoundTrips());
+        assertWithin(operation, "flushes", flushes);
+        return recording;
+    }
+
+    private static void assertWithin(String operation, String measure, long actual) {
+        String key = operation + "." + measure;
+        String budget = BUDGET.getProperty(key);
+        assertNotNull(budget, "No budget for " + key);
+        assertTrue(actual <= Long.parseLong(budget.trim()),
+                key + " over budget: " + actual + " > " + budget.trim());
+    }
+
+    private void history(int page, int size) {
+        TransactionHistoryRequest request = new TransactionHistoryRequest();
+        request.setPage(page);
+        request.setSize(size);
+        walletService.getTransactionHistory(walletId, request);
+    }
+
+    private UUID newWallet() {
+        CreateWalletRequest request = new CreateWalletRequest();
+        request.setUserId(UUID.randomUUID());
+        return walletService.createWallet(request).getId();
+    }
+
+    private static DepositWithdrawRequest amount(String value, String referenceId) {
+        DepositWithdrawRequest request = new DepositWithdrawRequest();
+        request.setAmount(new BigDecimal(value));
+        request.setReferenceId(referenceId);
+        return request;
+    }
+}
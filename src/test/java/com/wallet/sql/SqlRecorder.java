@@ -0,0 +1,144 @@
+package com.wallet.sql;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Wraps the application's {@link DataSource} so that the SQL statements run by the
+ * current thread can be recorded, whether they come from Hibernate or JdbcTemplate.
+ * <p>
+ * A statement is counted when it is executed or added to a batch; a round trip when
+ * anything is sent to the database (a batch being one round trip). Statements on
+ * other threads, such as scheduled jobs, are never recorded.
+ */
+public class SqlRecorder implements BeanPostProcessor {
+
+    private static final ThreadLocal<Recording> CURRENT = new ThreadLocal<>();
+
+    /** Runs an action and returns what it sent to the database from this thread. */
+    public static Recording record(Runnable action) {
+        return recordResult(() -> {
+            action.run();
+            return null;
+        }).recording();
+    }
+
+    public static <T> Recorded<T> recordResult(Supplier<T> action) {
+        Recording recording = new Recording();
+        CURRENT.set(recording);
+        try {
+            return new Recorded<>(action.get(), recording);
+        } finally {
+            CURRENT.remove();
+        }
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof RecordingDataSource)) {
+            return new RecordingDataSource(dataSource);
+        }
+        return bean;
+    }
+
+    public record Recorded<T>(T result, Recording recording) {
+    }
+
+    /** Statements and round trips of one recorded action. */
+    public static class Recording {
+
+        private final List<String> statements = new ArrayList<>();
+        private int roundTrips;
+
+        public List<String> getStatements() {
+            return statements;
+        }
+
+        public int getRoundTrips() {
+            return roundTrips;
+        }
+
+        /** SELECTs run more than once with the same SQL: one per row of an earlier result, typically. */
+        public List<String> getRepeatedSelects() {
+            return statements.stream()
+                    .filter(sql -> sql.trim().toLowerCase().startsWith("select"))
+                    .filter(sql -> statements.indexOf(sql) != statements.lastIndexOf(sql))
+                    .distinct()
+                    .toList();
+        }
+    }
+
+    private static class RecordingDataSource extends DelegatingDataSource {
+
+        RecordingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return connection(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return connection(super.getConnection(username, password));
+        }
+    }
+
+    private static Connection connection(Connection target) {
+        return proxy(Connection.class, target, (proxy, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (result instanceof Statement statement) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                return statement(statement, sql);
+            }
+            return result;
+        });
+    }
+
+    private static Statement statement(Statement target, String preparedSql) {
+        Class<? extends Statement> type = target instanceof CallableStatement ? CallableStatement.class
+                : target instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+        return proxy(type, target, (proxy, method, args) -> {
+            Recording recording = CURRENT.get();
+            String name = method.getName();
+            if (recording != null && (name.startsWith("execute") || name.equals("addBatch"))) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+                if (!name.endsWith("Batch") || name.equals("addBatch")) {
+                    recording.statements.add(sql);
+                }
+                if (!name.equals("addBatch")) {
+                    recording.roundTrips++;
+                }
+            }
+            return invoke(target, method, args);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Object target, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(SqlRecorder.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.wallet.stream;
+
+import com.wallet.event.WalletEvent;
+import com.wallet.payload.TransactionDTO;
+import com.wallet.payload.WalletDTO;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamSubscriberTest {
+
+    private final UUID walletId = UUID.randomUUID();
+    private final UUID otherWalletId = UUID.randomUUID();
+
+    @Test
+    void fullBufferCoalescesIntoTheLatestBalance() {
+        StreamSubscriber subscriber = new StreamSubscriber(null, Set.of(walletId, otherWalletId), 2);
+
+        assertTrue(subscriber.offer(transaction(walletId, 2)));
+        assertTrue(subscriber.offer(transaction(walletId, 3)));
+        // buffer full: dropped, the newest state of each wallet is kept
+        assertFalse(subscriber.offer(transaction(walletId, 5)));
+        assertFalse(subscriber.offer(transaction(walletId, 4)));   // out of order, older than 5
+        assertFalse(subscriber.offer(transaction(otherWalletId, 7)));
+
+        assertMessage(subscriber.poll(), StreamSubscriber.TRANSACTION, walletId, 2);
+        assertMessage(subscriber.poll(), StreamSubscriber.TRANSACTION, walletId, 3);
+        assertMessage(subscriber.poll(), StreamSubscriber.BALANCE, walletId, 5);
+        assertMessage(subscriber.poll(), StreamSubscriber.BALANCE, otherWalletId, 7);
+        assertNull(subscriber.poll());
+        assertFalse(subscriber.hasPending());
+    }
+
+    @Test
+    void pendingCoalescedBalanceIsKeptAsRecentAsQueuedEvents() {
+        StreamSubscriber subscriber = new StreamSubscriber(null, Set.of(walletId), 1);
+        assertTrue(subscriber.offer(transaction(walletId, 2)));
+        assertFalse(subscriber.offer(transaction(walletId, 3)));
+
+        assertMessage(subscriber.poll(), StreamSubscriber.TRANSACTION, walletId, 2);
+        // room again: queued, and the slot sent after it moves up to the same version
+        assertTrue(subscriber.offer(transaction(walletId, 4)));
+        assertMessage(subscriber.poll(), StreamSubscriber.TRANSACTION, walletId, 4);
+        assertMessage(subscriber.poll(), StreamSubscriber.BALANCE, walletId, 4);
+        assertNull(subscriber.poll());
+    }
+
+    @Test
+    void heartbeatOnlyWhenIdle() {
+        StreamSubscriber subscriber = new StreamSubscriber(null, Set.of(walletId), 1);
+        subscriber.offerSnapshot(wallet(walletId, 1));
+        assertFalse(subscriber.offerHeartbeat());
+        assertMessage(subscriber.poll(), StreamSubscriber.BALANCE, walletId, 1);
+
+        assertTrue(subscriber.offerHeartbeat());
+        assertTrue(StreamSubscriber.isHeartbeat(subscriber.poll()));
+    }
+
+    private static void assertMessage(StreamSubscriber.Message message, String name, UUID walletId, long version) {
+        assertNotNull(message);
+        assertEquals(name, message.name());
+        if (message.data() instanceof TransactionDTO transaction) {
+            assertEquals(walletId, transaction.getWalletId());
+            assertEquals(version, transaction.getBalanceAfter().longValue());
+        } else {
+            WalletDTO wallet = (WalletDTO) message.data();
+            assertEquals(walletId, wallet.getId());
+            assertEquals(version, wallet.getVersion());
+        }
+    }
+
+    /** A transaction event whose balance-after mirrors the wallet version, to tell them apart. */
+    private static WalletEvent transaction(UUID walletId, long version) {
+        TransactionDTO transaction = new TransactionDTO();
+        transaction.setId(UUID.randomUUID());
+        transaction.setWalletId(walletId);
+        transaction.setBalanceAfter(BigDecimal.valueOf(version));
+        return WalletEvent.transaction(wallet(walletId, version), transaction);
+    }
+
+    private static WalletDTO wallet(UUID walletId, long version) {
+        WalletDTO wallet = new WalletDTO();
+        wallet.setId(walletId);
+        wallet.setVersion(version);
+        return wallet;
+    }
+}
@@ -0,0 +1,91 @@
+package com.wallet.stream;
+
+import com.wallet.payload.CreateWalletRequest;
+import com.wallet.payload.DepositWithdrawRequest;
+import com.wallet.payload.TransactionDTO;
+import com.wallet.service.WalletService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:streamtest;DB_CLOSE_DELAY=-1"
+})
+class WalletStreamIntegrationTest {
+
+    private static final HttpClient client = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private WalletStreamService walletStreamService;
+
+    @Test
+    void subscriberReceivesCommittedTransactionsOnly() throws Exception {
+        UUID walletId = createWallet();
+        BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        CompletableFuture<HttpResponse<Stream<String>>> response = client.sendAsync(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/wallets/stream?walletIds=" + walletId))
+                        .header("Accept", "text/event-stream")
+                        .build(),
+                HttpResponse.BodyHandlers.ofLines());
+        response.thenAccept(r -> r.body().filter(line -> !line.isEmpty()).forEach(events::add));
+        try {
+            // the current state comes first
+            assertEquals("event:balance", events.poll(10, TimeUnit.SECONDS));
+            assertTrue(events.poll(1, TimeUnit.SECONDS).contains(walletId.toString()));
+
+            TransactionDTO deposit = walletService.deposit(walletId, amount("25"));
+            assertEquals("event:transaction", events.poll(10, TimeUnit.SECONDS));
+            assertTrue(events.poll(1, TimeUnit.SECONDS).contains(deposit.getId().toString()));
+
+            // a rolled back withdrawal is never pushed
+            assertThrows(RuntimeException.class, () -> walletService.withdraw(walletId, amount("1000")));
+            TransactionDTO next = walletService.deposit(walletId, amount("5"));
+            assertEquals("event:transaction", events.poll(10, TimeUnit.SECONDS));
+            assertTrue(events.poll(1, TimeUnit.SECONDS).contains(next.getId().toString()));
+            assertEquals(1, walletStreamService.getSubscriberCount());
+        } finally {
+            response.cancel(true);
+        }
+    }
+
+    @Test
+    void rejectsSubscriptionsWithoutWallets() throws Exception {
+        HttpResponse<String> response = client.send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/wallets/stream?walletIds=")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, response.statusCode(), response.body());
+    }
+
+    private UUID createWallet() {
+        CreateWalletRequest request = new CreateWalletRequest();
+        request.setUserId(UUID.randomUUID());
+        return walletService.createWallet(request).getId();
+    }
+
+    private static DepositWithdrawRequest amount(String amount) {
+        DepositWithdrawRequest request = new DepositWithdrawRequest();
+        request.setAmount(new BigDecimal(amount));
+        return request;
+    }
+}
@@ -0,0 +1,388 @@
+package com.wallet.stress;
+
+import com.wallet.exception.DuplicateTransactionException;
+import com.wallet.exception.InsufficientFundsException;
+import com.wallet.model.Transaction;
+import com.wallet.payload.CreateWalletRequest;
+import com.wallet.payload.DepositWithdrawRequest;
+import com.wallet.payload.TransactionDTO;
+import com.wallet.payload.TransferRequest;
+import com.wallet.service.WalletService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Random concurrent transfers, deposits, withdrawals and reversals across a pool of
+ * wallets for a fixed time, followed by invariant checks on the ledger:
+ * <ul>
+ *   <li>every wallet's entries, in the order they were written, chain through
+ *       {@code balance_after} from zero to its current balance;</li>
+ *   <li>no balance or {@code balance_after} is negative;</li>
+ *   <li>every TRANSFER_OUT is linked both ways to a TRANSFER_IN of the same amount
+ *       between the same wallets, so transfers create and destroy no money;</li>
+ *   <li>the total of all balances equals the money that entered and left through the
+ *       operations the callers saw succeed.</li>
+ * </ul>
+ * Operations that lose a deadlock, time out on a row lock or hit an optimistic
+ * conflict are retried with the same reference ID; the counts are reported.
+ * <p>
+ * A short run is part of the default build. Scale it with {@code -Dstress.wallets},
+ * {@code -Dstress.threads}, {@code -Dstress.duration-seconds} and {@code -Dstress.seed},
+ * e.g. {@code mvn test -Dtest=LedgerStressTest -Dstress.wallets=5000 -Dstress.threads=32
+ * -Dstress.duration-seconds=120}.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:stresstest;DB_CLOSE_DELAY=-1"
+})
+class LedgerStressTest {
+
+    private static final int WALLETS = Integer.getInteger("stress.wallets", 16);
+    private static final int THREADS = Integer.getInteger("stress.threads", 8);
+    private static final long DURATION_SECONDS = Long.getLong("stress.duration-seconds", 5);
+    private static final long SEED = Long.getLong("stress.seed", System.nanoTime());
+
+    private static final long OPENING_CENTS = 1_000_00;
+    private static final long MAX_AMOUNT_CENTS = 100_00;
+    private static final int MAX_ATTEMPTS = 5;
+    private static final int REVERSIBLE_SLOTS = 4096;
+    private static final int MAX_REPORTED_ERRORS = 10;
+
+    private static final String SELECT_WALLETS = "SELECT id, balance FROM wallets";
+    private static final String SELECT_LEDGER =
+            "SELECT id, wallet_id, type, amount, balance_after, counterparty_wallet_id, related_transaction_id " +
+            "FROM transactions";
+
+    private enum Op { TRANSFER, DEPOSIT, WITHDRAW, REVERSE }
+
+    private enum Outcome { OK, INSUFFICIENT_FUNDS, ALREADY_REVERSED, GAVE_UP }
+
+    private enum Transient { DEADLOCK, LOCK_TIMEOUT, CONFLICT }
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UUID[] wallets;
+
+    /** Net money added to all wallets by operations reported successful, in cents. */
+    private final LongAdder externalCents = new LongAdder();
+
+    /** Recent deposits and withdrawals, as reversal candidates. */
+    private final AtomicReferenceArray<UUID> reversible = new AtomicReferenceArray<>(REVERSIBLE_SLOTS);
+    private final AtomicLong reversibleCount = new AtomicLong();
+
+    private final Map<Op, Map<Outcome, LongAdder>> outcomes = new EnumMap<>(Op.class);
+    private final Map<Transient, LongAdder> transients = new EnumMap<>(Transient.class);
+    private final LongAdder retries = new LongAdder();
+    private final ConcurrentLinkedQueue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+
+    @Test
+    void ledgerInvariantsHoldUnderRandomConcurrentLoad() throws Exception {
+        assertTrue(WALLETS >= 2, "transfers need at least two wallets");
+        System.out.printf("Ledger stress: %d wallets, %d threads, %d s, seed %d%n",
+                WALLETS, THREADS, DURATION_SECONDS, SEED);
+        for (Op op : Op.values()) {
+            Map<Outcome, LongAdder> counts = new EnumMap<>(Outcome.class);
+            for (Outcome outcome : Outcome.values()) {
+                counts.put(outcome, new LongAdder());
+            }
+            outcomes.put(op, counts);
+        }
+        for (Transient kind : Transient.values()) {
+            transients.put(kind, new LongAdder());
+        }
+
+        wallets = new UUID[WALLETS];
+        for (int i = 0; i < WALLETS; i++) {
+            CreateWalletRequest create = new CreateWalletRequest();
+            create.setUserId(UUID.randomUUID());
+            wallets[i] = walletService.createWallet(create).getId();
+            TransactionDTO opening = walletService.deposit(wallets[i], depositRequest(OPENING_CENTS, null));
+            externalCents.add(OPENING_CENTS);
+            addReversible(opening.getId());
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(DURATION_SECONDS);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long started = System.nanoTime();
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                Random random = new Random(SEED + t);
+                workers.add(executor.submit(() -> {
+                    while (System.nanoTime() < deadline && unexpected.size() < MAX_REPORTED_ERRORS) {
+                        runRandomOperation(random);
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get(DURATION_SECONDS + 120, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        report(System.nanoTime() - started);
+
+        if (!unexpected.isEmpty()) {
+            unexpected.forEach(Throwable::printStackTrace);
+            fail(unexpected.size() + " operations failed unexpectedly, first: " + unexpected.peek());
+        }
+        assertLedgerInvariants();
+    }
+
+    // -------------------------------------------------------------
+    // LOAD
+    // -------------------------------------------------------------
+
+    private void runRandomOperation(Random random) {
+        int draw = random.nextInt(100);
+        Op op = draw < 40 ? Op.TRANSFER : draw < 60 ? Op.DEPOSIT : draw < 80 ? Op.WITHDRAW : Op.REVERSE;
+        int index = random.nextInt(wallets.length);
+        UUID wallet = wallets[index];
+        long cents = 1 + random.nextLong(MAX_AMOUNT_CENTS);
+        String referenceId = "STRESS-" + UUID.randomUUID();
+
+        Outcome outcome = switch (op) {
+            case DEPOSIT -> withRetries(() -> {
+                TransactionDTO deposit = walletService.deposit(wallet, depositRequest(cents, referenceId));
+                externalCents.add(cents);
+                addReversible(deposit.getId());
+            });
+            case WITHDRAW -> withRetries(() -> {
+                TransactionDTO withdrawal = walletService.withdraw(wallet, depositRequest(cents, referenceId));
+                externalCents.add(-cents);
+                addReversible(withdrawal.getId());
+            });
+            case TRANSFER -> {
+                int to = random.nextInt(wallets.length - 1);
+                TransferRequest transfer = new TransferRequest();
+                transfer.setFromWalletId(wallet);
+                transfer.setToWalletId(wallets[to < index ? to : to + 1]);
+                transfer.setAmount(BigDecimal.valueOf(cents, 2));
+                transfer.setReferenceId(referenceId);
+                yield withRetries(() -> walletService.transfer(transfer));
+            }
+            case REVERSE -> {
+                UUID target = randomReversible(random);
+                yield withRetries(() -> {
+                    TransactionDTO reversal = walletService.reverseTransaction(target);
+                    long reversed = reversal.getAmount().movePointRight(2).longValueExact();
+                    externalCents.add(reversal.getType() == Transaction.TransactionType.DEPOSIT ? reversed : -reversed);
+                });
+            }
+        };
+        outcomes.get(op).get(outcome).increment();
+    }
+
+    /** Runs the operation, repeating it on transient lock failures. */
+    private Outcome withRetries(Runnable operation) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                operation.run();
+                return Outcome.OK;
+            } catch (InsufficientFundsException e) {
+                return Outcome.INSUFFICIENT_FUNDS;
+            } catch (DuplicateTransactionException e) {
+                return Outcome.ALREADY_REVERSED;
+            } catch (RuntimeException e) {
+                Transient kind = classify(e);
+                if (kind == null) {
+                    unexpected.add(e);
+                    return Outcome.GAVE_UP;
+                }
+                transients.get(kind).increment();
+                if (attempt == MAX_ATTEMPTS) {
+                    return Outcome.GAVE_UP;
+                }
+                retries.increment();
+                try {
+                    Thread.sleep(attempt * 2L);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return Outcome.GAVE_UP;
+                }
+            }
+        }
+    }
+
+    /** The kind of transient lock failure somewhere in the cause chain, or null. */
+    private static Transient classify(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            String message = String.valueOf(cause.getMessage()).toLowerCase(Locale.ROOT);
+            if (message.contains("deadlock")
+                    || cause instanceof SQLException sql && "40001".equals(sql.getSQLState())) {
+                return Transient.DEADLOCK;
+            }
+            if (cause instanceof OptimisticLockingFailureException) {
+                return Transient.CONFLICT;
+            }
+            if (cause instanceof PessimisticLockingFailureException
+                    || cause instanceof QueryTimeoutException
+                    || cause instanceof jakarta.persistence.PessimisticLockException
+                    || cause instanceof jakarta.persistence.LockTimeoutException
+                    || cause instanceof SQLException sql && "HYT00".equals(sql.getSQLState())) {
+                return Transient.LOCK_TIMEOUT;
+            }
+        }
+        return null;
+    }
+
+    private static DepositWithdrawRequest depositRequest(long cents, String referenceId) {
+        DepositWithdrawRequest request = new DepositWithdrawRequest();
+        request.setAmount(BigDecimal.valueOf(cents, 2));
+        request.setReferenceId(referenceId);
+        return request;
+    }
+
+    private void addReversible(UUID transactionId) {
+        reversible.set((int) (reversibleCount.getAndIncrement() % REVERSIBLE_SLOTS), transactionId);
+    }
+
+    private UUID randomReversible(Random random) {
+        long count = Math.min(reversibleCount.get(), REVERSIBLE_SLOTS);
+        return reversible.get(random.nextInt((int) count));
+    }
+
+    private void report(long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        long total = 0;
+        for (Op op : Op.values()) {
+            Map<Outcome, LongAdder> counts = outcomes.get(op);
+            long opTotal = counts.values().stream().mapToLong(LongAdder::sum).sum();
+            total += opTotal;
+            System.out.printf("%-9s %8d ops %8.1f/s  ok %d, insufficient funds %d, already reversed %d, gave up %d%n",
+                    op, opTotal, opTotal / seconds, counts.get(Outcome.OK).sum(),
+                    counts.get(Outcome.INSUFFICIENT_FUNDS).sum(), counts.get(Outcome.ALREADY_REVERSED).sum(),
+                    counts.get(Outcome.GAVE_UP).sum());
+        }
+        System.out.printf("total     %8d ops %8.1f/s  deadlocks %d, lock timeouts %d, conflicts %d, "
+                        + "retries %d (%.2f%% of operations)%n",
+                total, total / seconds, transients.get(Transient.DEADLOCK).sum(),
+                transients.get(Transient.LOCK_TIMEOUT).sum(), transients.get(Transient.CONFLICT).sum(),
+                retries.sum(), total == 0 ? 0 : 100.0 * retries.sum() / total);
+    }
+
+    // -------------------------------------------------------------
+    // INVARIANTS
+    // -------------------------------------------------------------
+
+    private record Entry(UUID id, UUID walletId, Transaction.TransactionType type, BigDecimal amount,
+                         BigDecimal balanceAfter, UUID counterpartyWalletId, UUID relatedTransactionId) {
+
+        BigDecimal signedAmount() {
+            return switch (type) {
+                case DEPOSIT, TRANSFER_IN, INTEREST -> amount;
+                case WITHDRAWAL, TRANSFER_OUT, FEE -> amount.negate();
+            };
+        }
+    }
+
+    private void assertLedgerInvariants() {
+        Set<UUID> ours = Set.of(wallets);
+        Map<UUID, BigDecimal> balances = new HashMap<>();
+        jdbcTemplate.query(SELECT_WALLETS, rs -> {
+            UUID id = rs.getObject("id", UUID.class);
+            if (ours.contains(id)) {
+                balances.put(id, rs.getBigDecimal("balance"));
+            }
+        });
+        Map<UUID, List<Entry>> ledger = new HashMap<>();
+        Map<UUID, Entry> byId = new HashMap<>();
+        jdbcTemplate.query(SELECT_LEDGER, rs -> {
+            Entry entry = new Entry(
+                    rs.getObject("id", UUID.class),
+                    rs.getObject("wallet_id", UUID.class),
+                    Transaction.TransactionType.valueOf(rs.getString("type")),
+                    rs.getBigDecimal("amount"),
+                    rs.getBigDecimal("balance_after"),
+                    rs.getObject("counterparty_wallet_id", UUID.class),
+                    rs.getObject("related_transaction_id", UUID.class));
+            if (ours.contains(entry.walletId())) {
+                ledger.computeIfAbsent(entry.walletId(), w -> new ArrayList<>()).add(entry);
+                byId.put(entry.id(), entry);
+            }
+        });
+        assertEquals(WALLETS, balances.size());
+
+        // Transaction IDs are time-ordered and generated under the wallet's row lock,
+        // so ID order is the order in which a wallet's entries were applied
+        Comparator<Entry> applied = Comparator
+                .comparing((Entry e) -> e.id().getMostSignificantBits(), Long::compareUnsigned)
+                .thenComparing(e -> e.id().getLeastSignificantBits(), Long::compareUnsigned);
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (UUID wallet : wallets) {
+            BigDecimal balance = balances.get(wallet);
+            assertTrue(balance.signum() >= 0, () -> "negative balance " + balance + " of " + wallet);
+
+            List<Entry> entries = ledger.getOrDefault(wallet, Collections.emptyList());
+            entries.sort(applied);
+            BigDecimal running = BigDecimal.ZERO;
+            for (Entry entry : entries) {
+                BigDecimal expected = running.add(entry.signedAmount());
+                BigDecimal previous = running;
+                assertEquals(0, expected.compareTo(entry.balanceAfter()), () -> "balance_after of " + entry
+                        + " breaks the chain of " + wallet + ": " + previous + " + " + entry.signedAmount());
+                assertTrue(entry.balanceAfter().signum() >= 0, () -> "negative balance_after in " + entry);
+                running = entry.balanceAfter();
+            }
+            BigDecimal last = running;
+            assertEquals(0, last.compareTo(balance),
+                    () -> "balance " + balance + " of " + wallet + " differs from its last balance_after " + last);
+            total = total.add(balance);
+        }
+
+        for (Entry out : byId.values()) {
+            if (out.type() != Transaction.TransactionType.TRANSFER_OUT) {
+                continue;
+            }
+            Entry in = out.relatedTransactionId() != null ? byId.get(out.relatedTransactionId()) : null;
+            assertNotNull(in, () -> "TRANSFER_OUT without its TRANSFER_IN: " + out);
+            assertEquals(Transaction.TransactionType.TRANSFER_IN, in.type(), () -> "wrong pair " + out + " / " + in);
+            assertEquals(out.id(), in.relatedTransactionId(), () -> "pair not linked back: " + in);
+            assertEquals(0, out.amount().compareTo(in.amount()), () -> "amounts differ: " + out + " / " + in);
+            assertEquals(out.walletId(), in.counterpartyWalletId());
+            assertEquals(in.walletId(), out.counterpartyWalletId());
+        }
+        Map<Transaction.TransactionType, Long> counts = new EnumMap<>(Transaction.TransactionType.class);
+        byId.values().forEach(e -> counts.merge(e.type(), 1L, Long::sum));
+        assertEquals(counts.getOrDefault(Transaction.TransactionType.TRANSFER_OUT, 0L),
+                counts.getOrDefault(Transaction.TransactionType.TRANSFER_IN, 0L), "unpaired TRANSFER_IN entries");
+
+        BigDecimal expectedTotal = BigDecimal.valueOf(externalCents.sum(), 2);
+        BigDecimal actualTotal = total;
+        assertEquals(0, expectedTotal.compareTo(actualTotal),
+                () -> "total balance " + actualTotal + " differs from the money moved in and out, " + expectedTotal);
+    }
+}
@@ -0,0 +1,42 @@
+package com.wallet.warmup;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:warmuptest;DB_CLOSE_DELAY=-1",
+        "wallet.warmup.enabled=true",
+        "wallet.warmup.cycles=25"
+})
+class LedgerWarmupIntegrationTest {
+
+    @Autowired
+    private LedgerWarmup warmup;
+
+    @Autowired
+    private ApplicationAvailability availability;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void warmUpLeavesNoDataBehind() {
+        // the startup run has finished and the application is ready
+        assertEquals(ReadinessState.ACCEPTING_TRAFFIC, availability.getReadinessState());
+        assertEquals(25, warmup.warmUp());
+
+        assertEquals(0, count("wallets"));
+        assertEquals(0, count("transactions"));
+        assertEquals(0, count("idempotency_keys"));
+    }
+
+    private long count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+    }
+}